@@ -0,0 +1,41 @@
+// Arithmetic in guards, probabilities, updates, labels and rewards,
+// written over state variables so that it is not simplified away before model construction:
+// int/double division, mod (also of negative numbers), pow, floor/ceil and mixed int/double comparisons.
+// States s=2 and s=3 move to s=4 if all their guards hold, and to the fail state s=5 otherwise.
+
+dtmc
+
+module arith
+
+	s : [0..5] init 0;
+	k : [0..10] init 7;
+	a : [-10..10] init 0;
+	b : [-10..10] init 0;
+	c : [-10..10] init 0;
+	d : [-10..10] init 0;
+
+	// a=3, b=4, c=1, d=8
+	[] s=0 -> (s'=1) & (a'=floor(k/2)) & (b'=ceil(k/2)) & (c'=mod(k,3)) & (d'=pow(2,k-4));
+	// with probability 3/7: a=-4, b=2, c=-3, d=2
+	// with probability 4/7: a=2, b=3, c=1, d=0
+	[] s=1 -> (k-4)/k : (s'=2) & (a'=floor(-k/2)) & (b'=mod(-k,3)) & (c'=ceil(-k/2)) & (d'=mod(a-d,k))
+	        + pow(2.0,c+1)/k : (s'=3) & (a'=pow(b,2)-k*2) & (b'=floor(pow(2.0,-c)*k)) & (c'=ceil(k/d)) & (d'=min(a,b)-floor(max(c,k/2)));
+	[] s=2 & (a/2=-2 & b>=2.0 & c < -2.5 & d/4=0.5) -> (s'=4);
+	[] s=2 & !(a/2=-2 & b>=2.0 & c < -2.5 & d/4=0.5) -> (s'=5);
+	[] s=3 & (k/2>b & d=0.0 & mod(a,2)=0 & pow(a,b)=8.0) -> (s'=4);
+	[] s=3 & !(k/2>b & d=0.0 & mod(a,2)=0 & pow(a,b)=8.0) -> (s'=5);
+	[] s>=4 -> true;
+
+endmodule
+
+// true after s=1 is left to s=2 (and in s=4 afterwards)
+label "neg_half" = a/2 < -1.5 & mod(b-c,4)=1;
+// true in s=1 and after s=1 is left to s=3 (where c/d is infinite)
+label "mixed" = c/d>=0.125 & pow(2.0,c)=2;
+
+rewards "r"
+	s=1 : k/2;
+	s=2 : pow(2.0,c);
+	s=3 : mod(k,4)/2;
+	s=0 : floor(k/3);
+endrewards
@@ -0,0 +1,20 @@
+// DTMC with enough states (more than ParallelRowKernels.MIN_PARALLEL_ROWS)
+// for the iterations to be done in parallel with -iterationthreads
+
+dtmc
+
+const int N = 5000;
+
+module M
+
+	s : [0..N+2] init 0; // N+1 = goal, N+2 = fail
+
+	[] s<N -> 0.5:(s'=s+1) + 0.25:(s'=N+1) + 0.25:(s'=N+2);
+	[] s=N -> 1:(s'=N+1);
+	[] s>N -> 1:(s'=s);
+
+endmodule
+
+rewards "steps"
+	s<=N : 1;
+endrewards
@@ -0,0 +1,19 @@
+// DTMC in which every path takes the same number of steps to reach s=4,
+// so that the results of simulation are exact (see the .args file)
+
+dtmc
+
+module m
+
+	s : [0..4] init 0;
+
+	[] s=0 -> 0.5 : (s'=1) + 0.5 : (s'=2);
+	[] s=1 | s=2 -> (s'=3);
+	[] s=3 -> (s'=4);
+	[] s=4 -> true;
+
+endmodule
+
+rewards "steps"
+	s<4 : 1;
+endrewards
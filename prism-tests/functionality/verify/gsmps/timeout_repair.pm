@@ -0,0 +1,32 @@
+// Small ACTMC with two non-exponential events, active in different states:
+// in s=0, a fixed timeout races with an exponential failure,
+// in s=1, the failure is repaired after a uniformly distributed time
+// and in s=2, the timeout is handled after an exponential time
+
+gsmp
+
+module main
+
+	event timeout = dirac(1);
+	event repair = uniform(1, 3);
+
+	s : [0..2] init 0;
+
+	[] s=0 --timeout-> (s'=2);
+	[] s=0 -> 1 : (s'=1);
+	[] s=1 --repair-> (s'=0);
+	[] s=2 -> 4 : (s'=0);
+
+endmodule
+
+rewards "time_up"
+	s=0 : 1;
+endrewards
+
+rewards "time_repair"
+	s=1 : 1;
+endrewards
+
+rewards "time"
+	true : 1;
+endrewards
@@ -0,0 +1,15 @@
+// Stiff DTMC: the transient state 0 is left with a tiny probability only,
+// as in the uniformised chains produced by ACTMC reduction
+
+dtmc
+
+module M
+
+s:[0..3];
+
+[] s=0 -> 0.999998:(s'=0) + 0.000001:(s'=1) + 0.000001:(s'=2);
+[] s=1 -> 1:(s'=1);
+[] s=2 -> 1:(s'=3);
+[] s=3 -> 1:(s'=2);
+
+endmodule
@@ -0,0 +1,138 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package common;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator.OfInt;
+
+/**
+ * Immutable set of integers stored as a sorted {@code int[]}.
+ * <br>
+ * Membership is tested by binary search and iteration is in ascending order.
+ * Compared to {@code HashSet<Integer>}, this avoids the boxing and the per-element
+ * hash table entries, so it is meant for large sets that are built once and queried many times.
+ * <br>
+ * The {@code Set<Integer>} methods that modify the set throw {@code UnsupportedOperationException}.
+ */
+public final class SortedIntSet extends AbstractSet<Integer>
+{
+	/** The members in ascending order, without duplicates */
+	private final int[] members;
+
+	/** Creates a set containing the members of {@code collection} */
+	public SortedIntSet(Collection<Integer> collection)
+	{
+		int[] array = new int[collection.size()];
+		int i = 0;
+		for (int member : collection) {
+			array[i++] = member;
+		}
+		this.members = sortedDistinct(array);
+	}
+
+	/** Creates a set containing the members of {@code array} (the array is copied) */
+	public SortedIntSet(int[] array)
+	{
+		this.members = sortedDistinct(array.clone());
+	}
+
+	private static int[] sortedDistinct(int[] array)
+	{
+		Arrays.sort(array);
+		int n = 0;
+		for (int i = 0; i < array.length; i++) {
+			if (n == 0 || array[n - 1] != array[i]) {
+				array[n++] = array[i];
+			}
+		}
+		return n == array.length ? array : Arrays.copyOf(array, n);
+	}
+
+	/**
+	 * Returns the members in ascending order.
+	 * <br>
+	 * The returned array is the internal storage of this set and must not be modified.
+	 */
+	public int[] getMembers()
+	{
+		return members;
+	}
+
+	/**
+	 * Returns the position of {@code member} within {@link #getMembers()},
+	 * or a negative number if it is not a member.
+	 */
+	public int indexOf(int member)
+	{
+		return Arrays.binarySearch(members, member);
+	}
+
+	/** Returns true if {@code index} is a member of this set (without boxing) */
+	public boolean contains(int index)
+	{
+		return Arrays.binarySearch(members, index) >= 0;
+	}
+
+	@Override
+	public boolean contains(Object o)
+	{
+		return (o instanceof Integer) && contains(((Integer) o).intValue());
+	}
+
+	@Override
+	public int size()
+	{
+		return members.length;
+	}
+
+	@Override
+	public OfInt iterator()
+	{
+		return new OfInt()
+		{
+			int next = 0;
+
+			@Override
+			public boolean hasNext()
+			{
+				return next < members.length;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				if (next >= members.length) {
+					throw new NoSuchElementException();
+				}
+				return members[next++];
+			}
+		};
+	}
+}
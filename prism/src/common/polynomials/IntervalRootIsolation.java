@@ -0,0 +1,554 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package common.polynomials;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Root isolation of polynomials in double interval arithmetic, using BigDecimal only where it is needed.
+ * <br>
+ * The interval of interest is mapped to [0,1] and bisected as in the VCA algorithm
+ * (see {@link PolynomialRootFinding#findRootsInIntervalVCAHalley}), deciding the number of roots of each
+ * subinterval by Descartes' rule of signs. Unlike there, the transformed polynomials are kept as interval
+ * polynomials, i.e. as lower and upper bounds of the coefficients in double, rounded outwards.
+ * A number of roots is therefore only decided if all the signs it depends on are certain.
+ * <ul>
+ * <li> Subintervals without roots are dropped.
+ * <li> Subintervals with exactly one root are narrowed by bisection in interval arithmetic,
+ *      and the root is then approximated by safeguarded Newton's method in BigDecimal.
+ * <li> Subintervals whose number of roots cannot be decided in double precision, e.g. due to multiple roots,
+ *      roots at the points of bisection or cancellation, are solved by
+ *      {@link PolynomialRootFinding#findRootsInIntervalVCAHalley} in BigDecimal.
+ * </ul>
+ * The subintervals are isolated and refined in parallel.
+ */
+public class IntervalRootIsolation {
+
+	/** Maximum depth of bisection when isolating the roots */
+	private static final int MAX_DEPTH = 40;
+	/** Maximum number of consecutive bisections of subintervals whose number of roots cannot be decided */
+	private static final int MAX_UNDECIDED_DEPTH = 8;
+	/** Maximum number of bisections in interval arithmetic when narrowing a subinterval with a single root */
+	private static final int MAX_NARROW_STEPS = 52;
+	/** Subintervals up to this depth are isolated in parallel */
+	private static final int PARALLEL_DEPTH = 6;
+	/** Additional decimal digits used by Newton's method on top of the scale of the precision */
+	private static final int GUARD_DIGITS = 10;
+	/** Maximum number of iterations of Newton's method */
+	private static final int MAX_NEWTON_ITERATIONS = 5000;
+	/** Number of decimal digits used to transform the polynomial to [0,1] */
+	private static final int TRANSFORM_DIGITS = 34;
+
+	/**
+	 * Computes the roots of p within interval (beginInterval, endInterval).
+	 * @param p					polynomial to find roots of
+	 * @param beginInterval		start of interval
+	 * @param endInterval		end of interval
+	 * @param decimalPrecision	allowed error of precision
+	 * @param numThreads		number of threads to use
+	 * @return					roots of p within (begin, end), in ascending order
+	 */
+	public static List<BigDecimal> findRootsInInterval(Polynomial p, BigDecimal beginInterval, BigDecimal endInterval, BigDecimal decimalPrecision, int numThreads){
+		int scale = decimalPrecision.scale();
+		BigDecimal begin = beginInterval.setScale(scale, RoundingMode.HALF_UP);
+		BigDecimal end = endInterval.setScale(scale, RoundingMode.HALF_UP);
+		int n = p.degree();
+		if(n == 0 || begin.compareTo(end) >= 0){
+			return new ArrayList<>();
+		}
+		BigDecimal width = end.subtract(begin);
+
+		// q(x) = p(begin + width * x), so that the interval of interest is [0,1]
+		IntervalPoly q = IntervalPoly.transform(p, n, begin, width);
+
+		Context ctx = new Context(p, n, begin, width, decimalPrecision);
+		IsolationTask isolation = new IsolationTask(q, 0, 0, 0);
+		RefinementTask refinement = new RefinementTask(ctx, isolation);
+		List<BigDecimal> roots;
+		if(numThreads > 1){
+			ForkJoinPool pool = new ForkJoinPool(numThreads);
+			try{
+				roots = pool.invoke(refinement);
+			} finally {
+				pool.shutdownNow();
+			}
+		} else {
+			roots = refinement.compute();
+		}
+		Collections.sort(roots);
+		return roots;
+	}
+
+	// Isolation
+
+	/**
+	 * Subinterval [index / 2^depth, (index + 1) / 2^depth] of [0,1], together with the polynomial q transformed to it,
+	 * i.e. q(x) = p(begin + width * (index + x) / 2^depth) up to a positive factor.
+	 */
+	private static class Subinterval {
+		private final IntervalPoly q;
+		private final long index;
+		private final int depth;
+		/** True iff the subinterval contains exactly one root. Otherwise, the number of roots is undecided. */
+		private final boolean isolated;
+
+		private Subinterval(IntervalPoly q, long index, int depth, boolean isolated){
+			this.q = q;
+			this.index = index;
+			this.depth = depth;
+			this.isolated = isolated;
+		}
+
+		/** Returns the start of the subinterval, in units of 2^-MAX_DEPTH */
+		private long start(){
+			return index << (MAX_DEPTH - depth);
+		}
+
+		/** Returns the end of the subinterval, in units of 2^-MAX_DEPTH */
+		private long end(){
+			return (index + 1) << (MAX_DEPTH - depth);
+		}
+	}
+
+	/**
+	 * Bisects a subinterval until the number of roots of each part is decided,
+	 * returning the parts with roots in ascending order.
+	 */
+	private static class IsolationTask extends RecursiveTask<List<Subinterval>> {
+		private static final long serialVersionUID = 1L;
+		private final IntervalPoly q;
+		private final long index;
+		private final int depth;
+		private final int undecidedDepth;
+
+		private IsolationTask(IntervalPoly q, long index, int depth, int undecidedDepth){
+			this.q = q;
+			this.index = index;
+			this.depth = depth;
+			this.undecidedDepth = undecidedDepth;
+		}
+
+		@Override
+		protected List<Subinterval> compute(){
+			List<Subinterval> result = new ArrayList<>();
+			int var = q.descartes01();
+			if(var == 0){
+				return result;
+			}
+			if(var == 1){
+				result.add(new Subinterval(q, index, depth, true));
+				return result;
+			}
+			int newUndecidedDepth = (var < 0) ? undecidedDepth + 1 : 0;
+			if(depth >= MAX_DEPTH || newUndecidedDepth > MAX_UNDECIDED_DEPTH){
+				result.add(new Subinterval(q, index, depth, false));
+				return result;
+			}
+			IntervalPoly left = q.halve().normalize();
+			IntervalPoly right = left.shift(IntervalPoly.ONE).normalize();
+			IsolationTask leftTask = new IsolationTask(left, 2 * index, depth + 1, newUndecidedDepth);
+			IsolationTask rightTask = new IsolationTask(right, 2 * index + 1, depth + 1, newUndecidedDepth);
+			if(depth < PARALLEL_DEPTH && ForkJoinTask.inForkJoinPool()){
+				rightTask.fork();
+				result.addAll(leftTask.compute());
+				result.addAll(rightTask.join());
+			} else {
+				result.addAll(leftTask.compute());
+				result.addAll(rightTask.compute());
+			}
+			return result;
+		}
+	}
+
+	// Refinement
+
+	/**
+	 * Data shared by the refinement of all subintervals.
+	 */
+	private static class Context {
+		private final Polynomial p;
+		private final BigDecimal[] coeffs;
+		private final BigDecimal[] derivCoeffs;
+		private final BigDecimal begin;
+		private final BigDecimal width;
+		private final BigDecimal precision;
+		private final int scale;
+		private final MathContext mc;
+
+		private Context(Polynomial p, int n, BigDecimal begin, BigDecimal width, BigDecimal precision){
+			this.p = p;
+			this.coeffs = new BigDecimal[n + 1];
+			this.derivCoeffs = new BigDecimal[n];
+			for(int i = 0; i <= n; i++){
+				coeffs[i] = p.coeffs.get(i);
+				if(i > 0){
+					derivCoeffs[i - 1] = coeffs[i].multiply(BigDecimal.valueOf(i));
+				}
+			}
+			this.begin = begin;
+			this.width = width;
+			this.precision = precision;
+			this.scale = precision.scale();
+			this.mc = new MathContext(Math.max(scale, 0) + GUARD_DIGITS, RoundingMode.HALF_EVEN);
+		}
+
+		/** Returns begin + width * x / 2^depth for non-negative x, rounded to scale + 1 digits in direction {@code mode} */
+		private BigDecimal toPoint(BigDecimal x, int depth, RoundingMode mode){
+			BigDecimal y = width.multiply(x).multiply(BigDecimal.valueOf(5).pow(depth)).movePointLeft(depth);
+			return begin.add(y).setScale(scale + 1, mode);
+		}
+	}
+
+	/**
+	 * Isolates the roots (see {@link IsolationTask}) and then refines all subintervals in parallel.
+	 */
+	private static class RefinementTask extends RecursiveTask<List<BigDecimal>> {
+		private static final long serialVersionUID = 1L;
+		private final Context ctx;
+		private final IsolationTask isolation;
+
+		private RefinementTask(Context ctx, IsolationTask isolation){
+			this.ctx = ctx;
+			this.isolation = isolation;
+		}
+
+		@Override
+		protected List<BigDecimal> compute(){
+			List<Subinterval> subintervals = isolation.compute();
+			// Adjacent undecided subintervals are merged, so that roots on their common end are not missed
+			List<ForkJoinTask<List<BigDecimal>>> tasks = new ArrayList<>();
+			int i = 0;
+			while(i < subintervals.size()){
+				Subinterval sub = subintervals.get(i);
+				if(sub.isolated){
+					tasks.add(ForkJoinTask.adapt(() -> refineIsolated(ctx, sub)));
+					i++;
+					continue;
+				}
+				long start = sub.start();
+				long end = sub.end();
+				i++;
+				while(i < subintervals.size() && !subintervals.get(i).isolated && subintervals.get(i).start() == end){
+					end = subintervals.get(i).end();
+					i++;
+				}
+				long s = start;
+				long e = end;
+				tasks.add(ForkJoinTask.adapt(() -> refineUndecided(ctx, s, e)));
+			}
+			List<BigDecimal> roots = new ArrayList<>();
+			if(ForkJoinTask.inForkJoinPool()){
+				ForkJoinTask.invokeAll(tasks);
+			}
+			for(ForkJoinTask<List<BigDecimal>> task : tasks){
+				roots.addAll(ForkJoinTask.inForkJoinPool() ? task.join() : task.invoke());
+			}
+			return roots;
+		}
+	}
+
+	/**
+	 * Approximates the only root of a subinterval.
+	 * The subinterval is first narrowed by bisection in interval arithmetic while the signs are certain.
+	 */
+	private static List<BigDecimal> refineIsolated(Context ctx, Subinterval sub){
+		IntervalPoly q = sub.q;
+		int signLo = q.signAt(0.0);
+		double lo = 0.0;
+		double hi = 1.0;
+		for(int step = 0; step < MAX_NARROW_STEPS; step++){
+			double mid = 0.5 * (lo + hi);
+			int sign = q.signAt(mid);
+			if(sign == 0){
+				break;
+			}
+			if(sign == signLo){
+				lo = mid;
+			} else {
+				hi = mid;
+			}
+		}
+		BigDecimal index = BigDecimal.valueOf(sub.index);
+		BigDecimal a = ctx.toPoint(index.add(new BigDecimal(lo)), sub.depth, RoundingMode.FLOOR);
+		BigDecimal b = ctx.toPoint(index.add(new BigDecimal(hi)), sub.depth, RoundingMode.CEILING);
+		BigDecimal root = newton(ctx, a, b);
+		if(root == null){
+			// The signs at the ends are not opposite in BigDecimal, e.g. due to the rounding of a and b
+			return refineUndecided(ctx, sub.start(), sub.end());
+		}
+		List<BigDecimal> result = new ArrayList<>();
+		result.add(root);
+		return result;
+	}
+
+	/**
+	 * Finds the roots of an undecided subinterval [start, end] (in units of 2^-MAX_DEPTH) in BigDecimal.
+	 */
+	private static List<BigDecimal> refineUndecided(Context ctx, long start, long end){
+		BigDecimal a = ctx.toPoint(BigDecimal.valueOf(start), MAX_DEPTH, RoundingMode.FLOOR);
+		BigDecimal b = ctx.toPoint(BigDecimal.valueOf(end), MAX_DEPTH, RoundingMode.CEILING);
+		List<BigDecimal> roots = PolynomialRootFinding.findRootsInIntervalVCAHalley(ctx.p, a, b, ctx.precision);
+		roots.removeIf(root -> root.compareTo(a) < 0 || root.compareTo(b) > 0);
+		return roots;
+	}
+
+	/**
+	 * Approximates the root of p within [a,b] using Newton's method safeguarded by bisection.
+	 * @return the root, or null if p(a) and p(b) do not have opposite (non-zero) signs
+	 */
+	private static BigDecimal newton(Context ctx, BigDecimal a, BigDecimal b){
+		MathContext mc = ctx.mc;
+		int signA = PolynomialEvaluator.horner(ctx.coeffs, a, mc).signum();
+		int signB = PolynomialEvaluator.horner(ctx.coeffs, b, mc).signum();
+		if(signA == 0 || signB == 0 || signA == signB){
+			return null;
+		}
+		BigDecimal x = a.add(b).divide(PolynomialRootFinding.TWO, mc);
+		for(int i = 0; i < MAX_NEWTON_ITERATIONS; i++){
+			BigDecimal y = PolynomialEvaluator.horner(ctx.coeffs, x, mc);
+			if(y.signum() == 0){
+				break;
+			}
+			if(y.signum() == signA){
+				a = x;
+			} else {
+				b = x;
+			}
+			BigDecimal yprime = PolynomialEvaluator.horner(ctx.derivCoeffs, x, mc);
+			BigDecimal x1 = null;
+			if(yprime.signum() != 0){
+				x1 = x.subtract(y.divide(yprime, mc), mc);
+			}
+			if(x1 == null || x1.compareTo(a) <= 0 || x1.compareTo(b) >= 0){
+				// Newton's step left the bracket, bisect instead
+				x1 = a.add(b).divide(PolynomialRootFinding.TWO, mc);
+			}
+			boolean converged = x1.subtract(x).abs().compareTo(x1.abs().max(BigDecimal.ONE).multiply(ctx.precision)) <= 0
+					|| b.subtract(a).compareTo(ctx.precision) <= 0;
+			x = x1;
+			if(converged){
+				break;
+			}
+		}
+		return x.setScale(ctx.scale + 1, RoundingMode.HALF_UP);
+	}
+
+	// Interval arithmetic
+
+	/**
+	 * Polynomial with interval coefficients, given by lower bounds {@code lo} and upper bounds {@code hi},
+	 * where index i belongs to x^i. All operations round outwards.
+	 */
+	private static class IntervalPoly {
+		private static final double[] ONE = { 1.0, 1.0 };
+
+		private final double[] lo;
+		private final double[] hi;
+
+		private IntervalPoly(int n){
+			lo = new double[n + 1];
+			hi = new double[n + 1];
+		}
+
+		/**
+		 * Returns an enclosure of q(x) = p(begin + width * x), divided by a power of ten.
+		 * The transformation is done in BigDecimal with {@code TRANSFORM_DIGITS} digits from the exact begin and width,
+		 * i.e. begin and width themselves are not rounded, only the results of the operations with them.
+		 * The rounding error of all these operations is bounded using the same transformation
+		 * of the absolute values of the coefficients (rounded up).
+		 * Coefficients too small to be represented relative to the largest one are enclosed by the smallest doubles.
+		 */
+		private static IntervalPoly transform(Polynomial p, int n, BigDecimal begin, BigDecimal width){
+			MathContext mc = new MathContext(TRANSFORM_DIGITS, RoundingMode.HALF_EVEN);
+			MathContext mcUp = new MathContext(TRANSFORM_DIGITS, RoundingMode.UP);
+			BigDecimal[] c = new BigDecimal[n + 1];
+			BigDecimal[] abs = new BigDecimal[n + 1];
+			for(int i = 0; i <= n; i++){
+				c[i] = p.coeffs.get(i).round(mc);
+				abs[i] = p.coeffs.get(i).abs().round(mcUp);
+			}
+			// Taylor shift by begin (exact, so that only the products are rounded)
+			BigDecimal absA = begin.abs().round(mcUp);
+			for(int i = 0; i < n; i++){
+				for(int j = n - 1; j >= i; j--){
+					c[j] = c[j].add(begin.multiply(c[j + 1], mc), mc);
+					abs[j] = abs[j].add(absA.multiply(abs[j + 1], mcUp), mcUp);
+				}
+			}
+			// Scaling by width^i, whose powers are computed from the exact width with one rounding per multiplication.
+			// Each coefficient is thus the result of at most 3n + 4 roundings (1 of the coefficient of p, 2n of the shift,
+			// n of the power and 1 of the product), so its error is generously bounded by 4(n + 2) units
+			// in the last place of the transformed absolute values.
+			BigDecimal relErr = BigDecimal.valueOf(4L * (n + 2)).scaleByPowerOfTen(1 - TRANSFORM_DIGITS);
+			BigDecimal[] val = new BigDecimal[n + 1];
+			BigDecimal[] err = new BigDecimal[n + 1];
+			BigDecimal pow = BigDecimal.ONE;
+			BigDecimal powUp = BigDecimal.ONE;
+			BigDecimal max = BigDecimal.ZERO;
+			for(int i = 0; i <= n; i++){
+				val[i] = c[i].multiply(pow, mc);
+				err[i] = abs[i].multiply(powUp, mcUp).multiply(relErr, mcUp);
+				max = max.max(val[i].abs().add(err[i], mcUp));
+				pow = pow.multiply(width, mc);
+				powUp = powUp.multiply(width, mcUp);
+			}
+			// Divide by a power of ten so that the largest coefficient is of order 1
+			int exp = (max.signum() == 0) ? 0 : max.precision() - max.scale() - 1;
+			IntervalPoly q = new IntervalPoly(n);
+			for(int i = 0; i <= n; i++){
+				q.lo[i] = Math.nextDown(val[i].subtract(err[i]).movePointLeft(exp).doubleValue());
+				q.hi[i] = Math.nextUp(val[i].add(err[i]).movePointLeft(exp).doubleValue());
+			}
+			return q;
+		}
+
+		private int degree(){
+			return lo.length - 1;
+		}
+
+		/** Returns q(x + a) (Taylor shift), for an interval a */
+		private IntervalPoly shift(double[] a){
+			int n = degree();
+			IntervalPoly r = new IntervalPoly(n);
+			System.arraycopy(lo, 0, r.lo, 0, n + 1);
+			System.arraycopy(hi, 0, r.hi, 0, n + 1);
+			for(int i = 0; i < n; i++){
+				for(int j = n - 1; j >= i; j--){
+					double[] prod = mul(a[0], a[1], r.lo[j + 1], r.hi[j + 1]);
+					r.lo[j] = Math.nextDown(r.lo[j] + prod[0]);
+					r.hi[j] = Math.nextUp(r.hi[j] + prod[1]);
+				}
+			}
+			return r;
+		}
+
+		/** Returns q(x / 2) */
+		private IntervalPoly halve(){
+			int n = degree();
+			IntervalPoly r = new IntervalPoly(n);
+			for(int i = 0; i <= n; i++){
+				// exact unless the result is subnormal
+				r.lo[i] = Math.nextDown(Math.scalb(lo[i], -i));
+				r.hi[i] = Math.nextUp(Math.scalb(hi[i], -i));
+			}
+			return r;
+		}
+
+		/** Returns q multiplied by a power of two such that its largest coefficient bound is close to 1 */
+		private IntervalPoly normalize(){
+			double max = 0.0;
+			for(int i = 0; i <= degree(); i++){
+				max = Math.max(max, Math.max(Math.abs(lo[i]), Math.abs(hi[i])));
+			}
+			if(max == 0.0 || !Double.isFinite(max)){
+				return this;
+			}
+			int exp = Math.getExponent(max);
+			for(int i = 0; i <= degree(); i++){
+				lo[i] = Math.scalb(lo[i], -exp);
+				hi[i] = Math.scalb(hi[i], -exp);
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the number of sign variations of (x+1)^n * q(1/(x+1)), which bounds the number of roots of q in (0,1),
+		 * or -1 if some of the signs are not certain. The signs of q(0) and q(1) need to be certain and non-zero.
+		 */
+		private int descartes01(){
+			int n = degree();
+			IntervalPoly rev = new IntervalPoly(n);
+			for(int i = 0; i <= n; i++){
+				rev.lo[i] = lo[n - i];
+				rev.hi[i] = hi[n - i];
+			}
+			IntervalPoly r = rev.shift(ONE);
+			if(sign(r.lo[0], r.hi[0]) == 0 || sign(r.lo[n], r.hi[n]) == 0){
+				return -1;
+			}
+			int var = 0;
+			int prevSign = 0;
+			for(int i = 0; i <= n; i++){
+				if(r.lo[i] == 0.0 && r.hi[i] == 0.0){
+					continue;
+				}
+				int s = sign(r.lo[i], r.hi[i]);
+				if(s == 0){
+					return -1;
+				}
+				if(prevSign != 0 && s != prevSign){
+					var++;
+				}
+				prevSign = s;
+			}
+			return var;
+		}
+
+		/** Returns the sign of q(x) for x in [0,1] representable exactly, or 0 if it is not certain */
+		private int signAt(double x){
+			int n = degree();
+			double accLo = lo[n];
+			double accHi = hi[n];
+			for(int i = n - 1; i >= 0; i--){
+				double[] prod = mul(accLo, accHi, x, x);
+				accLo = Math.nextDown(prod[0] + lo[i]);
+				accHi = Math.nextUp(prod[1] + hi[i]);
+			}
+			return sign(accLo, accHi);
+		}
+
+		/** Returns the sign of all numbers in [lo, hi], or 0 if it is not certain */
+		private static int sign(double lo, double hi){
+			if(lo > 0.0){
+				return 1;
+			}
+			if(hi < 0.0){
+				return -1;
+			}
+			return 0;
+		}
+
+		/** Returns the bounds of the product of intervals [aLo, aHi] and [bLo, bHi] */
+		private static double[] mul(double aLo, double aHi, double bLo, double bHi){
+			double p1 = aLo * bLo;
+			double p2 = aLo * bHi;
+			double p3 = aHi * bLo;
+			double p4 = aHi * bHi;
+			double min = Math.min(Math.min(p1, p2), Math.min(p3, p4));
+			double max = Math.max(Math.max(p1, p2), Math.max(p3, p4));
+			return new double[] { Math.nextDown(min), Math.nextUp(max) };
+		}
+	}
+}
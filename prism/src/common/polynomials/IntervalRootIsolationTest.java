@@ -0,0 +1,149 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package common.polynomials;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test program for {@link IntervalRootIsolation}.
+ * <br>
+ * For random polynomials of degree 3 to 100, the roots within (0,1) are compared with those found by
+ * {@link PolynomialRootFinding#findRootsInIntervalVCAHalley}, both sequentially and in parallel.
+ * Half of the polynomials are products of known linear factors (some of whose roots lie within (0,1))
+ * and of quadratic factors without real roots, the other half have random coefficients.
+ * <br>
+ * Usage: {@code IntervalRootIsolationTest [seed]}. The exit code is non-zero if any of the roots differ.
+ */
+public class IntervalRootIsolationTest
+{
+	private static final int MIN_DEGREE = 3;
+	private static final int MAX_DEGREE = 100;
+	private static final BigDecimal PRECISION = new BigDecimal("1e-20");
+	/** Maximum allowed difference of the roots found by the two methods */
+	private static final BigDecimal TOLERANCE = PRECISION.multiply(BigDecimal.TEN);
+
+	public static void main(String[] args)
+	{
+		long seed = (args.length > 0) ? Long.parseLong(args[0]) : 1;
+		Random random = new Random(seed);
+		System.out.println("\nTest program for IntervalRootIsolation (seed " + seed + ")\n==================================================");
+
+		int failures = 0;
+		for (int degree = MIN_DEGREE; degree <= MAX_DEGREE; degree++) {
+			boolean factored = (degree % 2 == 0);
+			Polynomial p = factored ? randomFactoredPolynomial(degree, random) : randomPolynomial(degree, random);
+			List<BigDecimal> expected = PolynomialRootFinding.findRootsInIntervalVCAHalley(p, BigDecimal.ZERO, BigDecimal.ONE, PRECISION);
+			Collections.sort(expected);
+			List<BigDecimal> sequential = IntervalRootIsolation.findRootsInInterval(p, BigDecimal.ZERO, BigDecimal.ONE, PRECISION, 1);
+			List<BigDecimal> parallel = IntervalRootIsolation.findRootsInInterval(p, BigDecimal.ZERO, BigDecimal.ONE, PRECISION, 4);
+			boolean ok = sameRoots(expected, sequential) && sameRoots(expected, parallel);
+			System.out.println("degree " + degree + (factored ? " (factored)" : " (random coefficients)") + ": "
+					+ expected.size() + " root(s) " + (ok ? "OK" : "FAILED"));
+			if (!ok) {
+				System.out.println("  VCA/Halley:            " + expected);
+				System.out.println("  interval (sequential): " + sequential);
+				System.out.println("  interval (parallel):   " + parallel);
+				failures++;
+			}
+		}
+
+		System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Returns a polynomial of the given degree with coefficients uniformly distributed in [-1,1].
+	 */
+	private static Polynomial randomPolynomial(int degree, Random random)
+	{
+		List<BigDecimal> coeffs = new ArrayList<>();
+		for (int i = 0; i <= degree; i++) {
+			coeffs.add(randomDecimal(random).multiply(BigDecimal.valueOf(2)).subtract(BigDecimal.ONE));
+		}
+		return new Polynomial(coeffs);
+	}
+
+	/**
+	 * Returns a product of linear factors x - r with r in (-0.5,1.5), at least 1/1000 apart,
+	 * and quadratic factors x^2 + c with c > 0, of the given degree.
+	 */
+	private static Polynomial randomFactoredPolynomial(int degree, Random random)
+	{
+		Polynomial p = new Polynomial(BigDecimal.ONE);
+		List<BigDecimal> roots = new ArrayList<>();
+		int numLinear = Math.max(1, random.nextInt(Math.min(degree, 12) + 1));
+		while ((degree - numLinear) % 2 != 0) {
+			numLinear++;
+		}
+		while (roots.size() < numLinear) {
+			BigDecimal root = randomDecimal(random).multiply(BigDecimal.valueOf(2)).subtract(new BigDecimal("0.5"));
+			boolean separated = true;
+			for (BigDecimal other : roots) {
+				separated &= root.subtract(other).abs().compareTo(new BigDecimal("0.001")) >= 0;
+			}
+			if (separated && root.signum() != 0 && root.compareTo(BigDecimal.ONE) != 0) {
+				roots.add(root);
+				List<BigDecimal> factor = new ArrayList<>();
+				factor.add(root.negate());
+				factor.add(BigDecimal.ONE);
+				p.multiply(new Polynomial(factor));
+			}
+		}
+		for (int i = numLinear; i < degree; i += 2) {
+			List<BigDecimal> factor = new ArrayList<>();
+			factor.add(randomDecimal(random).add(new BigDecimal("0.01")));
+			factor.add(BigDecimal.ZERO);
+			factor.add(BigDecimal.ONE);
+			p.multiply(new Polynomial(factor));
+		}
+		return p;
+	}
+
+	/** Returns a random number in [0,1) with 6 decimal digits */
+	private static BigDecimal randomDecimal(Random random)
+	{
+		return BigDecimal.valueOf(random.nextInt(1000000), 6);
+	}
+
+	/** Returns true iff both lists (in ascending order) have the same number of roots, each within {@code TOLERANCE} */
+	private static boolean sameRoots(List<BigDecimal> expected, List<BigDecimal> actual)
+	{
+		if (expected.size() != actual.size()) {
+			return false;
+		}
+		for (int i = 0; i < expected.size(); i++) {
+			if (expected.get(i).subtract(actual.get(i)).abs().compareTo(TOLERANCE) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -32,6 +32,7 @@ import java.math.BigInteger;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -176,24 +177,14 @@ public class Polynomial implements Poly {
 	
 	@Override
 	public BigDecimal value(BigDecimal x){
-		BigDecimal sum = BigDecimal.ZERO;
-		BigDecimal xpower = BigDecimal.ONE;
-		for(int i = 0; i < coeffs.size(); i++){
-			sum = sum.add(coeffs.get(i).multiply(xpower));
-			xpower = xpower.multiply(x);
-		}
-		return sum;
+		if(coeffs.isEmpty()) return BigDecimal.ZERO;
+		return PolynomialEvaluator.horner(coeffs.toArray(new BigDecimal[coeffs.size()]), x, null);
 	}
 	
 	@Override
 	public BigDecimal value(BigDecimal x, MathContext mc){
-		BigDecimal sum = BigDecimal.ZERO;
-		BigDecimal xpower = BigDecimal.ONE;
-		for(int i = 0; i < coeffs.size(); i++){
-			sum = sum.add(coeffs.get(i).multiply(xpower, mc), mc);
-			xpower = xpower.multiply(x, mc);
-		}
-		return sum;
+		if(coeffs.isEmpty()) return BigDecimal.ZERO;
+		return PolynomialEvaluator.horner(coeffs.toArray(new BigDecimal[coeffs.size()]), x, mc);
 	}
 	
 	@Override
@@ -346,16 +337,17 @@ public class Polynomial implements Poly {
 	 * @param other other polynomial
 	 */
 	public void multiply(Polynomial other) {
-		List<BigDecimal> newc = new ArrayList<>();
+		BigDecimal[] a = coeffs.toArray(new BigDecimal[coeffs.size()]);
+		BigDecimal[] b = other.coeffs.toArray(new BigDecimal[other.coeffs.size()]);
+		BigDecimal[] newc = new BigDecimal[Math.max(0, a.length + b.length - 1)];
 		
-		for(int i = 0; i < coeffs.size() + other.coeffs.size() - 1; i++)
-			newc.add(new BigDecimal("0").setScale(10, RoundingMode.HALF_UP));
-		for(int i = 0; i < coeffs.size(); i++){
-			for(int j = 0; j < other.coeffs.size(); j++){
-				newc.set(i+j, newc.get(i+j).add(coeffs.get(i).multiply(other.coeffs.get(j))));
+		Arrays.fill(newc, new BigDecimal("0").setScale(10, RoundingMode.HALF_UP));
+		for(int i = 0; i < a.length; i++){
+			for(int j = 0; j < b.length; j++){
+				newc[i+j] = newc[i+j].add(a[i].multiply(b[j]));
 			}
 		}
-		this.coeffs = newc;
+		this.coeffs = new ArrayList<>(Arrays.asList(newc));
 	}
 	
 	@Override
@@ -374,16 +366,17 @@ public class Polynomial implements Poly {
 	 * @param mc MathContext to use
 	 */
 	public void multiply(Polynomial other, MathContext mc) throws PrismNotSupportedException{
-		List<BigDecimal> newc = new ArrayList<>();
+		BigDecimal[] a = coeffs.toArray(new BigDecimal[coeffs.size()]);
+		BigDecimal[] b = other.coeffs.toArray(new BigDecimal[other.coeffs.size()]);
+		BigDecimal[] newc = new BigDecimal[Math.max(0, a.length + b.length - 1)];
 		
-		for(int i = 0; i < coeffs.size() + other.coeffs.size() - 1; i++)
-			newc.add(BigDecimal.ZERO);
-		for(int i = 0; i < coeffs.size(); i++){
-			for(int j = 0; j < other.coeffs.size(); j++){
-				newc.set(i+j, newc.get(i+j).add(coeffs.get(i).multiply(other.coeffs.get(j), mc), mc));
+		Arrays.fill(newc, BigDecimal.ZERO);
+		for(int i = 0; i < a.length; i++){
+			for(int j = 0; j < b.length; j++){
+				newc[i+j] = newc[i+j].add(a[i].multiply(b[j], mc), mc);
 			}
 		}
-		this.coeffs = newc;
+		this.coeffs = new ArrayList<>(Arrays.asList(newc));
 	}
 	
 	/**
@@ -0,0 +1,246 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//  * Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package common.polynomials;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ch.obermuhlner.math.big.BigDecimalMath;
+import prism.PrismNotSupportedException;
+
+/**
+ * Evaluation engine for a fixed {@link Poly}, meant for polynomials that are evaluated many times.
+ * <br>
+ * The coefficients are copied into a compact array form once.
+ * Polynomials with non-negative integer exponents (i.e. any {@link Polynomial}, and {@link PolynomialReal}
+ * whose exponents happen to be integers) are stored densely and evaluated using the Horner scheme,
+ * i.e. one multiplication and one addition per coefficient.
+ * Other {@link PolynomialReal} are stored as sorted arrays of exponents and coefficients.
+ * <br>
+ * Computed values are cached per MathContext, so repeated evaluation in the same point is free.
+ * <br>
+ * The evaluator does not observe later changes of the polynomial it was created from.
+ */
+public class PolynomialEvaluator {
+
+	/** Maximum number of cached values per MathContext. The cache is cleared when it is exceeded. */
+	public static final int MAX_CACHED_VALUES = 4096;
+
+	/** Dense coefficients (index i is the coefficient of x^i), or null if the exponents are not integers */
+	private final BigDecimal[] coeffs;
+	/** Sorted exponents of the polynomial, if the exponents are not integers */
+	private final BigDecimal[] realExponents;
+	/** Coefficients belonging to {@code realExponents} */
+	private final BigDecimal[] realCoeffs;
+	/** Cached values, keyed by the MathContext and the point of evaluation */
+	private final Map<MathContext, Map<BigDecimal, BigDecimal>> cache = new ConcurrentHashMap<MathContext, Map<BigDecimal, BigDecimal>>();
+
+	/**
+	 * Creates an evaluator for {@code poly}.
+	 * @param poly Polynomial or PolynomialReal
+	 * @throws PrismNotSupportedException when Poly has unsupported type
+	 */
+	public PolynomialEvaluator(Poly poly) throws PrismNotSupportedException {
+		if (poly instanceof Polynomial) {
+			coeffs = trim(((Polynomial) poly).coeffs.toArray(new BigDecimal[0]));
+			realExponents = null;
+			realCoeffs = null;
+		} else if (poly instanceof PolynomialReal) {
+			TreeMap<BigDecimal, BigDecimal> sorted = new TreeMap<BigDecimal, BigDecimal>();
+			boolean integerExponents = true;
+			for (Map.Entry<BigDecimal, BigDecimal> entry : ((PolynomialReal) poly).coeffs.entrySet()) {
+				BigDecimal exponent = entry.getKey();
+				sorted.merge(exponent, entry.getValue(), BigDecimal::add);
+				if (exponent.signum() < 0 || exponent.stripTrailingZeros().scale() > 0 || exponent.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE - 1)) >= 0) {
+					integerExponents = false;
+				}
+			}
+			if (integerExponents) {
+				int degree = sorted.isEmpty() ? 0 : sorted.lastKey().intValueExact();
+				BigDecimal[] dense = new BigDecimal[degree + 1];
+				for (int i = 0; i <= degree; i++) {
+					dense[i] = BigDecimal.ZERO;
+				}
+				for (Map.Entry<BigDecimal, BigDecimal> entry : sorted.entrySet()) {
+					dense[entry.getKey().intValueExact()] = entry.getValue();
+				}
+				coeffs = trim(dense);
+				realExponents = null;
+				realCoeffs = null;
+			} else {
+				coeffs = null;
+				realExponents = sorted.keySet().toArray(new BigDecimal[0]);
+				realCoeffs = sorted.values().toArray(new BigDecimal[0]);
+			}
+		} else {
+			throw new PrismNotSupportedException("Unrecognized type of Poly in PolynomialEvaluator arguments");
+		}
+	}
+
+	/** Removes trailing zero coefficients (but keeps at least one coefficient) */
+	private static BigDecimal[] trim(BigDecimal[] coeffs) {
+		int length = coeffs.length;
+		while (length > 1 && coeffs[length - 1].signum() == 0) {
+			length--;
+		}
+		if (length == 0) {
+			return new BigDecimal[] { BigDecimal.ZERO };
+		}
+		if (length == coeffs.length) {
+			return coeffs;
+		}
+		BigDecimal[] trimmed = new BigDecimal[length];
+		System.arraycopy(coeffs, 0, trimmed, 0, length);
+		return trimmed;
+	}
+
+	/**
+	 * Evaluates the polynomial given by dense coefficients {@code coeffs} in {@code x} using the Horner scheme.
+	 * @param coeffs coefficients, index i being the coefficient of x^i. Must not be empty.
+	 * @param x point of evaluation
+	 * @param mc MathContext to use, or null for exact arithmetics
+	 */
+	public static BigDecimal horner(BigDecimal[] coeffs, BigDecimal x, MathContext mc) {
+		BigDecimal result = coeffs[coeffs.length - 1];
+		if (mc == null) {
+			for (int i = coeffs.length - 2; i >= 0; i--) {
+				result = result.multiply(x).add(coeffs[i]);
+			}
+		} else {
+			for (int i = coeffs.length - 2; i >= 0; i--) {
+				result = result.multiply(x, mc).add(coeffs[i], mc);
+			}
+		}
+		return result;
+	}
+
+	/** Returns the degree of the polynomial if it has integer exponents, or -1 otherwise */
+	public int getDegree() {
+		return coeffs == null ? -1 : coeffs.length - 1;
+	}
+
+	/**
+	 * Evaluates the polynomial in {@code x} using the given MathContext (must not be null).
+	 * The value is cached for the MathContext.
+	 */
+	public BigDecimal value(BigDecimal x, MathContext mc) {
+		Map<BigDecimal, BigDecimal> mcCache = cache.computeIfAbsent(mc, k -> new ConcurrentHashMap<BigDecimal, BigDecimal>());
+		BigDecimal value = mcCache.get(x);
+		if (value == null) {
+			value = compute(x, mc, null);
+			if (mcCache.size() >= MAX_CACHED_VALUES) {
+				mcCache.clear();
+			}
+			mcCache.put(x, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Evaluates the polynomial in each of the points {@code xs} using the given MathContext.
+	 * @return array of values, where index i is the value in xs[i]
+	 */
+	public BigDecimal[] values(BigDecimal[] xs, MathContext mc) {
+		BigDecimal[] values = new BigDecimal[xs.length];
+		for (int i = 0; i < xs.length; i++) {
+			values[i] = value(xs[i], mc);
+		}
+		return values;
+	}
+
+	/**
+	 * Evaluates the polynomial in each of the points {@code xs} using the given MathContext.
+	 * @return list of values, where index i is the value in xs.get(i)
+	 */
+	public List<BigDecimal> values(List<BigDecimal> xs, MathContext mc) {
+		List<BigDecimal> values = new ArrayList<BigDecimal>(xs.size());
+		for (BigDecimal x : xs) {
+			values.add(value(x, mc));
+		}
+		return values;
+	}
+
+	/**
+	 * Evaluates many polynomials in a single point {@code x} using the given MathContext.
+	 * <br>
+	 * Powers of {@code x} with real exponents are shared among all the polynomials,
+	 * so each distinct power is computed only once.
+	 * @return array of values, where index i is the value of evaluators[i]
+	 */
+	public static BigDecimal[] valuesAt(PolynomialEvaluator[] evaluators, BigDecimal x, MathContext mc) {
+		BigDecimal[] values = new BigDecimal[evaluators.length];
+		Map<BigDecimal, BigDecimal> powers = new HashMap<BigDecimal, BigDecimal>();
+		for (int i = 0; i < evaluators.length; i++) {
+			Map<BigDecimal, BigDecimal> mcCache = evaluators[i].cache.get(mc);
+			BigDecimal value = (mcCache == null) ? null : mcCache.get(x);
+			if (value == null) {
+				value = evaluators[i].compute(x, mc, powers);
+				mcCache = evaluators[i].cache.computeIfAbsent(mc, k -> new ConcurrentHashMap<BigDecimal, BigDecimal>());
+				if (mcCache.size() >= MAX_CACHED_VALUES) {
+					mcCache.clear();
+				}
+				mcCache.put(x, value);
+			}
+			values[i] = value;
+		}
+		return values;
+	}
+
+	/** Removes all cached values */
+	public void clearCache() {
+		cache.clear();
+	}
+
+	/**
+	 * Evaluates the polynomial in {@code x}, bypassing the cache.
+	 * @param powers optional map of already computed powers of {@code x} (keyed by the exponent) to reuse and extend
+	 */
+	private BigDecimal compute(BigDecimal x, MathContext mc, Map<BigDecimal, BigDecimal> powers) {
+		if (coeffs != null) {
+			return horner(coeffs, x, mc);
+		}
+		BigDecimal sum = BigDecimal.ZERO;
+		for (int i = 0; i < realExponents.length; i++) {
+			BigDecimal exponent = realExponents[i];
+			BigDecimal power = (powers == null) ? null : powers.get(exponent);
+			if (power == null) {
+				power = BigDecimalMath.pow(x, exponent, mc);
+				if (powers != null) {
+					powers.put(exponent, power);
+				}
+			}
+			sum = sum.add(power.multiply(realCoeffs[i], mc), mc);
+		}
+		return sum;
+	}
+}
@@ -30,16 +30,16 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Vector;
 
 import common.BigDecimalUtils;
+import common.SortedIntSet;
 import explicit.rewards.ACTMCRewardsSimple;
 import prism.PrismException;
 
@@ -73,7 +73,7 @@ public abstract class ACTMCPotato
 	 * I.e. such states of {@code actmc} that are not in {@code target} and 
 	 * where {@code event} is active.
 	 */
-	protected Set<Integer> potato = new HashSet<Integer>();
+	protected SortedIntSet potato = new SortedIntSet(new int[0]);
 	/** 
 	 * Subset of {@code potato} states that are acting as entrances into the potato.
 	 * <br>
@@ -87,7 +87,7 @@ public abstract class ACTMCPotato
 	 * <br>
 	 * 3) part of the initial distribution, i.e. it may be the initial state.
 	 */
-	protected Set<Integer> entrances = new HashSet<Integer>();
+	protected SortedIntSet entrances = new SortedIntSet(new int[0]);
 	/**
 	 * Set of states that are successors of the potato states, or reachability targets.
 	 * <br>
@@ -101,7 +101,7 @@ public abstract class ACTMCPotato
 	 * <br>
 	 * 3) target states that would otherwise be within the potato.
 	 */
-	protected Set<Integer> successors = new HashSet<Integer>();
+	protected SortedIntSet successors = new SortedIntSet(new int[0]);
 	protected boolean statesComputed = false;
 	
 	/**
@@ -110,10 +110,19 @@ public abstract class ACTMCPotato
 	 */
 	protected DTMCSimple potatoDTMC = null;
 	protected double uniformizationRate;
-	/** Mapping from the state indices of {@code actmc} (K) to {@code potatoDTMC} (V)*/
-	protected Map<Integer, Integer> ACTMCtoDTMC = new HashMap<Integer, Integer>();
-	/** Mapping from the state indices of {@code potatoDTMC} (index) to {@code actmc} (value) */
-	protected Vector<Integer> DTMCtoACTMC = new Vector<Integer>();
+	/** Mapping from the state indices of {@code actmc} (index) to {@code potatoDTMC} (value).
+	 *  States of {@code actmc} that are not part of {@code potatoDTMC} are mapped to -1. */
+	protected int[] ACTMCtoDTMC = new int[0];
+	/** Mapping from the state indices of {@code potatoDTMC} (index) to {@code actmc} (value).
+	 *  The potato states come first, followed by the successors, both in ascending order. */
+	protected int[] DTMCtoACTMC = new int[0];
+	/** Transitions of {@code event} in the indexing of {@code potatoDTMC}, stored in the CSR format
+	 *  (row i are the entries eventTransRows[i]..eventTransRows[i+1]-1). Only potato states have non-empty rows. */
+	protected int[] eventTransRows;
+	protected int[] eventTransCols;
+	protected double[] eventTransProbs;
+	/** Sorted indices of {@code successors} within {@code potatoDTMC}. Computed lazily by {@link #storeMeanDistribution}. */
+	protected int[] successorIndices = null;
 	protected boolean potatoDTMCComputed = false;
 	
 	/** Allowed error (kappa) for computation of FoxGlynn */
@@ -123,23 +132,20 @@ public abstract class ACTMCPotato
 	protected boolean foxGlynnComputed = false;
 	
 	/** Mapping of expected times spent in individual states of the potato before leaving the potato
-	 * onto individual states used to enter the potato.
-	 * Sum of this distribution yields the total expected time spent within the potato. */
-	protected Map<Integer, Distribution> meanTimes = new HashMap<Integer, Distribution>();
-	/** Mapping of the solution vectors used to compute meanTimes onto individual states used to enter the potato*/
-	protected Map<Integer, Distribution> meanTimesSoln = new HashMap<Integer, Distribution>();
+	 * onto individual states used to enter the potato. Rows are indexed by the states of the potatoDTMC.
+	 * Sum of a row yields the total expected time spent within the potato. */
+	protected ACTMCPotatoVectors meanTimes;
 	protected boolean meanTimesComputed = false;
 	
 	/** Mapping of expected outcome state probability distributions onto states used to enter the potato.
 	 *  I.e. if we enter the potato using state {@code key}, then {@code value} is the distribution
-	 *  saying which states we are in after leaving the potato on average. */
-	protected Map<Integer, Distribution> meanDistributions = new HashMap<Integer, Distribution>();
+	 *  saying which states we are in after leaving the potato on average.
+	 *  Rows are indexed by the states of the potatoDTMC. */
+	protected ACTMCPotatoVectors meanDistributions;
 	/** Mapping of just-before-event state probability distributions onto states used to enter the potato.
 	 *  I.e. if we enter the potato using state {@code key}, then {@code value} is the distribution
 	 *  saying which states we are in just before the event occurs on average. */
-	protected Map<Integer, Distribution> meanDistributionsBeforeEvent = new HashMap<Integer, Distribution>();
-	/** Mapping of the solution vectors used to compute meanDistributions onto individual states used to enter the potato*/
-	protected Map<Integer, Distribution> meanDistributionsSoln = new HashMap<Integer, Distribution>();
+	protected ACTMCPotatoVectors meanDistributionsBeforeEvent;
 	protected boolean meanDistributionsComputed = false;
 	
 	/** Mapping of expected accumulated rewards just after leaving the potato onto states used to enter the potato */
@@ -153,6 +159,17 @@ public abstract class ACTMCPotato
 	/** Mathcontext to use within this class for BigDecimal arithmetics. Derived from {@code kappa}. */
 	protected MathContext mc;
 	
+	/**
+	 * If positive, the potato may be computed in double precision instead of BigDecimal,
+	 * provided that the a-posteriori error bound of such computation does not exceed this value.
+	 * Potatoes that do not support the double precision fast path ignore this.
+	 */
+	protected double doubleFastPathTolerance = 0;
+	/** True iff the last computation of this potato was done using the double precision fast path */
+	protected boolean doubleFastPathUsed = false;
+	/** A-posteriori error bound of the double precision fast path (if it was attempted) */
+	protected double doubleFastPathErrorBound = Double.NaN;
+	
 
 	/**
 	 * From the scratch constructor
@@ -196,6 +213,10 @@ public abstract class ACTMCPotato
 		this.uniformizationRate = other.uniformizationRate;
 		this.ACTMCtoDTMC = other.ACTMCtoDTMC;
 		this.DTMCtoACTMC = other.DTMCtoACTMC;
+		this.eventTransRows = other.eventTransRows;
+		this.eventTransCols = other.eventTransCols;
+		this.eventTransProbs = other.eventTransProbs;
+		this.successorIndices = other.successorIndices;
 		this.potatoDTMCComputed = other.potatoDTMCComputed;
 		
 		this.kappa = other.kappa;
@@ -203,20 +224,18 @@ public abstract class ACTMCPotato
 		this.foxGlynn = null;
 		this.foxGlynnComputed = false;
 		
-		this.meanTimes = new HashMap<Integer, Distribution>();
-		this.meanTimesSoln = new HashMap<Integer, Distribution>();
 		this.meanTimesComputed = false;
-		
-		this.meanDistributions = new HashMap<Integer, Distribution>();
-		this.meanDistributionsBeforeEvent = new HashMap<Integer, Distribution>();
-		this.meanDistributionsSoln = new HashMap<Integer, Distribution>();
 		this.meanDistributionsComputed = false;
+		if (statesComputed) {
+			createResultVectors();
+		}
 		
 		this.meanRewards = new Distribution();
 		this.meanRewardsSoln = new Distribution();
 		this.meanRewardsComputed = false;
 		
 		this.mc = other.mc;
+		this.doubleFastPathTolerance = other.doubleFastPathTolerance;
 	}
 	
 	/**
@@ -234,12 +253,53 @@ public abstract class ACTMCPotato
 		this.kappa = kappa;
 		mc = new MathContext(BigDecimalUtils.decimalDigits(kappa), RoundingMode.HALF_UP);
 		// force this class to recompute everything kappa-dependent with the new kappa
+		invalidateComputations();
+	}
+	
+	/**
+	 * Forces this potato to recompute everything that depends on the parameters of its event,
+	 * e.g. after they were changed by {@link ACTMCSimple#setEventParameters(Map)}.
+	 * The structure of the potato (states, entrances, successors and {@code potatoDTMC}) is kept.
+	 */
+	public void eventParametersChanged() {
+		invalidateComputations();
+	}
+	
+	/**
+	 * Allows computation of this potato in double precision instead of BigDecimal,
+	 * as long as the a-posteriori error bound of such computation is within {@code tolerance}.
+	 * Otherwise, the computation falls back to BigDecimal with precision {@code kappa}.
+	 * <br>
+	 * Potatoes that do not support the double precision fast path ignore this.
+	 * @param tolerance maximum allowed error bound of the fast path. Zero disables the fast path.
+	 */
+	public void setDoubleFastPathTolerance(double tolerance) {
+		this.doubleFastPathTolerance = tolerance;
+		// force this class to recompute everything precision-dependent
+		invalidateComputations();
+	}
+	
+	/**
+	 * Forces this potato to recompute the Fox-Glynn weights, mean times, mean distributions and mean rewards,
+	 * which depend on kappa, on the double precision fast path tolerance and on the parameters of the event.
+	 */
+	protected void invalidateComputations() {
 		foxGlynnComputed = false;
 		meanTimesComputed = false;
 		meanDistributionsComputed = false;
 		meanRewardsComputed = false;
 	}
 	
+	/** Returns true iff the last computation of this potato was done using the double precision fast path */
+	public boolean isDoubleFastPathUsed() {
+		return doubleFastPathUsed;
+	}
+	
+	/** Returns the a-posteriori error bound of the double precision fast path, or NaN if it was not attempted */
+	public double getDoubleFastPathErrorBound() {
+		return doubleFastPathErrorBound;
+	}
+	
 	/** Gets the actmc model associated with this object */
 	public ACTMCSimple getACTMC() {
 		return actmc;
@@ -256,7 +316,7 @@ public abstract class ACTMCPotato
 	 * <br>
 	 * If this is the first call, this method computes it before returning it.
 	 */
-	public Set<Integer> getPotato() {
+	public SortedIntSet getPotato() {
 		if (!statesComputed) {
 			computeStates();
 		}
@@ -271,7 +331,7 @@ public abstract class ACTMCPotato
 	 * <br>
 	 * If this is the first call, this method computes it before returning it.
 	 */
-	public Set<Integer> getEntrances() {
+	public SortedIntSet getEntrances() {
 		if (!statesComputed) {
 			computeStates();
 		}
@@ -286,7 +346,7 @@ public abstract class ACTMCPotato
 	 * <br>
 	 * If this is the first call, this method computes it before returning it.
 	 */
-	public Set<Integer> getSuccessors() {
+	public SortedIntSet getSuccessors() {
 		if (!statesComputed) {
 			computeStates();
 		}
@@ -319,13 +379,13 @@ public abstract class ACTMCPotato
 	
 	/**
 	 * Gets a mapping from the state indices of {@code actmc} to {@code potatoDTMC}.
-	 * I.e. {@code actmc} indices are keys, and {@code potatoDTMC} are values.
+	 * I.e. {@code actmc} indices are indices, and {@code potatoDTMC} are values (-1 if not included).
 	 * <br>
 	 * This is a reverse mapping of {@code getMapDTMCtoACTMC()}.
 	 * <br>
 	 * If this is the first call, this method computes them before returning it.
 	 */
-	public Map<Integer, Integer> getMapACTMCtoDTMC() {
+	public int[] getMapACTMCtoDTMC() {
 		if (!potatoDTMCComputed) {
 			computePotatoDTMC();
 		}
@@ -340,7 +400,7 @@ public abstract class ACTMCPotato
 	 * <br>
 	 * If this is the first call, this method computes them before returning it.
 	 */
-	public Vector<Integer> getMapDTMCtoACTMC() {
+	public int[] getMapDTMCtoACTMC() {
 		if (!potatoDTMCComputed) {
 			computePotatoDTMC();
 		}
@@ -348,13 +408,13 @@ public abstract class ACTMCPotato
 	}
 	
 	/**
-	 * Gets a map where the keys are entrances into the potato, and
-	 * the value is a distribution of time spent within the states of the potato
-	 * until first leaving the potato, having entered from state {@code key}.
+	 * Gets the rows of expected times spent within the states of the potato
+	 * until first leaving the potato, one row per entrance into the potato.
+	 * The rows are indexed by the states of the potatoDTMC (see {@link #getMapDTMCtoACTMC()}).
 	 * <br>
 	 * If this is the first call, this method computes it before returning it.
 	 */
-	public Map<Integer, Distribution> getMeanTimes() throws PrismException {
+	public ACTMCPotatoVectors getMeanTimes() throws PrismException {
 		if (!meanTimesComputed) {
 			computeMeanTimes();
 		}
@@ -362,13 +422,13 @@ public abstract class ACTMCPotato
 	}
 	
 	/**
-	 * Gets a map where the keys are entrances into the potato, and
-	 * the values are mean outcome probability distributions after leaving the potato
-	 * if entered from state {@code key}.
+	 * Gets the rows of mean outcome probability distributions after leaving the potato,
+	 * one row per entrance into the potato.
+	 * The rows are indexed by the states of the potatoDTMC (see {@link #getMapDTMCtoACTMC()}).
 	 * <br>
 	 * If this is the first call, this method computes it before returning it.
 	 */
-	public Map<Integer, Distribution> getMeanDistributions() throws PrismException {
+	public ACTMCPotatoVectors getMeanDistributions() throws PrismException {
 		if (!meanDistributionsComputed) {
 			computeMeanDistributions();
 		}
@@ -390,14 +450,74 @@ public abstract class ACTMCPotato
 	}
 	
 	protected void computeStates() {
-		computePotato();
-		computeEntrances();
-		computeSuccessors();
-		processTargets();
+		Set<Integer> potatoSet = new HashSet<Integer>();
+		Set<Integer> entrancesSet = new HashSet<Integer>();
+		Set<Integer> successorsSet = new HashSet<Integer>();
+		computePotato(potatoSet);
+		computeEntrances(potatoSet, entrancesSet, successorsSet);
+		computeSuccessors(potatoSet, successorsSet);
+		processTargets(potatoSet, entrancesSet, successorsSet);
+		// Freeze the computed sets into the compact representation
+		potato = new SortedIntSet(potatoSet);
+		entrances = new SortedIntSet(entrancesSet);
+		successors = new SortedIntSet(successorsSet);
+		createResultVectors();
 		statesComputed = true;
 	}
 	
-	protected void computePotato() {
+	/** Creates empty per-entrance storage of the result vectors. Assumes that {@code entrances} are known. */
+	protected void createResultVectors() {
+		meanTimes = new ACTMCPotatoVectors(entrances);
+		meanDistributions = new ACTMCPotatoVectors(entrances);
+		meanDistributionsBeforeEvent = new ACTMCPotatoVectors(entrances);
+	}
+	
+	/**
+	 * Stores the expected times spent within the potato states as the {@code meanTimes} row of {@code entrance}.
+	 * Potato states are the first states of the potatoDTMC, so only the prefix of the strided vector
+	 * (result[offset], result[offset + stride], ...) of length {@code potato.size()} is used.
+	 * @param result vector indexed by the states of the potatoDTMC
+	 */
+	protected void storeMeanTimes(int entrance, double[] result, int offset, int stride) {
+		meanTimes.setRow(entrance, result, offset, stride, potato.size());
+	}
+	
+	/**
+	 * Stores the successor entries of {@code result} as the {@code meanDistributions} row of {@code entrance},
+	 * normalized to sum to 1 (they may not sum to 1 due to inaccuracy).
+	 * @param result vector indexed by the states of the potatoDTMC
+	 */
+	protected void storeMeanDistribution(int entrance, double[] result) {
+		if (successorIndices == null) {
+			successorIndices = new int[successors.size()];
+			int n = 0;
+			for (int succState : successors) {
+				successorIndices[n++] = ACTMCtoDTMC[succState];
+			}
+			Arrays.sort(successorIndices);
+		}
+		double probSum = 0;
+		int nonZeros = 0;
+		for (int index : successorIndices) {
+			if (result[index] != 0.0) {
+				probSum += result[index];
+				nonZeros++;
+			}
+		}
+		int[] rowIndices = new int[nonZeros];
+		double[] rowValues = new double[nonZeros];
+		int n = 0;
+		for (int index : successorIndices) {
+			if (result[index] != 0.0) {
+				rowIndices[n] = index;
+				rowValues[n] = result[index] / probSum;
+				n++;
+			}
+		}
+		meanDistributions.setRow(entrance, rowIndices, rowValues);
+	}
+	
+	protected void computePotato(Set<Integer> potato) {
 		BitSet potatoBs = event.getActive();
 		for (int ps = potatoBs.nextSetBit(0); ps >= 0; ps = potatoBs.nextSetBit(ps+1)) {
 			potato.add(ps);
@@ -405,7 +525,7 @@ public abstract class ACTMCPotato
 	}
 	
 	/** Assumes that {@code computePotato()} has been called already */
-	protected void computeEntrances() {
+	protected void computeEntrances(Set<Integer> potato, Set<Integer> entrances, Set<Integer> successors) {
 		List<Integer> candidateEntrances = new ArrayList<Integer>(potato);
 		
 		// For each state of the ACTMC...
@@ -456,9 +576,9 @@ public abstract class ACTMCPotato
 		// Lastly, check whether the event has a self-loop.
 		for (int ps : potato) {
 			Distribution distr = event.getTransitions(ps);
-			for (int ps2 : potato) {
-				if (distr.getSupport().contains(ps2)) {
-					entrances.add(ps2);
+			for (int succ : distr.getSupport()) {
+				if (potato.contains(succ)) {
+					entrances.add(succ);
 				}
 			}
 			// Also, since I am iterating over the event distributions,
@@ -469,16 +589,18 @@ public abstract class ACTMCPotato
 	
 	/** Assumes that {@code computePotato()} and {@code computeEntrances()}
 	 *  have been called already */
-	protected void computeSuccessors() {
+	protected void computeSuccessors(Set<Integer> potato, Set<Integer> successors) {
 		for (int ps : potato) {
-			Set<Integer> support = new HashSet<Integer>(actmc.getTransitions(ps).getSupport());
-			support.removeIf( s -> potato.contains(s));
-			successors.addAll(support);
+			for (int s : actmc.getTransitions(ps).getSupport()) {
+				if (!potato.contains(s)) {
+					successors.add(s);
+				}
+			}
 		}
 	}
 	
 	/** Assumes that {@code computeSuccessors()} has been called already. */
-	protected void processTargets() {
+	protected void processTargets(Set<Integer> potato, Set<Integer> entrances, Set<Integer> successors) {
 		if (target == null) {
 			return;
 		}
@@ -496,37 +618,55 @@ public abstract class ACTMCPotato
 			computeStates();
 		}
 		
-		// Identify the set of relevant states and declare the new CTMC
-		Set<Integer> potatoACTMCStates = new HashSet<Integer>(potato);
-		potatoACTMCStates.addAll(successors);
-		CTMCSimple potatoCTMC = new CTMCSimple(potatoACTMCStates.size());
+		// Identify the set of relevant states and declare the new CTMC.
+		// The potato and the successors are disjoint, unless the event has a self-loop.
+		int[] potatoStates = potato.getMembers();
+		int numPotatoDTMCStates = potatoStates.length;
+		for (int succ : successors.getMembers()) {
+			if (!potato.contains(succ)) {
+				++numPotatoDTMCStates;
+			}
+		}
+		CTMCSimple potatoCTMC = new CTMCSimple(numPotatoDTMCStates);
 		
 		// Since the states of the new CTMC are indexed from 0,
 		// we need a mapping from the original ACTMC to the new DTMC,
 		// and vice-versa.
+		ACTMCtoDTMC = new int[actmc.getNumStates()];
+		Arrays.fill(ACTMCtoDTMC, -1);
+		DTMCtoACTMC = new int[numPotatoDTMCStates];
 		{
 			int index = 0;
-			for (int s : potatoACTMCStates) {
-				ACTMCtoDTMC.put(s, index);
-				DTMCtoACTMC.add(index, s);
+			for (int s : potatoStates) {
+				ACTMCtoDTMC[s] = index;
+				DTMCtoACTMC[index] = s;
 				++index;
 			}
+			for (int s : successors.getMembers()) {
+				if (ACTMCtoDTMC[s] < 0) {
+					ACTMCtoDTMC[s] = index;
+					DTMCtoACTMC[index] = s;
+					++index;
+				}
+			}
 		}
 		
 		uniformizationRate = actmc.getMaxExitRate(); // TODO MAJO - maxExitRate of the potatoCTMC is enough!!! // TODO MAJO - actually, I dont think its enough
 		// Construct the transition matrix of the new CTMC
-		for (int s : potatoACTMCStates) {
-			if (potato.contains(s)) {
+		for (int index = 0; index < numPotatoDTMCStates; ++index) {
+			int s = DTMCtoACTMC[index];
+			if (index < potatoStates.length) {
 				// If the state is a part of the potato, retain the distribution as is
 				Distribution distr = actmc.getTransitions(s);
-				Set<Integer> support = new HashSet<Integer>(distr.getSupport());
-				support.removeIf( state -> !potatoACTMCStates.contains(state) );
-				for ( int state : support) {
-					potatoCTMC.addToProbability(ACTMCtoDTMC.get(s), ACTMCtoDTMC.get(state), distr.get(state));
+				for (Map.Entry<Integer, Double> trans : distr) {
+					int target = ACTMCtoDTMC[trans.getKey()];
+					if (target >= 0) {
+						potatoCTMC.addToProbability(index, target, trans.getValue());
+					}
 				}
 			} else {
 				// Else the state is a potato successor, so make it absorbing.
-				potatoCTMC.addToProbability(ACTMCtoDTMC.get(s), ACTMCtoDTMC.get(s), uniformizationRate);
+				potatoCTMC.addToProbability(index, index, uniformizationRate);
 			}
 		}
 		
@@ -534,9 +674,51 @@ public abstract class ACTMCPotato
 		//potatoCTMC.uniformise(uniformizationRate); // TODO MAJO - make 100% sure this can be deleted
 		potatoDTMC = potatoCTMC.buildUniformisedDTMC(uniformizationRate);
 		
+		// Store the event transitions in the indexing of the potatoDTMC
+		eventTransRows = new int[numPotatoDTMCStates + 1];
+		List<Integer> cols = new ArrayList<Integer>();
+		List<Double> probs = new ArrayList<Double>();
+		for (int index = 0; index < potatoStates.length; ++index) {
+			for (Map.Entry<Integer, Double> trans : event.getTransitions(DTMCtoACTMC[index])) {
+				cols.add(ACTMCtoDTMC[trans.getKey()]);
+				probs.add(trans.getValue());
+			}
+			eventTransRows[index + 1] = cols.size();
+		}
+		for (int index = potatoStates.length; index < numPotatoDTMCStates; ++index) {
+			eventTransRows[index + 1] = cols.size();
+		}
+		eventTransCols = new int[cols.size()];
+		eventTransProbs = new double[cols.size()];
+		for (int i = 0; i < cols.size(); ++i) {
+			eventTransCols[i] = cols.get(i);
+			eventTransProbs[i] = probs.get(i);
+		}
+		successorIndices = null;
+		
 		potatoDTMCComputed = true;
 	}
 	
+	/**
+	 * Applies the behavior of {@code event} to a vector of probabilities just before the event occurrence.
+	 * I.e. the probabilities of the potato states are redistributed into their event successors.
+	 * @param result vector indexed by the states of {@code potatoDTMC}. It is modified in place.
+	 */
+	protected void applyEventTransitions(double[] result) {
+		double[] beforeEvent = result.clone();
+		int numPotatoStates = potato.size();
+		for (int i = 0; i < numPotatoStates; ++i) {
+			result[i] = 0;
+		}
+		for (int i = 0; i < numPotatoStates; ++i) {
+			if (beforeEvent[i] > 0) {
+				for (int j = eventTransRows[i]; j < eventTransRows[i + 1]; ++j) {
+					result[eventTransCols[j]] += beforeEvent[i] * eventTransProbs[j];
+				}
+			}
+		}
+	}
+	
 	/** Uses class FoxGlynn to pre-compute the Poisson distribution. 
 	 *  <br>
 	 *  Before calling this method, {@code computePotatoDTMC()} must be called first,
@@ -554,7 +736,6 @@ public abstract class ACTMCPotato
 	 * Before calling this method, {@code computeFoxGlynn()} must be called first.
 	 * After calling this method, {@code meanTimesComputed} is set to true,
 	 * and the result is saved within {@code meanTimes}.
-	 * Also,  {@code meanTimesSoln} is updated.
 	 */
 	protected abstract void computeMeanTimes() throws PrismException;
 	
@@ -566,7 +747,6 @@ public abstract class ACTMCPotato
 	 * Before calling this method, {@code computeFoxGlynn()} must be called first.
 	 * After calling this method, {@code meanDistributionsComputed} is set to true,
 	 * and the result is saved within {@code meanDistributions} and {@code meanDistributionsBeforeEvent}.
-	 * Also,  {@code meanDistributionsSoln} is updated.
 	 */
 	protected abstract void computeMeanDistributions() throws PrismException;
 	
@@ -611,7 +791,7 @@ public abstract class ACTMCPotato
 				}
 				
 				Distribution eventTransitions = event.getTransitions(ps);
-				double weight = meanDistributionsBeforeEvent.get(entrance).get(ps);
+				double weight = meanDistributionsBeforeEvent.get(entrance, ACTMCtoDTMC[ps]);
 				Set<Integer> rewSet = rews.keySet();
 				for (int succ : rewSet) {
 					double prob = eventTransitions.get(succ);
@@ -619,7 +799,7 @@ public abstract class ACTMCPotato
 					if (originalIndexing) {
 						rewardsArray[entrance] += prob * weight * eventRew;
 					} else {
-						rewardsArray[ACTMCtoDTMC.get(entrance)] += prob * weight * eventRew;
+						rewardsArray[ACTMCtoDTMC[entrance]] += prob * weight * eventRew;
 					}
 				}
 			}
@@ -0,0 +1,148 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Accumulator of the polynomial coefficients of the mean times (and mean rewards)
+ * of potatoes whose event is integrated over time, i.e. {@link ACTMCPotatoUniform_poly}
+ * and {@link ACTMCPotatoWeibull_polyTaylor}.
+ * <br>
+ * Given the solution vectors s_0, s_1, ..., s_right of the uniformized iterations,
+ * the coefficients of the polynomial of each state are
+ * <ul>
+ * <li> for left == 0: c_0 = 0, c_j = w_j * (s_0 + ... + s_{j-1}) for 1 <= j < right,
+ *      and c_right = w_right * s_0,
+ * <li> for left > 0: c_j = 0 for j < left, c_j = B + w_j * (s_left + ... + s_{j-1}) for left <= j < right,
+ *      and c_right = B, where B = (s_0 + ... + s_{left-1}) / uniformizationRate.
+ * </ul>
+ * Adding each s_k into all the following coefficients takes O(right^2) operations per state.
+ * Instead, only the prefix sums are kept, and each coefficient is finalized
+ * at the iteration it belongs to, which takes O(right) operations per state.
+ */
+public class ACTMCPotatoCoefficientSums
+{
+	private int numStates;
+	private int left;
+	private int right;
+	private BigDecimal[] weights;
+	private BigDecimal uniformizationRate;
+	private MathContext mc;
+
+	/** Coefficients of the polynomials, indexed by the state and then the coefficient index */
+	private BigDecimal[][] coeffs;
+	/** The sum of s_k / uniformizationRate for k < left, for each state */
+	private BigDecimal[] base;
+	/** The prefix sum of s_k (for k >= left), for each state */
+	private BigDecimal[] prefix;
+	/** Next iteration expected by {@link #add(double[])} */
+	private int iters = 0;
+
+	/**
+	 * @param numStates number of states of the potatoDTMC
+	 * @param left left truncation point
+	 * @param right right truncation point
+	 * @param weights weights w_left ... w_right (index 0 corresponds to left)
+	 * @param uniformizationRate uniformization rate of the potatoDTMC
+	 * @param mc MathContext to use
+	 */
+	public ACTMCPotatoCoefficientSums(int numStates, int left, int right, BigDecimal[] weights, double uniformizationRate, MathContext mc)
+	{
+		this.numStates = numStates;
+		this.left = left;
+		this.right = right;
+		this.weights = weights;
+		this.uniformizationRate = new BigDecimal(String.valueOf(uniformizationRate), mc);
+		this.mc = mc;
+		this.coeffs = new BigDecimal[numStates][right + 1];
+		this.base = new BigDecimal[numStates];
+		this.prefix = new BigDecimal[numStates];
+		for (int i = 0; i < numStates; i++) {
+			base[i] = BigDecimal.ZERO;
+			prefix[i] = BigDecimal.ZERO;
+			for (int j = 0; j < left; j++) {
+				coeffs[i][j] = BigDecimal.ZERO;
+			}
+		}
+	}
+
+	/**
+	 * Adds the solution vector of the next iteration, i.e. s_0 on the first call,
+	 * s_1 on the second call, and so on up to s_right.
+	 */
+	public void add(double[] soln)
+	{
+		int k = iters++;
+		if (k > right) {
+			throw new IllegalStateException("All " + (right + 1) + " iterations were already added!");
+		}
+		for (int i = 0; i < numStates; i++) {
+			double s = soln[i];
+			if (k < left) {
+				if (s != 0.0) {
+					base[i] = base[i].add(new BigDecimal(s, mc).divide(uniformizationRate, mc), mc);
+				}
+				continue;
+			}
+			if (left == 0 && k == 0) {
+				coeffs[i][0] = BigDecimal.ZERO;
+				if (right > 0) {
+					coeffs[i][right] = (s == 0.0) ? BigDecimal.ZERO : new BigDecimal(s, mc).multiply(weights[right - left], mc);
+				}
+			} else if (k < right) {
+				if (prefix[i].signum() == 0) {
+					coeffs[i][k] = base[i];
+				} else {
+					BigDecimal tmp = prefix[i].multiply(weights[k - left], mc);
+					coeffs[i][k] = (left == 0) ? tmp : base[i].add(tmp, mc);
+				}
+			}
+			if (s != 0.0) {
+				prefix[i] = prefix[i].add(new BigDecimal(s, mc), mc);
+			}
+		}
+		if (k == right && left > 0) {
+			for (int i = 0; i < numStates; i++) {
+				coeffs[i][right] = base[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the coefficients c_0 ... c_right of the polynomial of {@code state}.
+	 * Must only be called after all the iterations were added.
+	 */
+	public BigDecimal[] getCoeffs(int state)
+	{
+		if (iters <= right) {
+			throw new IllegalStateException("Only " + iters + " of " + (right + 1) + " iterations were added!");
+		}
+		return coeffs[state];
+	}
+}
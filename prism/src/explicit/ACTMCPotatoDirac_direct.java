@@ -28,7 +28,6 @@ package explicit;
 
 import java.math.BigDecimal;
 import java.util.BitSet;
-import java.util.Set;
 
 import explicit.rewards.ACTMCRewardsSimple;
 import prism.PrismException;
@@ -49,6 +48,21 @@ import prism.PrismException;
  */
 public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this class should use BigDecimal arithmetics internally!
 {
+	/**
+	 * Maximum number of entries (states times entrances) of a block of vectors
+	 * propagated together by the transient analysis. Limits the memory used by the batching.
+	 */
+	protected static final int MAX_BLOCK_LENGTH = 1 << 21;
+	
+	/** Left truncation point of the Poisson distribution */
+	protected int fgLeft;
+	/** Right truncation point of the Poisson distribution */
+	protected int fgRight;
+	/** Normalized Poisson weights of the points fgLeft..fgRight */
+	protected double[] fgWeights;
+	/** Tail weights (1 - sum_{k<=i} w_k) / uniformizationRate of the points fgLeft..fgRight */
+	protected double[] fgTailWeights;
+	
 	/** {@link ACTMCPotato#ACTMCPotato(ACTMCSimple, GSMPEvent, ACTMCRewardsSimple, BitSet)} */
 	public ACTMCPotatoDirac_direct(ACTMCSimple actmc, GSMPEvent event, ACTMCRewardsSimple rewards, BitSet target) throws PrismException {
 		super(actmc, event, rewards, target);
@@ -69,14 +83,96 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 			throw new PrismException("No precision specified for FoxGlynn!");
 		}
 		
+		doubleFastPathUsed = false;
+		doubleFastPathErrorBound = Double.NaN;
+		if (doubleFastPathTolerance > 0 && computeFoxGlynnDouble()) {
+			doubleFastPathUsed = true;
+			foxGlynnComputed = true;
+			return;
+		}
+		
 		BigDecimal fgRate = new BigDecimal(String.valueOf(uniformizationRate), mc).multiply(new BigDecimal(String.valueOf(event.getFirstParameter()), mc), mc);
-		foxGlynn = new FoxGlynn_BD(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
+		foxGlynn = FoxGlynn_BD.getCached(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
 		if (foxGlynn.getRightTruncationPoint() < 0) {
 			throw new PrismException("Overflow in Fox-Glynn computation of the Poisson distribution!");
 		}
 		
+		// Prepare the FoxGlynn data
+		fgLeft = foxGlynn.getLeftTruncationPoint();
+		fgRight = foxGlynn.getRightTruncationPoint();
+		BigDecimal[] weights_BD = foxGlynn.getNormalizedWeights();
+		fgWeights = new double[weights_BD.length];
+		for (int i = 0 ; i < fgWeights.length ; ++i) {
+			fgWeights[i] = weights_BD[i].doubleValue();
+		}
+		BigDecimal[] tailWeights_BD = foxGlynn.getTailWeights();
+		BigDecimal rate_BD = new BigDecimal(String.valueOf(uniformizationRate), mc);
+		fgTailWeights = new double[tailWeights_BD.length];
+		for (int i = 0 ; i < fgTailWeights.length ; ++i) {
+			fgTailWeights[i] = tailWeights_BD[i].divide(rate_BD, mc).doubleValue();
+		}
+		
 		foxGlynnComputed = true;
 	}
+	
+	/**
+	 * Double precision fast path of {@link #computeFoxGlynn()}.
+	 * Computes the weights using {@link FoxGlynn_bounded} and the tail weights using compensated summation,
+	 * and derives an a-posteriori bound on the error these cause in the mean times, distributions and rewards.
+	 * The bound is stored in {@code doubleFastPathErrorBound}.
+	 * <br>
+	 * The vector-matrix sweeps themselves are done in double precision either way,
+	 * so only the error of the weights differs from the BigDecimal computation.
+	 * @return true iff the error bound is within {@code doubleFastPathTolerance}
+	 *         and the computed weights may be used.
+	 */
+	protected boolean computeFoxGlynnDouble() throws PrismException {
+		double fgRate = uniformizationRate * event.getFirstParameter();
+		// The truncation error is kept well below the rounding errors, but never coarser than kappa
+		double accuracy = Math.max(kappa.doubleValue(), doubleFastPathTolerance * FoxGlynn_bounded.UNIT_ROUNDOFF);
+		FoxGlynn_bounded fg = new FoxGlynn_bounded(fgRate, accuracy);
+		int left = fg.getLeftTruncationPoint();
+		int right = fg.getRightTruncationPoint();
+		double[] weights = fg.getWeights();
+		
+		// Tail weights (1 - sum_{k<=i} w_k) / unifRate using compensated summation
+		double[] tailWeights = new double[weights.length];
+		double sum = 0.0;
+		double comp = 0.0;
+		for (int i = left; i <= right; i++) {
+			double y = weights[i - left] - comp;
+			double t = sum + y;
+			comp = (t - sum) - y;
+			sum = t;
+			tailWeights[i - left] = Math.max(0.0, 1.0 - sum) / uniformizationRate;
+		}
+		
+		// Error bound of the weights (L1 norm), which directly bounds the error of the mean distributions
+		final double u = FoxGlynn_bounded.UNIT_ROUNDOFF;
+		double weightsError = fg.getErrorBound();
+		// Each tail weight inherits the weights error, plus the compensated sum, the subtraction and the division.
+		// The mean times sum right+1 tail weights of substochastic vectors, and the tail beyond right
+		// is bounded geometrically, since the ratio of successive Poisson tail terms is below fgRate/(right+2).
+		double ratio = fgRate / (right + 2);
+		double timesError = ((right + 1) * (weightsError + 4 * u) + fg.getTruncationError() / (1 - ratio)) / uniformizationRate;
+		// The mean rewards scale the mean times by at most the maximal reward within the potato
+		double maxReward = 0;
+		if (rewards != null) {
+			for (int ps : potato) {
+				maxReward = Math.max(maxReward, Math.abs(rewards.getMergedStateReward(ps)));
+			}
+		}
+		doubleFastPathErrorBound = Math.max(weightsError, timesError * Math.max(1.0, maxReward));
+		if (!(doubleFastPathErrorBound <= doubleFastPathTolerance)) {
+			return false;
+		}
+		
+		fgLeft = left;
+		fgRight = right;
+		fgWeights = weights;
+		fgTailWeights = tailWeights;
+		return true;
+	}
 
 	@Override
 	protected void computeMeanTimes() throws PrismException {
@@ -87,47 +183,37 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 		int numStates = potatoDTMC.getNumStates();
 		
 		// Prepare the FoxGlynn data
-		int left = foxGlynn.getLeftTruncationPoint();
-		int right = foxGlynn.getRightTruncationPoint();
-		BigDecimal[] weights_BD = foxGlynn.getWeights().clone();
-		BigDecimal totalWeight_BD = foxGlynn.getTotalWeight();
-		for (int i = left; i <= right; i++) {
-			weights_BD[i - left] = weights_BD[i - left].divide(totalWeight_BD, mc);
-		}
-		for (int i = left+1; i <= right; i++) {
-			weights_BD[i - left] = weights_BD[i - left].add(weights_BD[i - 1 - left], mc);
-		}
-		for (int i = left; i <= right; i++) {
-			weights_BD[i - left] = (BigDecimal.ONE.subtract(weights_BD[i - left], mc)).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc);
-		}
-		double[] weights = new double[weights_BD.length];
-		for (int i = 0 ; i < weights.length ; ++i) {
-			weights[i] = weights_BD[i].doubleValue();
-		}
+		int left = fgLeft;
+		int right = fgRight;
+		double[] weights = fgTailWeights;
 		
-		for (int entrance : entrances) {
+		int[] entranceArray = entrances.getMembers();
+		int blockSize = getEntranceBlockSize(numStates, entranceArray.length);
+		for (int from = 0; from < entranceArray.length; from += blockSize) {
+			// All entrances of this block are propagated together,
+			// the j-th entrance being stored in the j-th column of the block.
+			int k = Math.min(blockSize, entranceArray.length - from);
+			int blockLength = numStates * k;
 			
 			// Prepare solution arrays
-			double[] soln = new double[numStates];
-			double[] soln2 = new double[numStates];
-			double[] result = new double[numStates];
-			double[] tmpsoln = new double[numStates];
+			double[] soln = new double[blockLength];
+			double[] soln2 = new double[blockLength];
+			double[] result = new double[blockLength];
+			double[] tmpsoln;
 
 			// Initialize the solution array by assigning reward
 			// 1 to the entrance and 0 to all others.
-			for (int i = 0; i < numStates; i++) {
-				soln[i] = 0;
+			for (int j = 0; j < k; j++) {
+				soln[ACTMCtoDTMC[entranceArray[from + j]] * k + j] = 1;
 			}
-			soln[ACTMCtoDTMC.get(entrance)] = 1;
 
 			// do 0th element of summation (doesn't require any matrix powers)
-			result = new double[numStates];
 			if (left == 0) {
-				for (int i = 0; i < numStates; i++) {
+				for (int i = 0; i < blockLength; i++) {
 					result[i] += weights[0] * soln[i];
 				}
 			} else {
-				for (int i = 0; i < numStates; i++) {
+				for (int i = 0; i < blockLength; i++) {
 					result[i] += soln[i] / uniformizationRate;
 				}
 			}
@@ -135,44 +221,32 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 			// Start iterations
 			int iters = 1;
 			while (iters <= right) {
-				// Matrix-vector multiply
-				potatoDTMC.vmMult(soln, soln2);
+				// Matrix-block multiply
+				potatoDTMC.vmMultBlock(soln, soln2, k);
 				// Swap vectors for next iter
 				tmpsoln = soln;
 				soln = soln2;
 				soln2 = tmpsoln;
 				// Add to sum
 				if (iters >= left) {
-					for (int i = 0; i < numStates; i++) {
-						result[i] += weights[iters - left] * soln[i];
+					double weight = weights[iters - left];
+					for (int i = 0; i < blockLength; i++) {
+						result[i] += weight * soln[i];
 					}
 				} else {
-					for (int i = 0; i < numStates; i++) {
+					for (int i = 0; i < blockLength; i++) {
 						result[i] += soln[i] / uniformizationRate;
 					}
 				}
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
+			for (int j = 0; j < k; j++) {
+				int entrance = entranceArray[from + j];
+				
+				// Store the times spent within the potato states (column j of the block).
+				storeMeanTimes(entrance, result, j, k);
 			}
-			meanTimesSoln.put(entrance, solnDistr);
-			
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int ps : potato) {
-				double time = result[ACTMCtoDTMC.get(ps)];
-				if (time != 0.0) {
-					resultDistr.add(ps, time);
-				}
-			}
-			meanTimes.put(entrance, resultDistr);
 		}
 		meanTimesComputed = true;
 	}
@@ -186,116 +260,78 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 		int numStates = potatoDTMC.getNumStates();
 		
 		// Prepare the FoxGlynn data
-		int left = foxGlynn.getLeftTruncationPoint();
-		int right = foxGlynn.getRightTruncationPoint();
-		BigDecimal[] weights_BD = foxGlynn.getWeights().clone();
-		BigDecimal totalWeight_BD = foxGlynn.getTotalWeight();
-		for (int i = left; i <= right; i++) {
-			weights_BD[i - left] = weights_BD[i - left].divide(totalWeight_BD, mc);
-		}
-		double[] weights = new double[weights_BD.length];
-		for (int i = 0 ; i < weights.length ; ++i) {
-			weights[i] = weights_BD[i].doubleValue();
-		}
+		int left = fgLeft;
+		int right = fgRight;
+		double[] weights = fgWeights;
 		
-		for (int entrance : entrances) {
+		int[] entranceArray = entrances.getMembers();
+		int blockSize = getEntranceBlockSize(numStates, entranceArray.length);
+		for (int from = 0; from < entranceArray.length; from += blockSize) {
+			// All entrances of this block are propagated together,
+			// the j-th entrance being stored in the j-th column of the block.
+			int k = Math.min(blockSize, entranceArray.length - from);
+			int blockLength = numStates * k;
 			
 			// Prepare solution arrays
-			double[] initDist = new double[numStates];
-			double[] soln;
-			double[] soln2 = new double[numStates];
-			double[] result = new double[numStates];
-			double[] tmpsoln = new double[numStates];
+			double[] soln = new double[blockLength];
+			double[] soln2 = new double[blockLength];
+			double[] resultBlock = new double[blockLength];
+			double[] tmpsoln;
 			
-			// Build the initial distribution for this potato entrance
-			for (int s = 0; s < numStates  ; ++s) {
-				initDist[s] = 0;
-			}
-			initDist[ACTMCtoDTMC.get(entrance)] = 1;
-			soln = initDist;
-
-			// Initialize the result array
-			for (int i = 0; i < numStates; i++) {
-				result[i] = 0.0;
+			// Build the initial distributions for the potato entrances
+			for (int j = 0; j < k; j++) {
+				soln[ACTMCtoDTMC[entranceArray[from + j]] * k + j] = 1;
 			}
 
 			// If necessary, compute the 0th element of summation
 			// (doesn't require any matrix powers)
 			if (left == 0) {
-				for (int i = 0; i < numStates; i++) {
-					result[i] += weights[0] * soln[i];
+				for (int i = 0; i < blockLength; i++) {
+					resultBlock[i] += weights[0] * soln[i];
 				}
 			}
 
 			// Start iterations
 			int iters = 1;
 			while (iters <= right) {
-				// Matrix-vector multiply
-				potatoDTMC.vmMult(soln, soln2);
+				// Matrix-block multiply
+				potatoDTMC.vmMultBlock(soln, soln2, k);
 				// Swap vectors for next iter
 				tmpsoln = soln;
 				soln = soln2;
 				soln2 = tmpsoln;
 				// Add to sum
 				if (iters >= left) {
-					for (int i = 0; i < numStates; i++) {
-						result[i] += weights[iters - left] * soln[i];
+					double weight = weights[iters - left];
+					for (int i = 0; i < blockLength; i++) {
+						resultBlock[i] += weight * soln[i];
 					}
 				}
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanDistributionsSoln.put(entrance, solnDistr);
-			
-			// Store the result vector for later use.
-			Distribution resultBeforeEvent = new Distribution();
-			for(int i = 0; i < numStates ; ++i ) {
-				resultBeforeEvent.add(DTMCtoACTMC.get(i), result[i]);
-			}
-			meanDistributionsBeforeEvent.put(entrance, resultBeforeEvent);
-			
-			// Lastly, if there is some probability that the potatoDTMC would 
-			// still be within the potato at the time of the event occurrence,
-			// these probabilities must be redistributed into the successor states
-			// using the event-defined distribution on states.
-			// (I.e. the actual event behavior is applied)
-			tmpsoln = result.clone();
-			for ( int ps : potato) {
-				result[ACTMCtoDTMC.get(ps)] = 0;
-			}
-			for ( int ps : potato) {
-				int psIndex = ACTMCtoDTMC.get(ps);
-				if (tmpsoln[psIndex] > 0) {
-					Distribution distr = event.getTransitions(ps);
-					Set<Integer> distrSupport = distr.getSupport();
-					for ( int successor : distrSupport) {
-						result[ACTMCtoDTMC.get(successor)] += tmpsoln[psIndex] * distr.get(successor);
-					}
-				}
-			}
-			
-			// Normalize the result array (it may not sum to 1 due to inaccuracy).
-			double probSum = 0;
-			for (int succState : successors) {
-				probSum += result[ACTMCtoDTMC.get(succState)];
-			}
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int succState : successors) {
-				double prob = result[ACTMCtoDTMC.get(succState)];
-				if (prob != 0.0) {
-					resultDistr.add(succState, prob / probSum); 
+			for (int j = 0; j < k; j++) {
+				int entrance = entranceArray[from + j];
+				
+				// Extract the result vector of this entrance from the block
+				double[] result = new double[numStates];
+				for (int i = 0; i < numStates; i++) {
+					result[i] = resultBlock[i * k + j];
 				}
+				
+				// Store the result vector for later use.
+				meanDistributionsBeforeEvent.setRow(entrance, result);
+				
+				// Lastly, if there is some probability that the potatoDTMC would 
+				// still be within the potato at the time of the event occurrence,
+				// these probabilities must be redistributed into the successor states
+				// using the event-defined distribution on states.
+				// (I.e. the actual event behavior is applied)
+				applyEventTransitions(result);
+				
+				// Store the normalized distribution on the successors (it may not sum to 1 due to inaccuracy).
+				storeMeanDistribution(entrance, result);
 			}
-			meanDistributions.put(entrance, resultDistr);
 		}
 		meanDistributionsComputed = true;
 	}
@@ -309,23 +345,9 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 		int numStates = potatoDTMC.getNumStates();
 		
 		// Prepare the FoxGlynn data
-		int left = foxGlynn.getLeftTruncationPoint();
-		int right = foxGlynn.getRightTruncationPoint();
-		BigDecimal[] weights_BD = foxGlynn.getWeights().clone();
-		BigDecimal totalWeight_BD = foxGlynn.getTotalWeight();
-		for (int i = left; i <= right; i++) {
-			weights_BD[i - left] = weights_BD[i - left].divide(totalWeight_BD, mc);
-		}
-		for (int i = left+1; i <= right; i++) {
-			weights_BD[i - left] = weights_BD[i - left].add(weights_BD[i - 1 - left], mc);
-		}
-		for (int i = left; i <= right; i++) {
-			weights_BD[i - left] = (BigDecimal.ONE.subtract(weights_BD[i - left], mc)).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc);
-		}
-		double[] weights = new double[weights_BD.length];
-		for (int i = 0 ; i < weights.length ; ++i) {
-			weights[i] = weights_BD[i].doubleValue();
-		}
+		int left = fgLeft;
+		int right = fgRight;
+		double[] weights = fgTailWeights;
 		
 		// Prepare solution arrays
 		double[] soln = new double[numStates];
@@ -335,7 +357,7 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 
 		// Initialize the solution array by assigning rewards to the potato states
 		for (int s = 0; s < numStates; s++) {
-			int index = DTMCtoACTMC.get(s);
+			int index = DTMCtoACTMC[s];
 			if (potato.contains(index)) {
 				soln[s] = rewards.getMergedStateReward(index);
 			} else {
@@ -379,7 +401,7 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 		
 		// Store the sol vector using the original indexing for later use.
 		for (int ps : potato) {
-			double sol = soln[ACTMCtoDTMC.get(ps)];
+			double sol = soln[ACTMCtoDTMC[ps]];
 			if (sol != 0.0) {
 				meanRewardsSoln.set(ps, sol);
 			}
@@ -387,7 +409,7 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 		
 		// Store the rewards just before the event behavior using the original indexing for later use.
 		for (int entrance : entrances) {
-			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		//Now that we have the expected rewards for the underlying CTMC behavior,
@@ -396,10 +418,21 @@ public class ACTMCPotatoDirac_direct extends ACTMCPotato // TODO MAJO - this cla
 		
 		// Store the finalized expected rewards using the original indexing.
 		for (int entrance : entrances) {
-			meanRewards.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewards.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		meanRewardsComputed = true;
 	}
 
+	/**
+	 * Computes how many entrances are propagated together as one block
+	 * in {@link #computeMeanTimes()} and {@link #computeMeanDistributions()}.
+	 * All entrances are taken at once, unless the block would exceed {@link #MAX_BLOCK_LENGTH} entries.
+	 * @param numStates number of states of the potatoDTMC
+	 * @param numEntrances number of entrances of this potato
+	 */
+	protected static int getEntranceBlockSize(int numStates, int numEntrances) {
+		return Math.max(1, Math.min(numEntrances, MAX_BLOCK_LENGTH / Math.max(1, numStates)));
+	}
+
 }
\ No newline at end of file
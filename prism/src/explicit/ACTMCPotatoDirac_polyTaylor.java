@@ -86,7 +86,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		}
 		
 		BigDecimal fgRate = new BigDecimal(String.valueOf(uniformizationRate), mc); // Compute FoxGlynn only for the uniformization rate
-		foxGlynn = new FoxGlynn_BD(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
+		foxGlynn = FoxGlynn_BD.getCached(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
 		if (foxGlynn.getRightTruncationPoint() < 0) {
 			throw new PrismException("Overflow in Fox-Glynn computation of the Poisson distribution!");
 		}
@@ -139,7 +139,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 				soln[i] = 0;
 				polynomials[i] = new Polynomial();
 			}
-			soln[ACTMCtoDTMC.get(entrance)] = 1;
+			soln[ACTMCtoDTMC[entrance]] = 1;
 
 			
 			// do 0th element of summation (doesn't require any matrix powers), and initialize the coefficients
@@ -190,16 +190,6 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanTimesSoln.put(entrance, solnDistr);
-			
 			//Factor the Taylor series representation into the polynomial
 			for (int n = 0; n < numStates ; ++n) {
 				polynomials[n].multiply(taylorPoisson, mc);
@@ -207,7 +197,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC.get(n), polynomials[n]);
+				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC[n], polynomials[n]);
 			}
 			
 			//Evaluate the polynomial at requested timeout t
@@ -216,15 +206,8 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 				result[n] = res.doubleValue();
 			}
 			
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int ps : potato) {
-				double time = result[ACTMCtoDTMC.get(ps)];
-				if (time != 0.0) {
-					resultDistr.add(ps, time);
-				}
-			}
-			meanTimes.put(entrance, resultDistr);
+			// Store the times spent within the potato states.
+			storeMeanTimes(entrance, result, 0, 1);
 		}
 		meanTimesComputed = true;
 	}
@@ -265,7 +248,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 			for (int s = 0; s < numStates  ; ++s) {
 				initDist[s] = 0;
 			}
-			initDist[ACTMCtoDTMC.get(entrance)] = 1;
+			initDist[ACTMCtoDTMC[entrance]] = 1;
 			soln = initDist;
 
 			// Initialize the arrays
@@ -311,16 +294,6 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanDistributionsSoln.put(entrance, solnDistr);
-			
 			//Factor the Taylor series representation into the polynomial
 			for (int n = 0; n < numStates ; ++n) {
 				polynomialsBeforeEvent[n].multiply(taylorPoisson, mc);
@@ -328,7 +301,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC.get(n), polynomialsBeforeEvent[n]);
+				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC[n], polynomialsBeforeEvent[n]);
 			}
 			
 			//Evaluate the polynomial at requested timeout t
@@ -338,11 +311,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 			}
 			
 			// Store the just-before-event result vector for later use by other methods
-			Distribution resultBeforeEvent = new Distribution();
-			for(int i = 0; i < numStates ; ++i ) {
-				resultBeforeEvent.add(DTMCtoACTMC.get(i), result[i]);
-			}
-			meanDistributionsBeforeEvent.put(entrance, resultBeforeEvent);
+			meanDistributionsBeforeEvent.setRow(entrance, result);
 			
 			//Lastly, the actual event behavior is applied.
 			//I.e. if there is some probability that the potatoDTMC would 
@@ -350,13 +319,13 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 			//these probabilities must be redistributed into the successor states.
 			//using the event-defined distribution on states.
 			for (int n = 0; n < numStates  ; ++n) {
-				int nIndex = DTMCtoACTMC.get(n);
+				int nIndex = DTMCtoACTMC[n];
 				if (potato.contains(nIndex)) {
 					Distribution distr = event.getTransitions(nIndex);
 					Set<Integer> distrSupport = distr.getSupport();
 					for ( int successor : distrSupport) {
 						polynomialsBeforeEvent[n].multiplyWithScalar(new BigDecimal(distr.get(successor), mc),  mc);
-						polynomialsAfterEvent[ACTMCtoDTMC.get(successor)].add(polynomialsBeforeEvent[n], mc);
+						polynomialsAfterEvent[ACTMCtoDTMC[successor]].add(polynomialsBeforeEvent[n], mc);
 						polynomialsBeforeEvent[n].multiplyWithScalar(BigDecimal.ONE.divide(new BigDecimal(distr.get(successor), mc), mc),  mc);
 					}
 				} else {
@@ -366,7 +335,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC.get(n), polynomialsAfterEvent[n]);
+				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC[n], polynomialsAfterEvent[n]);
 			}
 			
 			//Evaluate the polynomial at requested timeout t
@@ -375,20 +344,8 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 				result[n] = res.doubleValue();
 			}
 			
-			// Normalize the result array (it may not sum to 1 due to inaccuracy).
-			double probSum = 0;
-			for (int succState : successors) {
-				probSum += result[ACTMCtoDTMC.get(succState)];
-			}
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int succState : successors) {
-				double prob = result[ACTMCtoDTMC.get(succState)];
-				if (prob != 0.0) {
-					resultDistr.add(succState, prob / probSum); 
-				}
-			}
-			meanDistributions.put(entrance, resultDistr);
+			// Store the normalized distribution on the successors (it may not sum to 1 due to inaccuracy).
+			storeMeanDistribution(entrance, result);
 		}
 		meanDistributionsComputed = true;
 	}
@@ -425,7 +382,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		// Initialize the solution array by assigning rewards to the potato states
 		// Also initialize the polynomials
 		for (int i = 0; i < numStates; i++) {
-			int index = DTMCtoACTMC.get(i);
+			int index = DTMCtoACTMC[i];
 			if (potato.contains(index)) {
 				soln[i] = rewards.getMergedStateReward(index);
 			} else {
@@ -484,7 +441,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the sol vector  using the original indexing for later use.
 		for (int ps : potato) {
-			double sol = soln[ACTMCtoDTMC.get(ps)];
+			double sol = soln[ACTMCtoDTMC[ps]];
 			if (sol != 0.0) {
 				meanRewardsSoln.set(ps, sol);
 			}
@@ -497,7 +454,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC.get(n), polynomialsBeforeEvent[n]);
+			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC[n], polynomialsBeforeEvent[n]);
 		}
 		
 		//Evaluate the polynomial at requested timeout t
@@ -508,7 +465,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the rewards just before the event behavior using the original indexing.
 		for (int entrance : entrances) {
-			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		//Now that we have the expected rewards for the underlying CTMC behavior,
@@ -520,7 +477,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsPolynomials.put(DTMCtoACTMC.get(n), polynomialsAfterEvent[n]);
+			meanRewardsPolynomials.put(DTMCtoACTMC[n], polynomialsAfterEvent[n]);
 		}
 		
 		//Evaluate the polynomial at requested timeout t
@@ -531,7 +488,7 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the finalized expected rewards using the original indexing.
 		for (int entrance : entrances) {
-			meanRewards.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewards.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		meanRewardsComputed = true;
@@ -583,55 +540,47 @@ public class ACTMCPotatoDirac_polyTaylor extends ACTMCPotato_poly
 		for (Map.Entry<Integer, Map<Integer, Poly>> entry1 : meanTimesPolynomials.entrySet()) {
 			int entrance = entry1.getKey();
 			Map<Integer, Poly> entranceMap = entry1.getValue();
-			Distribution meanTimesForEntrance = meanTimes.get(entrance);
-			meanTimesForEntrance.clear();
+			double[] meanTimesForEntrance = new double[DTMCtoACTMC.length];
 			
 			for (int s : potato) {
 				Poly polynomial = entranceMap.get(s);
 				
 				double val = polynomial.value(timeout, mc).doubleValue();
-				if (val != 0.0) {
-					meanTimesForEntrance.add(s, val);
-				}
+				meanTimesForEntrance[ACTMCtoDTMC[s]] = val;
 			}
+			storeMeanTimes(entrance, meanTimesForEntrance, 0, 1);
 		}
 		
 		// reevaluate meanDistributionsBeforeEvent
 		for (Map.Entry<Integer, Map<Integer, Poly>> entry1 : meanDistributionsBeforeEventPolynomials.entrySet()) {
 			int entrance = entry1.getKey();
 			Map<Integer, Poly> entranceMap = entry1.getValue();
-			Distribution meanDistributionForEntrance = meanDistributionsBeforeEvent.get(entrance);
-			meanDistributionForEntrance.clear();
+			double[] meanDistributionForEntrance = new double[DTMCtoACTMC.length];
 			
 			for (Map.Entry<Integer, Poly> entry2 : entranceMap.entrySet()) {
 				int destination = entry2.getKey();
 				Poly polynomial = entry2.getValue();
 				
 				double val = polynomial.value(timeout, mc).doubleValue();
-				meanDistributionForEntrance.add(destination, val);
+				meanDistributionForEntrance[ACTMCtoDTMC[destination]] = val;
 			}
+			meanDistributionsBeforeEvent.setRow(entrance, meanDistributionForEntrance);
 		}
 		
 		// reevaluate meanDistributions
 		for (Map.Entry<Integer, Map<Integer, Poly>> entry1 : meanDistributionsPolynomials.entrySet()) {
 			int entrance = entry1.getKey();
 			Map<Integer, Poly> entranceMap = entry1.getValue();
-			Distribution meanDistributionForEntrance = meanDistributions.get(entrance);
-			meanDistributionForEntrance.clear();
+			double[] meanDistributionForEntrance = new double[DTMCtoACTMC.length];
 			
 			for (int s : successors) {
 				Poly polynomial = entranceMap.get(s);
 				
 				double val = polynomial.value(timeout, mc).doubleValue();
-				if (val != 0.0) {
-					meanDistributionForEntrance.add(s, val);
-				}
-			}
-			//normalize the distribution
-			double probSum = meanDistributionForEntrance.sum();
-			for (Integer destination : meanDistributionForEntrance.getSupport()) {
-				meanDistributionForEntrance.set(destination, meanDistributionForEntrance.get(destination) / probSum);
+				meanDistributionForEntrance[ACTMCtoDTMC[s]] = val;
 			}
+			// normalize the distribution and store it
+			storeMeanDistribution(entrance, meanDistributionForEntrance);
 		}
 		
 		// reevaluate meanRewardsBeforeEvent
@@ -91,7 +91,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		}
 		
 		BigDecimal fgRate = new BigDecimal(String.valueOf(uniformizationRate), mc); // Compute FoxGlynn only for the uniformization rate
-		foxGlynn = new FoxGlynn_BD(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
+		foxGlynn = FoxGlynn_BD.getCached(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
 		if (foxGlynn.getRightTruncationPoint() < 0) {
 			throw new PrismException("Overflow in Fox-Glynn computation of the Poisson distribution!");
 		}
@@ -141,7 +141,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 				soln[i] = 0;
 				polynomials[i] = new Polynomial();
 			}
-			soln[ACTMCtoDTMC.get(entrance)] = 1;
+			soln[ACTMCtoDTMC[entrance]] = 1;
 
 			// do 0th element of summation (doesn't require any matrix powers), and initialize the coefficients
 			result = new double[numStates];
@@ -191,16 +191,6 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanTimesSoln.put(entrance, solnDistr);
-			
 			//Multiply the polynomial by t^(k-1)
 			for (int n = 0; n < numStates  ; ++n) {
 				for (int k = 0; k < (int)(event.getSecondParameter() - 1); ++k) {
@@ -215,7 +205,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -223,15 +213,8 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 				result[n] = evaluateAntiderivative(antiderivatives[n]).doubleValue();
 			}
 			
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int ps : potato) {
-				double time = result[ACTMCtoDTMC.get(ps)];
-				if (time != 0.0) {
-					resultDistr.add(ps, time);
-				}
-			}
-			meanTimes.put(entrance, resultDistr);
+			// Store the times spent within the potato states.
+			storeMeanTimes(entrance, result, 0, 1);
 		}
 		meanTimesComputed = true;
 	}
@@ -269,7 +252,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 			for (int s = 0; s < numStates  ; ++s) {
 				initDist[s] = 0;
 			}
-			initDist[ACTMCtoDTMC.get(entrance)] = 1;
+			initDist[ACTMCtoDTMC[entrance]] = 1;
 			soln = initDist;
 
 			// Initialize the arrays
@@ -315,16 +298,6 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanDistributionsSoln.put(entrance, solnDistr);
-			
 			//Multiply the polynomial by t^(k-1)
 			for (int n = 0; n < numStates  ; ++n) {
 				for (int k = 0; k < (int)(event.getSecondParameter() - 1); ++k) {
@@ -339,7 +312,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -348,11 +321,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 			}
 			
 			// Store the just-before-event result vector for later use by other methods
-			Distribution resultBeforeEvent = new Distribution();
-			for(int i = 0; i < numStates ; ++i ) {
-				resultBeforeEvent.add(DTMCtoACTMC.get(i), result[i]);
-			}
-			meanDistributionsBeforeEvent.put(entrance, resultBeforeEvent);
+			meanDistributionsBeforeEvent.setRow(entrance, result);
 			
 			//Lastly, the actual event behavior is applied.
 			//I.e. if there is some probability that the potatoDTMC would 
@@ -360,13 +329,13 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 			//these probabilities must be redistributed into the successor states.
 			//using the event-defined distribution on states.
 			for (int n = 0; n < numStates  ; ++n) {
-				int nIndex = DTMCtoACTMC.get(n);
+				int nIndex = DTMCtoACTMC[n];
 				if (potato.contains(nIndex)) {
 					Distribution distr = event.getTransitions(nIndex);
 					Set<Integer> distrSupport = distr.getSupport();
 					for ( int successor : distrSupport) {
 						polynomialsBeforeEvent[n].multiplyWithScalar(new BigDecimal(distr.get(successor), mc),  mc);
-						polynomialsAfterEvent[ACTMCtoDTMC.get(successor)].add(polynomialsBeforeEvent[n], mc);
+						polynomialsAfterEvent[ACTMCtoDTMC[successor]].add(polynomialsBeforeEvent[n], mc);
 						polynomialsBeforeEvent[n].multiplyWithScalar(BigDecimal.ONE.divide(new BigDecimal(distr.get(successor), mc), mc),  mc);
 					}
 				} else {
@@ -381,7 +350,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -389,20 +358,8 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 				result[n] = evaluateAntiderivative(antiderivatives[n]).doubleValue();
 			}
 
-			// Normalize the result array (it may not sum to 1 due to inaccuracy).
-			double probSum = 0;
-			for (int succState : successors) {
-				probSum += result[ACTMCtoDTMC.get(succState)];
-			}
-			// Convert the just-after-event result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int succState : successors) {
-				double prob = result[ACTMCtoDTMC.get(succState)];
-				if (prob != 0.0) {
-					resultDistr.add(succState, prob / probSum); 
-				}
-			}
-			meanDistributions.put(entrance, resultDistr);
+			// Store the normalized distribution on the successors (it may not sum to 1 due to inaccuracy).
+			storeMeanDistribution(entrance, result);
 		}
 		meanDistributionsComputed = true;
 	}
@@ -436,7 +393,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		// Initialize the solution array by assigning rewards to the potato states
 		// Also initialize the polynomials
 		for (int s = 0; s < numStates; s++) {
-			int index = DTMCtoACTMC.get(s);
+			int index = DTMCtoACTMC[s];
 			if (potato.contains(index)) {
 				soln[s] = rewards.getMergedStateReward(index);
 			} else {
@@ -495,7 +452,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		
 		// Store the sol vector  using the original indexing for later use.
 		for (int ps : potato) {
-			double sol = soln[ACTMCtoDTMC.get(ps)];
+			double sol = soln[ACTMCtoDTMC[ps]];
 			if (sol != 0.0) {
 				meanRewardsSoln.set(ps, sol);
 			}
@@ -515,7 +472,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC.get(n), antiderivatives[n]);
+			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC[n], antiderivatives[n]);
 		}
 		
 		//Compute the definite integral using the obtained antiderivative
@@ -525,7 +482,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		
 		// Store the rewards just before the event behavior using the original indexing.
 		for (int entrance : entrances) {
-			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		//Now that we have the expected rewards for the underlying CTMC behavior,
@@ -539,7 +496,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsPolynomials.put(DTMCtoACTMC.get(n), antiderivatives[n]);
+			meanRewardsPolynomials.put(DTMCtoACTMC[n], antiderivatives[n]);
 		}
 		
 		//Compute the definite integral using the obtained antiderivative
@@ -549,7 +506,7 @@ public class ACTMCPotatoErlang_poly extends ACTMCPotato_poly
 		
 		// Store the finalized expected rewards using the original indexing.
 		for (int entrance : entrances) {
-			meanRewards.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewards.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		meanRewardsComputed = true;
@@ -115,7 +115,7 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 		}
 		
 		BigDecimal fgRate = new BigDecimal(String.valueOf(uniformizationRate), mc); // Compute FoxGlynn only for the uniformization rate
-		foxGlynn = new FoxGlynn_BD(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
+		foxGlynn = FoxGlynn_BD.getCached(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), kappa);
 		if (foxGlynn.getRightTruncationPoint() < 0) {
 			throw new PrismException("Overflow in Fox-Glynn computation of the Poisson distribution!");
 		}
@@ -164,7 +164,7 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 				// Also, initialize the polynomials.
 				for (int i = 0; i < numStates; i++) {
 					dirac.getMeanDistributions();
-					soln[i] = dirac.meanDistributionsBeforeEvent.get(entrance).get(DTMCtoACTMC.get(i));
+					soln[i] = dirac.meanDistributionsBeforeEvent.get(entrance, i);
 					polynomials[i] = new Polynomial();
 				}
 			} else {
@@ -174,28 +174,14 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 					soln[i] = 0;
 					polynomials[i] = new Polynomial();
 				}
-				soln[ACTMCtoDTMC.get(entrance)] = 1;
+				soln[ACTMCtoDTMC[entrance]] = 1;
 			}
 
-			// do 0th element of summation (doesn't require any matrix powers), and initialize the coefficients
+			// Accumulate the coefficients of the polynomials in linear time, starting with the 0th element of summation
+			// (doesn't require any matrix powers)
 			result = new double[numStates];
-			if (left == 0) {
-				for (int i = 0; i < numStates; i++) {
-					polynomials[i].coeffs.add(left, BigDecimal.ZERO);
-					for (int j = 1; j <= right; ++j) {
-						polynomials[i].coeffs.add(j, new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc));
-					}
-				}
-			} else {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = 0; j < left; ++j) {
-						polynomials[i].coeffs.add(j, BigDecimal.ZERO);
-					}
-					for (int j = left; j <= right; ++j) {
-						polynomials[i].coeffs.add(j, new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc));
-					}
-				}
-			}
+			ACTMCPotatoCoefficientSums coeffSums = new ACTMCPotatoCoefficientSums(numStates, left, right, weights_BD, uniformizationRate, mc);
+			coeffSums.add(soln);
 
 			// Start iterations
 			int iters = 1;
@@ -207,33 +193,17 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 				soln = soln2;
 				soln2 = tmpsoln;
 				// Add to sum
-				if (iters >= left) {
-					for (int i = 0; i < numStates; i++) {
-						for (int j = iters + 1; j < right; ++j) {
-							BigDecimal tmp = polynomials[i].coeffs.get(j).add(new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc), mc);
-							polynomials[i].coeffs.set(j, tmp);
-						}
-					}
-				} else {
-					for (int i = 0; i < numStates; i++) {
-						for (int j = left; j <= right; ++j) {
-							BigDecimal tmp = polynomials[i].coeffs.get(j).add(new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc), mc);
-							polynomials[i].coeffs.set(j, tmp);
-						}
-					}
-				}
+				coeffSums.add(soln);
 				iters++;
 			}
-			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
+
+			// Fill in the polynomials
+			for (int i = 0; i < numStates; i++) {
+				BigDecimal[] coeffs = coeffSums.getCoeffs(i);
+				for (int j = 0; j <= right; ++j) {
+					polynomials[i].coeffs.add(j, coeffs[j]);
 				}
 			}
-			meanTimesSoln.put(entrance, solnDistr);
 			
 			//Compute antiderivative of (e^(-lambda*time) * polynomial) using integration by parts
 			for (int n = 0; n < numStates ; ++n) {
@@ -242,27 +212,21 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
+			ACTMCPotatoVectors diracMeanTimes = diracPrecompute ? dirac.getMeanTimes() : null;
 			for (int n = 0; n < numStates ; ++n) {
 				double diracAddition = 0;
 				if (diracPrecompute) { //Get the Dirac-behavior increment (if there is one)
-					diracAddition = dirac.getMeanTimes().get(entrance).get(DTMCtoACTMC.get(n));
+					diracAddition = diracMeanTimes.get(entrance, n);
 				}
 				result[n] = evaluateAntiderivative(antiderivatives[n]).doubleValue() + diracAddition;
 			}
 			
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int ps : potato) {
-				double time = result[ACTMCtoDTMC.get(ps)];
-				if (time != 0.0) {
-					resultDistr.add(ps, time);
-				}
-			}
-			meanTimes.put(entrance, resultDistr);
+			// Store the times spent within the potato states.
+			storeMeanTimes(entrance, result, 0, 1);
 		}
 		meanTimesComputed = true;
 	}
@@ -300,13 +264,13 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			if (diracPrecompute) {
 				for (int s = 0; s < numStates  ; ++s) {
 					dirac.getMeanDistributions();
-					initDist[s] = dirac.meanDistributionsBeforeEvent.get(entrance).get(DTMCtoACTMC.get(s));
+					initDist[s] = dirac.meanDistributionsBeforeEvent.get(entrance, s);
 				}
 			} else {
 				for (int s = 0; s < numStates  ; ++s) {
 					initDist[s] = 0;
 				}
-				initDist[ACTMCtoDTMC.get(entrance)] = 1;
+				initDist[ACTMCtoDTMC[entrance]] = 1;
 			}
 			soln = initDist;
 
@@ -353,16 +317,6 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanDistributionsSoln.put(entrance, solnDistr);
-			
 			//Compute antiderivative of (e^(-lambda*time) * polynomial) using integration by parts
 			for (int n = 0; n < numStates ; ++n) {
 				antiderivatives[n] = computeAntiderivative(polynomialsBeforeEvent[n]);
@@ -370,7 +324,7 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -379,11 +333,7 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			}
 			
 			// Store the just-before-event result vector for later use by other methods
-			Distribution resultBeforeEvent = new Distribution();
-			for(int i = 0; i < numStates ; ++i ) {
-				resultBeforeEvent.add(DTMCtoACTMC.get(i), result[i]);
-			}
-			meanDistributionsBeforeEvent.put(entrance, resultBeforeEvent);
+			meanDistributionsBeforeEvent.setRow(entrance, result);
 			
 			//Lastly, the actual event behavior is applied.
 			//I.e. if there is some probability that the potatoDTMC would 
@@ -391,13 +341,13 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			//these probabilities must be redistributed into the successor states.
 			//using the event-defined distribution on states.
 			for (int n = 0; n < numStates  ; ++n) {
-				int nIndex = DTMCtoACTMC.get(n);
+				int nIndex = DTMCtoACTMC[n];
 				if (potato.contains(nIndex)) {
 					Distribution distr = event.getTransitions(nIndex);
 					Set<Integer> distrSupport = distr.getSupport();
 					for ( int successor : distrSupport) {
 						polynomialsBeforeEvent[n].multiplyWithScalar(new BigDecimal(distr.get(successor), mc),  mc);
-						polynomialsAfterEvent[ACTMCtoDTMC.get(successor)].add(polynomialsBeforeEvent[n], mc);
+						polynomialsAfterEvent[ACTMCtoDTMC[successor]].add(polynomialsBeforeEvent[n], mc);
 						polynomialsBeforeEvent[n].multiplyWithScalar(BigDecimal.ONE.divide(new BigDecimal(distr.get(successor), mc), mc),  mc);
 					}
 				} else {
@@ -412,7 +362,7 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -420,20 +370,8 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 				result[n] = evaluateAntiderivative(antiderivatives[n]).doubleValue();
 			}
 			
-			// Normalize the result array (it may not sum to 1 due to inaccuracy).
-			double probSum = 0;
-			for (int succState : successors) {
-				probSum += result[ACTMCtoDTMC.get(succState)];
-			}
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int succState : successors) {
-				double prob = result[ACTMCtoDTMC.get(succState)];
-				if (prob != 0.0) {
-					resultDistr.add(succState, prob / probSum); 
-				}
-			}
-			meanDistributions.put(entrance, resultDistr);
+			// Store the normalized distribution on the successors (it may not sum to 1 due to inaccuracy).
+			storeMeanDistribution(entrance, result);
 		}
 		meanDistributionsComputed = true;
 	}
@@ -469,14 +407,14 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			// Also, initialize the polynomials.
 			for (int i = 0; i < numStates; i++) {
 				dirac.getMeanRewards();
-				soln[i] = dirac.meanRewardsSoln.get(DTMCtoACTMC.get(i));
+				soln[i] = dirac.meanRewardsSoln.get(DTMCtoACTMC[i]);
 				polynomialsBeforeEvent[i] = new Polynomial();
 			}
 		} else {
 			// Initialize the solution array by assigning rewards to the potato states
 			// Also initialize the polynomials
 			for (int i = 0; i < numStates; i++) {
-				int index = DTMCtoACTMC.get(i);
+				int index = DTMCtoACTMC[i];
 				if (potato.contains(index)) {
 					soln[i] = rewards.getMergedStateReward(index);
 				} else {
@@ -486,25 +424,11 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			}
 		}
 
-		// do 0th element of summation (doesn't require any matrix powers), and initialize the coefficients
+		// Accumulate the coefficients of the polynomials in linear time, starting with the 0th element of summation
+		// (doesn't require any matrix powers)
 		result = new double[numStates];
-		if (left == 0) {
-			for (int i = 0; i < numStates; i++) {
-				polynomialsBeforeEvent[i].coeffs.add(left, BigDecimal.ZERO);
-				for (int j = 1; j <= right; ++j) {
-					polynomialsBeforeEvent[i].coeffs.add(j, new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc));
-				}
-			}
-		} else {
-			for (int i = 0; i < numStates; i++) {
-				for (int j = 0; j < left; ++j) {
-					polynomialsBeforeEvent[i].coeffs.add(j, BigDecimal.ZERO);
-				}
-				for (int j = left; j <= right; ++j) {
-					polynomialsBeforeEvent[i].coeffs.add(j, new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc));
-				}
-			}
-		}
+		ACTMCPotatoCoefficientSums coeffSums = new ACTMCPotatoCoefficientSums(numStates, left, right, weights_BD, uniformizationRate, mc);
+		coeffSums.add(soln);
 
 		// Start iterations
 		int iters = 1;
@@ -516,27 +440,21 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 			soln = soln2;
 			soln2 = tmpsoln;
 			// Add to sum
-			if (iters >= left) {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = iters + 1; j < right; ++j) {
-						BigDecimal tmp = polynomialsBeforeEvent[i].coeffs.get(j).add(new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc), mc);
-						polynomialsBeforeEvent[i].coeffs.set(j, tmp);
-					}
-				}
-			} else {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = left; j <= right; ++j) {
-						BigDecimal tmp = polynomialsBeforeEvent[i].coeffs.get(j).add(new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc), mc);
-						polynomialsBeforeEvent[i].coeffs.set(j, tmp);
-					}
-				}
-			}
+			coeffSums.add(soln);
 			iters++;
 		}
+
+		// Fill in the polynomials
+		for (int i = 0; i < numStates; i++) {
+			BigDecimal[] coeffs = coeffSums.getCoeffs(i);
+			for (int j = 0; j <= right; ++j) {
+				polynomialsBeforeEvent[i].coeffs.add(j, coeffs[j]);
+			}
+		}
 		
 		// Store the sol vector  using the original indexing for later use.
 		for (int ps : potato) {
-			double sol = soln[ACTMCtoDTMC.get(ps)];
+			double sol = soln[ACTMCtoDTMC[ps]];
 			if (sol != 0.0) {
 				meanRewardsSoln.set(ps, sol);
 			}
@@ -549,21 +467,21 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC.get(n), antiderivatives[n]);
+			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC[n], antiderivatives[n]);
 		}
 		
 		//Compute the definite integral using the obtained antiderivative
 		for (int n = 0; n < numStates ; ++n) {
 			double diracAddition = 0;
 			if (diracPrecompute) { //Get the Dirac-behavior increment (if there is one)
-				diracAddition = dirac.meanRewardsBeforeEvent.get(DTMCtoACTMC.get(n));
+				diracAddition = dirac.meanRewardsBeforeEvent.get(DTMCtoACTMC[n]);
 			}
 			result[n] = evaluateAntiderivative(antiderivatives[n]).doubleValue() + diracAddition;
 		}
 		
 		// Store the rewards just before the event behavior using the original indexing.
 		for (int entrance : entrances) {
-			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		//Now that we have the expected rewards for the underlying CTMC behavior,
@@ -577,21 +495,21 @@ public class ACTMCPotatoUniform_poly extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsPolynomials.put(DTMCtoACTMC.get(n), antiderivatives[n]);
+			meanRewardsPolynomials.put(DTMCtoACTMC[n], antiderivatives[n]);
 		}
 		
 		//Compute the definite integral using the obtained antiderivative
 		for (int n = 0; n < numStates ; ++n) {
 			double diracAddition = 0;
 			if (diracPrecompute) { //Get the Dirac-behavior increment (if there is one)
-				diracAddition = dirac.meanRewardsBeforeEvent.get(DTMCtoACTMC.get(n));
+				diracAddition = dirac.meanRewardsBeforeEvent.get(DTMCtoACTMC[n]);
 			}
 			result[n] = evaluateAntiderivative(antiderivatives[n]).doubleValue() + diracAddition;
 		}
 		
 		// Store the finalized expected rewards using the original indexing.
 		for (int entrance : entrances) {
-			meanRewards.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewards.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		meanRewardsComputed = true;
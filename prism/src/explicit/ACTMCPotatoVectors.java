@@ -0,0 +1,210 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+import common.SortedIntSet;
+
+/**
+ * Compact storage of one sparse vector per potato entrance,
+ * used by {@link ACTMCPotato} for its per-entrance result and solution vectors.
+ * <br>
+ * The vectors are indexed by the states of the potatoDTMC. Each row (entrance)
+ * stores only its non-zero entries, as a sorted {@code int[]} of indices
+ * and a {@code double[]} of values, so no boxing or hashing is involved.
+ */
+public class ACTMCPotatoVectors
+{
+	private static final int[] EMPTY_INDICES = new int[0];
+	private static final double[] EMPTY_VALUES = new double[0];
+
+	/** Entrances of the potato, i.e. the keys of the rows */
+	protected SortedIntSet entrances;
+	/** For each row, the sorted indices of the non-zero entries (null if the row was not stored yet) */
+	protected int[][] indices;
+	/** For each row, the values of the non-zero entries */
+	protected double[][] values;
+
+	/**
+	 * Creates an empty block with one (not yet stored) row per entrance.
+	 * @param entrances the potato entrances
+	 */
+	public ACTMCPotatoVectors(SortedIntSet entrances)
+	{
+		this.entrances = entrances;
+		this.indices = new int[entrances.size()][];
+		this.values = new double[entrances.size()][];
+	}
+
+	/**
+	 * Stores the non-zero entries of {@code vect} as the row of {@code entrance}.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 * @param vect dense vector indexed by the states of the potatoDTMC
+	 */
+	public void setRow(int entrance, double[] vect)
+	{
+		setRow(entrance, vect, 0, 1, vect.length);
+	}
+
+	/**
+	 * Stores the non-zero entries of a strided vector as the row of {@code entrance},
+	 * i.e. of the vector (vect[offset], vect[offset + stride], ...) of length {@code length}.
+	 * This allows storing a single column of a row-major block of vectors.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 */
+	public void setRow(int entrance, double[] vect, int offset, int stride, int length)
+	{
+		int row = getRowIndex(entrance);
+		int nonZeros = 0;
+		for (int i = 0, j = offset; i < length; i++, j += stride) {
+			if (vect[j] != 0.0) {
+				nonZeros++;
+			}
+		}
+		int[] rowIndices = new int[nonZeros];
+		double[] rowValues = new double[nonZeros];
+		int n = 0;
+		for (int i = 0, j = offset; i < length; i++, j += stride) {
+			if (vect[j] != 0.0) {
+				rowIndices[n] = i;
+				rowValues[n] = vect[j];
+				n++;
+			}
+		}
+		indices[row] = rowIndices;
+		values[row] = rowValues;
+	}
+
+	/**
+	 * Stores the given non-zero entries as the row of {@code entrance}.
+	 * The arrays are stored directly (not copied).
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 * @param rowIndices sorted state indices of the potatoDTMC
+	 * @param rowValues values of the entries, in the same order as {@code rowIndices}
+	 */
+	public void setRow(int entrance, int[] rowIndices, double[] rowValues)
+	{
+		int row = getRowIndex(entrance);
+		indices[row] = rowIndices;
+		values[row] = rowValues;
+	}
+
+	/**
+	 * Gets the sorted potatoDTMC indices of the non-zero entries of the row of {@code entrance}.
+	 * The returned array is the internal storage and must not be modified.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 */
+	public int[] getRowIndices(int entrance)
+	{
+		int row = getRowIndex(entrance);
+		return indices[row] == null ? EMPTY_INDICES : indices[row];
+	}
+
+	/**
+	 * Gets the values of the non-zero entries of the row of {@code entrance},
+	 * in the same order as {@link #getRowIndices(int)}.
+	 * The returned array is the internal storage and must not be modified.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 */
+	public double[] getRowValues(int entrance)
+	{
+		int row = getRowIndex(entrance);
+		return values[row] == null ? EMPTY_VALUES : values[row];
+	}
+
+	/**
+	 * Gets the sum of the entries of the row of {@code entrance}.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 */
+	public double getRowSum(int entrance)
+	{
+		double sum = 0.0;
+		for (double value : getRowValues(entrance)) {
+			sum += value;
+		}
+		return sum;
+	}
+
+	/**
+	 * Gets the entry {@code index} of the row of {@code entrance}.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 * @param index state index of the potatoDTMC
+	 */
+	public double get(int entrance, int index)
+	{
+		int row = getRowIndex(entrance);
+		if (indices[row] == null) {
+			return 0.0;
+		}
+		int pos = Arrays.binarySearch(indices[row], index);
+		return pos >= 0 ? values[row][pos] : 0.0;
+	}
+
+	/**
+	 * Gets the row of {@code entrance} as a dense vector indexed by the states of the potatoDTMC.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 * @param numStates number of states of the potatoDTMC
+	 */
+	public double[] getRow(int entrance, int numStates)
+	{
+		int row = getRowIndex(entrance);
+		double[] vect = new double[numStates];
+		if (indices[row] != null) {
+			for (int n = 0; n < indices[row].length; n++) {
+				vect[indices[row][n]] = values[row][n];
+			}
+		}
+		return vect;
+	}
+
+	/**
+	 * Gets the row of {@code entrance} as a distribution over the states of the ACTMC.
+	 * @param entrance potato entrance (state index of the ACTMC)
+	 * @param DTMCtoACTMC mapping from the state indices of the potatoDTMC to the ACTMC
+	 */
+	public Distribution getRowDistribution(int entrance, int[] DTMCtoACTMC)
+	{
+		int row = getRowIndex(entrance);
+		Distribution distr = new Distribution();
+		if (indices[row] != null) {
+			for (int n = 0; n < indices[row].length; n++) {
+				distr.add(DTMCtoACTMC[indices[row][n]], values[row][n]);
+			}
+		}
+		return distr;
+	}
+
+	private int getRowIndex(int entrance)
+	{
+		int row = entrances.indexOf(entrance);
+		if (row < 0) {
+			throw new IllegalArgumentException("State " + entrance + " is not an entrance of the potato!");
+		}
+		return row;
+	}
+}
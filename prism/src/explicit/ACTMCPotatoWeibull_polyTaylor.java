@@ -114,7 +114,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 		int fgKappaFactor = (int)Math.pow((event.getFirstParameter() + (event.getFirstParameter() * 1 / Math.exp(event.getSecondParameter())) )
 				* (Math.exp((1/event.getSecondParameter()) - 1) + (1 - 1/Math.E)), 2);
 		BigDecimal fgKappa = kappa.multiply(BigDecimalUtils.allowedError(fgKappaFactor), mc);
-		foxGlynn = new FoxGlynn_BD(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), fgKappa);
+		foxGlynn = FoxGlynn_BD.getCached(fgRate, new BigDecimal(1e-300), new BigDecimal(1e+300), fgKappa);
 		if (foxGlynn.getRightTruncationPoint() < 0) {
 			throw new PrismException("Overflow in Fox-Glynn computation of the Poisson distribution!");
 		}
@@ -173,26 +173,13 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 				soln[i] = 0;
 				polynomials[i] = new PolynomialReal();
 			}
-			soln[ACTMCtoDTMC.get(entrance)] = 1;
+			soln[ACTMCtoDTMC[entrance]] = 1;
 
-			// do 0th element of summation (doesn't require any matrix powers), and initialize the coefficients
+			// Accumulate the coefficients of the polynomials in linear time, starting with the 0th element of summation
+			// (doesn't require any matrix powers)
 			result = new double[numStates];
-			if (left == 0) {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = 1; j <= right; ++j) {
-						polynomials[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc));
-					}
-				}
-			} else {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = 0; j < left; ++j) {
-						polynomials[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), BigDecimal.ZERO);
-					}
-					for (int j = left; j <= right; ++j) {
-						polynomials[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc));
-					}
-				}
-			}
+			ACTMCPotatoCoefficientSums coeffSums = new ACTMCPotatoCoefficientSums(numStates, left, right, weights_BD, uniformizationRate, mc);
+			coeffSums.add(soln);
 
 			// Start iterations
 			int iters = 1;
@@ -204,33 +191,17 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 				soln = soln2;
 				soln2 = tmpsoln;
 				// Add to sum
-				if (iters >= left) {
-					for (int i = 0; i < numStates; i++) {
-						for (int j = iters + 1; j < right; ++j) {
-							BigDecimal tmp = polynomials[i].coeffs.get(new BigDecimal(String.valueOf(j), mc)).add(new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc), mc);
-							polynomials[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), tmp);
-						}
-					}
-				} else {
-					for (int i = 0; i < numStates; i++) {
-						for (int j = left; j <= right; ++j) {
-							BigDecimal tmp = polynomials[i].coeffs.get(new BigDecimal(String.valueOf(j), mc)).add(new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc), mc);
-							polynomials[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), tmp);
-						}
-					}
-				}
+				coeffSums.add(soln);
 				iters++;
 			}
-			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
+
+			// Fill in the polynomials
+			for (int i = 0; i < numStates; i++) {
+				BigDecimal[] coeffs = coeffSums.getCoeffs(i);
+				for (int j = (left == 0) ? 1 : 0; j <= right; ++j) {
+					polynomials[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), coeffs[j]);
 				}
 			}
-			meanTimesSoln.put(entrance, solnDistr);
 			
 			//Factor the Taylor series representation into the polynomial
 			for (int n = 0; n < numStates ; ++n) {
@@ -252,7 +223,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanTimesPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -260,15 +231,8 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 				result[n] = evaluateAntiderivative(antiderivatives[n], integralCeil).doubleValue();
 			}
 			
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int ps : potato) {
-				double time = result[ACTMCtoDTMC.get(ps)];
-				if (time != 0.0) {
-					resultDistr.add(ps, time);
-				}
-			}
-			meanTimes.put(entrance, resultDistr);
+			// Store the times spent within the potato states.
+			storeMeanTimes(entrance, result, 0, 1);
 		}
 		meanTimesComputed = true;
 	}
@@ -306,7 +270,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			for (int s = 0; s < numStates  ; ++s) {
 				initDist[s] = 0;
 			}
-			initDist[ACTMCtoDTMC.get(entrance)] = 1;
+			initDist[ACTMCtoDTMC[entrance]] = 1;
 			soln = initDist;
 
 			// Initialize the arrays
@@ -346,16 +310,6 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 				iters++;
 			}
 			
-			// Store the sol vector using the original indexing for later use.
-			Distribution solnDistr = new Distribution();
-			for (int ps : potato) {
-				double sol = soln[ACTMCtoDTMC.get(ps)];
-				if (sol != 0.0) {
-					solnDistr.add(ps, sol);
-				}
-			}
-			meanDistributionsSoln.put(entrance, solnDistr);
-			
 			//Factor the Taylor series representation into the polynomial
 			for (int n = 0; n < numStates ; ++n) {
 				polynomialsBeforeEvent[n].multiply(taylor, mc);
@@ -376,7 +330,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanDistributionsBeforeEventPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -385,11 +339,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			}
 			
 			// Store the just-before-event result vector for later use by other methods
-			Distribution resultBeforeEvent = new Distribution();
-			for(int i = 0; i < numStates ; ++i ) {
-				resultBeforeEvent.add(DTMCtoACTMC.get(i), result[i]);
-			}
-			meanDistributionsBeforeEvent.put(entrance, resultBeforeEvent);
+			meanDistributionsBeforeEvent.setRow(entrance, result);
 			
 			//Lastly, the actual event behavior is applied.
 			//I.e. if there is some probability that the potatoDTMC would 
@@ -397,13 +347,13 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			//these probabilities must be redistributed into the successor states.
 			//using the event-defined distribution on states.
 			for (int n = 0; n < numStates  ; ++n) {
-				int nIndex = DTMCtoACTMC.get(n);
+				int nIndex = DTMCtoACTMC[n];
 				if (potato.contains(nIndex)) {
 					Distribution distr = event.getTransitions(nIndex);
 					Set<Integer> distrSupport = distr.getSupport();
 					for ( int successor : distrSupport) {
 						polynomialsBeforeEvent[n].multiplyWithScalar(new BigDecimal(distr.get(successor), mc),  mc);
-						polynomialsAfterEvent[ACTMCtoDTMC.get(successor)].add(polynomialsBeforeEvent[n], mc);
+						polynomialsAfterEvent[ACTMCtoDTMC[successor]].add(polynomialsBeforeEvent[n], mc);
 						polynomialsBeforeEvent[n].multiplyWithScalar(BigDecimal.ONE.divide(new BigDecimal(distr.get(successor), mc), mc),  mc);
 					}
 				} else {
@@ -418,7 +368,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			
 			// Store the solution polynomials for later use.
 			for (int n = 0; n < numStates ; ++n) {
-				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC.get(n), antiderivatives[n]);
+				meanDistributionsPolynomials.get(entrance).put(DTMCtoACTMC[n], antiderivatives[n]);
 			}
 			
 			//Compute the definite integral using the obtained antiderivative
@@ -426,20 +376,8 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 				result[n] = evaluateAntiderivative(antiderivatives[n], integralCeil).doubleValue();
 			}
 			
-			// Normalize the result array (it may not sum to 1 due to inaccuracy).
-			double probSum = 0;
-			for (int succState : successors) {
-				probSum += result[ACTMCtoDTMC.get(succState)];
-			}
-			// Convert the result to a distribution with original indexing and store it.
-			Distribution resultDistr = new Distribution();
-			for (int succState : successors) {
-				double prob = result[ACTMCtoDTMC.get(succState)];
-				if (prob != 0.0) {
-					resultDistr.add(succState, prob / probSum); 
-				}
-			}
-			meanDistributions.put(entrance, resultDistr);
+			// Store the normalized distribution on the successors (it may not sum to 1 due to inaccuracy).
+			storeMeanDistribution(entrance, result);
 		}
 		meanDistributionsComputed = true;
 	}
@@ -473,7 +411,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 		// Initialize the solution array by assigning rewards to the potato states
 		// Also initialize the polynomials
 		for (int s = 0; s < numStates; s++) {
-			int index = DTMCtoACTMC.get(s);
+			int index = DTMCtoACTMC[s];
 			if (potato.contains(index)) {
 				soln[s] = rewards.getMergedStateReward(index);
 			} else {
@@ -482,21 +420,11 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			polynomialsBeforeEvent[s] = new PolynomialReal();
 		}
 
-		// do 0th element of summation (doesn't require any matrix powers), and initialize the coefficients
+		// Accumulate the coefficients of the polynomials in linear time, starting with the 0th element of summation
+		// (doesn't require any matrix powers)
 		result = new double[numStates];
-		if (left == 0) {
-			for (int i = 0; i < numStates; i++) {
-				for (int j = 1; j <= right; ++j) {
-					polynomialsBeforeEvent[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc));
-				}
-			}
-		} else {
-			for (int i = 0; i < numStates; i++) {
-				for (int j = left; j <= right; ++j) {
-					polynomialsBeforeEvent[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc));
-				}
-			}
-		}
+		ACTMCPotatoCoefficientSums coeffSums = new ACTMCPotatoCoefficientSums(numStates, left, right, weights_BD, uniformizationRate, mc);
+		coeffSums.add(soln);
 
 		// Start iterations
 		int iters = 1;
@@ -508,27 +436,21 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 			soln = soln2;
 			soln2 = tmpsoln;
 			// Add to sum
-			if (iters >= left) {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = iters + 1; j < right; ++j) {
-						BigDecimal tmp = polynomialsBeforeEvent[i].coeffs.get(new BigDecimal(String.valueOf(j), mc)).add(new BigDecimal(soln[i], mc).multiply(weights_BD[j - left], mc), mc);
-						polynomialsBeforeEvent[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), tmp);
-					}
-				}
-			} else {
-				for (int i = 0; i < numStates; i++) {
-					for (int j = left; j <= right; ++j) {
-						BigDecimal tmp = polynomialsBeforeEvent[i].coeffs.get(new BigDecimal(String.valueOf(j), mc)).add(new BigDecimal(soln[i], mc).divide(new BigDecimal(String.valueOf(uniformizationRate), mc), mc), mc);
-						polynomialsBeforeEvent[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), tmp);
-					}
-				}
-			}
+			coeffSums.add(soln);
 			iters++;
 		}
+
+		// Fill in the polynomials
+		for (int i = 0; i < numStates; i++) {
+			BigDecimal[] coeffs = coeffSums.getCoeffs(i);
+			for (int j = (left == 0) ? 1 : left; j <= right; ++j) {
+				polynomialsBeforeEvent[i].coeffs.put(new BigDecimal(String.valueOf(j), mc), coeffs[j]);
+			}
+		}
 		
 		// Store the sol vector  using the original indexing for later use.
 		for (int ps : potato) {
-			double sol = soln[ACTMCtoDTMC.get(ps)];
+			double sol = soln[ACTMCtoDTMC[ps]];
 			if (sol != 0.0) {
 				meanRewardsSoln.set(ps, sol);
 			}
@@ -554,7 +476,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC.get(n), antiderivatives[n]);
+			meanRewardsBeforeEventPolynomials.put(DTMCtoACTMC[n], antiderivatives[n]);
 		}
 		
 		//Compute the definite integral using the obtained antiderivative
@@ -564,7 +486,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the rewards just before the event behavior using the original indexing.
 		for (int entrance : entrances) {
-			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewardsBeforeEvent.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		//Now that we have the expected rewards for the underlying CTMC behavior,
@@ -578,7 +500,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the solution polynomials for later use.
 		for (int n = 0; n < numStates ; ++n) {
-			meanRewardsPolynomials.put(DTMCtoACTMC.get(n), antiderivatives[n]);
+			meanRewardsPolynomials.put(DTMCtoACTMC[n], antiderivatives[n]);
 		}
 		
 		//Compute the definite integral using the obtained antiderivative
@@ -588,7 +510,7 @@ public class ACTMCPotatoWeibull_polyTaylor extends ACTMCPotato_poly
 		
 		// Store the finalized expected rewards using the original indexing.
 		for (int entrance : entrances) {
-			meanRewards.set(entrance, result[ACTMCtoDTMC.get(entrance)]);
+			meanRewards.set(entrance, result[ACTMCtoDTMC[entrance]]);
 		}
 		
 		meanRewardsComputed = true;
@@ -243,7 +243,7 @@ public abstract class ACTMCPotato_poly extends ACTMCPotato
 					if (originalIndexing) {
 						resPoly[entrance].add(additionPoly, mc);
 					} else {
-						resPoly[ACTMCtoDTMC.get(entrance)].add(additionPoly, mc);
+						resPoly[ACTMCtoDTMC[entrance]].add(additionPoly, mc);
 					}
 				}
 			}
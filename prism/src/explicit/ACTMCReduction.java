@@ -29,12 +29,20 @@ package explicit;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import ch.obermuhlner.math.big.BigDecimalMath;
 import common.BigDecimalUtils;
@@ -85,6 +93,9 @@ public class ACTMCReduction extends PrismComponent
 	/** Rewards for {@code dtmc} equivalent to {@code actmcRew} eventually generated by this class.
 	 *  Initially null.*/
 	protected MCRewards dtmcRew = null;
+	/** Event parameters of the potatoes within {@code pdMap} that {@code dtmc} was computed for.
+	 *  Used to update {@code dtmc} incrementally when the parameters change. */
+	protected Map<ACTMCPotato, double[]> dtmcEventParams = new HashMap<ACTMCPotato, double[]>();
 	
 	/** Requested total epsilon accuracy for subsequent model checking.
 	 *  This is an option from the parent prismComponent settings.
@@ -100,6 +111,15 @@ public class ACTMCReduction extends PrismComponent
 	 *  This is an option from parent prismComponent settings. 
 	 *  (PRISM_ACTMC_CONSTANT_KAPPA_DECIMAL_DIGITS / ACTMC (GSMP) reduction constant precision (decimal digits) */
 	protected BigDecimal constantKappa;
+	/** Number of worker threads used to compute the potatoes of {@code pdMap}.
+	 *  This is an option from parent prismComponent settings.
+	 *  (PRISM_ACTMC_POTATO_THREADS / ACTMC (GSMP) reduction potato threads) */
+	protected int numPotatoThreads;
+	/** If this is true, the potatoes may be computed in double precision as long as
+	 *  their a-posteriori error bound is within {@code epsilon}.
+	 *  This is an option from parent prismComponent settings.
+	 *  (PRISM_ACTMC_DOUBLE_FAST_PATH / ACTMC (GSMP) reduction double precision fast path) */
+	protected boolean doubleFastPath;
 	/** Default first stage accuracy for computing kappa */
 	protected static final BigDecimal pre_epsilon = new BigDecimal("0.1");
 	
@@ -142,7 +162,14 @@ public class ACTMCReduction extends PrismComponent
 		}
 		this.computeKappa = this.getSettings().getBoolean(PrismSettings.PRISM_ACTMC_COMPUTE_KAPPA);
 		this.constantKappa = BigDecimalUtils.allowedError(this.getSettings().getInteger(PrismSettings.PRISM_ACTMC_CONSTANT_KAPPA_DECIMAL_DIGITS));
+		this.numPotatoThreads = Math.max(1, this.getSettings().getInteger(PrismSettings.PRISM_ACTMC_POTATO_THREADS));
+		this.doubleFastPath = this.getSettings().getBoolean(PrismSettings.PRISM_ACTMC_DOUBLE_FAST_PATH);
 		this.pdMap = createPotatoDataMap(this.actmc, this.actmcRew, this.target);
+		if (doubleFastPath) {
+			for (ACTMCPotato potatoData : pdMap.values()) {
+				potatoData.setDoubleFastPathTolerance(epsilon.doubleValue());
+			}
+		}
 		this.relevantStates = new BitSet(actmc.getNumStates());
 		setRelevantStates();
 		
@@ -184,9 +211,148 @@ public class ACTMCReduction extends PrismComponent
 		return pdMap;
 	}
 	
+	/**
+	 * Sets the parameters of the events of {@code actmc} (see {@link ACTMCSimple#setEventParameters(Map)})
+	 * and incrementally updates the already computed {@code dtmc} and {@code dtmcRew}.
+	 * See {@link #updateEventParameters()}.
+	 * @param paramMap Map of the new GSMPEvent parameters, keyed by the states where the events are active.
+	 */
+	public void updateEventParameters(Map<Integer, GSMPEvent> paramMap) throws PrismException {
+		actmc.setEventParameters(paramMap);
+		updateEventParameters();
+	}
+	
+	/**
+	 * Incrementally updates the already computed {@code dtmc} and {@code dtmcRew}
+	 * after the parameters of the events of {@code actmc} were changed.
+	 * <br>
+	 * Only the potatoes of the events whose parameters actually changed are recomputed,
+	 * reusing their structure, and only the rows (and rewards) of their entrances are patched.
+	 * The uniformization rate of {@code dtmc} is kept unless the new potatoes require a higher one,
+	 * in which case {@code dtmc} and {@code dtmcRew} are rebuilt from the potatoes.
+	 * <br>
+	 * Kappa is assigned to the changed potatoes again, since they adjust it by the parameters of their events.
+	 * If kappa is computed for the model, it also depends on the event parameters,
+	 * so it is deduced again and everything is recomputed with the new kappa.
+	 */
+	public void updateEventParameters() throws PrismException {
+		List<ACTMCPotato> changedPotatoes = new ArrayList<ACTMCPotato>();
+		for (ACTMCPotato potatoData : pdMap.values()) {
+			GSMPEvent event = potatoData.getEvent();
+			double[] params = dtmcEventParams.get(potatoData);
+			if (params == null || event.getFirstParameter() != params[0] || event.getSecondParameter() != params[1]) {
+				potatoData.eventParametersChanged();
+				changedPotatoes.add(potatoData);
+			}
+		}
+		if (dtmc == null || changedPotatoes.isEmpty()) {
+			return; // nothing computed yet, or nothing to update
+		}
+		if (computeKappa && !pdMap.isEmpty()) {
+			// deducing kappa recomputes all potatoes anyway, so just rebuild
+			computeEquivalentDTMC();
+			if (dtmcRew != null) {
+				dtmcRew = constructDTMCRew(dtmc, computingSteadyState);
+			}
+			return;
+		}
+		BigDecimal kappa = deduceKappa();
+		for (ACTMCPotato potatoData : changedPotatoes) {
+			potatoData.setKappa(kappa);
+		}
+		computePotatoes(dtmcRew != null);
+		
+		// check whether the current uniformization rate is still sufficient
+		double uniformizationRate = actmc.getMaxExitRate();
+		for (ACTMCPotato potatoData : pdMap.values()) {
+			ACTMCPotatoVectors meanTimes = potatoData.getMeanTimes();
+			for (int entrance : potatoData.getEntrances()) {
+				uniformizationRate = Math.max(uniformizationRate, 1 / meanTimes.getRowSum(entrance));
+			}
+		}
+		if (uniformizationRate > dtmc.uniformizationRate) {
+			dtmc = constructUniformizedDTMC();
+			if (dtmcRew != null) {
+				dtmcRew = constructDTMCRew(dtmc, computingSteadyState);
+			}
+			recordEventParameters();
+			return;
+		}
+		
+		// patch the entrance rows (and rewards) of the changed potatoes
+		for (ACTMCPotato potatoData : changedPotatoes) {
+			ACTMCPotatoVectors meanTimes = potatoData.getMeanTimes();
+			ACTMCPotatoVectors meanDistrs = potatoData.getMeanDistributions();
+			int[] DTMCtoACTMC = potatoData.getMapDTMCtoACTMC();
+			for (int entrance : potatoData.getEntrances()) {
+				double meanRateWithinPotato = 1 / meanTimes.getRowSum(entrance);
+				dtmc.clearState(entrance);
+				// same as CTMCSimple.buildUniformisedDTMC for the row of the potato entrance
+				int[] distrIndices = meanDistrs.getRowIndices(entrance);
+				double[] distrValues = meanDistrs.getRowValues(entrance);
+				double rateSum = 0.0;
+				for (int n = 0; n < distrIndices.length; n++) {
+					int target = DTMCtoACTMC[distrIndices[n]];
+					double rate = distrValues[n] * meanRateWithinPotato;
+					dtmc.setProbability(entrance, target, rate / dtmc.uniformizationRate);
+					if (target != entrance) {
+						rateSum += rate;
+					}
+				}
+				if (rateSum < dtmc.uniformizationRate) {
+					dtmc.setProbability(entrance, entrance, 1 - (rateSum / dtmc.uniformizationRate));
+				}
+			}
+			if (dtmcRew != null && actmcRew != null) {
+				patchDTMCRew((StateRewardsSimple) dtmcRew, potatoData);
+			}
+		}
+		recordEventParameters();
+	}
+	
+	/**
+	 * Stores the current event parameters of the potatoes into {@code dtmcEventParams}.
+	 */
+	protected void recordEventParameters() {
+		dtmcEventParams.clear();
+		for (ACTMCPotato potatoData : pdMap.values()) {
+			GSMPEvent event = potatoData.getEvent();
+			dtmcEventParams.put(potatoData, new double[] { event.getFirstParameter(), event.getSecondParameter() });
+		}
+	}
+	
+	/**
+	 * Recomputes the rewards of the entrances of {@code potatoData} within {@code dtmcRew},
+	 * the same way as {@link #constructDTMCRew(DTMCSimple, boolean)} does.
+	 */
+	protected void patchDTMCRew(StateRewardsSimple dtmcRew, ACTMCPotato potatoData) throws PrismException {
+		ACTMCPotatoVectors meanTimes = potatoData.getMeanTimes();
+		double[] tmp = null;
+		if (computingSteadyState) {
+			tmp = new double[actmc.getNumStates()];
+			potatoData.applyEventRewards(tmp, true);
+		}
+		for (int entrance : potatoData.getEntrances()) {
+			double theta = meanTimes.getRowSum(entrance);
+			double stateRew = actmcRew.getStateReward(entrance);
+			double ctmcTransitionRewAddition = actmcRew.getMergedStateReward(entrance) - stateRew;
+			if (computingSteadyState) {
+				dtmcRew.setStateReward(entrance, (stateRew + tmp[entrance] / theta) + ctmcTransitionRewAddition);
+			} else {
+				double rew = potatoData.getMeanRewards().get(entrance);
+				if (rew > 0) {
+					dtmcRew.setStateReward(entrance, rew / theta / dtmc.uniformizationRate);
+				} else {
+					dtmcRew.setStateReward(entrance, Math.max(0, (stateRew + ctmcTransitionRewAddition) / dtmc.uniformizationRate));
+				}
+			}
+		}
+	}
+	
 	protected void computeEquivalentDTMC() throws PrismException {
 		setKappa(deduceKappa());
 		dtmc = constructUniformizedDTMC();
+		recordEventParameters();
 	}
 	
 	protected void computeEquivalentDTMCRew() throws PrismException {
@@ -286,71 +452,26 @@ public class ACTMCReduction extends PrismComponent
 		}
 
 		// derive a more precise estimate of the bounds on the amount of steps and time
-		BigDecimal minTime = new BigDecimal(Double.MAX_VALUE);
-		BigDecimal maxTime = new BigDecimal(Double.MIN_VALUE);
+		BigDecimal minTime;
+		BigDecimal maxTime;
 		BigDecimal maxSteps; {
 			setKappa(kappaSteps);
 			DTMCSimple kappaOneDTMC = constructUniformizedDTMC();
 			MCRewards kappaOneDTMCRew = new StateRewardsConstant(1 / kappaOneDTMC.uniformizationRate);
-			DTMCModelChecker mc1 = new DTMCModelChecker(this);
-			mc1.termCritParam = pre_epsilon.doubleValue();
-			mc1.linEqMethod = LinEqMethod.GAUSS_SEIDEL; // TODO MAJO - maybe this can go away, but reliability is priority!
-			mc1.setLog(new PrismDevNullLog()); // mute the reachability computation log messages
-			for (int s = relevantStates.nextSetBit(0); s >= 0; s = relevantStates.nextSetBit(s+1)) {
-				boolean isEntranceTarget = target.get(s);
-				target.set(s);
-				ModelCheckerResult kappaOneTR = mc1.computeReachRewards(kappaOneDTMC, kappaOneDTMCRew, target);
-				target.set(s, isEntranceTarget);
-				
-				Pair<Double, Double> minMax = findMinMax(kappaOneTR.soln);
-				if (!minMax.first.isNaN()) { 
-					BigDecimal min = (new BigDecimal(minMax.first)).subtract(pre_epsilon);
-					if (minTime.compareTo(min) > 0) {
-						minTime = min;
-					}
-				}
-				if (!minMax.second.isNaN()) {
-					BigDecimal max = (new BigDecimal(minMax.second)).add(pre_epsilon);
-					if (maxTime.compareTo(max) < 0) {
-						maxTime = max;
-					}
-				}
-			}
-			if (minTime.compareTo(new BigDecimal(Double.MAX_VALUE)) == 0) {
-				minTime = BigDecimal.ONE;
-			}
-			if (maxTime.compareTo(new BigDecimal(Double.MIN_VALUE)) == 0) {
-				maxTime = BigDecimal.ONE;
-			}
+			double min = computeMinReachRewardLowerBound(kappaOneDTMC, kappaOneDTMCRew);
+			double max = computeMaxReachRewardUpperBound(kappaOneDTMC, kappaOneDTMCRew);
+			minTime = Double.isNaN(min) ? BigDecimal.ONE : (new BigDecimal(min)).subtract(pre_epsilon);
+			maxTime = Double.isNaN(max) ? BigDecimal.ONE : (new BigDecimal(max)).add(pre_epsilon);
 			maxSteps = maxTime.multiply(new BigDecimal(kappaOneDTMC.uniformizationRate), mc);
 		}
 		
 		// derive a more precise estimate of the upper bound on the total reward
-		BigDecimal maxTR = new BigDecimal(Double.MIN_VALUE); {
+		BigDecimal maxTR; {
 			setKappa(kappaTR);
 			DTMCSimple kappaTwoDTMC = constructUniformizedDTMC();
 			MCRewards kappaTwoDTMCRew = constructUniformizedDTMCRew(kappaTwoDTMC);
-			DTMCModelChecker mc2 = new DTMCModelChecker(this);
-			mc2.termCritParam = pre_epsilon.doubleValue();
-			mc2.linEqMethod = LinEqMethod.GAUSS_SEIDEL; // TODO MAJO - maybe this can go away, but reliability is priority!
-			mc2.setLog(new PrismDevNullLog()); // mute the reachability computation log messages
-			for (int s = relevantStates.nextSetBit(0); s >= 0; s = relevantStates.nextSetBit(s+1)) {
-				boolean isEntranceTarget = target.get(s);
-				target.set(s);
-				ModelCheckerResult kappaTwoTR = mc2.computeReachRewards(kappaTwoDTMC, kappaTwoDTMCRew, target);
-				target.set(s, isEntranceTarget);
-				
-				Pair<Double, Double> minMax = findMinMax(kappaTwoTR.soln);
-				if (!minMax.second.isNaN()) {
-					BigDecimal max = (new BigDecimal(minMax.second)).add(pre_epsilon);
-					if (maxTR.compareTo(max) < 0) {
-						maxTR = max;
-					}
-				}
-			}
-			if (maxTR.compareTo(new BigDecimal(Double.MIN_VALUE)) == 0) {
-				maxTR = BigDecimal.ONE;
-			}
+			double max = computeMaxReachRewardUpperBound(kappaTwoDTMC, kappaTwoDTMCRew);
+			maxTR = Double.isNaN(max) ? BigDecimal.ONE : (new BigDecimal(max)).add(pre_epsilon);
 		}
 		
 		// use the previous values to derive the actual kappa allowed error bound
@@ -378,6 +499,109 @@ public class ACTMCReduction extends PrismComponent
 		return kappa;
 	}
 	
+	/**
+	 * Creates a model checker for the reachability computations of {@link #computeKappa()}.
+	 */
+	protected DTMCModelChecker createKappaModelChecker() throws PrismException {
+		DTMCModelChecker mc = new DTMCModelChecker(this);
+		mc.termCritParam = pre_epsilon.doubleValue();
+		mc.linEqMethod = LinEqMethod.GAUSS_SEIDEL; // TODO MAJO - maybe this can go away, but reliability is priority!
+		mc.setLog(new PrismDevNullLog()); // mute the reachability computation log messages
+		return mc;
+	}
+	
+	/**
+	 * Computes a lower bound on the smallest positive expected reward accumulated
+	 * from a relevant state {@code x} before reaching {@code target} or another relevant state {@code r},
+	 * i.e. on the minimum of {@link #findMinMax(double[])} over the reachability rewards
+	 * towards {@code target} united with any single relevant state.
+	 * <br>
+	 * Instead of one solve per relevant state {@code r}, a single solve computes the rewards {@code g}
+	 * towards {@code target} united with all relevant states, which are a lower bound for any {@code r}.
+	 * Then, for {@code x != r} the first step of {@code x} can not be avoided, so
+	 * (rew(x) + sum_{y != x} P(x,y) g(y)) / (1 - P(x,x)) is a lower bound as well.
+	 * @return the lower bound, or NaN if there is none (same as {@link #findMinMax(double[])})
+	 */
+	protected double computeMinReachRewardLowerBound(DTMCSimple dtmc, MCRewards rew) throws PrismException {
+		BitSet relevantNonTarget = (BitSet) relevantStates.clone();
+		relevantNonTarget.andNot(target);
+		if (relevantStates.cardinality() < 2 || relevantNonTarget.isEmpty()) {
+			// every relevant state is either a target or the only state considered as a target
+			return Double.NaN;
+		}
+		BitSet targetOrRelevant = (BitSet) target.clone();
+		targetOrRelevant.or(relevantStates);
+		double[] g = createKappaModelChecker().computeReachRewards(dtmc, rew, targetOrRelevant).soln;
+		
+		double min = Double.MAX_VALUE;
+		for (int x = relevantNonTarget.nextSetBit(0); x >= 0; x = relevantNonTarget.nextSetBit(x+1)) {
+			double selfLoop = 0.0;
+			double sum = rew.getStateReward(x);
+			for (Iterator<Map.Entry<Integer, Double>> it = dtmc.getTransitionsIterator(x); it.hasNext();) {
+				Map.Entry<Integer, Double> e = it.next();
+				if (e.getKey() == x) {
+					selfLoop += e.getValue();
+				} else {
+					sum += e.getValue() * g[e.getKey()];
+				}
+			}
+			if (selfLoop >= 1.0) {
+				continue;
+			}
+			double bound = sum / (1.0 - selfLoop);
+			if (bound > 0 && bound < min) {
+				min = bound;
+			}
+		}
+		return (min == Double.MAX_VALUE || Double.isInfinite(min)) ? Double.NaN : min;
+	}
+	
+	/**
+	 * Computes an upper bound on the greatest finite expected reward accumulated
+	 * from a relevant state before reaching {@code target} or any single relevant state {@code r},
+	 * i.e. on the maximum of {@link #findMinMax(double[])} over the reachability rewards
+	 * towards {@code target} united with any single relevant state.
+	 * <br>
+	 * Adding {@code r} to the target can only decrease the rewards, so a single solve towards {@code target}
+	 * gives the upper bound if it is finite for all relevant states.
+	 * Otherwise (e.g. for steady-state analysis, where {@code target} is empty),
+	 * one solve per relevant state is needed. These are independent of each other,
+	 * so they are run using {@code numPotatoThreads} worker threads.
+	 * @return the upper bound, or NaN if there is none (same as {@link #findMinMax(double[])})
+	 */
+	protected double computeMaxReachRewardUpperBound(DTMCSimple dtmc, MCRewards rew) throws PrismException {
+		if (!target.isEmpty()) {
+			double[] f = createKappaModelChecker().computeReachRewards(dtmc, rew, target).soln;
+			boolean finite = true;
+			for (int s = relevantStates.nextSetBit(0); s >= 0; s = relevantStates.nextSetBit(s+1)) {
+				if (Double.isInfinite(f[s]) || Double.isNaN(f[s])) {
+					finite = false;
+					break;
+				}
+			}
+			if (finite) {
+				return findMinMax(f).second;
+			}
+		}
+		
+		List<Callable<Double>> tasks = new ArrayList<Callable<Double>>(relevantStates.cardinality());
+		for (int s = relevantStates.nextSetBit(0); s >= 0; s = relevantStates.nextSetBit(s+1)) {
+			final BitSet targetWithEntrance = (BitSet) target.clone();
+			targetWithEntrance.set(s);
+			tasks.add(() -> {
+				ModelCheckerResult res = createKappaModelChecker().computeReachRewards(dtmc, rew, targetWithEntrance);
+				return findMinMax(res.soln).second;
+			});
+		}
+		double max = Double.NaN;
+		for (Double value : runTasks(tasks, "ACTMC kappa computation")) {
+			if (!value.isNaN() && (Double.isNaN(max) || value > max)) {
+				max = value;
+			}
+		}
+		return max;
+	}
+	
 	/**
 	 * Computes the lowest probability that could be present within a {@code dtmc}
 	 * created from {@code actmc} and the highest reward that could be present
@@ -467,29 +691,31 @@ public class ACTMCReduction extends PrismComponent
 	 * @return Uniformized fully {@code dtmc} equivalent to {@code actmc} according to the current {@code pdMap}
 	 */
 	protected DTMCSimple constructUniformizedDTMC() throws PrismException {
+		computePotatoes(false);
 		CTMCSimple ctmc = new CTMCSimple(actmc);
 		double uniformizationRate = ctmc.getMaxExitRate();
 		
 		for (Map.Entry<String, ACTMCPotato> pdEntry : pdMap.entrySet()) {
 			ACTMCPotato potatoData = pdEntry.getValue();
-			Map<Integer, Distribution> meanTimesWithinPotato = potatoData.getMeanTimes();
-			Map<Integer, Distribution> meanDistrs = potatoData.getMeanDistributions();
+			ACTMCPotatoVectors meanTimesWithinPotato = potatoData.getMeanTimes();
+			ACTMCPotatoVectors meanDistrs = potatoData.getMeanDistributions();
+			int[] DTMCtoACTMC = potatoData.getMapDTMCtoACTMC();
 			Set<Integer> potatoEntrances = potatoData.getEntrances();
 			
 			for (int entrance : potatoEntrances) {
 				// compute the rate
-				Distribution potatoTimeDistr = meanTimesWithinPotato.get(entrance);
-				double theta = potatoTimeDistr.sum();
+				double theta = meanTimesWithinPotato.getRowSum(entrance);
 				double meanRateWithinPotato = 1 / theta;
 				if ((meanRateWithinPotato) > uniformizationRate) {
 					uniformizationRate = meanRateWithinPotato;
 				}
 				
 				// weigh the distribution by the rate and assign it to the CTMC
-				Distribution meanDistr = new Distribution(meanDistrs.get(entrance));
-				Set<Integer> distrSupport = meanDistrs.get(entrance).getSupport();
-				for ( int s : distrSupport) {
-					meanDistr.set(s, meanDistr.get(s) * meanRateWithinPotato);
+				int[] distrIndices = meanDistrs.getRowIndices(entrance);
+				double[] distrValues = meanDistrs.getRowValues(entrance);
+				Distribution meanDistr = new Distribution();
+				for (int n = 0; n < distrIndices.length; n++) {
+					meanDistr.set(DTMCtoACTMC[distrIndices[n]], distrValues[n] * meanRateWithinPotato);
 				}
 				ctmc.trans.set(entrance, meanDistr);
 			}
@@ -541,14 +767,14 @@ public class ACTMCReduction extends PrismComponent
 		
 		for (Map.Entry<String, ACTMCPotato> pdEntry : pdMap.entrySet()) {
 			ACTMCPotato potatoData = pdEntry.getValue();
-			Map<Integer, Distribution> meanTimes = potatoData.getMeanTimes();
+			ACTMCPotatoVectors meanTimes = potatoData.getMeanTimes();
 			Set<Integer> entrances = potatoData.getEntrances();
 			
 			double[] tmp = new double[actmc.getNumStates()];
 			potatoData.applyEventRewards(tmp, true);
 			// the obtained values must be divided by the mean time it takes to leave the potato
 			for (int entrance : entrances) {
-				double theta = meanTimes.get(entrance).sum();
+				double theta = meanTimes.getRowSum(entrance);
 				tmp[entrance] = tmp[entrance] / theta;
 				rewArray[entrance] += tmp[entrance];
 			}	
@@ -589,13 +815,14 @@ public class ACTMCReduction extends PrismComponent
 			}
 		}
 		
+		computePotatoes(true);
 		for (Map.Entry<String, ACTMCPotato> pdEntry : pdMap.entrySet()) {
 			ACTMCPotato potatoData = pdEntry.getValue();
 			Set<Integer> entrances = potatoData.getEntrances();
 			for (int entrance : entrances) {
 				double rew = potatoData.getMeanRewards().get(entrance);
 				if (rew > 0) {
-					double theta = potatoData.getMeanTimes().get(entrance).sum();
+					double theta = potatoData.getMeanTimes().getRowSum(entrance);
 					double meanRew = rew / theta;//average reward over average time spent within
 					newRew.setStateReward(entrance, meanRew / dtmc.uniformizationRate);
 				}
@@ -605,6 +832,98 @@ public class ACTMCReduction extends PrismComponent
 		return newRew;
 	}
 
+	/**
+	 * Computes the mean times and mean distributions (and optionally also the mean rewards)
+	 * of all potatoes within {@code pdMap} using {@code numPotatoThreads} worker threads.
+	 * <br>
+	 * The potatoes are mutually independent, so the results are the same regardless
+	 * of the amount of threads. Potatoes that are already computed are skipped.
+	 * Time taken by each computed potato is printed into the log (ordered by the event identifiers).
+	 * @param withRewards If true, the mean rewards are computed as well.
+	 *                    This requires {@code actmcRew} to be non-null.
+	 */
+	protected void computePotatoes(boolean withRewards) throws PrismException {
+		final boolean computeRewards = withRewards && actmcRew != null;
+		// Sort the potatoes by their event identifiers so that the log output is deterministic
+		Map<String, ACTMCPotato> sortedPdMap = new TreeMap<String, ACTMCPotato>(pdMap);
+		List<String> eventIdents = new ArrayList<String>(sortedPdMap.size());
+		List<ACTMCPotato> computedPotatoes = new ArrayList<ACTMCPotato>(sortedPdMap.size());
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>(sortedPdMap.size());
+		for (Map.Entry<String, ACTMCPotato> pdEntry : sortedPdMap.entrySet()) {
+			final ACTMCPotato potatoData = pdEntry.getValue();
+			if (potatoData.meanTimesComputed && potatoData.meanDistributionsComputed &&
+					(!computeRewards || potatoData.meanRewardsComputed)) {
+				continue;
+			}
+			eventIdents.add(potatoData.getEvent().getOriginalIdentifier());
+			computedPotatoes.add(potatoData);
+			tasks.add(() -> {
+				long time = System.currentTimeMillis();
+				potatoData.getMeanTimes();
+				potatoData.getMeanDistributions();
+				if (computeRewards) {
+					potatoData.getMeanRewards();
+				}
+				return System.currentTimeMillis() - time;
+			});
+		}
+		
+		List<Long> potatoTimes = runTasks(tasks, "ACTMC potato computation");
+		
+		for (int i = 0; i < eventIdents.size(); ++i) {
+			String precision = "";
+			if (doubleFastPath) {
+				ACTMCPotato potatoData = computedPotatoes.get(i);
+				if (potatoData.isDoubleFastPathUsed()) {
+					precision = " (double precision, error bound " + potatoData.getDoubleFastPathErrorBound() + ")";
+				} else if (!Double.isNaN(potatoData.getDoubleFastPathErrorBound())) {
+					precision = " (BigDecimal, double precision error bound " + potatoData.getDoubleFastPathErrorBound() + " exceeds epsilon)";
+				}
+			}
+			mainLog.println("Potato of event " + eventIdents.get(i) + " computed in " + potatoTimes.get(i)/1000.0 + " seconds" + precision + ".");
+		}
+	}
+
+	/**
+	 * Runs the mutually independent {@code tasks} using up to {@code numPotatoThreads} worker threads.
+	 * @param description description of the tasks for error messages
+	 * @return results of the tasks, in the same order as {@code tasks}
+	 */
+	protected <T> List<T> runTasks(List<Callable<T>> tasks, String description) throws PrismException {
+		List<T> results = new ArrayList<T>(tasks.size());
+		int numThreads = Math.min(numPotatoThreads, tasks.size());
+		if (numThreads <= 1) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (PrismException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new PrismException(description + " failed: " + e.getMessage());
+				}
+			}
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+			try {
+				List<Future<T>> futures = executor.invokeAll(tasks);
+				for (Future<T> future : futures) {
+					results.add(future.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PrismException(description + " was interrupted");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof PrismException) {
+					throw (PrismException) e.getCause();
+				}
+				throw new PrismException(description + " failed: " + e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		return results;
+	}
+
 	/**
 	 * Creates a map where the keys are string identifiers of the GSMPEvents,
 	 * and the values are corresponding ACTMCPotato structures.
@@ -0,0 +1,128 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+import explicit.rewards.ACTMCRewardsSimple;
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Cache of ACTMC reductions of a single GSMP (that is an ACTMC), shared by the points of an experiment
+ * that only differ in the parameters of the non-exponential events, e.g. a {@code -const} sweep over a timeout.
+ * <br>
+ * The ACTMC is created from the GSMP only once, and it shares the events with the GSMP,
+ * so the parameters of the events may be changed in place between the points.
+ * For each kind of computation (steady-state or reachability, rewards and target),
+ * one {@link ACTMCReduction} is kept. When it is requested again, only the potatoes
+ * of the events whose parameters changed are recomputed (see {@link ACTMCReduction#updateEventParameters()}),
+ * reusing the potato states, entrances, successors and the potato DTMCs.
+ * <br>
+ * The precision kappa is re-derived for each point in the same way (see {@link ACTMCReduction#updateEventParameters()}),
+ * so every point is computed with the precision it would get on its own.
+ */
+public class ACTMCReductionCache
+{
+	/** GSMP these reductions belong to */
+	private final GSMP gsmp;
+	/** ACTMC created from {@code gsmp}, sharing the events with it */
+	private final ACTMCSimple actmc;
+	/** Cached reductions of {@code actmc} */
+	private final List<CachedReduction> reductions = new ArrayList<CachedReduction>();
+
+	/**
+	 * Key and value of a cached reduction.
+	 */
+	private static class CachedReduction
+	{
+		private final ACTMCRewardsSimple actmcRew;
+		private final BitSet target;
+		private final boolean computingSteadyState;
+		private final ACTMCReduction reduction;
+
+		private CachedReduction(ACTMCRewardsSimple actmcRew, BitSet target, boolean computingSteadyState, ACTMCReduction reduction)
+		{
+			this.actmcRew = actmcRew;
+			this.target = target == null ? null : (BitSet) target.clone();
+			this.computingSteadyState = computingSteadyState;
+			this.reduction = reduction;
+		}
+
+		private boolean matches(ACTMCRewardsSimple actmcRew, BitSet target, boolean computingSteadyState)
+		{
+			return this.computingSteadyState == computingSteadyState && Objects.equals(this.actmcRew, actmcRew) && Objects.equals(this.target, target);
+		}
+	}
+
+	/**
+	 * Create an empty cache for {@code gsmp}, which must be an ACTMC.
+	 */
+	public ACTMCReductionCache(GSMP gsmp)
+	{
+		this.gsmp = gsmp;
+		this.actmc = new ACTMCSimple(gsmp);
+	}
+
+	/**
+	 * Returns the GSMP this cache belongs to.
+	 */
+	public GSMP getGSMP()
+	{
+		return gsmp;
+	}
+
+	/**
+	 * Returns the ACTMC created from the GSMP, sharing the events with it.
+	 */
+	public ACTMCSimple getACTMC()
+	{
+		return actmc;
+	}
+
+	/**
+	 * Returns a reduction of the ACTMC of this cache with the given arguments
+	 * (see {@link ACTMCReduction#ACTMCReduction(ACTMCSimple, ACTMCRewardsSimple, BitSet, boolean, PrismComponent)}).
+	 * If an equal reduction was requested before, it is updated to the current event parameters and returned.
+	 * Otherwise, a new reduction is created (using the settings of {@code parent}) and cached.
+	 */
+	public ACTMCReduction getReduction(ACTMCRewardsSimple actmcRew, BitSet target, boolean computingSteadyState, PrismComponent parent) throws PrismException
+	{
+		for (CachedReduction cached : reductions) {
+			if (cached.matches(actmcRew, target, computingSteadyState)) {
+				cached.reduction.updateEventParameters();
+				return cached.reduction;
+			}
+		}
+		ACTMCReduction reduction = new ACTMCReduction(actmc, actmcRew, target, computingSteadyState, parent);
+		reductions.add(new CachedReduction(actmcRew, target, computingSteadyState, reduction));
+		return reduction;
+	}
+}
@@ -37,7 +37,7 @@ import prism.PrismException;
 
 /**
  * Read-only explicit-state representation of an ACTMC suitable for CTMC-based model checking methods.
- * ACTMCs are constructed from viable GSMPSimple models during GSMP model-checking.
+ * ACTMCs are constructed from viable GSMP models during GSMP model-checking.
  * This is done to enable usage of more effective model-checking algorithms,
  * and to reduce the amount of events.
  * <br>
@@ -57,7 +57,7 @@ public class ACTMCSimple extends CTMCSimple
 	 * to have at most one non-exponential event active in any given state.
 	 * Otherwise, the behavior of this method is undefined.
 	 */
-	public ACTMCSimple(GSMPSimple gsmp) {
+	public ACTMCSimple(GSMP gsmp) {
 		super(gsmp.generateCTMC());
 		this.eventMap = new HashMap<Integer, GSMPEvent>();
 		this.eventList = new ArrayList<GSMPEvent>();
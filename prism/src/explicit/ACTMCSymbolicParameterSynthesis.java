@@ -38,9 +38,10 @@ import java.util.Map;
 import java.util.Set;
 
 import common.BigDecimalUtils;
+import common.polynomials.IntervalRootIsolation;
 import common.polynomials.Poly;
 import common.polynomials.Polynomial;
-import common.polynomials.PolynomialRootFinding;
+import common.polynomials.PolynomialEvaluator;
 import explicit.ProbModelChecker.TermCrit;
 import explicit.rewards.ACTMCRewardsSimple;
 import parser.ast.SynthParam;
@@ -71,6 +72,13 @@ public class ACTMCSymbolicParameterSynthesis extends ACTMCReduction
 	protected Map<Integer, GSMPEvent> defaultEventMap;
 	/** Last computed Soln solution vector from e.g. computeReachRewards(). May be null. */
 	protected double[] lastComputedSoln;
+	/** Reduction of {@code actmc} used for policy evaluation, updated incrementally as the parameters change.
+	 *  Initially null. */
+	protected ACTMCReduction reachReduction;
+	/** Map where the keys are string identifiers of the GSMPEvents that we are synthesizing,
+	 *  and the values are evaluators of the corresponding ACTMCPotato_poly polynomials.
+	 *  Built on demand, and discarded whenever kappa changes. */
+	protected Map<String, PotatoEvaluator> potatoEvaluators = new HashMap<String, PotatoEvaluator>();
 	
 	protected MathContext mc;
 	
@@ -199,11 +207,17 @@ public class ACTMCSymbolicParameterSynthesis extends ACTMCReduction
 				
 				//evaluate the polynomial for the candidates and find min/max
 				//first, try the current one
+				PotatoEvaluator evaluator = getPotatoEvaluator(actmcPotatoData, entrance);
 				BigDecimal bestParam = new BigDecimal(params.get(entrance).getFirstParameter(), mc);
-				BigDecimal bestEvaluatedCandidate = symbolicPolynomial.value(bestParam, mc);
-				// TODO MAJO - this only works for the first parameter for now!
+				BigDecimal bestEvaluatedCandidate = evaluator.value(bestParam, reachRewards, mc);
+				List<BigDecimal> evaluatedCandidates = new ArrayList<BigDecimal>(candidates.size());
 				for (BigDecimal candidate : candidates) {
-					BigDecimal evaluatedCandidate = symbolicPolynomial.value(candidate, mc);
+					evaluatedCandidates.add(evaluator.value(candidate, reachRewards, mc));
+				}
+				// TODO MAJO - this only works for the first parameter for now!
+				for (int i = 0; i < candidates.size(); i++) {
+					BigDecimal candidate = candidates.get(i);
+					BigDecimal evaluatedCandidate = evaluatedCandidates.get(i);
 					if (this.min) {
 						if (evaluatedCandidate.compareTo(bestEvaluatedCandidate) < 0) {
 							bestEvaluatedCandidate = evaluatedCandidate;
@@ -246,6 +260,69 @@ public class ACTMCSymbolicParameterSynthesis extends ACTMCReduction
 		for (Map.Entry<String, ACTMCPotato_poly> pdEntry : polyPDMap.entrySet()) {
 			pdEntry.getValue().setKappa(kappa);
 		}
+		// the polynomials get recomputed with the new kappa
+		potatoEvaluators = new HashMap<String, PotatoEvaluator>();
+	}
+	
+	/**
+	 * Returns the evaluator of the polynomials of {@code actmcPotatoData} for the given entrance,
+	 * creating it on first use. This way, the evaluators (and their caches) are kept across the iterations
+	 * of {@link #reachabilityRewardParameterSynthesis()}, where only the reachability rewards change.
+	 */
+	private PotatoEvaluator getPotatoEvaluator(ACTMCPotato_poly actmcPotatoData, int entrance) throws PrismException {
+		String identifier = actmcPotatoData.getEvent().getIdentifier();
+		PotatoEvaluator evaluator = potatoEvaluators.get(identifier);
+		if (evaluator == null) {
+			evaluator = new PotatoEvaluator(actmcPotatoData, entrance, relevantStates);
+			potatoEvaluators.put(identifier, evaluator);
+		}
+		return evaluator;
+	}
+	
+	/**
+	 * Evaluator of the symbolic polynomial of a potato, i.e. of the mean reward polynomial
+	 * plus the sum of the mean distribution polynomials weighted by the reachability rewards of their states.
+	 * There is one {@link PolynomialEvaluator} for each of these polynomials, as they do not depend on the rewards.
+	 */
+	private static class PotatoEvaluator {
+		/** Evaluator of the mean reward polynomial */
+		private final PolynomialEvaluator meanRewards;
+		/** States with a mean distribution polynomial */
+		private final int[] states;
+		/** Evaluators of the mean distribution polynomials, where index i belongs to {@code states[i]} */
+		private final PolynomialEvaluator[] meanDistributions;
+		
+		private PotatoEvaluator(ACTMCPotato_poly actmcPotatoData, int entrance, BitSet relevantStates) throws PrismException {
+			meanRewards = new PolynomialEvaluator(actmcPotatoData.getMeanRewardsPolynomials().get(entrance));
+			Map<Integer, Poly> distributionPolys = actmcPotatoData.getMeanDistributionsPolynomials().get(entrance);
+			List<Integer> stateList = new ArrayList<Integer>();
+			List<PolynomialEvaluator> evaluatorList = new ArrayList<PolynomialEvaluator>();
+			for (int state = relevantStates.nextSetBit(0); state >= 0; state = relevantStates.nextSetBit(state+1)) {
+				Poly poly = distributionPolys.get(state);
+				if (poly != null) {
+					stateList.add(state);
+					evaluatorList.add(new PolynomialEvaluator(poly));
+				}
+			}
+			states = new int[stateList.size()];
+			for (int i = 0; i < states.length; i++) {
+				states[i] = stateList.get(i);
+			}
+			meanDistributions = evaluatorList.toArray(new PolynomialEvaluator[evaluatorList.size()]);
+		}
+		
+		/**
+		 * Evaluates the symbolic polynomial in {@code x} for the given reachability rewards of the states.
+		 */
+		private BigDecimal value(BigDecimal x, Map<Integer, Double> reachRewards, MathContext mc) {
+			BigDecimal value = meanRewards.value(x, mc);
+			BigDecimal[] distributionValues = PolynomialEvaluator.valuesAt(meanDistributions, x, mc);
+			for (int i = 0; i < states.length; i++) {
+				BigDecimal reachRew = new BigDecimal(String.valueOf(reachRewards.get(states[i])), mc);
+				value = value.add(distributionValues[i].multiply(reachRew, mc), mc);
+			}
+			return value;
+		}
 	}
 	
 	/**
@@ -406,13 +483,27 @@ public class ACTMCSymbolicParameterSynthesis extends ACTMCReduction
 	 * Last computed rewards are also stored as a member variable!
 	 */
 	private Map<Integer, Double> computeReachRewards() throws PrismException {
-		GSMPModelChecker modelChecker = new GSMPModelChecker(this);
+		// The reduction is only built once. Later, only the potatoes of the changed events are recomputed,
+		// and the reachability computation is warm-started from the last solution.
+		if (reachReduction == null) {
+			reachReduction = new ACTMCReduction(actmc, actmcRew, target, false, this);
+			reachReduction.setLog(new PrismDevNullLog());
+		} else {
+			reachReduction.updateEventParameters();
+		}
+		DTMCModelChecker modelChecker = new DTMCModelChecker(this);
 		modelChecker.setLog(new PrismDevNullLog());
 		modelChecker.setTermCritParam(1.0E-15 * modelChecker.getTermCritParam()); // TODO MAJO - is this a good idea ?
 		// TODO MAJO - I need to accurately compute this, but it often fails!
 		modelChecker.setMaxIters(modelChecker.getMaxIters() + 100000000); // TODO MAJO - is this a good idea ?
-		// TODO MAJO - I could optimize this by reusing some of the computed ACTMCPotato structures
-		ModelCheckerResult res = modelChecker.computeReachRewardsACTMC(actmc, actmcRew, target);
+		double[] init = null;
+		if (lastComputedSoln != null) {
+			init = new double[lastComputedSoln.length];
+			for (int i = 0; i < init.length; ++i) {
+				init[i] = Double.isInfinite(lastComputedSoln[i]) || Double.isNaN(lastComputedSoln[i]) ? 0.0 : lastComputedSoln[i];
+			}
+		}
+		ModelCheckerResult res = modelChecker.computeReachRewards(reachReduction.getDTMC(), reachReduction.getDTMCRew(), target, init, null);
 		lastComputedSoln = res.soln;
 		
 		Map<Integer, Double> resMap = new HashMap<Integer, Double>();
@@ -458,13 +549,13 @@ public class ACTMCSymbolicParameterSynthesis extends ACTMCReduction
 		BigDecimal upperBound = new BigDecimal(String.valueOf(ub), mc);
 		
 		Polynomial derivative = poly.derivative(mc);
-		//TODO MAJO - this one didn't work for me!
-		//List<BigDecimal> roots = PolynomialRootFinding.findRootsVAS(derivative, BigDecimalUtils.allowedError(mc.getPrecision()));
-		List<BigDecimal> roots = PolynomialRootFinding.findRootsInIntervalVCAHalley(
+		// The roots are isolated in double interval arithmetic, and only refined in BigDecimal
+		List<BigDecimal> roots = IntervalRootIsolation.findRootsInInterval(
 				derivative,
 				lowerBound,
 				upperBound,
-				BigDecimalUtils.allowedError(mc.getPrecision())); // TODO MAJO - perhaps max(kappa, smallest possible double value)
+				BigDecimalUtils.allowedError(mc.getPrecision()), // TODO MAJO - perhaps max(kappa, smallest possible double value)
+				numPotatoThreads);
 		
 		List<BigDecimal> boundedRoots = new ArrayList<BigDecimal>(roots);
 		boundedRoots.removeIf(root-> root.compareTo(lowerBound) < 0 || root.compareTo(upperBound) > 0);
@@ -0,0 +1,486 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import parser.type.TypeDistribution;
+import parser.type.TypeDistributionDirac;
+import parser.type.TypeDistributionErlang;
+import parser.type.TypeDistributionExponential;
+import parser.type.TypeDistributionUniform;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * Transient analysis of ACTMCs by phase-type expansion.
+ * <br>
+ * Every non-exponential event is approximated by an acyclic phase-type distribution,
+ * and every state where the event is active (i.e. every state of its potato)
+ * is expanded into one state per phase. The phase stores the age of the event,
+ * so it is kept by exponential transitions that keep the event active, and reset otherwise.
+ * States without a non-exponential event are not expanded.
+ * The resulting CTMC is then solved by uniformisation.
+ * <br>
+ * The results are approximate:
+ * <ul>
+ * <li> Truncation of uniformisation is bounded by termination epsilon
+ *      in total over all the requested time points.
+ * <li> For the phase-type approximation of the events, the CDF distance of the fit
+ *      (L1 distance of the distribution functions relative to the mean of the event) is reported.
+ *      The number of phases is doubled until the CDF distance is at most {@code prism.ACTMCTransientFitError},
+ *      or {@code prism.ACTMCTransientMaxPhases} is reached. Erlang (and exponential) events are represented exactly.
+ *      The CDF distance only describes how well the delays are fitted: it is not an error bound,
+ *      and the results may be inaccurate even if it is small (e.g. for Dirac events, which no phase-type distribution fits closely).
+ * </ul>
+ * Multiple time points are computed in a single pass, each continuing from the
+ * distribution over the expanded states at the previous time point, and the results are streamed
+ * to a {@link ResultListener} as soon as they are available.
+ * Note that continuing from the distribution over the ACTMC states instead would be wrong,
+ * since that distribution does not capture the ages of the events.
+ */
+public class ACTMCTransient extends PrismComponent
+{
+	/** Initial number of phases of the fitted events (doubled until the CDF distance is small enough) */
+	private static final int INITIAL_PHASES = 8;
+	/** Number of grid points used to evaluate the CDF distance */
+	private static final int FIT_GRID_POINTS = 2000;
+	/** Tail probability of unbounded distributions neglected when fitting */
+	private static final double FIT_TAIL = 1.0e-9;
+
+	/**
+	 * Receiver of the transient probabilities, called once per time point, in the order of the time points.
+	 */
+	public interface ResultListener
+	{
+		/**
+		 * @param time time point
+		 * @param probs transient probabilities of the ACTMC states at {@code time}
+		 */
+		void timePointComputed(double time, double[] probs) throws PrismException;
+	}
+
+	/**
+	 * Acyclic phase-type distribution approximating an event.
+	 * In phase p, the event ages with rate {@code rates[p]}, after which it either occurs
+	 * (with probability {@code occurProbs[p]}) or moves to phase p+1.
+	 * The last phase always occurs.
+	 */
+	protected static class PhaseType
+	{
+		protected double[] rates;
+		protected double[] occurProbs;
+		/** CDF distance of the fit, i.e. L1 distance of the distribution functions relative to the mean */
+		protected double fitDistance;
+
+		public int getNumPhases()
+		{
+			return rates.length;
+		}
+	}
+
+	/** The ACTMC */
+	protected ACTMCSimple actmc;
+	/** Phase-type approximation of each non-exponential event */
+	protected Map<GSMPEvent, PhaseType> phaseTypes = new HashMap<GSMPEvent, PhaseType>();
+	/** Index of the first expanded state of each ACTMC state (with an extra entry for the total) */
+	protected int[] offsets;
+	/** Expanded CTMC */
+	protected CTMCSimple expandedCTMC;
+
+	/** Allowed truncation error of uniformisation over all time points */
+	protected double epsilon;
+	/** CDF distance of the phase-type fits at which no more phases are added */
+	protected double fitDistance;
+	/** Maximum number of phases of an event */
+	protected int maxPhases;
+
+	/**
+	 * Fits the events of {@code actmc} and builds the expanded CTMC.
+	 * @param actmc the ACTMC
+	 * @param parent PrismComponent, e.g. the model checker, to inherit the log and settings from.
+	 */
+	public ACTMCTransient(ACTMCSimple actmc, PrismComponent parent) throws PrismException
+	{
+		super(parent);
+		this.actmc = actmc;
+		this.epsilon = getSettings().getDouble(PrismSettings.PRISM_TERM_CRIT_PARAM);
+		this.fitDistance = getSettings().getDouble(PrismSettings.PRISM_ACTMC_TRANSIENT_FIT_ERROR);
+		this.maxPhases = getSettings().getInteger(PrismSettings.PRISM_ACTMC_TRANSIENT_MAX_PHASES);
+
+		double maxFitDistance = 0.0;
+		for (GSMPEvent event : actmc.getEventList()) {
+			PhaseType ph = fitEvent(event);
+			phaseTypes.put(event, ph);
+			mainLog.println("Phase-type approximation of event " + event.getOriginalIdentifier()
+					+ ": " + ph.getNumPhases() + " phases, CDF distance " + ph.fitDistance);
+			if (ph.fitDistance > fitDistance) {
+				mainLog.println("CDF distance of event " + event.getOriginalIdentifier() + " exceeds " + fitDistance
+						+ " with the maximum of " + maxPhases + " phases (use -ACTMCTransientMaxPhases to increase it).");
+			}
+			maxFitDistance = Math.max(maxFitDistance, ph.fitDistance);
+		}
+		buildExpandedCTMC();
+		mainLog.println("Maximum CDF distance of the phase-type fits: " + maxFitDistance);
+		mainLog.printWarning("The results are approximate and their error is unknown (the CDF distance is not an error bound)."
+				+ " Compare with a larger -ACTMCTransientMaxPhases or a smaller -ACTMCTransientFitError to check them.");
+	}
+
+	/**
+	 * Computes the transient probabilities at {@code time}.
+	 * @param time time point, non-negative
+	 * @param initDistr initial probability distribution on the ACTMC states
+	 */
+	public double[] computeTransient(double time, double[] initDistr) throws PrismException
+	{
+		final double[][] result = new double[1][];
+		computeTransient(new double[] { time }, initDistr, (t, probs) -> result[0] = probs);
+		return result[0];
+	}
+
+	/**
+	 * Computes the transient probabilities at each of {@code times} in a single pass.
+	 * @param times time points, non-negative and in non-decreasing order
+	 * @param initDistr initial probability distribution on the ACTMC states
+	 * @param listener receives the probabilities of each time point as soon as they are computed
+	 */
+	public void computeTransient(double[] times, double[] initDistr, ResultListener listener) throws PrismException
+	{
+		for (int i = 0; i < times.length; i++) {
+			if (times[i] < 0 || (i > 0 && times[i] < times[i - 1])) {
+				throw new PrismException("Time points of ACTMC transient analysis must be non-negative and in ascending order");
+			}
+		}
+		int n = expandedCTMC.getNumStates();
+		double q = expandedCTMC.getDefaultUniformisationRate();
+		DTMC dtmc = expandedCTMC.buildImplicitUniformisedDTMC(q);
+		// The truncation errors of the time points accumulate, so split epsilon among them
+		double acc = epsilon / Math.max(1, times.length);
+
+		double[] soln = new double[n];
+		for (int s = 0; s < actmc.getNumStates(); s++) {
+			soln[offsets[s]] = initDistr[s];
+		}
+		double[] soln2 = new double[n];
+		double[] sum = new double[n];
+		double previousTime = 0.0;
+		int totalIters = 0;
+		long timer = System.currentTimeMillis();
+
+		for (double time : times) {
+			double qt = q * (time - previousTime);
+			if (qt > 0.0) {
+				FoxGlynn fg = new FoxGlynn(qt, 1e-300, 1e+300, acc);
+				int left = fg.getLeftTruncationPoint();
+				int right = fg.getRightTruncationPoint();
+				if (right < 0) {
+					throw new PrismException("Overflow in Fox-Glynn computation (time bound too big?)");
+				}
+				double[] weights = fg.getWeights();
+				double totalWeight = fg.getTotalWeight();
+				for (int i = 0; i < n; i++) {
+					sum[i] = (left == 0) ? weights[0] / totalWeight * soln[i] : 0.0;
+				}
+				for (int iters = 1; iters <= right; iters++) {
+					dtmc.vmMult(soln, soln2);
+					double[] tmpsoln = soln;
+					soln = soln2;
+					soln2 = tmpsoln;
+					if (iters >= left) {
+						double weight = weights[iters - left] / totalWeight;
+						for (int i = 0; i < n; i++) {
+							sum[i] += weight * soln[i];
+						}
+					}
+				}
+				totalIters += right;
+				// Continue from the distribution at this time point
+				double[] tmpsoln = soln;
+				soln = sum;
+				sum = tmpsoln;
+			}
+			previousTime = time;
+			listener.timePointComputed(time, project(soln));
+		}
+
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("ACTMC transient analysis of " + times.length + " time point" + (times.length > 1 ? "s" : "")
+				+ " took " + totalIters + " iters and " + timer / 1000.0 + " seconds"
+				+ " (uniformisation error at most " + epsilon + ").");
+	}
+
+	/**
+	 * Returns the number of states of the expanded CTMC.
+	 */
+	public int getNumExpandedStates()
+	{
+		return expandedCTMC.getNumStates();
+	}
+
+	/**
+	 * Sums the probabilities of the phases of each ACTMC state.
+	 */
+	protected double[] project(double[] expanded)
+	{
+		int numStates = actmc.getNumStates();
+		double[] probs = new double[numStates];
+		for (int s = 0; s < numStates; s++) {
+			double p = 0.0;
+			for (int i = offsets[s]; i < offsets[s + 1]; i++) {
+				p += expanded[i];
+			}
+			probs[s] = p;
+		}
+		return probs;
+	}
+
+	/**
+	 * Builds the CTMC where each state with an active non-exponential event has one state per phase.
+	 */
+	protected void buildExpandedCTMC()
+	{
+		int numStates = actmc.getNumStates();
+		offsets = new int[numStates + 1];
+		for (int s = 0; s < numStates; s++) {
+			GSMPEvent event = actmc.getActiveEvent(s);
+			offsets[s + 1] = offsets[s] + ((event == null) ? 1 : phaseTypes.get(event).getNumPhases());
+		}
+		expandedCTMC = new CTMCSimple(offsets[numStates]);
+
+		for (int s = 0; s < numStates; s++) {
+			GSMPEvent event = actmc.getActiveEvent(s);
+			int numPhases = offsets[s + 1] - offsets[s];
+			// Exponential transitions keep the age of the event if it stays active, otherwise it is reset
+			for (Iterator<Map.Entry<Integer, Double>> it = actmc.getTransitionsIterator(s); it.hasNext();) {
+				Map.Entry<Integer, Double> e = it.next();
+				int t = e.getKey();
+				boolean keepsAge = (event != null && actmc.getActiveEvent(t) == event);
+				for (int p = 0; p < numPhases; p++) {
+					expandedCTMC.addToProbability(offsets[s] + p, keepsAge ? offsets[t] + p : offsets[t], e.getValue());
+				}
+			}
+			if (event == null) {
+				continue;
+			}
+			// The event ages through the phases and eventually occurs,
+			// after which it is newly sampled if it is active in the target state
+			PhaseType ph = phaseTypes.get(event);
+			Distribution occurrence = event.getTransitions(s);
+			for (int p = 0; p < numPhases; p++) {
+				double rate = ph.rates[p];
+				double occurProb = ph.occurProbs[p];
+				if (occurProb < 1.0) {
+					expandedCTMC.addToProbability(offsets[s] + p, offsets[s] + p + 1, rate * (1.0 - occurProb));
+				}
+				if (occurProb > 0.0) {
+					for (Map.Entry<Integer, Double> e : occurrence) {
+						expandedCTMC.addToProbability(offsets[s] + p, offsets[e.getKey()], rate * occurProb * e.getValue());
+					}
+				}
+			}
+		}
+	}
+
+	// Phase-type fitting
+
+	/**
+	 * Fits a phase-type distribution to {@code event}.
+	 */
+	protected PhaseType fitEvent(GSMPEvent event) throws PrismException
+	{
+		TypeDistribution distr = event.getDistributionType();
+		double first = event.getFirstParameter();
+		double second = event.getSecondParameter();
+		if (distr instanceof TypeDistributionExponential) {
+			return erlang(first, 1);
+		}
+		if (distr instanceof TypeDistributionErlang) {
+			return erlang(first, (int) Math.round(second));
+		}
+
+		double upper = getFitSupport(event, FIT_TAIL);
+		PhaseType ph = null;
+		for (int phases = Math.min(INITIAL_PHASES, maxPhases); ; phases = Math.min(2 * phases, maxPhases)) {
+			ph = discretiseAge(distr, first, second, upper, phases);
+			if (ph.fitDistance <= fitDistance || phases == maxPhases) {
+				return ph;
+			}
+		}
+	}
+
+	/**
+	 * Fits a phase-type distribution with at most {@code numPhases} phases to {@code event}.
+	 * Exponential events and Erlang events with at most {@code numPhases} phases are represented exactly.
+	 */
+	protected static PhaseType fitEvent(GSMPEvent event, int numPhases) throws PrismException
+	{
+		TypeDistribution distr = event.getDistributionType();
+		double first = event.getFirstParameter();
+		double second = event.getSecondParameter();
+		if (distr instanceof TypeDistributionExponential) {
+			return erlang(first, 1);
+		}
+		if (distr instanceof TypeDistributionErlang && Math.round(second) <= numPhases) {
+			return erlang(first, (int) Math.round(second));
+		}
+		if (distr instanceof TypeDistributionDirac || distr instanceof TypeDistributionUniform) {
+			return discretiseAge(distr, first, second, getFitSupport(event, FIT_TAIL), numPhases);
+		}
+		// For unbounded distributions, a wider support neglects less of the tail, but makes the phases coarser,
+		// so the neglected tail probability giving the smallest CDF distance is chosen
+		PhaseType best = null;
+		for (double tail = FIT_TAIL; tail < 0.1; tail *= 10.0) {
+			PhaseType ph = discretiseAge(distr, first, second, getFitSupport(event, tail), numPhases);
+			if (best == null || ph.fitDistance < best.fitDistance) {
+				best = ph;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the upper end of the support of the distribution of {@code event}
+	 * (truncated with tail probability {@code tail} for unbounded distributions).
+	 */
+	protected static double getFitSupport(GSMPEvent event, double tail) throws PrismException
+	{
+		TypeDistribution distr = event.getDistributionType();
+		double first = event.getFirstParameter();
+		double second = event.getSecondParameter();
+		double upper;
+		if (distr instanceof TypeDistributionDirac) {
+			upper = first;
+		} else if (distr instanceof TypeDistributionUniform) {
+			upper = second;
+		} else {
+			upper = 1.0;
+			while (1.0 - distr.cdf(first, second, upper) > tail) {
+				upper *= 2.0;
+				if (Double.isInfinite(upper)) {
+					throw new PrismException("Cannot fit a phase-type distribution to event " + event.getOriginalIdentifier());
+				}
+			}
+		}
+		if (!(upper > 0.0)) {
+			throw new PrismException("Cannot fit a phase-type distribution to event " + event.getOriginalIdentifier()
+					+ " occurring at time 0");
+		}
+		return upper;
+	}
+
+	/**
+	 * Returns the exact phase-type representation of Erlang(rate, k).
+	 */
+	protected static PhaseType erlang(double rate, int k)
+	{
+		PhaseType ph = new PhaseType();
+		ph.rates = new double[k];
+		ph.occurProbs = new double[k];
+		for (int p = 0; p < k; p++) {
+			ph.rates[p] = rate;
+		}
+		ph.occurProbs[k - 1] = 1.0;
+		ph.fitDistance = 0.0;
+		return ph;
+	}
+
+	/**
+	 * Approximates the distribution by discretising the age of the event into {@code numBins} steps of length
+	 * h = upper / numBins, each taking an exponentially distributed time with mean h.
+	 * After step j, the event occurs with the probability of the age interval [(j - 1/2)h, (j + 1/2)h)
+	 * conditioned on not having occurred before, so the number of steps is the age rounded to a multiple of h.
+	 * Deterministic events become Erlang distributions.
+	 */
+	protected static PhaseType discretiseAge(TypeDistribution distr, double first, double second, double upper, int numBins)
+	{
+		double h = upper / numBins;
+		// probability of occurring within the first j steps
+		double[] occurred = new double[numBins + 1];
+		for (int j = 1; j < numBins; j++) {
+			occurred[j] = distr.cdf(first, second, (j + 0.5) * h);
+		}
+		occurred[numBins] = 1.0;
+		// Drop the phases that are never reached
+		int numPhases = numBins;
+		for (int j = 1; j < numBins; j++) {
+			if (occurred[j] >= 1.0) {
+				numPhases = j;
+				break;
+			}
+		}
+		PhaseType ph = new PhaseType();
+		ph.rates = new double[numPhases];
+		ph.occurProbs = new double[numPhases];
+		for (int p = 0; p < numPhases; p++) {
+			ph.rates[p] = 1.0 / h;
+			double survival = 1.0 - occurred[p];
+			ph.occurProbs[p] = (p == numPhases - 1 || survival <= 0.0) ? 1.0 : Math.min(1.0, (occurred[p + 1] - occurred[p]) / survival);
+		}
+		occurred[numPhases] = 1.0;
+		ph.fitDistance = computeFitDistance(distr, first, second, occurred, numPhases, h, upper);
+		return ph;
+	}
+
+	/**
+	 * Computes the L1 distance between the distribution function of the event and the age-discretised phase-type
+	 * distribution, relative to the mean of the event. The number of steps done by time x is Poisson distributed
+	 * with mean x/h, so the phase-type distribution function is a Poisson-weighted sum of {@code occurred}.
+	 */
+	protected static double computeFitDistance(TypeDistribution distr, double first, double second, double[] occurred, int numPhases, double h, double upper)
+	{
+		// Cover the support of both distributions
+		double hi = Math.max(upper, h * (numPhases + 8.0 * Math.sqrt(numPhases) + 8.0));
+		double dx = hi / FIT_GRID_POINTS;
+		double[] logFactorial = new double[numPhases + 1];
+		for (int k = 1; k <= numPhases; k++) {
+			logFactorial[k] = logFactorial[k - 1] + Math.log(k);
+		}
+		double distance = 0.0;
+		double mean = 0.0;
+		for (int g = 0; g < FIT_GRID_POINTS; g++) {
+			double x = (g + 0.5) * dx;
+			double lambda = x / h;
+			double logLambda = Math.log(lambda);
+			// P(occurred by x) = sum_j P(N(x) = j) * occurred[min(j, numPhases)]
+			double phCdf = 0.0;
+			double poissonCdf = 0.0;
+			for (int j = 0; j < numPhases; j++) {
+				double pmf = Math.exp(-lambda + j * logLambda - logFactorial[j]);
+				phCdf += pmf * occurred[j];
+				poissonCdf += pmf;
+			}
+			phCdf += Math.max(0.0, 1.0 - poissonCdf);
+			double cdf = distr.cdf(first, second, x);
+			distance += Math.abs(phCdf - cdf) * dx;
+			mean += (1.0 - cdf) * dx;
+		}
+		return (mean > 0.0) ? distance / mean : Double.POSITIVE_INFINITY;
+	}
+}
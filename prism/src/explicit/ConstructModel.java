@@ -30,9 +30,15 @@ package explicit;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import parser.State;
 import parser.Values;
@@ -45,6 +51,7 @@ import prism.PrismException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismPrintStreamLog;
+import prism.PrismSettings;
 import prism.ProgressDisplay;
 import prism.UndefinedConstants;
 import simulator.ModulesFileModelGenerator;
@@ -69,6 +76,11 @@ public class ConstructModel extends PrismComponent
 	protected boolean distinguishActions = true;
 	/** Should labels be processed and attached to the model? */
 	protected boolean attachLabels = true; 
+	/** Number of worker threads exploring states concurrently */
+	protected int numThreads = 1;
+
+	/** Number of consecutive states of a level a worker thread claims at a time */
+	private static final int EXPLORE_CHUNK_SIZE = 64;
 
 	// Details of built model:
 
@@ -78,6 +90,10 @@ public class ConstructModel extends PrismComponent
 	public ConstructModel(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		if (settings != null) {
+			numThreads = Math.max(1, settings.getInteger(PrismSettings.PRISM_CONSTRUCT_THREADS));
+			buildSparse = settings.getBoolean(PrismSettings.PRISM_BUILD_SPARSE);
+		}
 	}
 
 	/**
@@ -99,7 +115,7 @@ public class ConstructModel extends PrismComponent
 
 	/**
 	 * Build a sparse representation, if possible?
-	 * (e.g. MDPSparse rather than MDPSimple data structure)
+	 * (e.g. MDPSparse rather than MDPSimple, or GSMPSparse rather than GSMPSimple data structure)
 	 */
 	public void setBuildSparse(boolean buildSparse)
 	{
@@ -122,6 +138,16 @@ public class ConstructModel extends PrismComponent
 		this.attachLabels = attachLabels;
 	}
 
+	/**
+	 * Set the number of worker threads exploring states concurrently.
+	 * This is only supported for models provided by a {@link simulator.ModulesFileModelGenerator};
+	 * the constructed model does not depend on this number.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = Math.max(1, numThreads);
+	}
+
 	/**
 	 * Build the set of reachable states for a model and return it.
 	 * @param modelGen The ModelGenerator interface providing the model 
@@ -154,8 +180,9 @@ public class ConstructModel extends PrismComponent
 		ModelType modelType;
 		// State storage
 		StateStorage<State> states;
-		LinkedList<State> explore;
-		State state, stateNew;
+		List<State> explore, exploreNext;
+		ExploredState explored[] = null;
+		State stateNew;
 		// Explicit model storage
 		ModelSimple modelSimple = null;
 		DTMCSimple dtmc = null;
@@ -166,7 +193,7 @@ public class ConstructModel extends PrismComponent
 		ModelExplicit model = null;
 		Distribution distr = null;
 		// Misc
-		int i, j, nc, nt, src, dest;
+		int i, k, nc, src, dest;
 		long timer;
 
 		// Get model info
@@ -222,8 +249,9 @@ public class ConstructModel extends PrismComponent
 		}
 
 		// Initialise states storage
-		states = new IndexedSet<State>(true);
-		explore = new LinkedList<State>();
+		// (bit-packed if the variables allow it, otherwise as a sorted set of State objects)
+		states = PackedStateSet.canPack(varList) ? new PackedStateSet(varList) : new IndexedSet<State>(true);
+		explore = new ArrayList<State>();
 		// Add initial state(s) to 'explore', 'states' and to the model
 		for (State initState : modelGen.getInitialStates()) {
 			explore.add(initState);
@@ -233,94 +261,119 @@ public class ConstructModel extends PrismComponent
 				modelSimple.addInitialState(modelSimple.getNumStates() - 1);
 			}
 		}
+		// Create a model generator for each worker thread, if exploring concurrently
+		List<ModelGenerator> workerGens = null;
+		ExecutorService executor = null;
+		if (numThreads > 1) {
+			if (modelGen instanceof ModulesFileModelGenerator) {
+				workerGens = new ArrayList<ModelGenerator>(numThreads);
+				for (i = 0; i < numThreads; i++) {
+					workerGens.add(((ModulesFileModelGenerator) modelGen).createExplorationCopy());
+				}
+				executor = Executors.newFixedThreadPool(numThreads);
+			} else {
+				mainLog.printWarning("Concurrent model construction is only supported for PRISM models, using a single thread");
+			}
+		}
 		// Explore...
+		// (level by level, in order of discovery, so the states get the same indices
+		// as in a sequential breadth-first search, whether the levels are explored concurrently or not)
 		src = -1;
-		while (!explore.isEmpty()) {
-			// Pick next state to explore
-			// (they are stored in order found so know index is src+1)
-			state = explore.removeFirst();
-			src++;
-			// Explore all choices/transitions from this state
-			modelGen.exploreState(state);
-			// Look at each outgoing choice in turn
-			nc = modelGen.getNumChoices();
-			for (i = 0; i < nc; i++) {
-				// For nondet models, collect transitions in a Distribution
-				if (!justReach && modelType.nondeterministic()) {
-					distr = new Distribution();
+		try {
+			while (!explore.isEmpty()) {
+				if (executor != null) {
+					explored = exploreLevel(explore, workerGens, executor, modelType, justReach);
 				}
-				// Look at each transition in the choice
-				nt = modelGen.getNumTransitions(i);
-				for (j = 0; j < nt; j++) {
-					stateNew = modelGen.computeTransitionTarget(i, j);
-					if (modelType == ModelType.GSMP && ((ModulesFileModelGenerator)modelGen).getEventIdentOfChoice(i, j) == null) {
-						// this transition should be ignored, so dont even explore these states
-						mainLog.printWarning("The GSMP contains a slave command transition that was not synchronized with any event! This slave command transition has been ignored.");
-						continue;
+				exploreNext = new ArrayList<State>();
+				for (k = 0; k < explore.size(); k++) {
+					// Pick next state to explore
+					// (they are stored in order found so know index is src+1)
+					src++;
+					// Explore all choices/transitions from this state (unless done concurrently)
+					ExploredState exploredState = (explored != null) ? explored[k] : exploreState(modelGen, explore.get(k), modelType, justReach);
+					if (exploredState.error != null) {
+						throw exploredState.error;
 					}
-					// Is this a new state?
-					if (states.add(stateNew)) {
-						// If so, add to the explore list
-						explore.add(stateNew);
-						// And to model
-						if (!justReach) {
-							modelSimple.addState();
+					// Look at each outgoing choice in turn
+					nc = exploredState.getNumChoices();
+					for (i = 0; i < nc; i++) {
+						// For nondet models, collect transitions in a Distribution
+						if (!justReach && modelType.nondeterministic()) {
+							distr = new Distribution();
 						}
-					}
-					// Get index of state in state set
-					dest = states.getIndexOfLastAdd();
-					// Add transitions to model
-					if (!justReach) {
-						switch (modelType) {
-						case DTMC:
-							dtmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case CTMC:
-							ctmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case GSMP:
-							if (!(modelGen instanceof ModulesFileModelGenerator)) {
-								throw new PrismNotSupportedException("GSMP must be constructed from a ModulesFile using the explicit engine!");
+						// Look at each transition in the choice
+						for (int t = exploredState.choiceStarts[i]; t < exploredState.choiceStarts[i + 1]; t++) {
+							stateNew = exploredState.targets[t];
+							if (stateNew == null) {
+								// this transition should be ignored, so dont even explore these states
+								mainLog.printWarning("The GSMP contains a slave command transition that was not synchronized with any event! This slave command transition has been ignored.");
+								continue;
 							}
-							String eventIdent = ((ModulesFileModelGenerator)modelGen).getEventIdentOfChoice(i, j);
-							String actionLabel = (String)modelGen.getTransitionAction(i, j);
-							GSMPEvent event = ((ModulesFileModelGenerator)modelGen).generateGSMPEvent(eventIdent);
-							if (gsmp.getEvent(event.getIdentifier()) == null) { // TODO MAJO - only generate a new event if its needed! performance!
-								gsmp.addEvent(event);
+							// Is this a new state?
+							if (states.add(stateNew)) {
+								// If so, add to the explore list
+								exploreNext.add(stateNew);
+								// And to model
+								if (!justReach) {
+									modelSimple.addState();
+								}
+							}
+							// Get index of state in state set
+							dest = states.getIndexOfLastAdd();
+							// Add transitions to model
+							if (!justReach) {
+								switch (modelType) {
+								case DTMC:
+									dtmc.addToProbability(src, dest, exploredState.probabilities[t]);
+									break;
+								case CTMC:
+									ctmc.addToProbability(src, dest, exploredState.probabilities[t]);
+									break;
+								case GSMP:
+									GSMPEvent event = exploredState.events[t];
+									// does nothing if the event has already been added
+									gsmp.addEvent(event);
+									gsmp.addToProbability(src, dest, exploredState.probabilities[t], event.getIdentifier(), exploredState.transitionActions[t]);
+									break;
+								case MDP:
+								case CTMDP:
+									distr.add(dest, exploredState.probabilities[t]);
+									break;
+								case STPG:
+								case SMG:
+								case PTA:
+								case LTS:
+									throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
+								}
 							}
-							gsmp.addToProbability(src, dest, modelGen.getTransitionProbability(i, j), event.getIdentifier(), actionLabel);
-							break;
-						case MDP:
-						case CTMDP:
-							distr.add(dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case STPG:
-						case SMG:
-						case PTA:
-						case LTS:
-							throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
-						}
-					}
-				}
-				// For nondet models, add collated transition to model 
-				if (!justReach) {
-					if (modelType == ModelType.MDP) {
-						if (distinguishActions) {
-							mdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
-						} else {
-							mdp.addChoice(src, distr);
 						}
-					} else if (modelType == ModelType.CTMDP) {
-						if (distinguishActions) {
-							ctmdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
-						} else {
-							ctmdp.addChoice(src, distr);
+						// For nondet models, add collated transition to model 
+						if (!justReach) {
+							if (modelType == ModelType.MDP) {
+								if (distinguishActions) {
+									mdp.addActionLabelledChoice(src, distr, exploredState.choiceActions[i]);
+								} else {
+									mdp.addChoice(src, distr);
+								}
+							} else if (modelType == ModelType.CTMDP) {
+								if (distinguishActions) {
+									ctmdp.addActionLabelledChoice(src, distr, exploredState.choiceActions[i]);
+								} else {
+									ctmdp.addChoice(src, distr);
+								}
+							}
 						}
 					}
+					// Print some progress info occasionally
+					progress.updateIfReady(src + 1);
 				}
+				explore = exploreNext;
+				explored = null;
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
 			}
-			// Print some progress info occasionally
-			progress.updateIfReady(src + 1);
 		}
 
 		// Finish progress display
@@ -369,7 +422,11 @@ public class ConstructModel extends PrismComponent
 			case GSMP:
 				gsmp.removeEmptyEvents();
 				gsmp.normalize();
-				model = sort ? new GSMPSimple(gsmp, permut) : (GSMPSimple) gsmp;
+				if (buildSparse) {
+					model = sort ? new GSMPSparse(gsmp, permut) : new GSMPSparse(gsmp);
+				} else {
+					model = sort ? new GSMPSimple(gsmp, permut) : (GSMPSimple) gsmp;
+				}
 				break;
 			case MDP:
 				if (buildSparse) {
@@ -401,6 +458,127 @@ public class ConstructModel extends PrismComponent
 		return model;
 	}
 
+	/**
+	 * The choices and transitions of a single state, as provided by a {@link ModelGenerator}.
+	 * States are explored into these (possibly concurrently) before they are added to the model.
+	 */
+	private static class ExploredState
+	{
+		/** Index of the first transition of each choice, followed by the number of transitions */
+		private int choiceStarts[];
+		/** Target state of each transition (null if the transition is ignored) */
+		private State targets[];
+		/** Probability (or rate) of each transition (not stored when just building the reachable states) */
+		private double probabilities[];
+		/** Action of each choice (nondeterministic models with actions distinguished only) */
+		private Object choiceActions[];
+		/** Action label of each transition (GSMPs only) */
+		private String transitionActions[];
+		/** Event of each transition (GSMPs only) */
+		private GSMPEvent events[];
+		/** Error that occurred while exploring the state, if any */
+		private PrismException error;
+
+		private int getNumChoices()
+		{
+			return choiceStarts.length - 1;
+		}
+	}
+
+	/**
+	 * Explore {@code state} using {@code modelGen} and store its choices and transitions.
+	 * Only the information needed to construct a model of type {@code modelType} is stored
+	 * (or just the targets, if {@code justReach} is true).
+	 */
+	private ExploredState exploreState(ModelGenerator modelGen, State state, ModelType modelType, boolean justReach) throws PrismException
+	{
+		ExploredState explored = new ExploredState();
+		modelGen.exploreState(state);
+		int nc = modelGen.getNumChoices();
+		explored.choiceStarts = new int[nc + 1];
+		for (int i = 0; i < nc; i++) {
+			explored.choiceStarts[i + 1] = explored.choiceStarts[i] + modelGen.getNumTransitions(i);
+		}
+		int numTransitions = explored.choiceStarts[nc];
+		explored.targets = new State[numTransitions];
+		if (!justReach) {
+			explored.probabilities = new double[numTransitions];
+			if (modelType.nondeterministic() && distinguishActions) {
+				explored.choiceActions = new Object[nc];
+			}
+			if (modelType == ModelType.GSMP) {
+				explored.transitionActions = new String[numTransitions];
+				explored.events = new GSMPEvent[numTransitions];
+			}
+		}
+		for (int i = 0; i < nc; i++) {
+			int nt = explored.choiceStarts[i + 1] - explored.choiceStarts[i];
+			for (int j = 0; j < nt; j++) {
+				int t = explored.choiceStarts[i] + j;
+				String eventIdent = null;
+				if (modelType == ModelType.GSMP) {
+					eventIdent = ((ModulesFileModelGenerator) modelGen).getEventIdentOfChoice(i, j);
+					if (eventIdent == null) {
+						// slave command transition not synchronized with any event, ignored
+						continue;
+					}
+				}
+				explored.targets[t] = modelGen.computeTransitionTarget(i, j);
+				if (!justReach) {
+					explored.probabilities[t] = modelGen.getTransitionProbability(i, j);
+					if (modelType == ModelType.GSMP) {
+						explored.transitionActions[t] = (String) modelGen.getTransitionAction(i, j);
+						explored.events[t] = ((ModulesFileModelGenerator) modelGen).internGSMPEvent(eventIdent);
+					}
+				}
+			}
+			if (explored.choiceActions != null) {
+				explored.choiceActions[i] = modelGen.getChoiceAction(i);
+			}
+		}
+		return explored;
+	}
+
+	/**
+	 * Explore the states of {@code level} concurrently, one worker thread per model generator of {@code workerGens}.
+	 * Errors are not thrown but stored in the explored states, so that they can be reported in exploration order.
+	 * @return the explored states, in the same order as {@code level}
+	 */
+	private ExploredState[] exploreLevel(List<State> level, List<ModelGenerator> workerGens, ExecutorService executor, ModelType modelType, boolean justReach) throws PrismException
+	{
+		ExploredState explored[] = new ExploredState[level.size()];
+		AtomicInteger nextChunk = new AtomicInteger(0);
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(workerGens.size());
+		for (ModelGenerator workerGen : workerGens) {
+			tasks.add(() -> {
+				int start;
+				while ((start = nextChunk.getAndAdd(EXPLORE_CHUNK_SIZE)) < explored.length) {
+					int end = Math.min(start + EXPLORE_CHUNK_SIZE, explored.length);
+					for (int k = start; k < end; k++) {
+						try {
+							explored[k] = exploreState(workerGen, level.get(k), modelType, justReach);
+						} catch (PrismException e) {
+							explored[k] = new ExploredState();
+							explored[k].error = e;
+						}
+					}
+				}
+				return null;
+			});
+		}
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PrismException("Model construction was interrupted");
+		} catch (ExecutionException e) {
+			throw new PrismException("Model construction failed: " + e.getCause(), e.getCause());
+		}
+		return explored;
+	}
+
 	private void attachLabels(ModelGenerator modelGen, ModelExplicit model) throws PrismException
 	{
 		// Get state info
@@ -456,6 +456,60 @@ public interface DTMC extends Model
 		}
 	}
 
+	/**
+	 * Do a matrix-vector multiplication for the states in {@code states}, processing blocks of states in parallel on {@code kernels}
+	 * (see {@link #mvMult(double[], double[], OfInt)}).
+	 * The rows are read concurrently, so this is only used for DTMCs whose rows can be read by several threads at once
+	 * (see {@link IterationMethod}).
+	 */
+	public default void mvMult(final double[] vect, final double[] result, final int[] states, final ParallelRowKernels kernels)
+	{
+		kernels.forEachBlock(states, (block, from, to) -> {
+			for (int k = from; k < to; k++) {
+				result[block[k]] = mvMultSingle(block[k], vect);
+			}
+		});
+	}
+
+	/**
+	 * Do a Jacobi-style matrix-vector multiplication for the states in {@code states}, processing blocks of states in parallel on {@code kernels}
+	 * (see {@link #mvMultJac(double[], double[], OfInt)}).
+	 */
+	public default void mvMultJac(final double[] vect, final double[] result, final int[] states, final ParallelRowKernels kernels)
+	{
+		kernels.forEachBlock(states, (block, from, to) -> {
+			for (int k = from; k < to; k++) {
+				result[block[k]] = mvMultJacSingle(block[k], vect);
+			}
+		});
+	}
+
+	/**
+	 * Do a matrix-vector multiplication and sum of rewards for the states in {@code states}, processing blocks of states in parallel on {@code kernels}
+	 * (see {@link #mvMultRew(double[], MCRewards, double[], OfInt)}).
+	 */
+	public default void mvMultRew(final double[] vect, final MCRewards mcRewards, final double[] result, final int[] states, final ParallelRowKernels kernels)
+	{
+		kernels.forEachBlock(states, (block, from, to) -> {
+			for (int k = from; k < to; k++) {
+				result[block[k]] = mvMultRewSingle(block[k], vect, mcRewards);
+			}
+		});
+	}
+
+	/**
+	 * Do a Jacobi-style matrix-vector multiplication and sum of rewards for the states in {@code states}, processing blocks of states in parallel on {@code kernels}
+	 * (see {@link #mvMultRewJac(double[], MCRewards, double[], OfInt)}).
+	 */
+	public default void mvMultRewJac(final double[] vect, final MCRewards mcRewards, final double[] result, final int[] states, final ParallelRowKernels kernels)
+	{
+		kernels.forEachBlock(states, (block, from, to) -> {
+			for (int k = from; k < to; k++) {
+				result[block[k]] = mvMultRewJacSingle(block[k], vect, mcRewards);
+			}
+		});
+	}
+
 	/**
 	 * Do a matrix-vector multiplication and sum of action reward (Gauss-Seidel).
 	 * @param vect Vector to multiply by and store result in
@@ -607,4 +661,38 @@ public interface DTMC extends Model
 			});
 		}
 	}
+
+	/**
+	 * Do a vector-matrix multiplication for
+	 * the DTMC's transition probability matrix P and a block of {@code k} vectors passed in,
+	 * stored row-major in {@code vect}, i.e. the j-th vector is (vect[j], vect[k+j], vect[2k+j], ...).
+	 * i.e. for all s, j: result[s*k+j] = sum_i P(i,s)*vect[i*k+j]
+	 * <br>
+	 * This gives the same result as {@code k} separate calls of {@link #vmMult(double[], double[])},
+	 * but the transition structure is traversed only once.
+	 * @param vect Block of vectors to multiply by (length numStates*k)
+	 * @param result Block of vectors to store result in (length numStates*k)
+	 * @param k Number of vectors in the block
+	 */
+	public default void vmMultBlock(double vect[], double result[], int k)
+	{
+		int i;
+
+		int numStates = getNumStates();
+		// Initialise result to 0
+		for (i = 0; i < numStates * k; i++) {
+			result[i] = 0;
+		}
+
+		// Go through matrix elements (by row)
+		for (i = 0; i < numStates; i++) {
+			final int offsetS = i * k;
+			forEachTransition(i, (s, t, prob) -> {
+				final int offsetT = t * k;
+				for (int j = 0; j < k; j++) {
+					result[offsetT + j] += prob * vect[offsetS + j];
+				}
+			});
+		}
+	}
 }
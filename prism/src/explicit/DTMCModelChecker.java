@@ -27,6 +27,7 @@
 package explicit;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
@@ -35,6 +36,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.PrimitiveIterator;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import parser.VarList;
 import parser.ast.Declaration;
@@ -43,6 +49,7 @@ import parser.ast.Expression;
 import prism.OptionsIntervalIteration;
 import prism.Prism;
 import prism.PrismComponent;
+import prism.PrismDevNullLog;
 import prism.PrismException;
 import prism.PrismFileLog;
 import prism.PrismNotSupportedException;
@@ -60,6 +67,7 @@ import explicit.modelviews.MDPFromDTMC;
 import explicit.rewards.MCRewards;
 import explicit.rewards.MDPRewards;
 import explicit.rewards.Rewards;
+import explicit.rewards.StateRewardsArray;
 
 /**
  * Explicit-state model checker for discrete-time Markov chains (DTMCs).
@@ -612,6 +620,13 @@ public class DTMCModelChecker extends ProbModelChecker
 		case BACKWARDS_GAUSS_SEIDEL:
 		case JACOBI:
 			break; // supported
+		case GMRES:
+		case BICGSTAB:
+			// Krylov methods solve the equations directly: no interval iteration,
+			// and the system is only non-singular if the prob0 states are removed
+			if (!doIntervalIteration && precomp && prob0)
+				break; // supported
+			// fall through
 		default:
 			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
@@ -705,11 +720,16 @@ public class DTMCModelChecker extends ProbModelChecker
 			iterationMethod = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
 			break;
 		}
+		case GMRES:
+		case BICGSTAB:
+			break; // no iteration method, see below
 		default:
 			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 		}
 
-		if (doIntervalIteration) {
+		if (linEqMethod.isKrylov()) {
+			res = doKrylovReachProbs(dtmc, no, yes, init, known, linEqMethod);
+		} else if (doIntervalIteration) {
 			res = doIntervalIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
 		} else {
 			res = doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
@@ -1074,6 +1094,53 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 	}
 
+	/**
+	 * Compute reachability probabilities by solving the linear equation system directly
+	 * with a Krylov subspace method (GMRES or BiCGStab, see {@link KrylovSolver}).
+	 * @param dtmc The DTMC
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null), 'init' must also be given and is used for the exact values.
+	 * @param linEqMethod The Krylov subspace method
+	 */
+	protected ModelCheckerResult doKrylovReachProbs(DTMC dtmc, BitSet no, BitSet yes, double init[], BitSet known, LinEqMethod linEqMethod) throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+
+		// Store num states
+		n = dtmc.getNumStates();
+
+		// Initialise solution vector. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) passed in initial value; (4) 0.0
+		if (init != null) {
+			if (known != null) {
+				for (i = 0; i < n; i++)
+					init[i] = known.get(i) ? init[i] : yes.get(i) ? 1.0 : no.get(i) ? 0.0 : init[i];
+			} else {
+				for (i = 0; i < n; i++)
+					init[i] = yes.get(i) ? 1.0 : no.get(i) ? 0.0 : init[i];
+			}
+		} else {
+			init = new double[n];
+			for (i = 0; i < n; i++)
+				init[i] = yes.get(i) ? 1.0 : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+		if (known != null)
+			unknown.andNot(known);
+
+		// x = A x + b, where b holds the probability of moving to a state with a fixed value
+		return doKrylovSolve(dtmc, unknown, null, init, linEqMethod);
+	}
+
 
 	/**
 	 * Compute reachability probabilities using value iteration.
@@ -1753,6 +1820,12 @@ public class DTMCModelChecker extends ProbModelChecker
 		case BACKWARDS_GAUSS_SEIDEL:
 		case JACOBI:
 			break; // supported
+		case GMRES:
+		case BICGSTAB:
+			// Krylov methods solve the equations directly, so no interval iteration
+			if (!doIntervalIteration)
+				break; // supported
+			// fall through
 		default:
 			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
@@ -1799,7 +1872,7 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		boolean termCritAbsolute = termCrit == TermCrit.ABSOLUTE;
 
-		IterationMethod iterationMethod;
+		IterationMethod iterationMethod = null;
 
 		// Compute rewards
 		switch (linEqMethod) {
@@ -1815,11 +1888,16 @@ public class DTMCModelChecker extends ProbModelChecker
 			iterationMethod = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
 			break;
 		}
+		case GMRES:
+		case BICGSTAB:
+			break; // no iteration method, see below
 		default:
 			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 		}
 
-		if (doIntervalIteration) {
+		if (linEqMethod.isKrylov()) {
+			res = doKrylovReachRewards(dtmc, mcRewards, target, inf, init, known, linEqMethod);
+		} else if (doIntervalIteration) {
 			res = doIntervalIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
 		} else {
 			res = doValueIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
@@ -2021,6 +2099,127 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 	}
 
+	/**
+	 * Compute expected reachability rewards by solving the linear equation system directly
+	 * with a Krylov subspace method (GMRES or BiCGStab, see {@link KrylovSolver}).
+	 * @param dtmc The DTMC
+	 * @param mcRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 * @param linEqMethod The Krylov subspace method
+	 */
+	protected ModelCheckerResult doKrylovReachRewards(DTMC dtmc, MCRewards mcRewards, BitSet target, BitSet inf, double init[], BitSet known, LinEqMethod linEqMethod) throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+
+		// Store num states
+		n = dtmc.getNumStates();
+
+		// Initialise solution vector. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 0.0/infinity if in target/inf; (3) passed in initial value; (4) 0.0
+		if (init != null) {
+			if (known != null) {
+				for (i = 0; i < n; i++)
+					init[i] = known.get(i) ? init[i] : target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : init[i];
+			} else {
+				for (i = 0; i < n; i++)
+					init[i] = target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : init[i];
+			}
+		} else {
+			init = new double[n];
+			for (i = 0; i < n; i++)
+				init[i] = target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+		if (known != null)
+			unknown.andNot(known);
+
+		// x = A x + b, where b holds the state reward plus the expected value of moving to a state with a fixed value
+		return doKrylovSolve(dtmc, unknown, mcRewards, init, linEqMethod);
+	}
+
+	/**
+	 * Solve the linear equation system x = A x + b for the states in {@code unknown}
+	 * with a Krylov subspace method, where A is the transition matrix of {@code dtmc}
+	 * restricted to {@code unknown} and b(s) is the reward of s (if {@code mcRewards} is non-null)
+	 * plus the sum of P(s,t)*soln(t) over the states t not in {@code unknown}.
+	 * The states in {@code unknown} must not reach a state with an infinite value in {@code soln}.
+	 * @param dtmc The DTMC
+	 * @param unknown The states to compute values for
+	 * @param mcRewards Optionally, the rewards
+	 * @param soln Solution vector, holding the values of the other states and the initial values of {@code unknown} (will be overwritten)
+	 * @param linEqMethod The Krylov subspace method
+	 */
+	protected ModelCheckerResult doKrylovSolve(DTMC dtmc, BitSet unknown, MCRewards mcRewards, double soln[], LinEqMethod linEqMethod) throws PrismException
+	{
+		// Start linear equation solution
+		long timer = System.currentTimeMillis();
+		String description = linEqMethod.fullName() + ", " + krylovPreconditioner.fullName() + " preconditioner";
+		mainLog.println("Starting linear equation solution (" + description + ")...");
+
+		KrylovSolver solver = new KrylovSolver(dtmc, unknown, false, krylovPreconditioner);
+		int m = solver.getNumStates();
+		double b[] = new double[m];
+		double x[] = new double[m];
+		for (int i = 0; i < m; i++) {
+			int s = solver.getState(i);
+			double bs = mcRewards == null ? 0.0 : mcRewards.getStateReward(s);
+			bs += dtmc.sumOverTransitions(s, (__, t, prob) -> unknown.get(t) ? 0.0 : prob * soln[t]);
+			b[i] = bs;
+			x[i] = Double.isFinite(soln[s]) ? soln[s] : 0.0;
+		}
+		boolean done = m == 0 || solveKrylov(solver, b, x, linEqMethod);
+		for (int i = 0; i < m; i++) {
+			soln[solver.getState(i)] = x[i];
+		}
+
+		// Finished linear equation solution
+		timer = System.currentTimeMillis() - timer;
+		mainLog.print("Linear equation solution (" + linEqMethod.fullName() + ")");
+		mainLog.println(" took " + solver.getNumIterations() + " iterations and " + timer / 1000.0 + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!done && errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + solver.getNumIterations() + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = soln;
+		res.numIters = solver.getNumIterations();
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
+	/**
+	 * Run the Krylov subspace method {@code linEqMethod} on {@code solver},
+	 * using the termination criteria and maximum number of iterations of this model checker.
+	 * Returns true iff the method converged.
+	 */
+	private boolean solveKrylov(KrylovSolver solver, double b[], double x[], LinEqMethod linEqMethod) throws PrismException
+	{
+		boolean absolute = termCrit == TermCrit.ABSOLUTE;
+		switch (linEqMethod) {
+		case GMRES:
+			return solver.solveGMRES(b, x, gmresRestart, termCritParam, absolute, maxIters);
+		case BICGSTAB:
+			return solver.solveBiCGStab(b, x, termCritParam, absolute, maxIters);
+		default:
+			throw new PrismException("Unknown Krylov subspace method " + linEqMethod.fullName());
+		}
+	}
+
 	/**
 	 * Compute expected reachability rewards using interval iteration.
 	 * @param dtmc The DTMC
@@ -2218,28 +2417,17 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		// Otherwise, have to consider all the BSCCs
 		else {
-			// Compute probability of reaching each BSCC from initial distribution 
-			double[] probBSCCs = new double[numBSCCs];
+			// Compute probability of reaching each BSCC from initial distribution
+			// (for all BSCCs at once)
+			double[] probBSCCs = computeBSCCReachProbs(dtmc, initDist, bsccs, notInBSCCs);
 			for (int b = 0; b < numBSCCs; b++) {
-				mainLog.println("\nComputing probability of reaching BSCC " + (b + 1));
-				BitSet bscc = bsccs.get(b);
-				// Compute probabilities
-				double[] reachProbs = computeUntilProbs(dtmc, notInBSCCs, bscc).soln;
-				// Compute probability of reaching BSCC, which is dot product of
-				// vectors for initial distribution and probabilities of reaching it
-				probBSCCs[b] = 0.0;
-				for (int i = 0; i < numStates; i++) {
-					probBSCCs[b] += initDist[i] * reachProbs[i];
-				}
 				mainLog.print("\nProbability of reaching BSCC " + (b + 1) + ": " + probBSCCs[b] + "\n");
 			}
 
 			// Compute steady-state probabilities for each BSCC 
+			computeSteadyStateProbsForBSCCs(dtmc, bsccs, solnProbs);
 			for (int b = 0; b < numBSCCs; b++) {
-				mainLog.println("\nComputing steady-state probabilities for BSCC " + (b + 1));
 				BitSet bscc = bsccs.get(b);
-				// Compute steady-state probabilities for the BSCC
-				computeSteadyStateProbsForBSCC(dtmc, bscc, solnProbs);
 				// Multiply by BSCC reach prob
 				for (int i = bscc.nextSetBit(0); i >= 0; i = bscc.nextSetBit(i + 1))
 					solnProbs[i] *= probBSCCs[b];
@@ -2280,11 +2468,9 @@ public class DTMCModelChecker extends ProbModelChecker
 		// Compute steady-state probability for each BSCC...
 		double[] probBSCCs = new double[numBSCCs];
 		double[] ssProbs = new double[numStates];
+		computeSteadyStateProbsForBSCCs(dtmc, bsccs, ssProbs);
 		for (int b = 0; b < numBSCCs; b++) {
-			mainLog.println("\nComputing steady state probabilities for BSCC " + (b + 1));
 			BitSet bscc = bsccs.get(b);
-			// Compute steady-state probabilities for the BSCC
-			computeSteadyStateProbsForBSCC(dtmc, bscc, ssProbs);
 			// Compute weighted sum of probabilities with multProbs
 			probBSCCs[b] = 0.0;
 			if (multProbs == null) {
@@ -2317,19 +2503,26 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		// Otherwise we have to do more work...
 		else {
-			// Compute probabilities of reaching each BSCC...
+			// The value of a state is the sum over the BSCCs of the probability of reaching
+			// the BSCC multiplied by its value. Rather than computing the probabilities of reaching
+			// each BSCC separately, all are covered by one expected reachability reward computation:
+			// the target is the union of the BSCCs, and the reward of a state outside the BSCCs
+			// is the expected value of the BSCC it moves to in one step (if any).
+			mainLog.println("\nComputing probabilities of reaching the BSCCs, weighted by their values");
+			BitSet inBSCCs = new BitSet(numStates);
 			for (int b = 0; b < numBSCCs; b++) {
-				// Skip BSCCs with zero probability
-				if (probBSCCs[b] == 0.0)
-					continue;
-				mainLog.println("\nComputing probabilities of reaching BSCC " + (b + 1));
 				BitSet bscc = bsccs.get(b);
-				// Compute probabilities
-				double[] reachProbs = computeUntilProbs(dtmc, notInBSCCs, bscc).soln;
-				// Multiply by value for BSCC, add to total
-				for (int i = 0; i < numStates; i++) {
-					soln[i] += reachProbs[i] * probBSCCs[b];
-				}
+				inBSCCs.or(bscc);
+				for (int i = bscc.nextSetBit(0); i >= 0; i = bscc.nextSetBit(i + 1))
+					soln[i] = probBSCCs[b];
+			}
+			StateRewardsArray oneStepValues = new StateRewardsArray(numStates);
+			for (int i = notInBSCCs.nextSetBit(0); i >= 0; i = notInBSCCs.nextSetBit(i + 1)) {
+				oneStepValues.setStateReward(i, dtmc.sumOverTransitions(i, (s, t, prob) -> inBSCCs.get(t) ? prob * soln[t] : 0.0));
+			}
+			double[] reachValues = computeReachRewards(dtmc, oneStepValues, inBSCCs).soln;
+			for (int i = notInBSCCs.nextSetBit(0); i >= 0; i = notInBSCCs.nextSetBit(i + 1)) {
+				soln[i] = reachValues[i];
 			}
 		}
 
@@ -2340,6 +2533,253 @@ public class DTMCModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute the probabilities of reaching each of the BSCCs {@code bsccs} from the initial distribution {@code initDist},
+	 * for all BSCCs in a single pass: the expected numbers of visits y to the states outside the BSCCs ({@code notInBSCCs})
+	 * are computed by solving the (transposed) linear equation system y = y A + initDist, where A is the transition matrix
+	 * restricted to these states, and the probability of reaching a BSCC is then the expected number of transitions into it.
+	 * The system is solved using the current linear equation method (Power, Jacobi, (Backwards) Gauss-Seidel, GMRES or BiCGStab).
+	 * @param dtmc The DTMC
+	 * @param initDist Initial distribution
+	 * @param bsccs The BSCCs
+	 * @param notInBSCCs The states not in any BSCC
+	 */
+	public double[] computeBSCCReachProbs(DTMC dtmc, double initDist[], List<BitSet> bsccs, BitSet notInBSCCs) throws PrismException
+	{
+		int numStates = dtmc.getNumStates();
+		int numBSCCs = bsccs.size();
+		// Local copy of setting
+		LinEqMethod linEqMethod = this.linEqMethod;
+
+		// Switch to a supported method, if necessary
+		switch (linEqMethod) {
+		case POWER:
+		case GAUSS_SEIDEL:
+		case BACKWARDS_GAUSS_SEIDEL:
+		case JACOBI:
+		case GMRES:
+		case BICGSTAB:
+			break; // supported
+		default:
+			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
+			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
+		}
+
+		mainLog.println("\nComputing probabilities of reaching the " + numBSCCs + " BSCCs...");
+		StopWatch watch = new StopWatch(mainLog).start();
+
+		// Index of the BSCC of each state (-1 if none), initial probabilities of the BSCCs
+		int bsccOf[] = new int[numStates];
+		Arrays.fill(bsccOf, -1);
+		double probBSCCs[] = new double[numBSCCs];
+		for (int b = 0; b < numBSCCs; b++) {
+			BitSet bscc = bsccs.get(b);
+			for (int i = bscc.nextSetBit(0); i >= 0; i = bscc.nextSetBit(i + 1)) {
+				bsccOf[i] = b;
+				probBSCCs[b] += initDist[i];
+			}
+		}
+
+		// Expected numbers of visits to the states outside the BSCCs
+		int transientStates[];
+		double visits[];
+		int iters;
+		boolean done;
+		if (linEqMethod.isKrylov()) {
+			KrylovSolver solver = new KrylovSolver(dtmc, notInBSCCs, true, krylovPreconditioner);
+			int m = solver.getNumStates();
+			transientStates = new int[m];
+			double b[] = new double[m];
+			for (int i = 0; i < m; i++) {
+				transientStates[i] = solver.getState(i);
+				b[i] = initDist[transientStates[i]];
+			}
+			visits = b.clone();
+			done = m == 0 || solveKrylov(solver, b, visits, linEqMethod);
+			iters = solver.getNumIterations();
+		} else {
+			transientStates = notInBSCCs.stream().toArray();
+			visits = new double[transientStates.length];
+			iters = solveBSCCReachVisits(dtmc, initDist, transientStates, visits, linEqMethod);
+			done = iters >= 0;
+			iters = Math.abs(iters);
+		}
+
+		// Probability of reaching a BSCC = expected number of transitions into it
+		for (int i = 0; i < transientStates.length; i++) {
+			final double visitsS = visits[i];
+			if (visitsS == 0.0)
+				continue;
+			dtmc.forEachTransition(transientStates[i], (s, t, prob) -> {
+				if (bsccOf[t] >= 0)
+					probBSCCs[bsccOf[t]] += visitsS * prob;
+			});
+		}
+
+		// Finished computation of BSCC probabilities
+		watch.stop();
+		mainLog.println("Computation of BSCC probabilities took " + iters + " iterations and " + watch.elapsedSeconds() + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!done && errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		return probBSCCs;
+	}
+
+	/**
+	 * Solve y = y A + initDist for the expected numbers of visits y to {@code transientStates},
+	 * where A is the transition matrix of {@code dtmc} restricted to these states,
+	 * using the (iterative) linear equation method {@code method} (Power, Jacobi or (Backwards) Gauss-Seidel).
+	 * The system is transposed, so the incoming transitions of each state are collected first.
+	 * As usual for Jacobi and Gauss-Seidel, self-loops are eliminated by dividing by 1 - A(s,s),
+	 * so states that are left with a small probability only (as in stiff, uniformised chains) need few iterations.
+	 * @param dtmc The DTMC
+	 * @param initDist Initial distribution
+	 * @param transientStates The states outside the BSCCs (ascending)
+	 * @param visits Storage for the result, indexed like {@code transientStates}
+	 * @param method The linear equation method
+	 * @return the number of iterations, negated if the iterations did not converge
+	 */
+	private int solveBSCCReachVisits(DTMC dtmc, double initDist[], int transientStates[], double visits[], LinEqMethod method)
+	{
+		int numStates = dtmc.getNumStates();
+		int m = transientStates.length;
+		boolean termCritAbsolute = termCrit == TermCrit.ABSOLUTE;
+		boolean power = method == LinEqMethod.POWER;
+		boolean inPlace = method == LinEqMethod.GAUSS_SEIDEL || method == LinEqMethod.BACKWARDS_GAUSS_SEIDEL;
+		boolean backwards = method == LinEqMethod.BACKWARDS_GAUSS_SEIDEL;
+
+		// Index of each transient state (-1 if none)
+		int index[] = new int[numStates];
+		Arrays.fill(index, -1);
+		for (int i = 0; i < m; i++)
+			index[transientStates[i]] = i;
+
+		// Incoming transitions between transient states (in CSR form), and self-loop probabilities
+		int preStarts[] = new int[m + 1];
+		double diag[] = new double[m];
+		for (int i = 0; i < m; i++) {
+			final int from = i;
+			dtmc.forEachTransition(transientStates[i], (s, t, prob) -> {
+				int j = index[t];
+				if (j == from && !power)
+					diag[j] += prob;
+				else if (j >= 0)
+					preStarts[j + 1]++;
+			});
+		}
+		for (int i = 0; i < m; i++)
+			preStarts[i + 1] += preStarts[i];
+		int preStates[] = new int[preStarts[m]];
+		double preProbs[] = new double[preStarts[m]];
+		int next[] = Arrays.copyOf(preStarts, m);
+		for (int i = 0; i < m; i++) {
+			final int from = i;
+			dtmc.forEachTransition(transientStates[i], (s, t, prob) -> {
+				int j = index[t];
+				if (j >= 0 && (j != from || power)) {
+					preStates[next[j]] = from;
+					preProbs[next[j]++] = prob;
+				}
+			});
+		}
+
+		// Iterate
+		double b[] = new double[m];
+		for (int i = 0; i < m; i++)
+			b[i] = initDist[transientStates[i]];
+		double soln[] = visits;
+		double soln2[] = inPlace ? soln : new double[m];
+		int iters = 0;
+		boolean done = m == 0;
+		while (!done && iters < maxIters) {
+			iters++;
+			done = true;
+			for (int k = 0; k < m; k++) {
+				int i = backwards ? m - 1 - k : k;
+				double d = b[i];
+				for (int l = preStarts[i]; l < preStarts[i + 1]; l++)
+					d += preProbs[l] * soln[preStates[l]];
+				if (!power)
+					d /= 1.0 - diag[i];
+				if (done && !PrismUtils.doublesAreClose(soln[i], d, termCritParam, termCritAbsolute))
+					done = false;
+				soln2[i] = d;
+			}
+			if (!inPlace) {
+				double tmp[] = soln;
+				soln = soln2;
+				soln2 = tmp;
+			}
+		}
+		if (soln != visits)
+			System.arraycopy(soln, 0, visits, 0, m);
+
+		return done ? iters : -iters;
+	}
+
+	/**
+	 * Compute steady-state probabilities for each of the BSCCs {@code bsccs},
+	 * see {@link #computeSteadyStateProbsForBSCC(DTMC, BitSet, double[])}.
+	 * The results will be stored in the relevant portions of {@code result},
+	 * whose size equals the number of states in the DTMC.
+	 * As the BSCCs are independent of each other, they are solved concurrently
+	 * if several iteration threads are set (each by a model checker of its own, with no log output).
+	 * @param dtmc The DTMC
+	 * @param bsccs The BSCCs to be analysed
+	 * @param result Storage for result
+	 */
+	public void computeSteadyStateProbsForBSCCs(DTMC dtmc, List<BitSet> bsccs, double result[]) throws PrismException
+	{
+		int numBSCCs = bsccs.size();
+		int numThreads = Math.min(iterationThreads, numBSCCs);
+
+		// Sequentially (iterations can only be exported from one thread)
+		if (numThreads <= 1 || settings.getBoolean(PrismSettings.PRISM_EXPORT_ITERATIONS)) {
+			for (int b = 0; b < numBSCCs; b++) {
+				mainLog.println("\nComputing steady-state probabilities for BSCC " + (b + 1));
+				computeSteadyStateProbsForBSCC(dtmc, bsccs.get(b), result);
+			}
+			return;
+		}
+
+		// Concurrently
+		mainLog.println("\nComputing steady-state probabilities for " + numBSCCs + " BSCCs (using " + numThreads + " threads)...");
+		StopWatch watch = new StopWatch(mainLog).start();
+		List<Callable<ModelCheckerResult>> tasks = new ArrayList<Callable<ModelCheckerResult>>(numBSCCs);
+		for (BitSet bscc : bsccs) {
+			tasks.add(() -> {
+				DTMCModelChecker mcBSCC = new DTMCModelChecker(this);
+				mcBSCC.inheritSettings(this);
+				mcBSCC.setLog(new PrismDevNullLog());
+				return mcBSCC.computeSteadyStateProbsForBSCC(dtmc, bscc, result);
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<ModelCheckerResult>> futures = executor.invokeAll(tasks);
+			for (int b = 0; b < numBSCCs; b++) {
+				ModelCheckerResult res = futures.get(b).get();
+				mainLog.println("BSCC " + (b + 1) + ": " + res.numIters + " iterations, " + res.timeTaken + " seconds");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PrismException("Computation of steady-state probabilities was interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof PrismException)
+				throw (PrismException) e.getCause();
+			throw new PrismException("Computation of steady-state probabilities failed: " + e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		watch.stop();
+		mainLog.println("Computation of steady-state probabilities for BSCCs took " + watch.elapsedSeconds() + " seconds.");
+	}
+
 	/**
 	 * Compute steady-state probabilities for a BSCC
 	 * i.e. compute the long-run probability of being in each state of the BSCC.
@@ -2353,6 +2793,10 @@ public class DTMCModelChecker extends ProbModelChecker
 	 */
 	public ModelCheckerResult computeSteadyStateProbsForBSCC(DTMC dtmc, BitSet bscc, double result[]) throws PrismException
 	{
+		if (linEqMethod.isKrylov()) {
+			return computeSteadyStateProbsForBSCCKrylov(dtmc, bscc, result);
+		}
+
 		// Start value iteration
 		mainLog.println("Starting value iteration...");
 		StopWatch watch = new StopWatch(mainLog).start();
@@ -2378,14 +2822,24 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 
 		// Start iterations
+		// (the BSCC is closed, so the vector-matrix multiplication only needs its states)
+		int bsccStates[] = bscc.stream().toArray();
 		int iters = 0;
 		boolean done = false;
 		while (!done && iters < maxIters) {
 			iters++;
-			// Matrix-vector multiply
-			dtmc.vmMult(soln, soln2);
+			// Vector-matrix multiply
+			final double[] from = soln, to = soln2;
+			for (int s : bsccStates)
+				to[s] = 0.0;
+			for (int s : bsccStates) {
+				final double probS = from[s];
+				dtmc.forEachTransition(s, (s1, t, prob) -> {
+					to[t] += probS * prob;
+				});
+			}
 			// Check termination
-			done = PrismUtils.doublesAreClose(soln, soln2, termCritParam, termCrit == TermCrit.ABSOLUTE);
+			done = PrismUtils.doublesAreClose(soln, soln2, Arrays.stream(bsccStates).iterator(), termCritParam, termCrit == TermCrit.ABSOLUTE);
 			// Swap vectors for next iter
 			double[] tmpsoln = soln;
 			soln = soln2;
@@ -2411,6 +2865,13 @@ public class DTMCModelChecker extends ProbModelChecker
 			throw new PrismException(msg);
 		}
 
+		// Make sure the final values (of the BSCC states only) end up in the passed in vector
+		if (result != null && soln != result) {
+			for (int s : bsccStates)
+				result[s] = soln[s];
+			soln = result;
+		}
+
 		// Return results
 		ModelCheckerResult res = new ModelCheckerResult();
 		res.soln = soln;
@@ -2419,6 +2880,74 @@ public class DTMCModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute steady-state probabilities for a BSCC with a Krylov subspace method (GMRES or BiCGStab).
+	 * The probability of the first state k of the BSCC is fixed to 1, which turns the singular system
+	 * pi = pi P into the non-singular one pi_j = sum_{i != k} pi_i P(i,j) + P(k,j) for the other states j,
+	 * and the solution is normalised afterwards.
+	 * The result will be stored in the relevant portion of a full vector,
+	 * whose size equals the number of states in the DTMC.
+	 * @param dtmc The DTMC
+	 * @param bscc The BSCC to be analysed
+	 * @param result Storage for result (ignored if null)
+	 */
+	protected ModelCheckerResult computeSteadyStateProbsForBSCCKrylov(DTMC dtmc, BitSet bscc, double result[]) throws PrismException
+	{
+		// Start linear equation solution
+		String description = linEqMethod.fullName() + ", " + krylovPreconditioner.fullName() + " preconditioner";
+		mainLog.println("Starting linear equation solution (" + description + ")...");
+		StopWatch watch = new StopWatch(mainLog).start();
+
+		// Store num states
+		int numStates = dtmc.getNumStates();
+
+		// Create solution vector
+		// Use the passed in vector, if present
+		double[] soln = result == null ? new double[numStates] : result;
+
+		// Solve the transposed system over the BSCC states other than k
+		int k = bscc.nextSetBit(0);
+		BitSet rest = (BitSet) bscc.clone();
+		rest.clear(k);
+		KrylovSolver solver = new KrylovSolver(dtmc, rest, true, krylovPreconditioner);
+		int m = solver.getNumStates();
+		double b[] = new double[m];
+		double x[] = new double[m];
+		dtmc.forEachTransition(k, (s, t, prob) -> {
+			int j = solver.getIndex(t);
+			if (j >= 0)
+				b[j] += prob;
+		});
+		Arrays.fill(x, 1.0);
+		boolean done = m == 0 || solveKrylov(solver, b, x, linEqMethod);
+
+		// Normalise
+		double sum = 1.0;
+		for (int i = 0; i < m; i++)
+			sum += x[i];
+		soln[k] = 1.0 / sum;
+		for (int i = 0; i < m; i++)
+			soln[solver.getState(i)] = x[i] / sum;
+
+		// Finished linear equation solution
+		watch.stop();
+		mainLog.println("Linear equation solution (" + linEqMethod.fullName() + ") took " + solver.getNumIterations() + " iterations and " + watch.elapsedSeconds() + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!done && errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + solver.getNumIterations() + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = soln;
+		res.numIters = solver.getNumIterations();
+		res.timeTaken = watch.elapsedSeconds();
+		return res;
+	}
+
 	/**
 	 * Compute transient probabilities
 	 * i.e. compute the probability of being in each state at time step {@code k},
@@ -356,6 +356,24 @@ public class DTMCSparse extends DTMCExplicit
 		}
 	}
 
+	@Override
+	public void vmMultBlock(final double[] vect, final double[] result, final int k)
+	{
+		// Initialise result to 0
+		Arrays.fill(result, 0, numStates * k, 0);
+		// Go through matrix elements (by row)
+		for (int state = 0; state < numStates; state++) {
+			final int offsetState = state * k;
+			for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
+				final int offsetTarget = columns[i] * k;
+				final double probability = probabilities[i];
+				for (int j = 0; j < k; j++) {
+					result[offsetTarget + j] += probability * vect[offsetState + j];
+				}
+			}
+		}
+	}
+
 
 
 	//--- Object ---
@@ -31,6 +31,11 @@ package explicit;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import ch.obermuhlner.math.big.BigDecimalMath;
 import common.BigDecimalUtils;
@@ -38,9 +43,21 @@ import prism.PrismException;
 
 /**
  * BigDecimal version of {@link FoxGlynn}, allowing arbitrary {@code accuracy}.
+ * <br>
+ * Use {@link #getCached(BigDecimal, BigDecimal, BigDecimal, BigDecimal)} to share the (expensive)
+ * computation of the weights within the whole process. It keeps a LRU cache of the computed weights,
+ * keyed by {@code qtmax} and {@code accuracy}, and derives results of lower accuracy from cached results
+ * of higher accuracy instead of computing them from scratch.
  */
 public final class FoxGlynn_BD
 {
+	/** Maximum total number of weights (including the derived arrays) kept by the cache */
+	public static final int MAX_CACHED_WEIGHTS = 1 << 17;
+	/** Cached results, in LRU order. The cached instances are never handed out, only their copies. */
+	private static final Map<List<BigDecimal>, FoxGlynn_BD> cache = new LinkedHashMap<List<BigDecimal>, FoxGlynn_BD>(16, 0.75f, true);
+	/** Total number of weights kept by {@code cache} */
+	private static int cachedWeights = 0;
+	
 	// Math context for specifying BigDecimal accuracy
 	private MathContext mc;
 	private MathContext ceil;
@@ -56,19 +73,188 @@ public final class FoxGlynn_BD
 	private int left, right;
 	private BigDecimal totalWeight;
 	private BigDecimal[] weights;
+	
+	// values derived from the weights on demand, shared by all copies of this instance
+	private Derived derived;
+
+	/**
+	 * Weights normalised by the total weight, and the tail weights.
+	 * They are computed from the weights and the total weight as returned by {@link FoxGlynn_BD#run()},
+	 * regardless of later modifications of the weights of the copies.
+	 */
+	private static final class Derived
+	{
+		private final BigDecimal[] weights;
+		private final BigDecimal totalWeight;
+		private BigDecimal[] normalizedWeights;
+		private BigDecimal[] tailWeights;
+
+		private Derived(BigDecimal[] weights, BigDecimal totalWeight)
+		{
+			this.weights = weights;
+			this.totalWeight = totalWeight;
+		}
+	}
 
 	public FoxGlynn_BD(BigDecimal qtmax, BigDecimal uf, BigDecimal of, BigDecimal acc) throws PrismException
 	{
-		decimalPrecision = BigDecimalUtils.decimalDigits(acc);
-		decimalPrecision = decimalPrecision + decimalPrecision/10; //to prevent nonconvergence
-		mc = new MathContext(decimalPrecision, RoundingMode.HALF_UP);
-		ceil = new MathContext(decimalPrecision, RoundingMode.CEILING);
-		
+		setPrecision(acc);
 		q_tmax = qtmax;
 		underflow = uf;
 		overflow = of;
 		accuracy = acc;
 		run();
+		derived = new Derived(weights, totalWeight);
+	}
+
+	/**
+	 * Copy constructor. The weights are copied, so they may be modified independently of {@code other}.
+	 */
+	private FoxGlynn_BD(FoxGlynn_BD other)
+	{
+		mc = other.mc;
+		ceil = other.ceil;
+		decimalPrecision = other.decimalPrecision;
+		q_tmax = other.q_tmax;
+		underflow = other.underflow;
+		overflow = other.overflow;
+		accuracy = other.accuracy;
+		left = other.left;
+		right = other.right;
+		totalWeight = other.totalWeight;
+		weights = other.weights.clone();
+		derived = other.derived;
+	}
+
+	/**
+	 * Derives the result for accuracy {@code acc} from the result {@code precise} of the same {@code qtmax}
+	 * computed with a higher accuracy (i.e. a smaller or equal {@code acc}), by narrowing the truncation points
+	 * and rounding the weights.
+	 * <br>
+	 * For {@code qtmax < 400}, the weights are the actual Poisson probabilities, and the right truncation point
+	 * is chosen the same way as by {@link #run()}. Otherwise, each of the tails may additionally drop
+	 * a mass of at most (acc - precise accuracy)/2, so the total error stays within {@code acc}.
+	 */
+	private FoxGlynn_BD(FoxGlynn_BD precise, BigDecimal acc)
+	{
+		setPrecision(acc);
+		q_tmax = precise.q_tmax;
+		underflow = precise.underflow;
+		overflow = precise.overflow;
+		accuracy = acc;
+		BigDecimal[] preciseWeights = precise.derived.weights;
+		if (precise.totalWeight.compareTo(BigDecimal.ONE) == 0 && precise.left == 0 && q_tmax.compareTo(new BigDecimal("400.0", mc)) < 0) {
+			BigDecimal desval = BigDecimal.ONE.subtract(accuracy.divide(new BigDecimal("2.0"), mc), mc);
+			BigDecimal accum = BigDecimal.ZERO;
+			int k = 0;
+			do {
+				accum = accum.add(preciseWeights[k], mc);
+				k++;
+			} while (accum.compareTo(desval) < 0 && k < preciseWeights.length);
+			left = 0;
+			right = k - 1;
+			weights = new BigDecimal[k];
+			for (int i = 0; i < k; i++) {
+				weights[i] = preciseWeights[i].round(mc);
+			}
+			totalWeight = BigDecimal.ONE;
+		} else {
+			BigDecimal budget = acc.subtract(precise.accuracy, mc).divide(new BigDecimal("2.0"), mc).multiply(precise.totalWeight, mc);
+			int m = Math.min(Math.max(q_tmax.intValue(), precise.left), precise.right);
+			left = precise.left;
+			BigDecimal dropped = BigDecimal.ZERO;
+			while (left < m && dropped.add(preciseWeights[left - precise.left], mc).compareTo(budget) <= 0) {
+				dropped = dropped.add(preciseWeights[left - precise.left], mc);
+				left++;
+			}
+			right = precise.right;
+			dropped = BigDecimal.ZERO;
+			while (right > m && dropped.add(preciseWeights[right - precise.left], mc).compareTo(budget) <= 0) {
+				dropped = dropped.add(preciseWeights[right - precise.left], mc);
+				right--;
+			}
+			weights = new BigDecimal[right - left + 1];
+			for (int i = left; i <= right; i++) {
+				weights[i - left] = preciseWeights[i - precise.left].round(mc);
+			}
+			computeTotalWeight();
+		}
+		derived = new Derived(weights, totalWeight);
+	}
+
+	/**
+	 * Returns the result for the given arguments (see {@link #FoxGlynn_BD(BigDecimal, BigDecimal, BigDecimal, BigDecimal)}),
+	 * using the process-wide cache.
+	 * If the cache contains the result for the same {@code qtmax} (and {@code uf} and {@code of}) with a higher accuracy,
+	 * the result is derived from it (see {@link #FoxGlynn_BD(FoxGlynn_BD, BigDecimal)}). Otherwise, it is computed.
+	 * <br>
+	 * The returned instance is a copy owned by the caller, so its weights may be modified.
+	 */
+	public static FoxGlynn_BD getCached(BigDecimal qtmax, BigDecimal uf, BigDecimal of, BigDecimal acc) throws PrismException
+	{
+		List<BigDecimal> key = cacheKey(qtmax, uf, of, acc);
+		FoxGlynn_BD precise = null;
+		synchronized (cache) {
+			FoxGlynn_BD cached = cache.get(key);
+			if (cached != null) {
+				return new FoxGlynn_BD(cached);
+			}
+			// look for the least accurate result that is still accurate enough
+			for (FoxGlynn_BD candidate : cache.values()) {
+				if (candidate.q_tmax.compareTo(qtmax) == 0 && candidate.underflow.compareTo(uf) == 0 && candidate.overflow.compareTo(of) == 0
+						&& candidate.accuracy.compareTo(acc) <= 0 && (precise == null || candidate.accuracy.compareTo(precise.accuracy) > 0)) {
+					precise = candidate;
+				}
+			}
+		}
+		FoxGlynn_BD result = (precise == null) ? new FoxGlynn_BD(qtmax, uf, of, acc) : new FoxGlynn_BD(precise, acc);
+		synchronized (cache) {
+			FoxGlynn_BD previous = cache.put(key, result);
+			if (previous != null) {
+				cachedWeights -= previous.getCachedSize();
+			}
+			cachedWeights += result.getCachedSize();
+			Iterator<FoxGlynn_BD> it = cache.values().iterator();
+			while (cachedWeights > MAX_CACHED_WEIGHTS && it.hasNext()) {
+				FoxGlynn_BD eldest = it.next();
+				if (eldest == result) {
+					continue;
+				}
+				cachedWeights -= eldest.getCachedSize();
+				it.remove();
+			}
+		}
+		return new FoxGlynn_BD(result);
+	}
+
+	/**
+	 * Removes all results from the process-wide cache.
+	 */
+	public static void clearCache()
+	{
+		synchronized (cache) {
+			cache.clear();
+			cachedWeights = 0;
+		}
+	}
+
+	private static List<BigDecimal> cacheKey(BigDecimal qtmax, BigDecimal uf, BigDecimal of, BigDecimal acc)
+	{
+		return Arrays.asList(qtmax.stripTrailingZeros(), uf.stripTrailingZeros(), of.stripTrailingZeros(), acc.stripTrailingZeros());
+	}
+
+	/** Number of weights this (cached) instance may keep, including the derived arrays */
+	private int getCachedSize()
+	{
+		return 3 * derived.weights.length;
+	}
+
+	private void setPrecision(BigDecimal acc)
+	{
+		decimalPrecision = BigDecimalUtils.decimalDigits(acc);
+		decimalPrecision = decimalPrecision + decimalPrecision/10; //to prevent nonconvergence
+		mc = new MathContext(decimalPrecision, RoundingMode.HALF_UP);
+		ceil = new MathContext(decimalPrecision, RoundingMode.CEILING);
 	}
 
 	public final BigDecimal[] getWeights()
@@ -97,6 +283,47 @@ public final class FoxGlynn_BD
 		this.totalWeight = totalWeight;
 	}
 
+	/**
+	 * Returns the weights divided by the total weight, i.e. the Poisson probabilities
+	 * of {@code left}, ..., {@code right} steps. Computed on demand and shared by all copies, so it must not be modified.
+	 */
+	public final BigDecimal[] getNormalizedWeights()
+	{
+		synchronized (derived) {
+			if (derived.normalizedWeights == null) {
+				BigDecimal[] normalized = new BigDecimal[derived.weights.length];
+				for (int i = 0; i < normalized.length; i++) {
+					normalized[i] = derived.weights[i].divide(derived.totalWeight, mc);
+				}
+				derived.normalizedWeights = normalized;
+			}
+			return derived.normalizedWeights;
+		}
+	}
+
+	/**
+	 * Returns the tail weights, i.e. for each {@code i} from {@code left} to {@code right} (at index {@code i - left}),
+	 * the probability of more than {@code i} steps, 1 - (sum of the normalized weights of {@code left}, ..., {@code i}).
+	 * Divided by the uniformisation rate, these are the mean times spent in the {@code i}-th step before the timeout.
+	 * Computed on demand and shared by all copies, so it must not be modified.
+	 */
+	public final BigDecimal[] getTailWeights()
+	{
+		BigDecimal[] normalized = getNormalizedWeights();
+		synchronized (derived) {
+			if (derived.tailWeights == null) {
+				BigDecimal[] tail = new BigDecimal[normalized.length];
+				BigDecimal sum = BigDecimal.ZERO;
+				for (int i = 0; i < tail.length; i++) {
+					sum = sum.add(normalized[i], mc);
+					tail[i] = BigDecimal.ONE.subtract(sum, mc);
+				}
+				derived.tailWeights = tail;
+			}
+			return derived.tailWeights;
+		}
+	}
+
 	private final void run() throws PrismException
 	{
 		if (q_tmax.compareTo(BigDecimal.ZERO) == 0) {
@@ -216,27 +443,34 @@ public final class FoxGlynn_BD
 			for(int j=m; j<this.right; j++)
 				this.weights[j+1-this.left] = (q_tmax.divide(new BigDecimal(j+1, mc), mc)).multiply(this.weights[j-this.left], mc);
 
-			//Compute totalWeight (i.e. W in the paper)
-			//instead of summing from left to right, start from smallest
-			//and go to highest weights to prevent roundoff
-			this.totalWeight = BigDecimal.ZERO;
-			int s = this.left;
-			int t = this.right;
-			while (s<t)
+			computeTotalWeight();
+		}
+	}
+
+	/**
+	 * Computes totalWeight (i.e. W in the paper) from the weights.
+	 */
+	private final void computeTotalWeight()
+	{
+		//instead of summing from left to right, start from smallest
+		//and go to highest weights to prevent roundoff
+		this.totalWeight = BigDecimal.ZERO;
+		int s = this.left;
+		int t = this.right;
+		while (s<t)
+		{
+			if(this.weights[s - this.left].compareTo(this.weights[t - this.left]) <= 0)
 			{
-				if(this.weights[s - this.left].compareTo(this.weights[t - this.left]) <= 0)
-				{
-					this.totalWeight = this.totalWeight.add(this.weights[s-this.left], mc);
-					s++;
-				}
-				else
-				{
-					this.totalWeight = this.totalWeight.add(this.weights[t-this.left], mc);
-					t--;
-				}
+				this.totalWeight = this.totalWeight.add(this.weights[s-this.left], mc);
+				s++;
+			}
+			else
+			{
+				this.totalWeight = this.totalWeight.add(this.weights[t-this.left], mc);
+				t--;
 			}
-			this.totalWeight = this.totalWeight.add(this.weights[s-this.left], mc);
 		}
+		this.totalWeight = this.totalWeight.add(this.weights[s-this.left], mc);
 	}
 
 	/**
@@ -0,0 +1,197 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+
+import prism.PrismException;
+
+/**
+ * Double precision version of {@link FoxGlynn_BD} that also reports
+ * a rigorous a-posteriori bound on the error of the computed weights.
+ * <br>
+ * The weights are computed by the recurrences from the mode (whose weight is set to 1,
+ * so neither overflow nor underflow of the significant weights can occur),
+ * and the truncation points are found using geometric bounds on the Poisson tails.
+ * The total weight is accumulated using compensated (Kahan) summation.
+ * <br>
+ * Unlike {@link FoxGlynn}, the weights are already normalized, i.e. the total weight is 1.
+ */
+public final class FoxGlynn_bounded
+{
+	/** Unit roundoff of double precision arithmetic */
+	public static final double UNIT_ROUNDOFF = Math.ulp(1.0) / 2;
+	/** Smallest accuracy this class can handle */
+	public static final double MIN_ACCURACY = 1e-290;
+
+	// constructor parameters
+	private double accuracy;
+	private double q_tmax;
+
+	// returned values
+	private int left, right;
+	private double[] weights;
+	private double truncationError;
+	private double roundingError;
+
+	/**
+	 * @param qtmax Parameter of the Poisson distribution. Must be positive.
+	 * @param acc Allowed truncation error, i.e. the probability mass outside of [left, right].
+	 *            Values smaller than {@link #MIN_ACCURACY} are raised to it.
+	 */
+	public FoxGlynn_bounded(double qtmax, double acc) throws PrismException
+	{
+		q_tmax = qtmax;
+		accuracy = Math.max(acc, MIN_ACCURACY);
+		run();
+	}
+
+	/** Returns the normalized weights of the points left..right (index 0 corresponds to left) */
+	public final double[] getWeights()
+	{
+		return weights;
+	}
+
+	public final int getLeftTruncationPoint()
+	{
+		return left;
+	}
+
+	public final int getRightTruncationPoint()
+	{
+		return right;
+	}
+
+	/** Total weight of the normalized weights, which is always 1 */
+	public final double getTotalWeight()
+	{
+		return 1.0;
+	}
+
+	/** Upper bound on the Poisson probability mass outside of [left, right] */
+	public final double getTruncationError()
+	{
+		return truncationError;
+	}
+
+	/** Upper bound on the relative rounding error of each individual normalized weight */
+	public final double getRoundingError()
+	{
+		return roundingError;
+	}
+
+	/**
+	 * Upper bound on the sum of absolute errors of the normalized weights
+	 * with respect to the exact Poisson probabilities, including the truncation error.
+	 * (The truncated mass is counted twice, once as missing and once as the normalization surplus.)
+	 */
+	public final double getErrorBound()
+	{
+		return 2 * truncationError + roundingError * (1 + roundingError);
+	}
+
+	private final void run() throws PrismException
+	{
+		if (!(q_tmax > 0.0) || Double.isInfinite(q_tmax)) {
+			throw new PrismException("Overflow: TA parameter qtmax = time * maxExitRate = " + q_tmax + ".");
+		}
+		final int m = (int) Math.floor(q_tmax); //mode
+		if (m >= Integer.MAX_VALUE / 2) {
+			throw new PrismException("Overflow: TA parameter qtmax = time * maxExitRate is too large.");
+		}
+
+		// The weights are grown from the mode in both directions until the geometric bounds
+		// on the remaining tails drop below accuracy/2 times the weight accumulated so far.
+		// Since the accumulated weight is at most the total weight, this bounds the relative truncation error.
+		ArrayList<Double> up = new ArrayList<Double>();
+		ArrayList<Double> down = new ArrayList<Double>();
+		double sum = 1.0;
+		double comp = 0.0;
+		//Up from m
+		{
+			double w = 1.0;
+			int j = m;
+			while (true) {
+				double ratio = q_tmax / (j + 2); //bound on all the following ratios of successive weights
+				double nextW = w * (q_tmax / (j + 1));
+				if (ratio < 1 && nextW / (1 - ratio) <= (accuracy / 2) * sum) {
+					break;
+				}
+				w = nextW;
+				up.add(w);
+				// Kahan summation
+				double y = w - comp;
+				double t = sum + y;
+				comp = (t - sum) - y;
+				sum = t;
+				j++;
+			}
+		}
+		//Down from m
+		{
+			double w = 1.0;
+			int j = m;
+			while (j > 0) {
+				double ratio = (j - 1) / q_tmax; //bound on all the following ratios of successive weights
+				double nextW = w * (j / q_tmax);
+				if (nextW / (1 - ratio) <= (accuracy / 2) * sum) {
+					break;
+				}
+				w = nextW;
+				down.add(w);
+				// Kahan summation
+				double y = w - comp;
+				double t = sum + y;
+				comp = (t - sum) - y;
+				sum = t;
+				j--;
+			}
+		}
+
+		this.left = m - down.size();
+		this.right = m + up.size();
+		this.weights = new double[this.right - this.left + 1];
+		for (int i = 0; i < down.size(); i++) {
+			this.weights[m - 1 - i - this.left] = down.get(i) / sum;
+		}
+		this.weights[m - this.left] = 1.0 / sum;
+		for (int i = 0; i < up.size(); i++) {
+			this.weights[m + 1 + i - this.left] = up.get(i) / sum;
+		}
+
+		// Each weight is obtained from the mode by at most d = max(up, down) steps,
+		// each step costing one division and one multiplication, i.e. gamma_{2d}.
+		// The compensated total weight adds 2u (plus second order terms) to the inherited error,
+		// and the final normalization adds another u.
+		final double u = UNIT_ROUNDOFF;
+		int d = Math.max(up.size(), down.size());
+		double gamma = (2.0 * d * u) / (1 - 2.0 * d * u);
+		double n = this.right - this.left + 1;
+		this.roundingError = 2 * gamma + 3 * u + n * n * u * u;
+		this.truncationError = accuracy;
+	}
+}
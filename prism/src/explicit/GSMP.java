@@ -39,7 +39,7 @@ import java.util.List;
 public interface GSMP extends ModelSimple
 {
 	/**
-	 * Get all events.
+	 * Get all events. The returned list must not be modified.
 	 */
 	public List<GSMPEvent> getEventList();
 	
@@ -52,6 +52,17 @@ public interface GSMP extends ModelSimple
 	 * Returns a list of events active in state {@code state}.
 	 */
 	public List<GSMPEvent> getActiveEvents(int state);
+
+	/**
+	 * Returns the number of events active in state {@code state}.
+	 */
+	public int getNumActiveEvents(int state);
+
+	/**
+	 * Returns the {@code i}-th event active in state {@code state}, where 0 <= {@code i} < {@link #getNumActiveEvents(int)}.
+	 * Together with {@link #getNumActiveEvents(int)}, this allows iterating over the active events without allocating a list.
+	 */
+	public GSMPEvent getActiveEvent(int state, int i);
 	
 	/**
 	 * Adds a new empty event into the GSMP iff this event has not yet been added.
@@ -65,5 +76,5 @@ public interface GSMP extends ModelSimple
 	 * Constructs a CTMC from the exponentially distributed events within this GSMP.
 	 * This is useful for CTMC-based model checking methods, e.g. ACTMC construction.
 	 */
-	public CTMC generateCTMC();
+	public CTMCSimple generateCTMC();
 }
@@ -89,7 +89,14 @@ public class GSMPEvent extends DTMCSimple
 	 * Copy constructor.
 	 */
 	public GSMPEvent(GSMPEvent event) {
-		super(event);
+		// the transitions are read through the accessors, so that events of a GSMPSparse are copied as well
+		super(event.getNumStates());
+		copyFrom(event);
+		BitSet eventActive = event.getActive();
+		for (int s = eventActive.nextSetBit(0); s >= 0; s = eventActive.nextSetBit(s + 1)) {
+			trans.set(s, new Distribution(event.getTransitions(s)));
+		}
+		numTransitions = event.getNumTransitions();
 		this.statesList = event.getStatesList();
 		this.distributionType = event.distributionType;
 		this.firstParameter = event.firstParameter;
@@ -98,7 +105,7 @@ public class GSMPEvent extends DTMCSimple
 		this.originalIdentifier = event.originalIdentifier;
 		this.actionLabels = event.actionLabels;
 		clearActive();
-		this.active.or(event.active);
+		this.active.or(eventActive);
 	}
 
 	/**
@@ -225,7 +232,7 @@ public class GSMPEvent extends DTMCSimple
 	 * @param permut permutation of state indices
 	 * @return A new map of action labels with permuted state indices as specified by {@code permut}
 	 */
-	private Map<Integer, Map<Integer, Set<String>>> actionLabelMapPermut(int[] permut) {
+	Map<Integer, Map<Integer, Set<String>>> actionLabelMapPermut(int[] permut) {
 		Map<Integer, Map<Integer, Set<String>>> newActionLabelMap = new TreeMap<Integer, Map<Integer, Set<String>>>();
 		
 		for (Map.Entry<Integer, Map<Integer, Set<String>>> oldSourceEntry : actionLabels.entrySet()) {
@@ -300,7 +307,7 @@ public class GSMPEvent extends DTMCSimple
 				this.distributionType == other.distributionType &&
 				this.firstParameter == other.firstParameter &&
 				this.secondParameter == other.secondParameter &&
-				this.active.equals(other.active) &&
+				this.getActive().equals(other.getActive()) &&
 				this.identifier.equals(other.identifier));
 	}
 	
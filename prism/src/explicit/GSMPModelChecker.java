@@ -27,8 +27,8 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -38,15 +38,20 @@ import explicit.rewards.ACTMCRewardsSimple;
 import explicit.rewards.GSMPRewards;
 import explicit.rewards.GSMPRewardsSimple;
 import explicit.rewards.MCRewards;
+import explicit.rewards.StateRewardsArray;
 import parser.ast.SynthParam;
 import parser.type.TypeDistributionExponential;
 import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismNotSupportedException;
+import prism.PrismSettings;
+import simulator.method.SimulationMethod;
 
 /**
  * Explicit-state model checker for generalized semi-Markov processes (GSMPs).
  * ACTMCs are treated as special cases of GSMPs, and solved differently.
+ * Optionally, any GSMP can be approximated by a CTMC by fitting its events with phase-type distributions
+ * (see {@link GSMPPhaseTypeExpansion}).
  */
 public class GSMPModelChecker extends ProbModelChecker
 {
@@ -56,6 +61,66 @@ public class GSMPModelChecker extends ProbModelChecker
 	public GSMPModelChecker(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		PrismSettings settings = getSettings();
+		if (settings != null) {
+			phaseTypeOrder = settings.getInteger(PrismSettings.PRISM_GSMP_PHASE_TYPE_ORDER);
+		}
+	}
+	
+	/**
+	 * Maximum number of phases of the phase-type approximation of the events (see {@link GSMPPhaseTypeExpansion}).
+	 * If 0, ACTMCs are analysed exactly and other GSMPs are simulated.
+	 */
+	protected int phaseTypeOrder = 0;
+	
+	/**
+	 * Set the maximum number of phases of the phase-type approximation of the events (0 to disable it).
+	 */
+	public void setPhaseTypeOrder(int phaseTypeOrder)
+	{
+		this.phaseTypeOrder = phaseTypeOrder;
+	}
+	
+	/**
+	 * Method controlling the number of simulated paths for GSMPs that are not ACTMCs.
+	 * If null, the default method of the simulator settings is used.
+	 */
+	protected SimulationMethod simulationMethod = null;
+	
+	/**
+	 * Set the method controlling the number of simulated paths for GSMPs that are not ACTMCs.
+	 */
+	public void setSimulationMethod(SimulationMethod simulationMethod)
+	{
+		this.simulationMethod = simulationMethod;
+	}
+	
+	/**
+	 * Maximum length of the simulated paths for GSMPs that are not ACTMCs.
+	 * If 0, the default maximum path length of the simulator settings is used.
+	 */
+	protected long simulationMaxPathLength = 0;
+	
+	/**
+	 * Set the maximum length of the simulated paths for GSMPs that are not ACTMCs.
+	 */
+	public void setSimulationMaxPathLength(long simulationMaxPathLength)
+	{
+		this.simulationMaxPathLength = simulationMaxPathLength;
+	}
+	
+	/**
+	 * Cache of ACTMC reductions shared by the points of an experiment sweep (see {@link ACTMCReductionCache}).
+	 * If null, or if it belongs to a different GSMP, a new reduction is created for every computation.
+	 */
+	protected ACTMCReductionCache reductionCache = null;
+	
+	/**
+	 * Set the cache of ACTMC reductions shared by the points of an experiment sweep.
+	 */
+	public void setReductionCache(ACTMCReductionCache reductionCache)
+	{
+		this.reductionCache = reductionCache;
 	}
 	
 	// model checking initiation methods
@@ -70,8 +135,10 @@ public class GSMPModelChecker extends ProbModelChecker
 		if (initDistr == null) {
 			initDistr = buildInitialDistribution(gsmp);
 		}
-		if (isACTMC(gsmp) && gsmp instanceof GSMPSimple) {
-			ACTMCSimple actmc = new ACTMCSimple((GSMPSimple)gsmp);
+		if (phaseTypeOrder > 0) {
+			return computeSteadyStatePhaseType(gsmp, initDistr);
+		} else if (isACTMC(gsmp)) {
+			ACTMCSimple actmc = createACTMC(gsmp);
 			return computeSteadyStateACTMC(actmc, initDistr);
 		} else {
 			return computeSteadyStateGSMP(gsmp, initDistr);
@@ -89,14 +156,66 @@ public class GSMPModelChecker extends ProbModelChecker
 		if (initDistr == null) {
 			initDistr = buildInitialDistribution(gsmp);
 		}
-		if (isACTMC(gsmp) && gsmp instanceof GSMPSimple) {
-			ACTMCSimple actmc = new ACTMCSimple((GSMPSimple)gsmp);
+		if (phaseTypeOrder > 0) {
+			GSMPPhaseTypeExpansion expansion = new GSMPPhaseTypeExpansion(gsmp, phaseTypeOrder, this);
+			double[] distr = computeTransientPhaseType(expansion, time, expansion.liftDistribution(initDistr.getDoubleArray()));
+			return StateValues.createFromDoubleArray(expansion.projectDistribution(distr), gsmp);
+		} else if (isACTMC(gsmp)) {
+			ACTMCSimple actmc = createACTMC(gsmp);
 			return computeTransientACTMC(actmc, time, initDistr);
 		} else {
 			return computeTransientGSMP(gsmp, time, initDistr);
 		}
 	}
 	
+	/**
+	 * Gateway method to initiate computation of transient probabilities for multiple time points in a single pass.
+	 * The distribution of each time point is passed to {@code listener} as soon as it is computed,
+	 * in ascending order of the time points.
+	 * <br>
+	 * Unlike for CTMCs, the distribution of a later time point cannot be computed
+	 * from the distribution of an earlier one, since it does not capture the ages of the events.
+	 * @param gsmp
+	 * @param times non-negative time points
+	 * @param initDistr initial probability distribution on states. if null, default for the model is used
+	 * @param listener receiver of the probability distributions on states
+	 */
+	public void doTransient(GSMP gsmp, double[] times, StateValues initDistr, TransientListener listener) throws PrismException {
+		if (initDistr == null) {
+			initDistr = buildInitialDistribution(gsmp);
+		}
+		double[] sortedTimes = times.clone();
+		Arrays.sort(sortedTimes);
+		if (phaseTypeOrder > 0) {
+			// The expanded CTMC captures the phases, so each time point continues from the previous one
+			GSMPPhaseTypeExpansion expansion = new GSMPPhaseTypeExpansion(gsmp, phaseTypeOrder, this);
+			double[] distr = expansion.liftDistribution(initDistr.getDoubleArray());
+			double lastTime = 0.0;
+			for (double time : sortedTimes) {
+				distr = computeTransientPhaseType(expansion, time - lastTime, distr);
+				lastTime = time;
+				listener.transientComputed(time, StateValues.createFromDoubleArray(expansion.projectDistribution(distr), gsmp));
+			}
+		} else if (isACTMC(gsmp)) {
+			ACTMCSimple actmc = createACTMC(gsmp);
+			ACTMCTransient actmcTransient = new ACTMCTransient(actmc, this);
+			actmcTransient.computeTransient(sortedTimes, initDistr.getDoubleArray(),
+					(time, probs) -> listener.transientComputed(time, StateValues.createFromDoubleArray(probs, gsmp)));
+		} else {
+			for (double time : sortedTimes) {
+				listener.transientComputed(time, computeTransientGSMP(gsmp, time, initDistr));
+			}
+		}
+	}
+	
+	/**
+	 * Receiver of transient probabilities computed by {@link #doTransient(GSMP, double[], StateValues, TransientListener)}.
+	 */
+	public interface TransientListener
+	{
+		void transientComputed(double time, StateValues probs) throws PrismException;
+	}
+	
 	/**
 	 * Gateway method to initiate computation of expected reachability rewards
 	 * @param gsmp the GSMP model
@@ -105,8 +224,10 @@ public class GSMPModelChecker extends ProbModelChecker
 	 * @return expected rewards accumulated before reaching a state in {@code target}
 	 */
 	public ModelCheckerResult doReachRewards(GSMP gsmp, GSMPRewards rew, BitSet target) throws PrismException {
-		if (isACTMC(gsmp) && gsmp instanceof GSMPSimple && rew instanceof GSMPRewardsSimple) {
-			ACTMCSimple actmc = new ACTMCSimple((GSMPSimple)gsmp);
+		if (phaseTypeOrder > 0) {
+			return computeReachRewardsPhaseType(gsmp, rew, target);
+		} else if (isACTMC(gsmp) && rew instanceof GSMPRewardsSimple) {
+			ACTMCSimple actmc = createACTMC(gsmp);
 			ACTMCRewardsSimple actmcRew = new ACTMCRewardsSimple((GSMPRewardsSimple)rew, gsmp, actmc);
 			return computeReachRewardsACTMC(actmc, actmcRew, target);
 		} else {
@@ -122,8 +243,10 @@ public class GSMPModelChecker extends ProbModelChecker
 	 * @return expected long-run average reward
 	 */
 	public ModelCheckerResult doSteadyStateRewards(GSMP gsmp, GSMPRewards rew) throws PrismException {
-		if (isACTMC(gsmp) && gsmp instanceof GSMPSimple && rew instanceof GSMPRewardsSimple) {
-			ACTMCSimple actmc = new ACTMCSimple((GSMPSimple)gsmp);
+		if (phaseTypeOrder > 0) {
+			return computeSteadyStateRewardsPhaseType(gsmp, rew);
+		} else if (isACTMC(gsmp) && rew instanceof GSMPRewardsSimple) {
+			ACTMCSimple actmc = createACTMC(gsmp);
 			ACTMCRewardsSimple actmcRew = new ACTMCRewardsSimple((GSMPRewardsSimple)rew, gsmp, actmc);
 			return computeSteadyStateRewardsACTMC(actmc, actmcRew);
 		} else {
@@ -146,8 +269,8 @@ public class GSMPModelChecker extends ProbModelChecker
 		boolean isACTMC = isACTMC(gsmp);
 		validateParamList(paramList, gsmp, isACTMC);
 		
-		if (isACTMC && gsmp instanceof GSMPSimple && rew instanceof GSMPRewardsSimple) {
-			ACTMCSimple actmc = new ACTMCSimple((GSMPSimple)gsmp);
+		if (isACTMC && rew instanceof GSMPRewardsSimple) {
+			ACTMCSimple actmc = createACTMC(gsmp);
 			ACTMCRewardsSimple actmcRew = new ACTMCRewardsSimple((GSMPRewardsSimple)rew, gsmp, actmc);
 			return computeReachParameterSynthesisACTMC(actmc, actmcRew, target, min, paramList);
 		} else {
@@ -169,8 +292,8 @@ public class GSMPModelChecker extends ProbModelChecker
 		boolean isACTMC = isACTMC(gsmp);
 		validateParamList(paramList, gsmp, isACTMC);
 		
-		if (isACTMC && gsmp instanceof GSMPSimple && rew instanceof GSMPRewardsSimple) {
-			ACTMCSimple actmc = new ACTMCSimple((GSMPSimple)gsmp);
+		if (isACTMC && rew instanceof GSMPRewardsSimple) {
+			ACTMCSimple actmc = createACTMC(gsmp);
 			ACTMCRewardsSimple actmcRew = new ACTMCRewardsSimple((GSMPRewardsSimple)rew, gsmp, actmc);
 			return computeSteadyStateParameterSynthesisACTMC(actmc, actmcRew, min, paramList);
 		} else {
@@ -187,10 +310,10 @@ public class GSMPModelChecker extends ProbModelChecker
 	public boolean isACTMC(GSMP gsmp) {
 		int numStates = gsmp.getNumStates();
 		for ( int s = 0 ; s < numStates ; ++s) {
-			List<GSMPEvent> activeEvents = gsmp.getActiveEvents(s);
+			int numActiveEvents = gsmp.getNumActiveEvents(s);
 			boolean foundNonExponentialEvent = false;
-			for (GSMPEvent activeEvent : activeEvents) {
-				if (!activeEvent.isExponential()) {
+			for (int i = 0; i < numActiveEvents; ++i) {
+				if (!gsmp.getActiveEvent(s, i).isExponential()) {
 					// a non-exponential event active in this state has been found
 					if (foundNonExponentialEvent) {
 						// this is the second active non-exponential event => not an ACTMC
@@ -240,15 +363,31 @@ public class GSMPModelChecker extends ProbModelChecker
 
 	// ACTMC model checking functions (fast alternative for GSMPs that are ACTMCs)
 	
+	/**
+	 * Returns an ACTMC equivalent to {@code gsmp}, taken from {@code reductionCache} if it belongs to {@code gsmp}.
+	 */
+	protected ACTMCSimple createACTMC(GSMP gsmp) {
+		if (reductionCache != null && reductionCache.getGSMP() == gsmp) {
+			return reductionCache.getACTMC();
+		}
+		return new ACTMCSimple(gsmp);
+	}
+	
+	/**
+	 * Returns a reduction of {@code actmc} with the given arguments,
+	 * taken from {@code reductionCache} if it belongs to {@code actmc}.
+	 */
+	protected ACTMCReduction createReduction(ACTMCSimple actmc, ACTMCRewardsSimple actmcRew, BitSet target, boolean computingSteadyState) throws PrismException {
+		if (reductionCache != null && reductionCache.getACTMC() == actmc) {
+			return reductionCache.getReduction(actmcRew, target, computingSteadyState, this);
+		}
+		return new ACTMCReduction(actmc, actmcRew, target, computingSteadyState, this);
+	}
+	
 	protected StateValues computeSteadyStateACTMC(ACTMCSimple actmc, StateValues initDistr) throws PrismException {
 		long reduceTime = System.currentTimeMillis();
 		// Initialize necessary data structures
-		ACTMCReduction reduction = new ACTMCReduction(actmc, null, null, true, this);
-		Map<String, ACTMCPotato> pdMap = reduction.getPotatoData();
-		Map<Integer, Distribution> timesWithinPotatoes = new HashMap<Integer, Distribution>();
-		for (Map.Entry<String, ACTMCPotato> pdEntry : pdMap.entrySet()) {
-			timesWithinPotatoes.putAll(pdEntry.getValue().getMeanTimes());
-		}
+		ACTMCReduction reduction = createReduction(actmc, null, null, true);
 		
 		// Reduce the ACTMC to an equivalent DTMC.
 		DTMCSimple dtmc = reduction.getDTMC();
@@ -264,24 +403,7 @@ public class GSMPModelChecker extends ProbModelChecker
 		// Lastly, in order to reintroduce non-regenerative states to the result,
 		// the result is weighted by the average time spent in each state of the potato
 		// for each given entrance.
-		double[] weightedResult = new double[dtmc.getNumStates()];
-		for (int s = 0 ; s < dtmc.getNumStates() ; ++s) {
-			Distribution timeDistr = timesWithinPotatoes.get(s);
-			if (timeDistr == null) {
-				weightedResult[s] += result.valuesD[s];
-			} else {
-				double prob = result.valuesD[s];
-				if (prob == 0) {
-					continue; //optimization
-				}
-				double theta = timeDistr.sum();
-				Set<Integer> distrSupport = timeDistr.getSupport();
-				for ( int t : distrSupport) {
-					weightedResult[t] += prob * (timeDistr.get(t) / theta);
-				}
-			}
-		}
-		result.valuesD = weightedResult;
+		result.valuesD = weightByTimesWithinPotatoes(reduction.getPotatoData(), result.valuesD);
 		
 		computeTime = System.currentTimeMillis() - computeTime;
 		mainLog.println("\nReducing ACTMC to equivalent DTMC "
@@ -292,15 +414,55 @@ public class GSMPModelChecker extends ProbModelChecker
 		return result;
 	}
 	
+	/**
+	 * Redistributes the steady-state probabilities {@code values} of the equivalent DTMC
+	 * of a reduction with potatoes {@code pdMap} onto the states of the ACTMC.
+	 * The probability of each potato entrance is weighted by the average time spent
+	 * in each state of the potato having entered from it.
+	 * @return new vector of the redistributed probabilities
+	 */
+	protected double[] weightByTimesWithinPotatoes(Map<String, ACTMCPotato> pdMap, double[] values) throws PrismException {
+		int numStates = values.length;
+		ACTMCPotato[] entrancePotatoes = new ACTMCPotato[numStates];
+		for (ACTMCPotato potatoData : pdMap.values()) {
+			for (int entrance : potatoData.getEntrances()) {
+				entrancePotatoes[entrance] = potatoData;
+			}
+		}
+		
+		double[] weightedResult = new double[numStates];
+		for (int s = 0 ; s < numStates ; ++s) {
+			ACTMCPotato potatoData = entrancePotatoes[s];
+			if (potatoData == null) {
+				weightedResult[s] += values[s];
+			} else {
+				double prob = values[s];
+				if (prob == 0) {
+					continue; //optimization
+				}
+				ACTMCPotatoVectors meanTimes = potatoData.getMeanTimes();
+				int[] DTMCtoACTMC = potatoData.getMapDTMCtoACTMC();
+				int[] timeIndices = meanTimes.getRowIndices(s);
+				double[] timeValues = meanTimes.getRowValues(s);
+				double theta = meanTimes.getRowSum(s);
+				for (int n = 0; n < timeIndices.length; n++) {
+					weightedResult[DTMCtoACTMC[timeIndices[n]]] += prob * (timeValues[n] / theta);
+				}
+			}
+		}
+		return weightedResult;
+	}
+	
 	protected StateValues computeTransientACTMC(ACTMCSimple actmc, double time, StateValues initDistr) throws PrismException {
-		// TODO MAJO - implement
-		throw new PrismNotSupportedException("Computing transient analysis for ACTMCs is not yet implemented!");
+		ACTMCTransient actmcTransient = new ACTMCTransient(actmc, this);
+		double[] res = actmcTransient.computeTransient(time, initDistr.getDoubleArray());
+		return StateValues.createFromDoubleArray(res, actmc);
 	}
 	
 	protected ModelCheckerResult computeReachRewardsACTMC(ACTMCSimple actmc, ACTMCRewardsSimple actmcRew, BitSet target) throws PrismException {
 		long reduceTime = System.currentTimeMillis();
 		// Initialize necessary data structures
-		ACTMCReduction reduction = new ACTMCReduction(actmc, actmcRew, target, false, this);
+		ACTMCReduction reduction = createReduction(actmc, actmcRew, target, false);
 		
 		// Reduce the ACTMC to an equivalent DTMC.
 		DTMCSimple dtmc = reduction.getDTMC();
@@ -329,12 +491,7 @@ public class GSMPModelChecker extends ProbModelChecker
 		// TODO MAJO - reuse the code from Steady State probabilities
 		long reduceTime = System.currentTimeMillis();
 		// Initialize necessary data structures
-		ACTMCReduction reduction = new ACTMCReduction(actmc, actmcRew, null, true, this);
-		Map<String, ACTMCPotato> pdMap = reduction.getPotatoData();
-		Map<Integer, Distribution> timesWithinPotatoes = new HashMap<Integer, Distribution>();
-		for (Map.Entry<String, ACTMCPotato> pdEntry : pdMap.entrySet()) {
-			timesWithinPotatoes.putAll(pdEntry.getValue().getMeanTimes());
-		}
+		ACTMCReduction reduction = createReduction(actmc, actmcRew, null, true);
 		
 		// Reduce the ACTMC to an equivalent DTMC.
 		DTMCSimple dtmc = reduction.getDTMC();
@@ -353,24 +510,7 @@ public class GSMPModelChecker extends ProbModelChecker
 		// In order to reintroduce non-regenerative states to the result,
 		// the result is weighted by the average time spent in each state of the potato
 		// for each given entrance.
-		double[] weightedResult = new double[dtmc.getNumStates()];
-		for (int s = 0 ; s < dtmc.getNumStates() ; ++s) {
-			Distribution timeDistr = timesWithinPotatoes.get(s);
-			if (timeDistr == null) {
-				weightedResult[s] += result.valuesD[s];
-			} else {
-				double prob = result.valuesD[s];
-				if (prob == 0) {
-					continue; //optimization
-				}
-				double theta = timeDistr.sum();
-				Set<Integer> distrSupport = timeDistr.getSupport();
-				for ( int t : distrSupport) {
-					weightedResult[t] += prob * (timeDistr.get(t) / theta);
-				}
-			}
-		}
-		result.valuesD = weightedResult;
+		result.valuesD = weightByTimesWithinPotatoes(reduction.getPotatoData(), result.valuesD);
 		
 		double rewardSum = 0;
 		// Weight the steady-state probabilities by the new state reward values
@@ -428,26 +568,136 @@ public class GSMPModelChecker extends ProbModelChecker
 		throw new PrismNotSupportedException("Parameter synthesis via steady-state rewards for ACTMCs is not yet implemented!");
 	}
 	
+	// approximate GSMP model checking functions (works for any GSMP, see GSMPPhaseTypeExpansion)
+	
+	protected StateValues computeSteadyStatePhaseType(GSMP gsmp, StateValues initDistr) throws PrismException {
+		GSMPPhaseTypeExpansion expansion = new GSMPPhaseTypeExpansion(gsmp, phaseTypeOrder, this);
+		long time = System.currentTimeMillis();
+		double[] res = expansion.projectDistribution(computeSteadyStateProbsPhaseType(expansion, expansion.liftDistribution(initDistr.getDoubleArray())));
+		time = System.currentTimeMillis() - time;
+		mainLog.println("\nComputing steady-state probabilities for the expanded CTMC took " + time/1000.0 + " seconds.");
+		return StateValues.createFromDoubleArray(res, gsmp);
+	}
+	
+	/**
+	 * Computes the steady-state probabilities of the expanded CTMC via its uniformised DTMC.
+	 */
+	protected double[] computeSteadyStateProbsPhaseType(GSMPPhaseTypeExpansion expansion, double[] initDistr) throws PrismException {
+		CTMCSimple ctmc = expansion.getCTMC();
+		DTMCSimple dtmc = ctmc.buildUniformisedDTMC(ctmc.getDefaultUniformisationRate());
+		DTMCModelChecker mc = new DTMCModelChecker(this);
+		mc.inheritSettings(this);
+		return mc.computeSteadyStateProbs(dtmc, initDistr).soln;
+	}
+	
+	/**
+	 * Computes the transient probabilities of the expanded CTMC at {@code time}.
+	 * @param initDistr initial distribution on the expanded CTMC (will be overwritten)
+	 */
+	protected double[] computeTransientPhaseType(GSMPPhaseTypeExpansion expansion, double time, double[] initDistr) throws PrismException {
+		CTMCModelChecker mc = new CTMCModelChecker(this);
+		mc.inheritSettings(this);
+		return mc.computeTransientProbs(expansion.getCTMC(), time, initDistr).soln;
+	}
+	
+	protected ModelCheckerResult computeReachRewardsPhaseType(GSMP gsmp, GSMPRewards rew, BitSet target) throws PrismException {
+		GSMPPhaseTypeExpansion expansion = new GSMPPhaseTypeExpansion(gsmp, phaseTypeOrder, this);
+		CTMCModelChecker mc = new CTMCModelChecker(this);
+		mc.inheritSettings(this);
+		ModelCheckerResult res = mc.computeReachRewards(expansion.getCTMC(), expansion.buildRewards(rew), expansion.liftStates(target));
+		res.soln = expansion.projectValues(res.soln);
+		mainLog.println("\nComputing reachability rewards for the expanded CTMC took " + res.timeTaken + " seconds.");
+		return res;
+	}
+	
+	protected ModelCheckerResult computeSteadyStateRewardsPhaseType(GSMP gsmp, GSMPRewards rew) throws PrismException {
+		GSMPPhaseTypeExpansion expansion = new GSMPPhaseTypeExpansion(gsmp, phaseTypeOrder, this);
+		long time = System.currentTimeMillis();
+		double[] probs = computeSteadyStateProbsPhaseType(expansion, expansion.liftDistribution(buildInitialDistribution(gsmp).getDoubleArray()));
+		StateRewardsArray ctmcRew = expansion.buildRewards(rew);
+		double value = 0.0;
+		for (int x = 0; x < probs.length; x++) {
+			if (probs[x] != 0.0) {
+				value += probs[x] * ctmcRew.getStateReward(x);
+			}
+		}
+		// The long-run average reward does not depend on the state, so it is reported for all states (as for ACTMCs)
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = new double[gsmp.getNumStates()];
+		Arrays.fill(res.soln, value);
+		res.timeTaken = (System.currentTimeMillis() - time)/1000.0;
+		mainLog.println("\nComputing steady-state rewards for the expanded CTMC took " + res.timeTaken + " seconds.");
+		return res;
+	}
+	
 	// general GSMP model checking functions (works for any GSMP, but slow)
 	
+	// These are estimated by discrete-event simulation, see GSMPSimulator.
+	
 	protected StateValues computeSteadyStateGSMP(GSMP gsmp, StateValues initDistr) throws PrismException {
-		// TODO MAJO - implement
-		throw new PrismNotSupportedException("Computing steady-state analysis for GSMPs is not yet implemented!");
+		long time = System.currentTimeMillis();
+		GSMPSimulator simulator = createSimulator(gsmp);
+		double[] res = simulator.computeSteadyState(initDistr.getDoubleArray());
+		time = System.currentTimeMillis() - time;
+		mainLog.println("\nSimulating steady-state probabilities of the GSMP took " + time/1000.0 + " seconds.");
+		return StateValues.createFromDoubleArray(res, gsmp);
 	}
 	
 	protected StateValues computeTransientGSMP(GSMP gsmp, double time, StateValues initDistr) throws PrismException {
-		// TODO MAJO - implement
-		throw new PrismNotSupportedException("Computing transient analysis for GSMPs is not yet implemented!");
+		long simTime = System.currentTimeMillis();
+		GSMPSimulator simulator = createSimulator(gsmp);
+		double[] res = simulator.computeTransient(time, initDistr.getDoubleArray());
+		simTime = System.currentTimeMillis() - simTime;
+		mainLog.println("\nSimulating transient probabilities of the GSMP took " + simTime/1000.0 + " seconds.");
+		return StateValues.createFromDoubleArray(res, gsmp);
 	}
 	
 	protected ModelCheckerResult computeReachRewardsGSMP(GSMP gsmp, GSMPRewards rew, BitSet target) throws PrismException {
-		// TODO MAJO - implement
-		throw new PrismNotSupportedException("Computing reachability rewards for GSMPs is not yet implemented!");
+		long time = System.currentTimeMillis();
+		GSMPSimulator simulator = createSimulator(gsmp);
+		// Simulation is only done from the initial states, as simulating from every state would be too costly
+		BitSet initStates = new BitSet();
+		for (int s : gsmp.getInitialStates()) {
+			initStates.set(s);
+		}
+		mainLog.println("\nEstimating reachability rewards of the GSMP for the initial states only (other states are NaN).");
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = simulator.computeReachRewards(rew, target, initStates);
+		res.timeTaken = (System.currentTimeMillis() - time)/1000.0;
+		mainLog.println("Simulating reachability rewards of the GSMP took " + res.timeTaken + " seconds.");
+		return res;
 	}
 	
 	protected ModelCheckerResult computeSteadyStateRewardsGSMP(GSMP gsmp, GSMPRewards rew) throws PrismException {
-		// TODO MAJO - implement
-		throw new PrismNotSupportedException("Computing steady-state rewards for GSMPs is not yet implemented!");
+		long time = System.currentTimeMillis();
+		GSMPSimulator simulator = createSimulator(gsmp);
+		double value = simulator.computeSteadyStateRewards(rew, buildInitialDistribution(gsmp).getDoubleArray());
+		// The long-run average reward does not depend on the state, so it is reported for all states (as for ACTMCs)
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = new double[gsmp.getNumStates()];
+		Arrays.fill(res.soln, value);
+		res.timeTaken = (System.currentTimeMillis() - time)/1000.0;
+		mainLog.println("\nSimulating steady-state rewards of the GSMP took " + res.timeTaken + " seconds.");
+		return res;
+	}
+	
+	/**
+	 * Create the simulation engine for {@code gsmp}, using {@code simulationMethod}
+	 * and {@code simulationMaxPathLength} if they were set, and the seed of the simulator settings.
+	 */
+	protected GSMPSimulator createSimulator(GSMP gsmp) throws PrismException {
+		GSMPSimulator simulator = new GSMPSimulator(gsmp, this);
+		if (simulationMethod != null) {
+			simulator.setSimulationMethod(simulationMethod);
+		}
+		if (simulationMaxPathLength > 0) {
+			simulator.setMaxPathLength(simulationMaxPathLength);
+		}
+		long seed = getSettings().getLong(PrismSettings.SIMULATOR_SEED);
+		if (seed != 0) {
+			simulator.setSeed(seed);
+		}
+		return simulator;
 	}
 	
 	protected ModelCheckerResult computeReachParameterSynthesisGSMP(GSMP gsmp, GSMPRewards rew, BitSet target, boolean min, List<SynthParam> paramList) throws PrismException {
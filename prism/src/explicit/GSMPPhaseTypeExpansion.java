@@ -0,0 +1,304 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import explicit.ACTMCTransient.PhaseType;
+import explicit.rewards.GSMPRewards;
+import explicit.rewards.StateRewardsArray;
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * Approximation of a GSMP by a CTMC, obtained by fitting every event with an acyclic phase-type distribution
+ * of a given order (see {@link ACTMCTransient#fitEvent(GSMPEvent, int)}).
+ * <br>
+ * The states of the CTMC are the GSMP states together with the current phase of each active event.
+ * An event in its last phase, or leaving a phase with its occurrence probability, occurs.
+ * As in the GSMP, an event that stays active and did not occur keeps its phase (i.e. its age),
+ * while the occurred event and the newly activated events start in their first phase.
+ * <br>
+ * The first {@code gsmp.getNumStates()} states of the CTMC are the GSMP states with all events in their first phase,
+ * i.e. just after all active events were sampled, so GSMP state s corresponds to CTMC state s.
+ * Exponential events and Erlang events with at most the given number of phases are represented exactly.
+ * For the other events, the CDF distance of the fit (L1 distance of the distribution functions relative to the mean)
+ * is reported. It only describes how well the delays are fitted: it is not an error bound,
+ * and the results may be inaccurate even if it is small (e.g. for Dirac events, which no phase-type distribution fits closely).
+ */
+public class GSMPPhaseTypeExpansion extends PrismComponent
+{
+	/** The GSMP */
+	protected GSMP gsmp;
+	/** Phase-type approximation of each event */
+	protected Map<GSMPEvent, PhaseType> phaseTypes = new HashMap<GSMPEvent, PhaseType>();
+	/** Maximum CDF distance of the fit over all events */
+	protected double maxFitDistance = 0.0;
+
+	/** Expanded CTMC */
+	protected CTMCSimple ctmc;
+	/** States of the expanded CTMC */
+	protected List<ExpandedState> expandedStates = new ArrayList<ExpandedState>();
+	/** Index of each state of the expanded CTMC */
+	protected Map<ExpandedState, Integer> expandedIndex = new HashMap<ExpandedState, Integer>();
+
+	/**
+	 * GSMP state together with the phase of each active event (in the order of {@link GSMP#getActiveEvents(int)}).
+	 */
+	protected static final class ExpandedState
+	{
+		protected final int state;
+		protected final int[] phases;
+
+		protected ExpandedState(int state, int[] phases)
+		{
+			this.state = state;
+			this.phases = phases;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * state + Arrays.hashCode(phases);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof ExpandedState)) {
+				return false;
+			}
+			ExpandedState other = (ExpandedState) o;
+			return state == other.state && Arrays.equals(phases, other.phases);
+		}
+	}
+
+	/**
+	 * Fits the events of {@code gsmp} with at most {@code numPhases} phases and builds the expanded CTMC.
+	 * @param gsmp the GSMP
+	 * @param numPhases maximum number of phases of an event
+	 * @param parent PrismComponent, e.g. the model checker, to inherit the log and settings from.
+	 */
+	public GSMPPhaseTypeExpansion(GSMP gsmp, int numPhases, PrismComponent parent) throws PrismException
+	{
+		super(parent);
+		this.gsmp = gsmp;
+
+		long time = System.currentTimeMillis();
+		for (GSMPEvent event : gsmp.getEventList()) {
+			PhaseType ph = ACTMCTransient.fitEvent(event, numPhases);
+			phaseTypes.put(event, ph);
+			if (!event.isExponential()) {
+				mainLog.println("Phase-type approximation of event " + event.getOriginalIdentifier()
+						+ ": " + ph.getNumPhases() + " phases, CDF distance " + ph.fitDistance);
+			}
+			maxFitDistance = Math.max(maxFitDistance, ph.fitDistance);
+		}
+		buildExpandedCTMC();
+		time = System.currentTimeMillis() - time;
+		mainLog.println("Expanding the GSMP into a CTMC with " + ctmc.getNumStates() + " states and "
+				+ ctmc.getNumTransitions() + " transitions took " + time / 1000.0 + " seconds.");
+		mainLog.println("Maximum CDF distance of the phase-type fits: " + maxFitDistance);
+		mainLog.printWarning("The results are approximate and their error is unknown (the CDF distance is not an error bound)."
+				+ " Compare with a larger -GSMPPhaseTypeOrder to check them.");
+	}
+
+	/**
+	 * Returns the expanded CTMC.
+	 */
+	public CTMCSimple getCTMC()
+	{
+		return ctmc;
+	}
+
+	/**
+	 * Returns the maximum CDF distance of the phase-type fits over all events.
+	 * This describes the fit of the delays only, not the error of the results.
+	 */
+	public double getMaxFitDistance()
+	{
+		return maxFitDistance;
+	}
+
+	/**
+	 * Lifts a distribution on the GSMP states to the expanded CTMC (with all events in their first phase).
+	 */
+	public double[] liftDistribution(double[] distr)
+	{
+		return Arrays.copyOf(distr, ctmc.getNumStates());
+	}
+
+	/**
+	 * Lifts a set of GSMP states to the expanded CTMC (regardless of the phases).
+	 */
+	public BitSet liftStates(BitSet states)
+	{
+		BitSet lifted = new BitSet();
+		for (int x = 0; x < expandedStates.size(); x++) {
+			if (states.get(expandedStates.get(x).state)) {
+				lifted.set(x);
+			}
+		}
+		return lifted;
+	}
+
+	/**
+	 * Projects a distribution on the expanded CTMC to the GSMP states, summing over the phases.
+	 */
+	public double[] projectDistribution(double[] distr)
+	{
+		double[] projected = new double[gsmp.getNumStates()];
+		for (int x = 0; x < expandedStates.size(); x++) {
+			projected[expandedStates.get(x).state] += distr[x];
+		}
+		return projected;
+	}
+
+	/**
+	 * Returns the values of the GSMP states, i.e. of the expanded states with all events in their first phase.
+	 */
+	public double[] projectValues(double[] values)
+	{
+		return Arrays.copyOf(values, gsmp.getNumStates());
+	}
+
+	/**
+	 * Builds the reward rates of the expanded CTMC: the state reward plus the transition rewards
+	 * weighted by the rates of the corresponding transitions.
+	 */
+	public StateRewardsArray buildRewards(GSMPRewards rew)
+	{
+		StateRewardsArray ctmcRew = new StateRewardsArray(ctmc.getNumStates());
+		for (int x = 0; x < expandedStates.size(); x++) {
+			ExpandedState xs = expandedStates.get(x);
+			double reward = rew.getStateReward(xs.state);
+			if (rew.hasTransitionRewards()) {
+				List<GSMPEvent> active = gsmp.getActiveEvents(xs.state);
+				for (int k = 0; k < active.size(); k++) {
+					GSMPEvent event = active.get(k);
+					PhaseType ph = phaseTypes.get(event);
+					double occurRate = ph.rates[xs.phases[k]] * ph.occurProbs[xs.phases[k]];
+					if (occurRate == 0.0) {
+						continue;
+					}
+					for (Map.Entry<Integer, Double> e : event.getTransitions(xs.state)) {
+						reward += occurRate * e.getValue() * rew.getTransitionReward(event.getIdentifier(), xs.state, e.getKey());
+					}
+				}
+			}
+			ctmcRew.setStateReward(x, reward);
+		}
+		return ctmcRew;
+	}
+
+	/**
+	 * Builds the expanded CTMC by breadth-first exploration from the GSMP states with all events in their first phase.
+	 */
+	protected void buildExpandedCTMC() throws PrismException
+	{
+		int numStates = gsmp.getNumStates();
+		ctmc = new CTMCSimple(numStates);
+		for (int s = 0; s < numStates; s++) {
+			getIndex(new ExpandedState(s, new int[gsmp.getNumActiveEvents(s)]));
+		}
+		for (int s : gsmp.getInitialStates()) {
+			ctmc.addInitialState(s);
+		}
+
+		for (int x = 0; x < expandedStates.size(); x++) {
+			ExpandedState xs = expandedStates.get(x);
+			List<GSMPEvent> active = gsmp.getActiveEvents(xs.state);
+			for (int k = 0; k < active.size(); k++) {
+				GSMPEvent event = active.get(k);
+				PhaseType ph = phaseTypes.get(event);
+				int phase = xs.phases[k];
+				double rate = ph.rates[phase];
+				double occurProb = ph.occurProbs[phase];
+				if (rate == 0.0) {
+					continue;
+				}
+				// The event ages to its next phase, ...
+				if (occurProb < 1.0) {
+					int[] phases = xs.phases.clone();
+					phases[k]++;
+					ctmc.addToProbability(x, getIndex(new ExpandedState(xs.state, phases)), rate * (1.0 - occurProb));
+				}
+				// ... or occurs
+				if (occurProb > 0.0) {
+					for (Map.Entry<Integer, Double> e : event.getTransitions(xs.state)) {
+						int t = e.getKey();
+						ExpandedState ts = new ExpandedState(t, getSuccessorPhases(xs, active, event, t));
+						ctmc.addToProbability(x, getIndex(ts), rate * occurProb * e.getValue());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the phases of the events active in {@code t} after {@code occurred} occurred in {@code xs}.
+	 * The events that were active and did not occur keep their phases, the others start in their first phase.
+	 */
+	protected int[] getSuccessorPhases(ExpandedState xs, List<GSMPEvent> active, GSMPEvent occurred, int t)
+	{
+		List<GSMPEvent> targetActive = gsmp.getActiveEvents(t);
+		int[] phases = new int[targetActive.size()];
+		for (int j = 0; j < phases.length; j++) {
+			GSMPEvent event = targetActive.get(j);
+			if (event == occurred) {
+				continue;
+			}
+			int k = active.indexOf(event);
+			if (k >= 0) {
+				phases[j] = xs.phases[k];
+			}
+		}
+		return phases;
+	}
+
+	/**
+	 * Returns the index of {@code xs} in the expanded CTMC, adding it if it is new.
+	 */
+	protected int getIndex(ExpandedState xs)
+	{
+		Integer index = expandedIndex.get(xs);
+		if (index == null) {
+			index = expandedStates.size();
+			expandedStates.add(xs);
+			expandedIndex.put(xs, index);
+			if (index >= ctmc.getNumStates()) {
+				ctmc.addState();
+			}
+		}
+		return index;
+	}
+}
@@ -30,14 +30,12 @@ import parser.State;
 import parser.type.TypeDistributionExponential;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import prism.ModelType;
 import prism.PrismException;
@@ -50,11 +48,45 @@ import prism.PrismNotSupportedException;
  * This implementation only consists of a backbone provided by ModelExplicit.java
  * and a collection of all events. The events are organized into a map for faster access.
  * See GSMPEvent.java for implementation details of the events.
+ * <br>
+ * In addition, an index of the events active in each state is built on demand
+ * (see {@link #getActiveEventIndex()}), so that whole-model passes do not have to test every event in every state.
+ * The index is immutable and published through a volatile field, so it can be shared by several threads once the model is built.
+ * It is discarded by the mutators of this class, so the events must not be modified
+ * (apart from their parameters and identifiers) other than through this class while the index is in use.
  */
 public class GSMPSimple extends ModelExplicit implements GSMP
 {
 	/** Mapping of events onto their unique identifiers. */
 	protected Map<String, GSMPEvent> events = new HashMap<String, GSMPEvent>();
+	/** Index of the active events, or null if not built yet */
+	protected volatile ActiveEventIndex activeEventIndex;
+
+	/**
+	 * Index of the events active in each state (immutable once built).
+	 * The events active in state s are {@code eventArray[activeEvents[activeStarts[s]]]}, ...,
+	 * {@code eventArray[activeEvents[activeStarts[s+1]-1]]}.
+	 */
+	protected static class ActiveEventIndex
+	{
+		/** All events in a fixed order */
+		protected final GSMPEvent eventArray[];
+		/** Read-only list view of {@code eventArray} */
+		protected final List<GSMPEvent> eventList;
+		/** Indices into activeEvents giving the start of the active events of each state;
+		 *  array is of size numStates+1 */
+		protected final int activeStarts[];
+		/** Indices (into {@code eventArray}) of the events active in each state */
+		protected final int activeEvents[];
+
+		protected ActiveEventIndex(GSMPEvent eventArray[], int activeStarts[], int activeEvents[])
+		{
+			this.eventArray = eventArray;
+			this.eventList = Collections.unmodifiableList(Arrays.asList(eventArray));
+			this.activeStarts = activeStarts;
+			this.activeEvents = activeEvents;
+		}
+	}
 	
 	/**
 	 * Default constructor without a predefined number of states.
@@ -106,14 +138,58 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 		super.initialise(numStates);
 		this.statesList = new ArrayList<State>();
 		this.events = new HashMap<String, GSMPEvent>();
+		clearActiveEventIndex();
+	}
+
+	/**
+	 * Discards the index of active events, so that it gets rebuilt when needed next.
+	 */
+	protected void clearActiveEventIndex() {
+		activeEventIndex = null;
+	}
+
+	/**
+	 * Builds the index of active events (unless already built), i.e. the array of all events
+	 * and, for each state s, the indices of the events active in s (see {@link ActiveEventIndex}).
+	 * The time needed is linear in the number of states and (state, active event) pairs.
+	 * Threads that build it concurrently just build equal copies.
+	 */
+	protected ActiveEventIndex getActiveEventIndex() {
+		ActiveEventIndex index = activeEventIndex;
+		if (index != null) {
+			return index;
+		}
+		GSMPEvent newEventArray[] = events.values().toArray(new GSMPEvent[events.size()]);
+		// count the active events of each state, then turn the counts into offsets
+		int newActiveStarts[] = new int[numStates + 1];
+		for (GSMPEvent event : newEventArray) {
+			BitSet active = event.getActive();
+			for (int s = active.nextSetBit(0); s >= 0 && s < numStates; s = active.nextSetBit(s+1)) {
+				newActiveStarts[s + 1]++;
+			}
+		}
+		for (int s = 0; s < numStates; s++) {
+			newActiveStarts[s + 1] += newActiveStarts[s];
+		}
+		int newActiveEvents[] = new int[newActiveStarts[numStates]];
+		int next[] = Arrays.copyOf(newActiveStarts, numStates);
+		for (int e = 0; e < newEventArray.length; e++) {
+			BitSet active = newEventArray[e].getActive();
+			for (int s = active.nextSetBit(0); s >= 0 && s < numStates; s = active.nextSetBit(s+1)) {
+				newActiveEvents[next[s]++] = e;
+			}
+		}
+		index = new ActiveEventIndex(newEventArray, newActiveStarts, newActiveEvents);
+		activeEventIndex = index;
+		return index;
 	}
 
 	@Override
 	public int addState() {
+		clearActiveEventIndex();
 		numStates += 1;
-		List<GSMPEvent> tmp = getEventList();
-		for (int i = 0; i < tmp.size() ; ++i) {
-			tmp.get(i).addState();
+		for (GSMPEvent event : events.values()) {
+			event.addState();
 		}
 		return numStates - 1;
 	}
@@ -135,6 +211,7 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 			// this should never happen
 			return false;
 		}
+		clearActiveEventIndex();
 		event.addToProbability(i, j, prob);
 		event.addActionLabel(i,j, actionLabel);
 		return true;
@@ -145,13 +222,17 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 		return ModelType.GSMP;
 	}
 
+	/**
+	 * Returns a read-only view of the events, by their identifiers.
+	 * (Use {@link #setEventMap(Map)} or {@link #addEvent(GSMPEvent)} to change them.)
+	 */
 	public Map<String, GSMPEvent> getEventMap() {
-		return events;
+		return Collections.unmodifiableMap(events);
 	}
 	
 	@Override
 	public List<GSMPEvent> getEventList() {
-		return (new ArrayList<GSMPEvent>(events.values()));
+		return getActiveEventIndex().eventList;
 	}
 
 	public int getNumEvents() {
@@ -170,6 +251,7 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 				event.getIdentifier(),
 				event.getOriginalIdentifier());
 		events.put(event.getIdentifier(), tmp);
+		clearActiveEventIndex();
 		return true;
 	}
 
@@ -183,23 +265,37 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 		for ( int i = 0; i < events.size() ; ++i) {
 			this.events.put(events.get(i).getIdentifier(), events.get(i));
 		}
+		clearActiveEventIndex();
 	}
 	
 	public void setEventMap(Map<String, GSMPEvent> eventsMap) {
 		this.events = eventsMap;
+		clearActiveEventIndex();
 	}
 	
 	@Override
 	public List<GSMPEvent> getActiveEvents(int state){
-		List<GSMPEvent> actEvents = new LinkedList<GSMPEvent>();
-		for (GSMPEvent event : events.values()) {
-			if (event.isActive(state)) {
-				actEvents.add(event);
-			}
+		ActiveEventIndex index = getActiveEventIndex();
+		int activeStarts[] = index.activeStarts;
+		List<GSMPEvent> actEvents = new ArrayList<GSMPEvent>(activeStarts[state + 1] - activeStarts[state]);
+		for (int i = activeStarts[state]; i < activeStarts[state + 1]; ++i) {
+			actEvents.add(index.eventArray[index.activeEvents[i]]);
 		}
 		return actEvents;
 	}
 
+	@Override
+	public int getNumActiveEvents(int state) {
+		int activeStarts[] = getActiveEventIndex().activeStarts;
+		return activeStarts[state + 1] - activeStarts[state];
+	}
+
+	@Override
+	public GSMPEvent getActiveEvent(int state, int i) {
+		ActiveEventIndex index = getActiveEventIndex();
+		return index.eventArray[index.activeEvents[index.activeStarts[state] + i]];
+	}
+
 	@Override
 	public void buildFromPrismExplicit(String filename) throws PrismException {
 		//TODO MAJO - implement
@@ -211,43 +307,53 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 		// Do nothing if state i does not exist
 		if (i >= numStates || i < 0)
 			return;
-		List<GSMPEvent> events = getEventList();
-		for (int j = 0; j < events.size() ; ++j) {
-			events.get(j).clearState(i);
+		for (GSMPEvent event : events.values()) {
+			event.clearState(i);
 		}
+		clearActiveEventIndex();
 	}
-	
+
 	/**
-	 *  Get an iterator over the successors of state s
+	 * Get a SuccessorsIterator for state s.
+	 * Only the events active in s are visited, and successors reachable by several events are not deduplicated.
 	 */
 	@Override
-	public Iterator<Integer> getSuccessorsIterator(final int s)
-	{
-		List<GSMPEvent> events = getEventList();
-		Set<Integer> successors = new HashSet<Integer>();
-		for (int j = 0; j < events.size() ; ++j) {
-			successors.addAll(events.get(j).trans.get(s).getSupport());
+	public SuccessorsIterator getSuccessors(int s) {
+		ActiveEventIndex index = getActiveEventIndex();
+		GSMPEvent eventArray[] = index.eventArray;
+		int activeStarts[] = index.activeStarts;
+		int activeEvents[] = index.activeEvents;
+		int numActive = activeStarts[s + 1] - activeStarts[s];
+		if (numActive == 0) {
+			return SuccessorsIterator.empty();
+		}
+		if (numActive == 1) {
+			return SuccessorsIterator.from(eventArray[activeEvents[activeStarts[s]]].trans.get(s).getSupport().iterator(), true);
+		}
+		List<SuccessorsIterator> successors = new ArrayList<SuccessorsIterator>(numActive);
+		for (int i = activeStarts[s]; i < activeStarts[s + 1]; ++i) {
+			successors.add(SuccessorsIterator.from(eventArray[activeEvents[i]].trans.get(s).getSupport().iterator(), true));
 		}
-		return successors.iterator();
+		return SuccessorsIterator.chain(successors.iterator());
 	}
 
-	@Override
-	public SuccessorsIterator getSuccessors(int s) {
-		return SuccessorsIterator.from(getSuccessorsIterator(s), true);
+	/**
+	 * @return True iff no event has a transition from state {@code s}
+	 */
+	protected boolean isDeadlock(int s) {
+		ActiveEventIndex index = getActiveEventIndex();
+		for (int i = index.activeStarts[s]; i < index.activeStarts[s + 1]; ++i) {
+			if (!index.eventArray[index.activeEvents[i]].trans.get(s).isEmpty()) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	public void findDeadlocks(boolean fix) throws PrismException {
-		List<GSMPEvent> events = getEventList();
 		for (int s = 0; s < getNumStates(); s++) {
-			boolean isDeadlock = true;
-			for ( int e = 0; e < events.size() ; ++e) {
-				if (!events.get(e).trans.get(s).isEmpty()) {
-					isDeadlock = false;
-					break;
-				}
-			}
-			if (isDeadlock) {
+			if (isDeadlock(s)) {
 				addDeadlockState(s);
 			}
 		}
@@ -306,12 +412,9 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 
 	@Override
 	public void checkForDeadlocks(BitSet except) throws PrismException {
-		List<GSMPEvent> events = getEventList();
 		for (int s = 0; s < getNumStates(); s++) {
-			for ( int e = 0; e < events.size() ; ++e) {
-				if (events.get(e).trans.get(s).isEmpty() && (except == null || !except.get(s))) {
-					throw new PrismException("GSMP has a deadlock in state " + s);
-				}
+			if (isDeadlock(s) && (except == null || !except.get(s))) {
+				throw new PrismException("GSMP has a deadlock in state " + s);
 			}
 		}
 	}
@@ -320,7 +423,7 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 	 * Removes all events that have no probability in any state.
 	 */
 	public void removeEmptyEvents() {
-		List<GSMPEvent> events = getEventList();
+		List<GSMPEvent> events = new ArrayList<GSMPEvent>(getEventList());
         events.removeIf(e -> e.getActive().isEmpty());
         setEvents(events);
 	}
@@ -337,7 +440,7 @@ public class GSMPSimple extends ModelExplicit implements GSMP
 	
 	@Override
 	public CTMCSimple generateCTMC() {
-		List<GSMPEvent> expEvents = getEventList();
+		List<GSMPEvent> expEvents = new ArrayList<GSMPEvent>(getEventList());
 		expEvents.removeIf(e -> (!e.isExponential()));
 		CTMCSimple ctmc = new CTMCSimple(getNumStates());
 		ctmc.copyFrom(this);
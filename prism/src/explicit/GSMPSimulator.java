@@ -0,0 +1,923 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import explicit.rewards.GSMPRewards;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+import simulator.method.CIwidth;
+import simulator.method.SPRTMethod;
+import simulator.method.SimulationMethod;
+import simulator.sampler.SampleStatistics;
+
+/**
+ * Discrete-event simulation engine for GSMPs with any number of concurrently active general events.
+ * <br>
+ * Each active event has a clock sampled from its {@link parser.type.TypeDistribution},
+ * and a priority queue of the clocks determines which event occurs next.
+ * Events that remain active after a transition keep their clocks,
+ * whereas newly activated events (and the event that has just occurred) get new clocks.
+ * <br>
+ * Independent replications (simulation paths) are generated by {@code simulator.numThreads} threads.
+ * Every replication has its own random number stream, split from a single generator
+ * in the order of the replications, and the samples are collected in the same order.
+ * The results are therefore independent of the number of threads.
+ * The number of replications is controlled by a {@link SimulationMethod},
+ * e.g. {@link CIwidth}, which is used for each estimated value separately.
+ */
+public class GSMPSimulator extends PrismComponent
+{
+	/** Number of replications generated by one task of a worker thread */
+	private static final int REPLICATIONS_PER_TASK = 32;
+
+	/** The simulated GSMP */
+	protected GSMP gsmp;
+	/** Number of states of {@code gsmp} */
+	protected int numStates;
+	/** All events of {@code gsmp} */
+	protected GSMPEvent[] events;
+	/** For each state, indices (within {@code events}) of the events active in the state */
+	protected int[][] activeEvents;
+	/** For each state and each of its active events, the successor states */
+	protected int[][][] successors;
+	/** For each state and each of its active events, the cumulative probabilities of the successor states */
+	protected double[][][] cumulProbs;
+
+	/** Method controlling the number of replications. Cloned for each estimated value. */
+	protected SimulationMethod simulationMethod;
+	/** Number of worker threads */
+	protected int numThreads;
+	/** Maximum number of transitions of a single replication */
+	protected long maxPathLength;
+	/** Generator of the random number streams of the replications */
+	protected SplittableRandom seedGenerator = new SplittableRandom();
+
+	/**
+	 * Prepares the simulation engine for {@code gsmp}.
+	 * @param gsmp the GSMP model
+	 * @param parent PrismComponent, e.g. the model checker, to inherit the log and settings from.
+	 */
+	public GSMPSimulator(GSMP gsmp, PrismComponent parent) throws PrismException
+	{
+		super(parent);
+		this.gsmp = gsmp;
+		this.numStates = gsmp.getNumStates();
+		this.numThreads = Math.max(1, getSettings().getInteger(PrismSettings.SIMULATOR_NUM_THREADS));
+		this.maxPathLength = getSettings().getLong(PrismSettings.SIMULATOR_DEFAULT_MAX_PATH);
+		this.simulationMethod = new CIwidth(getSettings().getDouble(PrismSettings.SIMULATOR_DEFAULT_CONFIDENCE),
+				getSettings().getInteger(PrismSettings.SIMULATOR_DEFAULT_NUM_SAMPLES));
+
+		List<GSMPEvent> eventList = gsmp.getEventList();
+		events = eventList.toArray(new GSMPEvent[eventList.size()]);
+		for (GSMPEvent event : events) {
+			if (event.getDistributionType() == null) {
+				throw new PrismException("Event " + event.getOriginalIdentifier() + " has no distribution");
+			}
+		}
+
+		// Index the active events and the successors of each state
+		int[] numActive = new int[numStates];
+		for (GSMPEvent event : events) {
+			BitSet active = event.getActive();
+			for (int s = active.nextSetBit(0); s >= 0 && s < numStates; s = active.nextSetBit(s + 1)) {
+				numActive[s]++;
+			}
+		}
+		activeEvents = new int[numStates][];
+		successors = new int[numStates][][];
+		cumulProbs = new double[numStates][][];
+		for (int s = 0; s < numStates; s++) {
+			activeEvents[s] = new int[numActive[s]];
+			successors[s] = new int[numActive[s]][];
+			cumulProbs[s] = new double[numActive[s]][];
+			numActive[s] = 0;
+		}
+		for (int e = 0; e < events.length; e++) {
+			BitSet active = events[e].getActive();
+			for (int s = active.nextSetBit(0); s >= 0 && s < numStates; s = active.nextSetBit(s + 1)) {
+				int k = numActive[s]++;
+				activeEvents[s][k] = e;
+				Distribution distr = events[e].getTransitions(s);
+				int[] succ = new int[distr.size()];
+				double[] cumul = new double[distr.size()];
+				int n = 0;
+				double sum = 0.0;
+				for (Map.Entry<Integer, Double> entry : distr) {
+					sum += entry.getValue();
+					succ[n] = entry.getKey();
+					cumul[n] = sum;
+					n++;
+				}
+				successors[s][k] = succ;
+				cumulProbs[s][k] = cumul;
+			}
+		}
+	}
+
+	// Setters
+
+	/**
+	 * Sets the method controlling the number of replications.
+	 * By default, {@link CIwidth} with the default confidence and number of samples of the simulator settings is used.
+	 * SPRT (whose expression must be set) can only be used for the estimates of rewards,
+	 * which are then tested against the bound of the property.
+	 */
+	public void setSimulationMethod(SimulationMethod simulationMethod)
+	{
+		this.simulationMethod = simulationMethod;
+	}
+
+	/**
+	 * Sets the seed of the random number streams, making the results reproducible.
+	 */
+	public void setSeed(long seed)
+	{
+		this.seedGenerator = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Sets the maximum number of transitions of a single replication.
+	 * It is also the length of the replications for long-run (steady-state) estimates.
+	 */
+	public void setMaxPathLength(long maxPathLength)
+	{
+		this.maxPathLength = maxPathLength;
+	}
+
+	// Analysis methods
+
+	/**
+	 * Estimates the transient probabilities at {@code time}.
+	 * @param time time point, non-negative
+	 * @param initDistr initial probability distribution on states
+	 * @return estimated probability distribution on states at {@code time}
+	 */
+	public double[] computeTransient(double time, double[] initDistr) throws PrismException
+	{
+		double[] initCumul = cumulate(initDistr);
+		VectorStatistics stats = new VectorStatistics();
+		simulate((path, random) -> {
+			path.start(sampleState(initCumul, random));
+			long steps = 0;
+			while (path.nextTime() <= time) {
+				checkPathLength(++steps);
+				path.step();
+			}
+			return new SparseSample(new int[] { path.state }, new double[] { 1.0 });
+		}, stats, "transient probabilities at time " + time);
+		return stats.getMeans();
+	}
+
+	/**
+	 * Estimates the steady-state probabilities as the fraction of time spent in each state
+	 * over replications of {@code maxPathLength} transitions, the first tenth of which is discarded as warm-up.
+	 * A replication that reaches a state without active events stays there forever.
+	 * @param initDistr initial probability distribution on states
+	 * @return estimated steady-state probability distribution on states
+	 */
+	public double[] computeSteadyState(double[] initDistr) throws PrismException
+	{
+		double[] initCumul = cumulate(initDistr);
+		VectorStatistics stats = new VectorStatistics();
+		simulate((path, random) -> {
+			path.start(sampleState(initCumul, random));
+			LongRunTimes times = new LongRunTimes();
+			for (long steps = 0; steps < maxPathLength; steps++) {
+				if (path.isAbsorbing()) {
+					return new SparseSample(new int[] { path.state }, new double[] { 1.0 });
+				}
+				int source = path.state;
+				double sojourn = path.step();
+				if (steps >= maxPathLength / 10) {
+					times.add(source, sojourn);
+				}
+			}
+			return times.toSample();
+		}, stats, "steady-state probabilities");
+		return stats.getMeans();
+	}
+
+	/**
+	 * Estimates the expected rewards accumulated before reaching {@code target},
+	 * for each state of {@code states}.
+	 * @param rew the reward structure
+	 * @param target target states
+	 * @param states states to start the replications from
+	 * @return array of estimated rewards, NaN for the states not in {@code states}
+	 */
+	public double[] computeReachRewards(GSMPRewards rew, BitSet target, BitSet states) throws PrismException
+	{
+		BitSet canReach = computeCanReach(target);
+		double[] result = new double[numStates];
+		Arrays.fill(result, Double.NaN);
+		for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+			final int init = s;
+			ScalarStatistics stats = new ScalarStatistics();
+			simulate((path, random) -> {
+				path.start(init);
+				double reward = 0.0;
+				long steps = 0;
+				while (!target.get(path.state)) {
+					if (!canReach.get(path.state)) {
+						return Double.POSITIVE_INFINITY;
+					}
+					checkPathLength(++steps);
+					int source = path.state;
+					double sojourn = path.step();
+					reward += rew.getStateReward(source) * sojourn;
+					reward += rew.getTransitionReward(events[path.lastEvent].getIdentifier(), source, path.state);
+				}
+				return reward;
+			}, stats, "reachability rewards from state " + s);
+			result[s] = stats.getMean();
+		}
+		return result;
+	}
+
+	/**
+	 * Estimates the long-run average reward over replications of {@code maxPathLength} transitions,
+	 * the first tenth of which is discarded as warm-up.
+	 * @param rew the reward structure
+	 * @param initDistr initial probability distribution on states
+	 * @return estimated long-run average reward
+	 */
+	public double computeSteadyStateRewards(GSMPRewards rew, double[] initDistr) throws PrismException
+	{
+		double[] initCumul = cumulate(initDistr);
+		ScalarStatistics stats = new ScalarStatistics();
+		simulate((path, random) -> {
+			path.start(sampleState(initCumul, random));
+			double reward = 0.0;
+			double time = 0.0;
+			for (long steps = 0; steps < maxPathLength; steps++) {
+				if (path.isAbsorbing()) {
+					return rew.getStateReward(path.state);
+				}
+				int source = path.state;
+				double sojourn = path.step();
+				if (steps >= maxPathLength / 10) {
+					reward += rew.getStateReward(source) * sojourn;
+					reward += rew.getTransitionReward(events[path.lastEvent].getIdentifier(), source, path.state);
+					time += sojourn;
+				}
+			}
+			return (time > 0.0) ? reward / time : 0.0;
+		}, stats, "steady-state rewards");
+		return stats.getMean();
+	}
+
+	// Replication control
+
+	/**
+	 * A single replication, producing one sample of type {@code T}.
+	 */
+	@FunctionalInterface
+	protected interface Replication<T>
+	{
+		T run(SimulationPath path, SplittableRandom random) throws PrismException;
+	}
+
+	/**
+	 * Collects the samples and decides when to stop.
+	 */
+	protected interface Statistics<T>
+	{
+		/** Adds the sample of the next replication */
+		void add(T sample);
+
+		/** Returns true if no more replications are needed */
+		boolean shouldStop();
+
+		/** Describes the precision of the estimate, for logging */
+		String describe() throws PrismException;
+	}
+
+	/**
+	 * Generates replications until {@code stats} decides to stop.
+	 * Replications are generated in rounds of {@code numThreads} tasks, each of {@code REPLICATIONS_PER_TASK} replications,
+	 * and the samples are added to {@code stats} in the order of the replications.
+	 * Replications generated after {@code stats} decided to stop are discarded.
+	 */
+	protected <T> void simulate(Replication<T> replication, Statistics<T> stats, String description) throws PrismException
+	{
+		long time = System.currentTimeMillis();
+		ExecutorService executor = (numThreads > 1) ? Executors.newFixedThreadPool(numThreads) : null;
+		int numSamples = 0;
+		try {
+			boolean stop = false;
+			while (!stop) {
+				// Prepare the tasks of this round, each replication with its own random number stream
+				List<Callable<List<T>>> tasks = new ArrayList<Callable<List<T>>>(numThreads);
+				for (int t = 0; t < numThreads; t++) {
+					SplittableRandom[] randoms = new SplittableRandom[REPLICATIONS_PER_TASK];
+					for (int i = 0; i < REPLICATIONS_PER_TASK; i++) {
+						randoms[i] = seedGenerator.split();
+					}
+					tasks.add(() -> {
+						List<T> samples = new ArrayList<T>(REPLICATIONS_PER_TASK);
+						SimulationPath path = new SimulationPath();
+						for (SplittableRandom random : randoms) {
+							path.random = random;
+							samples.add(replication.run(path, random));
+						}
+						return samples;
+					});
+				}
+				// Generate the replications
+				List<List<T>> results = new ArrayList<List<T>>(numThreads);
+				if (executor == null) {
+					for (Callable<List<T>> task : tasks) {
+						try {
+							results.add(task.call());
+						} catch (PrismException e) {
+							throw e;
+						} catch (Exception e) {
+							throw new PrismException("GSMP simulation failed: " + e.getMessage());
+						}
+					}
+				} else {
+					try {
+						for (Future<List<T>> future : executor.invokeAll(tasks)) {
+							results.add(future.get());
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new PrismException("GSMP simulation was interrupted");
+					} catch (ExecutionException e) {
+						if (e.getCause() instanceof PrismException) {
+							throw (PrismException) e.getCause();
+						}
+						throw new PrismException("GSMP simulation failed: " + e.getCause());
+					}
+				}
+				// Collect the samples in the order of the replications
+				collect: for (List<T> samples : results) {
+					for (T sample : samples) {
+						stats.add(sample);
+						numSamples++;
+						if (stats.shouldStop()) {
+							stop = true;
+							break collect;
+						}
+					}
+				}
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+		time = System.currentTimeMillis() - time;
+		mainLog.println("\nSimulation of " + description + " generated " + numSamples + " paths"
+				+ " (" + numThreads + " thread" + (numThreads > 1 ? "s" : "") + ") in " + time / 1000.0 + " seconds.");
+		mainLog.println("Simulation method: " + simulationMethod.getFullName() + ", " + stats.describe());
+	}
+
+	/**
+	 * Creates a fresh copy of {@code simulationMethod} for a single estimated value.
+	 */
+	protected SimulationMethod createMethod() throws PrismException
+	{
+		SimulationMethod method = simulationMethod.clone();
+		method.reset();
+		method.computeMissingParameterBeforeSim();
+		return method;
+	}
+
+	/**
+	 * Statistics of a single estimated value.
+	 */
+	protected class ScalarStatistics implements Statistics<Double>
+	{
+		protected Estimate estimate = new Estimate();
+		protected SimulationMethod method;
+		protected int iters = 0;
+		protected boolean infinite = false;
+
+		public ScalarStatistics() throws PrismException
+		{
+			method = createMethod();
+			estimate.setSimulationMethod(method);
+		}
+
+		@Override
+		public void add(Double sample)
+		{
+			iters++;
+			if (sample.isInfinite()) {
+				infinite = true;
+			} else {
+				estimate.addSample(sample);
+			}
+		}
+
+		@Override
+		public boolean shouldStop()
+		{
+			// A single infinite sample makes the expectation infinite
+			return infinite || method.shouldStopNow(iters, estimate);
+		}
+
+		public double getMean()
+		{
+			return infinite ? Double.POSITIVE_INFINITY : estimate.getMeanValue();
+		}
+
+		@Override
+		public String describe() throws PrismException
+		{
+			if (infinite) {
+				return "expected value is infinite";
+			}
+			method.computeMissingParameterAfterSim();
+			return method.getParametersString() + "; " + method.getResultExplanation(estimate);
+		}
+	}
+
+	/**
+	 * Statistics of one estimated value per state, e.g. a probability distribution.
+	 * Every state has its own copy of the simulation method, and the simulation stops
+	 * once the methods of all states that have been sampled (i.e. with a non-zero value in some sample)
+	 * agree to stop after the same number of samples.
+	 */
+	protected class VectorStatistics implements Statistics<SparseSample>
+	{
+		protected double[] sum = new double[numStates];
+		protected double[] sumSq = new double[numStates];
+		protected SimulationMethod[] methods = new SimulationMethod[numStates];
+		protected Estimate estimate = new Estimate();
+		protected int iters = 0;
+		/** State whose method did not agree to stop at the last check, where the next check starts */
+		protected int lastUndecided = 0;
+
+		public VectorStatistics() throws PrismException
+		{
+			// SPRT tests a bound on the value of a property, not on the probability of every state
+			if (simulationMethod instanceof SPRTMethod) {
+				throw new PrismException("SPRT cannot be used to estimate probability distributions of GSMPs; use CI, ACI or APMC instead");
+			}
+		}
+
+		@Override
+		public void add(SparseSample sample)
+		{
+			iters++;
+			for (int n = 0; n < sample.states.length; n++) {
+				double value = sample.values[n];
+				sum[sample.states[n]] += value;
+				sumSq[sample.states[n]] += value * value;
+			}
+		}
+
+		@Override
+		public boolean shouldStop()
+		{
+			// All states are checked again, as more samples can increase the variance of a state
+			// that was already precise enough; the check starts with the state that refused last time,
+			// which most likely refuses again, so usually a single state is checked
+			if (iters == 0) {
+				return false;
+			}
+			for (int k = 0; k < numStates; k++) {
+				int s = (lastUndecided + k) % numStates;
+				if (sumSq[s] == 0.0) {
+					continue;
+				}
+				if (!getMethod(s).shouldStopNow(iters, getEstimate(s))) {
+					lastUndecided = s;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		protected SimulationMethod getMethod(int s)
+		{
+			if (methods[s] == null) {
+				try {
+					methods[s] = createMethod();
+				} catch (PrismException e) {
+					throw new IllegalStateException(e.getMessage());
+				}
+			}
+			return methods[s];
+		}
+
+		protected Estimate getEstimate(int s)
+		{
+			estimate.setStatistics(iters, sum[s], sumSq[s]);
+			return estimate;
+		}
+
+		public double[] getMeans()
+		{
+			double[] means = new double[numStates];
+			for (int s = 0; s < numStates; s++) {
+				means[s] = (iters > 0) ? sum[s] / iters : 0.0;
+			}
+			return means;
+		}
+
+		@Override
+		public String describe() throws PrismException
+		{
+			// Describe the state with the largest variance
+			int worst = 0;
+			double worstVariance = -1.0;
+			for (int s = 0; s < numStates; s++) {
+				double variance = getEstimate(s).getVariance();
+				if (variance > worstVariance) {
+					worst = s;
+					worstVariance = variance;
+				}
+			}
+			SimulationMethod method = getMethod(worst);
+			method.shouldStopNow(iters, getEstimate(worst));
+			method.computeMissingParameterAfterSim();
+			return "least precise value (state " + worst + "): " + method.getParametersString();
+		}
+	}
+
+	/**
+	 * Statistics of a value estimated by this engine, allowing to use the CI/ACI/APMC/SPRT methods.
+	 * The samples are added directly instead of being derived from a {@link simulator.Path}.
+	 */
+	protected static class Estimate extends SampleStatistics
+	{
+		/** Number of samples so far */
+		protected int numSamples;
+		/** Sum of the samples */
+		protected double sum;
+		/** Sum of the squares of the samples */
+		protected double sumSq;
+
+		/** Adds a single sample */
+		public void addSample(double sample)
+		{
+			numSamples++;
+			sum += sample;
+			sumSq += sample * sample;
+		}
+
+		/** Replaces the statistics by the given number of samples, sum of samples and sum of their squares */
+		public void setStatistics(int numSamples, double sum, double sumSq)
+		{
+			this.numSamples = numSamples;
+			this.sum = sum;
+			this.sumSq = sumSq;
+		}
+
+		@Override
+		public void resetStats()
+		{
+			setStatistics(0, 0.0, 0.0);
+		}
+
+		@Override
+		public double getMeanValue()
+		{
+			return sum / numSamples;
+		}
+
+		@Override
+		public double getVariance()
+		{
+			if (numSamples <= 1) {
+				return 0.0;
+			}
+			double mean = sum / numSamples;
+			return Math.max(0.0, (sumSq - numSamples * mean * mean) / (numSamples - 1.0));
+		}
+
+		@Override
+		public double getLikelihoodRatio(double p1, double p0) throws PrismException
+		{
+			// Normal approximation, as for simulator.sampler.SamplerDouble
+			if (numSamples <= 1)
+				return 0.0;
+			// Maximum likelihood estimator of the variance
+			double mle = sumSq / numSamples - (sum * sum) / numSamples / numSamples;
+			if (mle <= 0.0)
+				throw new PrismException("Cannot compute likelihood ratio with null variance");
+			double lr = (-1 / (2 * mle)) * (numSamples * (p1 * p1 - p0 * p0) - 2 * sum * (p1 - p0));
+			if (Double.isNaN(lr)) {
+				throw new PrismException("Error computing likelihood ratio");
+			}
+			return Math.exp(lr);
+		}
+	}
+
+	/**
+	 * Sample of a vector, storing only its non-zero entries.
+	 */
+	protected static class SparseSample
+	{
+		protected final int[] states;
+		protected final double[] values;
+
+		public SparseSample(int[] states, double[] values)
+		{
+			this.states = states;
+			this.values = values;
+		}
+	}
+
+	/**
+	 * Accumulates the time spent in each state during a single replication.
+	 */
+	protected class LongRunTimes
+	{
+		protected double[] times = new double[numStates];
+		protected int[] visited = new int[16];
+		protected int numVisited = 0;
+		protected double totalTime = 0.0;
+
+		public void add(int state, double time)
+		{
+			if (times[state] == 0.0) {
+				if (numVisited == visited.length) {
+					visited = Arrays.copyOf(visited, 2 * numVisited);
+				}
+				visited[numVisited++] = state;
+			}
+			times[state] += time;
+			totalTime += time;
+		}
+
+		public SparseSample toSample()
+		{
+			int[] states = Arrays.copyOf(visited, numVisited);
+			double[] values = new double[numVisited];
+			for (int n = 0; n < numVisited; n++) {
+				values[n] = (totalTime > 0.0) ? times[states[n]] / totalTime : 0.0;
+			}
+			return new SparseSample(states, values);
+		}
+	}
+
+	// Simulation of a single path
+
+	/**
+	 * A scheduled occurrence of an event.
+	 * Occurrences of events that were disabled (or rescheduled) in the meantime are recognised
+	 * by an outdated {@code version} and skipped.
+	 */
+	protected static final class Occurrence implements Comparable<Occurrence>
+	{
+		protected final double time;
+		protected final int event;
+		protected final int version;
+
+		protected Occurrence(double time, int event, int version)
+		{
+			this.time = time;
+			this.event = event;
+			this.version = version;
+		}
+
+		@Override
+		public int compareTo(Occurrence other)
+		{
+			int cmp = Double.compare(time, other.time);
+			return (cmp != 0) ? cmp : Integer.compare(event, other.event);
+		}
+	}
+
+	/**
+	 * State of a single simulation path, i.e. the current state, time and the clocks of the active events.
+	 * A path object is reused for all replications of one task.
+	 */
+	protected class SimulationPath
+	{
+		protected SplittableRandom random;
+		/** Current state */
+		protected int state;
+		/** Current time */
+		protected double time;
+		/** Event that caused the last transition */
+		protected int lastEvent = -1;
+		/** Next-event scheduler */
+		protected PriorityQueue<Occurrence> scheduler = new PriorityQueue<Occurrence>();
+		/** For each event, the version of its current occurrence */
+		protected int[] versions = new int[events.length];
+		/** For each event, whether it is active in the current state */
+		protected boolean[] active = new boolean[events.length];
+
+		/** Starts a new path in state {@code init} at time 0 */
+		public void start(int init)
+		{
+			scheduler.clear();
+			Arrays.fill(active, false);
+			state = init;
+			time = 0.0;
+			lastEvent = -1;
+			for (int e : activeEvents[state]) {
+				schedule(e);
+			}
+		}
+
+		/** Returns true if no event is active in the current state */
+		public boolean isAbsorbing()
+		{
+			return activeEvents[state].length == 0;
+		}
+
+		/** Returns the time of the next transition, or infinity if there is none */
+		public double nextTime()
+		{
+			Occurrence next = peek();
+			return (next == null) ? Double.POSITIVE_INFINITY : next.time;
+		}
+
+		/**
+		 * Performs the next transition.
+		 * @return the time spent in the state before the transition (infinity if there is no transition)
+		 */
+		public double step()
+		{
+			Occurrence next = peek();
+			if (next == null) {
+				return Double.POSITIVE_INFINITY;
+			}
+			scheduler.poll();
+			double sojourn = next.time - time;
+			int e = next.event;
+			int source = state;
+			int k = 0;
+			while (activeEvents[source][k] != e) {
+				k++;
+			}
+			int target = sampleSuccessor(successors[source][k], cumulProbs[source][k], random);
+
+			// Disable the events that are no longer active, including the event that has just occurred
+			active[e] = false;
+			versions[e]++;
+			for (int f : activeEvents[source]) {
+				if (active[f] && !events[f].isActive(target)) {
+					active[f] = false;
+					versions[f]++;
+				}
+			}
+			state = target;
+			time = next.time;
+			lastEvent = e;
+			// Schedule the newly activated events
+			for (int f : activeEvents[target]) {
+				if (!active[f]) {
+					schedule(f);
+				}
+			}
+			return sojourn;
+		}
+
+		protected void schedule(int e)
+		{
+			GSMPEvent event = events[e];
+			double delay = event.getDistributionType().sample(event.getFirstParameter(), event.getSecondParameter(), random);
+			active[e] = true;
+			scheduler.add(new Occurrence(time + delay, e, ++versions[e]));
+		}
+
+		/** Returns the next valid occurrence, removing the outdated ones */
+		protected Occurrence peek()
+		{
+			Occurrence next = scheduler.peek();
+			while (next != null && (!active[next.event] || next.version != versions[next.event])) {
+				scheduler.poll();
+				next = scheduler.peek();
+			}
+			return next;
+		}
+	}
+
+	// Utility methods
+
+	protected void checkPathLength(long steps) throws PrismException
+	{
+		if (steps > maxPathLength) {
+			throw new PrismException("GSMP simulation path exceeded the maximum path length " + maxPathLength
+					+ " (use -simpathlen to increase it)");
+		}
+	}
+
+	/** Returns cumulative sums of {@code distr} */
+	protected static double[] cumulate(double[] distr)
+	{
+		double[] cumul = new double[distr.length];
+		double sum = 0.0;
+		for (int s = 0; s < distr.length; s++) {
+			sum += distr[s];
+			cumul[s] = sum;
+		}
+		return cumul;
+	}
+
+	/** Picks a state according to cumulative probabilities of all the states */
+	protected static int sampleState(double[] cumul, SplittableRandom random)
+	{
+		double u = random.nextDouble() * cumul[cumul.length - 1];
+		int pos = Arrays.binarySearch(cumul, u);
+		pos = (pos >= 0) ? pos + 1 : -pos - 1;
+		// skip states of zero probability
+		while (pos < cumul.length - 1 && (pos == 0 ? cumul[0] : cumul[pos] - cumul[pos - 1]) == 0.0) {
+			pos++;
+		}
+		return Math.min(pos, cumul.length - 1);
+	}
+
+	/** Picks a successor according to its cumulative probabilities */
+	protected static int sampleSuccessor(int[] succ, double[] cumul, SplittableRandom random)
+	{
+		double u = random.nextDouble() * cumul[cumul.length - 1];
+		for (int n = 0; n < cumul.length - 1; n++) {
+			if (u < cumul[n]) {
+				return succ[n];
+			}
+		}
+		return succ[succ.length - 1];
+	}
+
+	/**
+	 * Computes the states from which {@code target} is reachable via transitions of any events.
+	 */
+	protected BitSet computeCanReach(BitSet target)
+	{
+		// Build the predecessor relation
+		int[] numPred = new int[numStates + 1];
+		for (int s = 0; s < numStates; s++) {
+			for (int[] succ : successors[s]) {
+				for (int t : succ) {
+					numPred[t + 1]++;
+				}
+			}
+		}
+		for (int s = 0; s < numStates; s++) {
+			numPred[s + 1] += numPred[s];
+		}
+		int[] pred = new int[numPred[numStates]];
+		int[] fill = Arrays.copyOf(numPred, numStates);
+		for (int s = 0; s < numStates; s++) {
+			for (int[] succ : successors[s]) {
+				for (int t : succ) {
+					pred[fill[t]++] = s;
+				}
+			}
+		}
+		// Backward search from the target
+		BitSet canReach = (BitSet) target.clone();
+		int[] stack = new int[numStates];
+		int top = 0;
+		for (int s = target.nextSetBit(0); s >= 0 && s < numStates; s = target.nextSetBit(s + 1)) {
+			stack[top++] = s;
+		}
+		while (top > 0) {
+			int t = stack[--top];
+			for (int n = numPred[t]; n < numPred[t + 1]; n++) {
+				int s = pred[n];
+				if (!canReach.get(s)) {
+					canReach.set(s);
+					stack[top++] = s;
+				}
+			}
+		}
+		return canReach;
+	}
+}
@@ -0,0 +1,96 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import prism.PrismComponent;
+import prism.PrismDevNullLog;
+import prism.PrismException;
+import prism.PrismSettings;
+import simulator.method.CIiterations;
+import simulator.method.SimulationMethod;
+
+/**
+ * Test program for the stopping rule of {@link GSMPSimulator} when estimating a value per state.
+ * <br>
+ * Synthetic samples are fed to the statistics of a 3-state model:
+ * state 0 always has value 1 (so its variance is 0 and it is precise enough early),
+ * state 1 is first visited after the other states have settled, and the value of state 2 cycles through 0, 1 and 2.
+ * Once the statistics decide to stop, the method of every state must agree to stop with the samples seen so far.
+ * <br>
+ * Usage: {@code GSMPSimulatorTest}. The exit code is non-zero if the simulation stopped too early.
+ */
+public class GSMPSimulatorTest
+{
+	private static final int NUM_STATES = 3;
+	/** Sample after which state 1 is visited (in every other sample) */
+	private static final int RARE_STATE_START = 50;
+	private static final int MAX_SAMPLES = 1000000;
+
+	public static void main(String[] args)
+	{
+		try {
+			System.out.println("\nTest program for GSMPSimulator stopping rule\n============================================");
+			PrismComponent parent = new PrismComponent();
+			parent.setLog(new PrismDevNullLog());
+			parent.setSettings(new PrismSettings());
+			GSMPSimulator simulator = new GSMPSimulator(new GSMPSimple(NUM_STATES), parent);
+			// Unknown number of samples, for the given confidence and width
+			SimulationMethod method = new CIiterations(0.05, 0.1, 1.0);
+			simulator.setSimulationMethod(method);
+
+			GSMPSimulator.VectorStatistics stats = simulator.new VectorStatistics();
+			int iters = 0;
+			while (iters < MAX_SAMPLES && !stats.shouldStop()) {
+				iters++;
+				boolean rare = iters > RARE_STATE_START && iters % 2 == 0;
+				int[] states = rare ? new int[] { 0, 1, 2 } : new int[] { 0, 2 };
+				double[] values = rare ? new double[] { 1.0, 4.0, iters % 3 } : new double[] { 1.0, iters % 3 };
+				stats.add(new GSMPSimulator.SparseSample(states, values));
+			}
+			System.out.println("Stopped after " + iters + " samples");
+
+			int failures = 0;
+			for (int s = 0; s < NUM_STATES; s++) {
+				SimulationMethod check = method.clone();
+				check.reset();
+				check.computeMissingParameterBeforeSim();
+				boolean ok = check.shouldStopNow(iters, stats.getEstimate(s));
+				System.out.println("state " + s + ": mean " + stats.getMeans()[s] + ", variance " + stats.getEstimate(s).getVariance()
+						+ " " + (ok ? "OK" : "FAILED (not precise enough)"));
+				if (!ok) {
+					failures++;
+				}
+			}
+
+			System.out.println("\n" + (failures == 0 ? "All tests passed" : failures + " test(s) failed"));
+			System.exit(failures == 0 ? 0 : 1);
+		} catch (PrismException e) {
+			System.out.println("Error: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
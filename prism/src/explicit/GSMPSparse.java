@@ -0,0 +1,706 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import parser.State;
+import prism.ModelType;
+import prism.PrismException;
+import prism.PrismLog;
+import prism.PrismNotSupportedException;
+
+/**
+ * Sparse matrix (non-mutable) explicit-state representation of a GSMP.
+ * <br>
+ * In GSMPSimple, every event is a full DTMCSimple with a distribution for each state of the model,
+ * so the memory grows with (number of events) * (number of states), even though only a few events are active in each state.
+ * Here, the transitions of all events are stored in a single CSR structure instead:
+ * each state has a range of (state, active event) pairs, and each pair has a range of transitions.
+ * <br>
+ * The events of this GSMP ({@link #getEventList()}) are lightweight views of this structure.
+ * They hold their own distribution type, parameters and identifiers (so these may still be changed in place),
+ * but their transitions are read from this GSMP. Copying such an event (see {@link GSMPEvent#GSMPEvent(GSMPEvent)})
+ * creates an ordinary, mutable GSMPEvent.
+ * <br>
+ * The catch is that you have to create the model all in one go (from a GSMPSimple) and then can't modify it.
+ */
+public class GSMPSparse extends ModelExplicit implements GSMP
+{
+	/** Events of this GSMP (read-only list), all of which are views of the storage below */
+	protected List<GSMPEvent> events;
+	/** Indices into pairEvents/pairStarts giving the start of the active events of each state;
+	 *  array is of size numStates+1 and last entry is always equal to the number of pairs */
+	protected int stateStarts[];
+	/** Event index (into {@code events}) of each (state, active event) pair */
+	protected int pairEvents[];
+	/** Indices into columns/probabilities giving the start of the transitions of each pair;
+	 *  array is of size (number of pairs)+1 and last entry is always equal to getNumTransitions() */
+	protected int pairStarts[];
+	/** Column (destination) indices for each transition */
+	protected int columns[];
+	/** Probabilities for each transition */
+	protected double probabilities[];
+	/** Distribution of each pair, created on first request by {@link GSMPEvent#getTransitions(int)} and shared from then on */
+	protected AtomicReferenceArray<Distribution> pairDistributions;
+
+	/**
+	 * Constructor: copy of {@code gsmp} in the sparse representation.
+	 */
+	public GSMPSparse(GSMPSimple gsmp)
+	{
+		initialise(gsmp.getNumStates());
+		copyFrom(gsmp);
+		buildFrom(gsmp, null);
+	}
+
+	/**
+	 * Construct a sparse GSMP from an existing one and a state index permutation,
+	 * i.e. in which state index i becomes index permut[i].
+	 * Pointer to states list is NOT copied (since now wrong).
+	 */
+	public GSMPSparse(GSMPSimple gsmp, int permut[])
+	{
+		initialise(gsmp.getNumStates());
+		copyFrom(gsmp, permut);
+		buildFrom(gsmp, permut);
+	}
+
+	/**
+	 * Fills the sparse storage and the event views from the events of {@code gsmp},
+	 * permuting the states by {@code permut} (unless null).
+	 */
+	private void buildFrom(GSMPSimple gsmp, int permut[])
+	{
+		List<GSMPEvent> gsmpEvents = gsmp.getEventList();
+		int numEvents = gsmpEvents.size();
+		// Compute the inverse of the permutation
+		int permutInv[] = new int[numStates];
+		for (int s = 0; s < numStates; s++) {
+			permutInv[permut == null ? s : permut[s]] = s;
+		}
+		// Count the pairs of each state and the transitions, going through the active states of each event
+		stateStarts = new int[numStates + 1];
+		int numPairs = 0;
+		int numTransitions = 0;
+		for (int e = 0; e < numEvents; e++) {
+			GSMPEvent event = gsmpEvents.get(e);
+			BitSet active = event.getActive();
+			for (int s = active.nextSetBit(0); s >= 0 && s < numStates; s = active.nextSetBit(s + 1)) {
+				stateStarts[(permut == null ? s : permut[s]) + 1]++;
+				numPairs++;
+				numTransitions += event.getTransitions(s).size();
+			}
+		}
+		for (int s = 0; s < numStates; s++) {
+			stateStarts[s + 1] += stateStarts[s];
+		}
+		// Place the pairs (events are visited in order, so the events of each state stay sorted)
+		pairEvents = new int[numPairs];
+		int nextPair[] = Arrays.copyOf(stateStarts, numStates);
+		for (int e = 0; e < numEvents; e++) {
+			BitSet active = gsmpEvents.get(e).getActive();
+			for (int s = active.nextSetBit(0); s >= 0 && s < numStates; s = active.nextSetBit(s + 1)) {
+				pairEvents[nextPair[permut == null ? s : permut[s]]++] = e;
+			}
+		}
+		// Copy the transitions of the events, pair by pair,
+		// and collect the active states and number of transitions of each event on the way
+		pairStarts = new int[numPairs + 1];
+		columns = new int[numTransitions];
+		probabilities = new double[numTransitions];
+		BitSet activeStates[] = new BitSet[numEvents];
+		int eventTransitions[] = new int[numEvents];
+		for (int e = 0; e < numEvents; e++) {
+			activeStates[e] = new BitSet(numStates);
+		}
+		int column = 0;
+		for (int s = 0; s < numStates; s++) {
+			int oldState = permutInv[s];
+			for (int pair = stateStarts[s]; pair < stateStarts[s + 1]; pair++) {
+				int e = pairEvents[pair];
+				activeStates[e].set(s);
+				pairStarts[pair] = column;
+				for (Entry<Integer, Double> transition : gsmpEvents.get(e).getTransitions(oldState)) {
+					columns[column] = (permut == null) ? transition.getKey() : permut[transition.getKey()];
+					probabilities[column] = transition.getValue();
+					column++;
+				}
+				eventTransitions[e] += column - pairStarts[pair];
+			}
+		}
+		pairStarts[numPairs] = numTransitions;
+		pairDistributions = new AtomicReferenceArray<Distribution>(numPairs);
+		// Create the event views
+		List<GSMPEvent> views = new ArrayList<GSMPEvent>(numEvents);
+		for (int e = 0; e < numEvents; e++) {
+			views.add(new SparseEvent(gsmpEvents.get(e), e, permut, activeStates[e], eventTransitions[e]));
+		}
+		events = Collections.unmodifiableList(views);
+	}
+
+	/**
+	 * @return index of the pair of state {@code s} and event {@code e}, or -1 if {@code e} is not active in {@code s}.
+	 */
+	private int findPair(int s, int e)
+	{
+		for (int pair = stateStarts[s]; pair < stateStarts[s + 1]; pair++) {
+			if (pairEvents[pair] == e) {
+				return pair;
+			}
+		}
+		return -1;
+	}
+
+	// Accessors (for GSMP)
+
+	@Override
+	public ModelType getModelType()
+	{
+		return ModelType.GSMP;
+	}
+
+	@Override
+	public List<GSMPEvent> getEventList()
+	{
+		return events;
+	}
+
+	public int getNumEvents()
+	{
+		return events.size();
+	}
+
+	@Override
+	public GSMPEvent getEvent(String identifier)
+	{
+		for (GSMPEvent event : events) {
+			if (event.getIdentifier().equals(identifier)) {
+				return event;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public List<GSMPEvent> getActiveEvents(int state)
+	{
+		List<GSMPEvent> actEvents = new ArrayList<GSMPEvent>(stateStarts[state + 1] - stateStarts[state]);
+		for (int pair = stateStarts[state]; pair < stateStarts[state + 1]; pair++) {
+			actEvents.add(events.get(pairEvents[pair]));
+		}
+		return actEvents;
+	}
+
+	@Override
+	public int getNumActiveEvents(int state)
+	{
+		return stateStarts[state + 1] - stateStarts[state];
+	}
+
+	@Override
+	public GSMPEvent getActiveEvent(int state, int i)
+	{
+		return events.get(pairEvents[stateStarts[state] + i]);
+	}
+
+	@Override
+	public boolean addEvent(GSMPEvent event)
+	{
+		throw new UnsupportedOperationException("Can't add events to a GSMPSparse since it cannot be modified after construction");
+	}
+
+	@Override
+	public CTMCSimple generateCTMC()
+	{
+		CTMCSimple ctmc = new CTMCSimple(getNumStates());
+		ctmc.copyFrom(this);
+		//use the exponential events to construct CTMC transition matrix
+		for (int s = 0; s < numStates; s++) {
+			for (int pair = stateStarts[s]; pair < stateStarts[s + 1]; pair++) {
+				GSMPEvent event = events.get(pairEvents[pair]);
+				if (!event.isExponential()) {
+					continue;
+				}
+				for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+					ctmc.addToProbability(s, columns[i], probabilities[i] * event.getFirstParameter());
+				}
+			}
+		}
+		ctmc.uniformise(ctmc.getMaxExitRate());
+		return ctmc;
+	}
+
+	// Accessors (for Model)
+
+	@Override
+	public int getNumTransitions()
+	{
+		return columns.length;
+	}
+
+	/**
+	 * Get a SuccessorsIterator for state s.
+	 * The transitions of all events active in s are stored contiguously, so they are iterated directly.
+	 * Successors reachable by several events are not deduplicated.
+	 */
+	@Override
+	public SuccessorsIterator getSuccessors(int s)
+	{
+		// the successors of a single event are distinct
+		boolean distinct = getNumActiveEvents(s) <= 1;
+		return SuccessorsIterator.from(Arrays.stream(columns, pairStarts[stateStarts[s]], pairStarts[stateStarts[s + 1]]).iterator(), distinct);
+	}
+
+	@Override
+	public boolean isSuccessor(int s1, int s2)
+	{
+		for (int i = pairStarts[stateStarts[s1]], stop = pairStarts[stateStarts[s1 + 1]]; i < stop; i++) {
+			if (columns[i] == s2) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean allSuccessorsInSet(int s, BitSet set)
+	{
+		for (int i = pairStarts[stateStarts[s]], stop = pairStarts[stateStarts[s + 1]]; i < stop; i++) {
+			if (!set.get(columns[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean someSuccessorsInSet(int s, BitSet set)
+	{
+		for (int i = pairStarts[stateStarts[s]], stop = pairStarts[stateStarts[s + 1]]; i < stop; i++) {
+			if (set.get(columns[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void findDeadlocks(boolean fix) throws PrismException
+	{
+		for (int s = 0; s < numStates; s++) {
+			if (pairStarts[stateStarts[s]] == pairStarts[stateStarts[s + 1]]) {
+				if (fix) {
+					throw new PrismException("Can't fix deadlocks in a GSMPSparse since it cannot be modified after construction");
+				}
+				addDeadlockState(s);
+			}
+		}
+	}
+
+	@Override
+	public void checkForDeadlocks(BitSet except) throws PrismException
+	{
+		for (int s = 0; s < numStates; s++) {
+			if (pairStarts[stateStarts[s]] == pairStarts[stateStarts[s + 1]] && (except == null || !except.get(s))) {
+				throw new PrismException("GSMP has a deadlock in state " + s);
+			}
+		}
+	}
+
+	// Mutators (for ModelSimple)
+
+	@Override
+	public void buildFromPrismExplicit(String filename) throws PrismException
+	{
+		throw new PrismNotSupportedException("Building a GSMPSparse from a PRISM explicit file is not supported");
+	}
+
+	@Override
+	public void clearState(int i)
+	{
+		throw new UnsupportedOperationException("Can't clear states of a GSMPSparse since it cannot be modified after construction");
+	}
+
+	@Override
+	public int addState()
+	{
+		throw new UnsupportedOperationException("Can't add states to a GSMPSparse since it cannot be modified after construction");
+	}
+
+	@Override
+	public void addStates(int numToAdd)
+	{
+		throw new UnsupportedOperationException("Can't add states to a GSMPSparse since it cannot be modified after construction");
+	}
+
+	@Override
+	public void setStatesList(List<State> statesList)
+	{
+		for (GSMPEvent event : events) {
+			event.setStatesList(statesList);
+		}
+		this.statesList = statesList;
+	}
+
+	// Export
+
+	@Override
+	public void exportToPrismExplicitTra(PrismLog out)
+	{
+		out.println(this);
+	}
+
+	@Override
+	public void exportToPrismLanguage(String filename) throws PrismException
+	{
+		throw new PrismNotSupportedException("Export of a GSMP to the PRISM language is not supported");
+	}
+
+	@Override
+	public String toString()
+	{
+		String str = "GSMP with " + getNumEvents() + " events:";
+		for (GSMPEvent event : events) {
+			str += "\n" + event;
+		}
+		return str;
+	}
+
+	/**
+	 * Event of a GSMPSparse. Its transitions are read from the sparse storage of the GSMP,
+	 * so it has no states of its own and it cannot be modified (except for its distribution and identifiers).
+	 */
+	private class SparseEvent extends GSMPEvent
+	{
+		/** Index of this event within {@code events} */
+		private final int index;
+		/** States where this event is active */
+		private final BitSet activeStates;
+		/** Number of transitions of this event */
+		private final int numEventTransitions;
+
+		/**
+		 * Constructor: view of event {@code index} of the (already built) sparse storage,
+		 * which is active in states {@code activeStates} and has {@code numEventTransitions} transitions there.
+		 */
+		private SparseEvent(GSMPEvent event, int index, int permut[], BitSet activeStates, int numEventTransitions)
+		{
+			super(event.getDistributionType(), event.getFirstParameter(), event.getSecondParameter(), event.getIdentifier(), event.getOriginalIdentifier());
+			this.index = index;
+			this.numStates = GSMPSparse.this.numStates;
+			this.actionLabels = (permut == null) ? event.actionLabels : event.actionLabelMapPermut(permut);
+			this.activeStates = activeStates;
+			this.numEventTransitions = numEventTransitions;
+		}
+
+		@Override
+		public boolean isActive(int state)
+		{
+			return activeStates.get(state);
+		}
+
+		@Override
+		public BitSet getActive()
+		{
+			return activeStates;
+		}
+
+		/**
+		 * Get the transitions of this event from state {@code s}.
+		 * The distribution is created on the first call for {@code s} and the same object is returned afterwards,
+		 * so it must not be modified.
+		 */
+		@Override
+		public Distribution getTransitions(int s)
+		{
+			int pair = findPair(s, index);
+			if (pair < 0) {
+				return new Distribution();
+			}
+			Distribution distr = pairDistributions.get(pair);
+			if (distr == null) {
+				distr = new Distribution();
+				for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+					distr.set(columns[i], probabilities[i]);
+				}
+				// if another thread was faster, use its distribution
+				if (!pairDistributions.compareAndSet(pair, null, distr)) {
+					distr = pairDistributions.get(pair);
+				}
+			}
+			return distr;
+		}
+
+		@Override
+		public Iterator<Entry<Integer, Double>> getTransitionsIterator(int s)
+		{
+			return getTransitions(s).iterator();
+		}
+
+		/**
+		 * Iterate over the transitions of this event from state {@code s}, reading them directly from the sparse storage.
+		 */
+		@Override
+		public void forEachTransition(int s, TransitionConsumer c)
+		{
+			int pair = findPair(s, index);
+			if (pair < 0) {
+				return;
+			}
+			for (int i = pairStarts[pair], stop = pairStarts[pair + 1]; i < stop; i++) {
+				c.accept(s, columns[i], probabilities[i]);
+			}
+		}
+
+		@Override
+		public int getNumTransitions(int s)
+		{
+			int pair = findPair(s, index);
+			return (pair < 0) ? 0 : pairStarts[pair + 1] - pairStarts[pair];
+		}
+
+		@Override
+		public int getNumTransitions()
+		{
+			return numEventTransitions;
+		}
+
+		@Override
+		public Iterator<Integer> getSuccessorsIterator(int s)
+		{
+			return getTransitions(s).getSupport().iterator();
+		}
+
+		@Override
+		public SuccessorsIterator getSuccessors(int s)
+		{
+			return SuccessorsIterator.from(getSuccessorsIterator(s), true);
+		}
+
+		@Override
+		public boolean isSuccessor(int s1, int s2)
+		{
+			int pair = findPair(s1, index);
+			if (pair >= 0) {
+				for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+					if (columns[i] == s2) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean allSuccessorsInSet(int s, BitSet set)
+		{
+			int pair = findPair(s, index);
+			if (pair >= 0) {
+				for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+					if (!set.get(columns[i])) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean someSuccessorsInSet(int s, BitSet set)
+		{
+			int pair = findPair(s, index);
+			if (pair >= 0) {
+				for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+					if (set.get(columns[i])) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void findDeadlocks(boolean fix) throws PrismException
+		{
+			for (int s = 0; s < numStates; s++) {
+				if (getNumTransitions(s) == 0) {
+					addDeadlockState(s);
+					if (fix)
+						setProbability(s, s, 1.0);
+				}
+			}
+		}
+
+		@Override
+		public void checkForDeadlocks(BitSet except) throws PrismException
+		{
+			for (int s = 0; s < numStates; s++) {
+				if (getNumTransitions(s) == 0 && (except == null || !except.get(s)))
+					throw new PrismException("DTMC has a deadlock in state " + s);
+			}
+		}
+
+		@Override
+		public BitSet getReachableStates(int s, BitSet target)
+		{
+			BitSet reach = new BitSet(numStates);
+			BitSet frontier = new BitSet(numStates);
+			reach.set(s);
+			frontier.set(s);
+			while (!frontier.isEmpty()) {
+				BitSet newReach = new BitSet(numStates);
+				for (int j = frontier.nextSetBit(0); j >= 0; j = frontier.nextSetBit(j + 1)) {
+					int pair = findPair(j, index);
+					if (pair < 0) {
+						continue;
+					}
+					for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+						if (probabilities[i] > 0) {
+							newReach.set(columns[i]);
+						}
+					}
+				}
+				if (target != null) {
+					newReach.andNot(target);
+				}
+				newReach.andNot(reach);
+				reach.or(newReach);
+				frontier = newReach;
+			}
+			return reach;
+		}
+
+		@Override
+		public double getMinimumProbability(BitSet bs)
+		{
+			double minProb = Double.MAX_VALUE;
+			for (int s = bs.nextSetBit(0); s >= 0; s = bs.nextSetBit(s + 1)) {
+				int pair = findPair(s, index);
+				if (pair < 0) {
+					continue;
+				}
+				for (int i = pairStarts[pair]; i < pairStarts[pair + 1]; i++) {
+					minProb = Math.min(minProb, probabilities[i]);
+				}
+			}
+			return (minProb == Double.MAX_VALUE) ? 0.0 : minProb;
+		}
+
+		@Override
+		public void buildFromPrismExplicit(String filename) throws PrismException
+		{
+			throw new UnsupportedOperationException("Can't modify events of a GSMPSparse");
+		}
+
+		@Override
+		public void setProbability(int i, int j, double prob)
+		{
+			throw new UnsupportedOperationException("Can't modify events of a GSMPSparse");
+		}
+
+		@Override
+		public void addToProbability(int i, int j, double prob)
+		{
+			throw new UnsupportedOperationException("Can't modify events of a GSMPSparse");
+		}
+
+		@Override
+		public void clearState(int i)
+		{
+			throw new UnsupportedOperationException("Can't modify events of a GSMPSparse");
+		}
+
+		@Override
+		public void addStates(int numToAdd)
+		{
+			throw new UnsupportedOperationException("Can't modify events of a GSMPSparse");
+		}
+
+		@Override
+		public void normalize()
+		{
+			throw new UnsupportedOperationException("Can't modify events of a GSMPSparse");
+		}
+
+		/**
+		 * Two events of a GSMPSparse are equal if they have the same distribution, identifier and transitions.
+		 * (The inherited equality would compare the unused transition lists of {@link DTMCSimple}.)
+		 */
+		@Override
+		public boolean equals(Object o)
+		{
+			if (this == o)
+				return true;
+			if (!(o instanceof SparseEvent))
+				return false;
+			SparseEvent other = (SparseEvent) o;
+			if (numStates != other.numStates || !activeStates.equals(other.activeStates))
+				return false;
+			if (getDistributionType() != other.getDistributionType() || getFirstParameter() != other.getFirstParameter()
+					|| getSecondParameter() != other.getSecondParameter() || !getIdentifier().equals(other.getIdentifier()))
+				return false;
+			for (int s = activeStates.nextSetBit(0); s >= 0; s = activeStates.nextSetBit(s + 1)) {
+				if (!getTransitions(s).equals(other.getTransitions(s)))
+					return false;
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * getIdentifier().hashCode() + activeStates.hashCode();
+		}
+
+		@Override
+		public String toString()
+		{
+			String str = "Event \"" + getIdentifier() + "\n";
+			boolean first = true;
+			for (int s = 0; s < numStates; s++) {
+				if (getNumTransitions(s) == 0) {
+					continue;
+				}
+				if (first) {
+					first = false;
+				} else {
+					str += ", ";
+				}
+				str += s + ": " + getTransitions(s);
+			}
+			return str;
+		}
+	}
+}
@@ -192,6 +192,9 @@ public abstract class IterationMethod {
 		protected double[] soln2;
 		/** Post processing, may be null */
 		protected final IterationPostProcessor postProcessor;
+		/** The states last returned by {@link #getParallelStates(IntSet)}, and the same states as an array */
+		private IntSet parallelStatesSet;
+		private int parallelStates[];
 
 		/** Constructor */
 		protected TwoVectorIteration(Model model, IterationMethod.IterationPostProcessor postProcessor)
@@ -213,6 +216,24 @@ public abstract class IterationMethod {
 		/** Perform one iteration */
 		public abstract void doIterate(IntSet states) throws PrismException;
 
+		/**
+		 * Returns {@code states} as an array if they should be processed in parallel on {@code kernels},
+		 * i.e., if there are kernels, enough states and the model is a DTMCSparse, DTMCSimple (e.g. the DTMC of an ACTMC reduction)
+		 * or MDPSparse, null otherwise. Other models (e.g. views) may compute their rows on demand, and are not read concurrently.
+		 * The array is kept, as an iteration usually goes over the same set of states repeatedly.
+		 */
+		protected int[] getParallelStates(IntSet states)
+		{
+			if (kernels == null || !(model instanceof DTMCSparse || model instanceof DTMCSimple || model instanceof MDPSparse) || !kernels.isParallel(states.cardinality())) {
+				return null;
+			}
+			if (states != parallelStatesSet) {
+				parallelStates = states.stream().toArray();
+				parallelStatesSet = states;
+			}
+			return parallelStates;
+		}
+
 		@Override
 		public void iterate(IntSet states) throws PrismException
 		{
@@ -239,7 +260,13 @@ public abstract class IterationMethod {
 				postProcessor.apply(soln, soln2, states);
 			}
 			// check convergence (on the set of states)
-			boolean done = PrismUtils.doublesAreClose(soln, soln2, states.iterator(), termCritParam, absolute);
+			int parallelStates[] = getParallelStates(states);
+			boolean done;
+			if (parallelStates != null) {
+				done = kernels.doublesAreClose(soln, soln2, parallelStates, termCritParam, absolute);
+			} else {
+				done = PrismUtils.doublesAreClose(soln, soln2, states.iterator(), termCritParam, absolute);
+			}
 
 			// switch vectors
 			double[] tmp = soln;
@@ -293,6 +320,8 @@ public abstract class IterationMethod {
 	protected final boolean absolute;
 	/** Convergence check: epsilon value */
 	protected final double termCritParam;
+	/** Kernels for processing the states of an iteration in parallel (null if the iterations are sequential) */
+	protected ParallelRowKernels kernels = null;
 
 	/**
 	 * Constructor.
@@ -401,6 +430,8 @@ public abstract class IterationMethod {
 	 */
 	public ModelCheckerResult doValueIteration(ProbModelChecker mc, String description, IterationValIter iteration, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
 	{
+		// Process the states of the iterations in parallel, if enabled
+		kernels = mc.getParallelRowKernels();
 		int iters = 0;
 		final int maxIters = mc.maxIters;
 		boolean done = false;
@@ -463,6 +494,8 @@ public abstract class IterationMethod {
 	 */
 	public ModelCheckerResult doTopologicalValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationMethod.IterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime, ExportIterations iterationsExport) throws PrismException
 	{
+		// Process the states of the iterations in parallel, if enabled
+		kernels = mc.getParallelRowKernels();
 		// Start iterations
 		int iters = 0;
 		long mvCount = 0;
@@ -570,6 +603,8 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doIntervalIteration(ProbModelChecker mc, String description, IterationIntervalIter below, IterationIntervalIter above, IntSet unknownStates, long timer, ExportIterations iterationsExport) throws PrismException {
+		// Process the states of the iterations in parallel, if enabled
+		kernels = mc.getParallelRowKernels();
 		try {
 			// Start iterations
 			int iters = 0;
@@ -662,6 +697,8 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doTopologicalIntervalIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationIntervalIter below, IterationIntervalIter above, SingletonSCCSolver singletonSCCSolver, long timer, ExportIterations iterationsExport) throws PrismException {
+		// Process the states of the iterations in parallel, if enabled
+		kernels = mc.getParallelRowKernels();
 		try {
 			// Start iterations
 			int iters = 0;
@@ -54,7 +54,12 @@ class IterationMethodJacobi extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMultJac(soln, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMultJac(soln, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMultJac(soln, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -70,7 +75,12 @@ class IterationMethodJacobi extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMultJac(soln, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMultJac(soln, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMultJac(soln, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -82,7 +92,12 @@ class IterationMethodJacobi extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMultRewJac(soln, rew, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMultRewJac(soln, rew, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMultRewJac(soln, rew, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -98,7 +113,12 @@ class IterationMethodJacobi extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMultRewJac(soln, rew, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMultRewJac(soln, rew, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMultRewJac(soln, rew, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -53,7 +53,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMult(soln, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMult(soln, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMult(soln, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -69,7 +74,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMult(soln, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMult(soln, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMult(soln, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -81,7 +91,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMultRew(soln, rew, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMultRew(soln, rew, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMultRew(soln, rew, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -97,7 +112,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				dtmc.mvMultRew(soln, rew, soln2, states.iterator());
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					dtmc.mvMultRew(soln, rew, soln2, parallelStates, kernels);
+				} else {
+					dtmc.mvMultRew(soln, rew, soln2, states.iterator());
+				}
 			}
 		};
 	}
@@ -109,7 +129,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				mdp.mvMultMinMax(soln, min, soln2, states.iterator(), strat);
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					((MDPSparse) mdp).mvMultMinMax(soln, min, soln2, parallelStates, strat, kernels);
+				} else {
+					mdp.mvMultMinMax(soln, min, soln2, states.iterator(), strat);
+				}
 			}
 		};
 	}
@@ -126,7 +151,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				mdp.mvMultMinMax(soln, min, soln2, states.iterator(), strat);
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					((MDPSparse) mdp).mvMultMinMax(soln, min, soln2, parallelStates, strat, kernels);
+				} else {
+					mdp.mvMultMinMax(soln, min, soln2, states.iterator(), strat);
+				}
 			}
 		};
 	}
@@ -144,7 +174,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				mdp.mvMultRewMinMax(soln, rewards, min, soln2, states.iterator(), strat);
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					((MDPSparse) mdp).mvMultRewMinMax(soln, rewards, min, soln2, parallelStates, strat, kernels);
+				} else {
+					mdp.mvMultRewMinMax(soln, rewards, min, soln2, states.iterator(), strat);
+				}
 			}
 		};
 	}
@@ -161,7 +196,12 @@ public class IterationMethodPower extends IterationMethod {
 			@Override
 			public void doIterate(IntSet states)
 			{
-				mdp.mvMultRewMinMax(soln, rewards, min, soln2, states.iterator(), strat);
+				int parallelStates[] = getParallelStates(states);
+				if (parallelStates != null) {
+					((MDPSparse) mdp).mvMultRewMinMax(soln, rewards, min, soln2, parallelStates, strat, kernels);
+				} else {
+					mdp.mvMultRewMinMax(soln, rewards, min, soln2, states.iterator(), strat);
+				}
 			}
 		};
 	}
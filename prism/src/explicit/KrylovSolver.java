@@ -0,0 +1,543 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import prism.PrismException;
+
+/**
+ * Preconditioned Krylov subspace solvers, restarted GMRES and BiCGStab, for linear equation systems
+ * (I - A) x = b, where A is the transition matrix of a DTMC restricted to a subset of its states
+ * (or the transpose of that, e.g. for steady-state probabilities).
+ * <br>
+ * The matrix I - A is stored in compressed sparse row form over the indices 0, ..., n-1 of the states of the system
+ * (in increasing order of the states, see {@link #getState(int)} and {@link #getIndex(int)}).
+ * Unlike the stationary iterative methods, the number of iterations of these methods does not grow with the
+ * stiffness of the DTMC as quickly, e.g. for the DTMCs obtained by uniformisation with very different rates.
+ * <br>
+ * The iterations stop once the infinity norm of the residual b - (I - A) x is at most epsilon
+ * (absolute), or epsilon times the larger of the infinity norms of b and x (relative).
+ */
+public class KrylovSolver
+{
+	/** Preconditioners */
+	public enum Preconditioner {
+		NONE, JACOBI, ILU0;
+		public String fullName()
+		{
+			switch (this) {
+			case NONE:
+				return "None";
+			case JACOBI:
+				return "Jacobi";
+			case ILU0:
+				return "ILU(0)";
+			default:
+				return this.toString();
+			}
+		}
+	};
+
+	/** Number of states (unknowns) of the system */
+	private final int n;
+	/** State of each index */
+	private final int states[];
+	/** Index of each state of the DTMC (-1 for states not in the system) */
+	private final int indices[];
+	/** Start of each row in {@code cols}/{@code vals}, array of size n+1 */
+	private final int rowStarts[];
+	/** Column of each entry (increasing within each row) */
+	private final int cols[];
+	/** Value of each entry */
+	private final double vals[];
+	/** Position of the diagonal entry of each row (every row has one) */
+	private final int diagPos[];
+
+	/** Preconditioner used */
+	private final Preconditioner preconditioner;
+	/** Incomplete LU factors of the matrix, on its pattern (L with unit diagonal below, U on and above the diagonal) */
+	private double lu[];
+
+	/** Relative size of an inner product below which BiCGStab is restarted */
+	private static final double BREAKDOWN_TOLERANCE = 1e-12;
+
+	/** Number of iterations of the last solve */
+	private int numIters;
+
+	/**
+	 * Create a solver for the system (I - A) x = b, where A is the transition matrix of {@code dtmc}
+	 * restricted to {@code subset}, or its transpose if {@code transpose} is true.
+	 * @throws PrismException if the preconditioner can not be computed
+	 */
+	public KrylovSolver(DTMC dtmc, BitSet subset, boolean transpose, Preconditioner preconditioner) throws PrismException
+	{
+		this.preconditioner = preconditioner;
+		int numStates = dtmc.getNumStates();
+		n = subset.cardinality();
+		states = new int[n];
+		indices = new int[numStates];
+		Arrays.fill(indices, -1);
+		int index = 0;
+		for (int s = subset.nextSetBit(0); s >= 0; s = subset.nextSetBit(s + 1)) {
+			states[index] = s;
+			indices[s] = index++;
+		}
+
+		// Count the entries of each row (the diagonal entry is always stored)
+		int counts[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			counts[i]++;
+			dtmc.forEachTransition(states[i], (s, t, p) -> {
+				int j = indices[t];
+				if (j >= 0 && j != indices[s]) {
+					counts[transpose ? j : indices[s]]++;
+				}
+			});
+		}
+		rowStarts = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			rowStarts[i + 1] = rowStarts[i] + counts[i];
+		}
+		cols = new int[rowStarts[n]];
+		vals = new double[rowStarts[n]];
+		diagPos = new int[n];
+
+		// Store the diagonal entries first, then the other entries of each row
+		int next[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			cols[rowStarts[i]] = i;
+			vals[rowStarts[i]] = 1.0;
+			next[i] = rowStarts[i] + 1;
+		}
+		for (int i = 0; i < n; i++) {
+			dtmc.forEachTransition(states[i], (s, t, p) -> {
+				int j = indices[t];
+				if (j < 0) {
+					return;
+				}
+				int row = transpose ? j : indices[s];
+				if (j == indices[s]) {
+					vals[rowStarts[row]] -= p;
+				} else {
+					int k = next[row]++;
+					cols[k] = transpose ? indices[s] : j;
+					vals[k] = -p;
+				}
+			});
+		}
+		// Sort each row by column
+		for (int i = 0; i < n; i++) {
+			sortRow(rowStarts[i], rowStarts[i + 1]);
+			for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+				if (cols[k] == i) {
+					diagPos[i] = k;
+					break;
+				}
+			}
+		}
+
+		if (preconditioner == Preconditioner.ILU0) {
+			computeILU0();
+		}
+	}
+
+	/**
+	 * Sorts the entries {@code from}, ..., {@code to-1} by column (insertion sort, rows are short).
+	 */
+	private void sortRow(int from, int to)
+	{
+		for (int k = from + 1; k < to; k++) {
+			int col = cols[k];
+			double val = vals[k];
+			int l = k - 1;
+			while (l >= from && cols[l] > col) {
+				cols[l + 1] = cols[l];
+				vals[l + 1] = vals[l];
+				l--;
+			}
+			cols[l + 1] = col;
+			vals[l + 1] = val;
+		}
+	}
+
+	/**
+	 * Computes the incomplete LU factorisation with no fill-in, ILU(0).
+	 * As I - A is a (weakly diagonally dominant) M-matrix, the pivots are positive unless a row has no way out of the system.
+	 */
+	private void computeILU0() throws PrismException
+	{
+		lu = vals.clone();
+		int pos[] = new int[n];
+		Arrays.fill(pos, -1);
+		for (int i = 0; i < n; i++) {
+			for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+				pos[cols[k]] = k;
+			}
+			for (int k = rowStarts[i]; k < diagPos[i]; k++) {
+				int j = cols[k];
+				lu[k] /= lu[diagPos[j]];
+				for (int l = diagPos[j] + 1; l < rowStarts[j + 1]; l++) {
+					int p = pos[cols[l]];
+					if (p >= 0) {
+						lu[p] -= lu[k] * lu[l];
+					}
+				}
+			}
+			if (!(lu[diagPos[i]] > 0)) {
+				throw new PrismException("ILU(0) preconditioner breaks down (zero pivot for state " + states[i] + ")");
+			}
+			for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+				pos[cols[k]] = -1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of states (unknowns) of the system.
+	 */
+	public int getNumStates()
+	{
+		return n;
+	}
+
+	/**
+	 * Returns the state of index {@code i} of the system.
+	 */
+	public int getState(int i)
+	{
+		return states[i];
+	}
+
+	/**
+	 * Returns the index of {@code state} in the system, or -1 if it is not in the system.
+	 */
+	public int getIndex(int state)
+	{
+		return indices[state];
+	}
+
+	/**
+	 * Returns the number of iterations of the last solve.
+	 */
+	public int getNumIterations()
+	{
+		return numIters;
+	}
+
+	/**
+	 * Solves the system using restarted GMRES, with Krylov subspaces of dimension at most {@code restart}
+	 * (right preconditioned). Vectors are indexed by the indices of the system.
+	 * @param b The right-hand side
+	 * @param x The initial solution, overwritten with the solution
+	 * @param restart Dimension of the Krylov subspaces
+	 * @param epsilon Termination epsilon
+	 * @param absolute Absolute (rather than relative) termination criterion?
+	 * @param maxIters Maximum number of iterations (matrix-vector multiplications)
+	 * @return true if the solution converged
+	 */
+	public boolean solveGMRES(double b[], double x[], int restart, double epsilon, boolean absolute, int maxIters)
+	{
+		int m = Math.max(1, Math.min(restart, n));
+		double v[][] = new double[m + 1][];
+		double h[][] = new double[m + 1][m];
+		double cs[] = new double[m];
+		double sn[] = new double[m];
+		double g[] = new double[m + 1];
+		double y[] = new double[m];
+		double r[] = new double[n];
+		double w[] = new double[n];
+		double z[] = new double[n];
+
+		numIters = 0;
+		residual(b, x, r);
+		while (normInf(r) > tolerance(b, x, epsilon, absolute)) {
+			if (numIters >= maxIters) {
+				return false;
+			}
+			double tol = tolerance(b, x, epsilon, absolute);
+			double beta = norm2(r);
+			v[0] = scaled(r, 1.0 / beta, v[0]);
+			Arrays.fill(g, 0.0);
+			g[0] = beta;
+			int k = 0;
+			while (k < m && numIters < maxIters) {
+				numIters++;
+				// w = (I - A) P^-1 v_k
+				precondition(v[k], z);
+				multiply(z, w);
+				// Modified Gram-Schmidt
+				for (int i = 0; i <= k; i++) {
+					h[i][k] = dot(w, v[i]);
+					axpy(-h[i][k], v[i], w);
+				}
+				h[k + 1][k] = norm2(w);
+				boolean breakdown = !(h[k + 1][k] > 0);
+				if (!breakdown) {
+					v[k + 1] = scaled(w, 1.0 / h[k + 1][k], v[k + 1]);
+				}
+				// Apply the previous Givens rotations, then eliminate h[k+1][k]
+				for (int i = 0; i < k; i++) {
+					double tmp = cs[i] * h[i][k] + sn[i] * h[i + 1][k];
+					h[i + 1][k] = -sn[i] * h[i][k] + cs[i] * h[i + 1][k];
+					h[i][k] = tmp;
+				}
+				double rad = Math.hypot(h[k][k], h[k + 1][k]);
+				cs[k] = rad == 0 ? 1.0 : h[k][k] / rad;
+				sn[k] = rad == 0 ? 0.0 : h[k + 1][k] / rad;
+				h[k][k] = rad;
+				h[k + 1][k] = 0.0;
+				g[k + 1] = -sn[k] * g[k];
+				g[k] = cs[k] * g[k];
+				k++;
+				// The 2-norm of the residual bounds its infinity norm
+				if (breakdown || Math.abs(g[k]) <= tol) {
+					break;
+				}
+			}
+			// Solve the (upper triangular) least squares problem and update x += P^-1 V y
+			for (int i = k - 1; i >= 0; i--) {
+				double d = g[i];
+				for (int j = i + 1; j < k; j++) {
+					d -= h[i][j] * y[j];
+				}
+				y[i] = h[i][i] == 0 ? 0.0 : d / h[i][i];
+			}
+			Arrays.fill(w, 0.0);
+			for (int i = 0; i < k; i++) {
+				axpy(y[i], v[i], w);
+			}
+			precondition(w, z);
+			axpy(1.0, z, x);
+			residual(b, x, r);
+		}
+		return true;
+	}
+
+	/**
+	 * Solves the system using BiCGStab (right preconditioned). Vectors are indexed by the indices of the system.
+	 * @param b The right-hand side
+	 * @param x The initial solution, overwritten with the solution
+	 * @param epsilon Termination epsilon
+	 * @param absolute Absolute (rather than relative) termination criterion?
+	 * @param maxIters Maximum number of iterations (each has two matrix-vector multiplications)
+	 * @return true if the solution converged
+	 */
+	public boolean solveBiCGStab(double b[], double x[], double epsilon, boolean absolute, int maxIters)
+	{
+		double r[] = new double[n];
+		double rHat[] = new double[n];
+		double p[] = new double[n];
+		double pHat[] = new double[n];
+		double v[] = new double[n];
+		double s[] = new double[n];
+		double sHat[] = new double[n];
+		double t[] = new double[n];
+		double xStart[] = x.clone();
+
+		numIters = 0;
+		residual(b, x, r);
+		// (Re)start with the true residual, e.g. after a breakdown or if the recurrence drifted from it
+		while (normInf(r) > tolerance(b, x, epsilon, absolute)) {
+			System.arraycopy(r, 0, rHat, 0, n);
+			Arrays.fill(p, 0.0);
+			Arrays.fill(v, 0.0);
+			double rho = 1.0, alpha = 1.0, omega = 1.0;
+			while (normInf(r) > tolerance(b, x, epsilon, absolute)) {
+				if (numIters >= maxIters) {
+					return false;
+				}
+				numIters++;
+				double rhoNew = dot(rHat, r);
+				if (isBreakdown(rhoNew, rHat, r)) {
+					break;
+				}
+				double beta = (rhoNew / rho) * (alpha / omega);
+				for (int i = 0; i < n; i++) {
+					p[i] = r[i] + beta * (p[i] - omega * v[i]);
+				}
+				precondition(p, pHat);
+				multiply(pHat, v);
+				double rHatV = dot(rHat, v);
+				if (isBreakdown(rHatV, rHat, v)) {
+					break;
+				}
+				alpha = rhoNew / rHatV;
+				for (int i = 0; i < n; i++) {
+					s[i] = r[i] - alpha * v[i];
+				}
+				if (normInf(s) <= tolerance(b, x, epsilon, absolute)) {
+					axpy(alpha, pHat, x);
+					break;
+				}
+				precondition(s, sHat);
+				multiply(sHat, t);
+				double tt = dot(t, t);
+				omega = tt == 0 ? 0.0 : dot(t, s) / tt;
+				for (int i = 0; i < n; i++) {
+					x[i] += alpha * pHat[i] + omega * sHat[i];
+					r[i] = s[i] - omega * t[i];
+				}
+				rho = rhoNew;
+				if (omega == 0) {
+					break;
+				}
+			}
+			residual(b, x, r);
+			if (!Double.isFinite(normInf(r))) {
+				// Diverged: return the last solution from which the method (re)started
+				System.arraycopy(xStart, 0, x, 0, n);
+				return false;
+			}
+			if (numIters >= maxIters && normInf(r) > tolerance(b, x, epsilon, absolute)) {
+				return false;
+			}
+			System.arraycopy(x, 0, xStart, 0, n);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the bound on the infinity norm of the residual for the termination criterion.
+	 */
+	private double tolerance(double b[], double x[], double epsilon, boolean absolute)
+	{
+		return absolute ? epsilon : epsilon * Math.max(normInf(b), normInf(x));
+	}
+
+	/**
+	 * Is the inner product {@code d} of {@code x} and {@code y} so small, relative to their norms,
+	 * that the BiCGStab recurrences break down (and the method has to be restarted)?
+	 */
+	private boolean isBreakdown(double d, double x[], double y[])
+	{
+		return !(Math.abs(d) > BREAKDOWN_TOLERANCE * norm2(x) * norm2(y));
+	}
+
+	/**
+	 * result = (I - A) x
+	 */
+	private void multiply(double x[], double result[])
+	{
+		for (int i = 0; i < n; i++) {
+			double d = 0.0;
+			for (int k = rowStarts[i]; k < rowStarts[i + 1]; k++) {
+				d += vals[k] * x[cols[k]];
+			}
+			result[i] = d;
+		}
+	}
+
+	/**
+	 * r = b - (I - A) x
+	 */
+	private void residual(double b[], double x[], double r[])
+	{
+		multiply(x, r);
+		for (int i = 0; i < n; i++) {
+			r[i] = b[i] - r[i];
+		}
+	}
+
+	/**
+	 * z = P^-1 r, for the preconditioner P
+	 */
+	private void precondition(double r[], double z[])
+	{
+		switch (preconditioner) {
+		case JACOBI:
+			for (int i = 0; i < n; i++) {
+				double diag = vals[diagPos[i]];
+				z[i] = diag > 0 ? r[i] / diag : r[i];
+			}
+			break;
+		case ILU0:
+			// Forward substitution with L (unit diagonal)
+			for (int i = 0; i < n; i++) {
+				double d = r[i];
+				for (int k = rowStarts[i]; k < diagPos[i]; k++) {
+					d -= lu[k] * z[cols[k]];
+				}
+				z[i] = d;
+			}
+			// Backward substitution with U
+			for (int i = n - 1; i >= 0; i--) {
+				double d = z[i];
+				for (int k = diagPos[i] + 1; k < rowStarts[i + 1]; k++) {
+					d -= lu[k] * z[cols[k]];
+				}
+				z[i] = d / lu[diagPos[i]];
+			}
+			break;
+		default:
+			System.arraycopy(r, 0, z, 0, n);
+		}
+	}
+
+	private double[] scaled(double x[], double factor, double result[])
+	{
+		if (result == null) {
+			result = new double[n];
+		}
+		for (int i = 0; i < n; i++) {
+			result[i] = factor * x[i];
+		}
+		return result;
+	}
+
+	/** y += a x */
+	private void axpy(double a, double x[], double y[])
+	{
+		for (int i = 0; i < n; i++) {
+			y[i] += a * x[i];
+		}
+	}
+
+	private double dot(double x[], double y[])
+	{
+		double d = 0.0;
+		for (int i = 0; i < n; i++) {
+			d += x[i] * y[i];
+		}
+		return d;
+	}
+
+	private double norm2(double x[])
+	{
+		return Math.sqrt(dot(x, x));
+	}
+
+	private double normInf(double x[])
+	{
+		double max = 0.0;
+		for (int i = 0; i < n; i++) {
+			max = Math.max(max, Math.abs(x[i]));
+		}
+		return max;
+	}
+}
@@ -779,6 +779,34 @@ public class MDPSparse extends MDPExplicit
 		return some && all;
 	}
 
+	/**
+	 * Do a matrix-vector multiplication followed by min/max for the states in {@code states},
+	 * processing blocks of states in parallel on {@code kernels}
+	 * (see {@link #mvMultMinMax(double[], boolean, double[], java.util.PrimitiveIterator.OfInt, int[])}).
+	 */
+	public void mvMultMinMax(double vect[], boolean min, double result[], int states[], int strat[], ParallelRowKernels kernels)
+	{
+		kernels.forEachBlock(states, (block, from, to) -> {
+			for (int k = from; k < to; k++) {
+				result[block[k]] = mvMultMinMaxSingle(block[k], vect, min, strat);
+			}
+		});
+	}
+
+	/**
+	 * Do a matrix-vector multiplication and sum of rewards followed by min/max for the states in {@code states},
+	 * processing blocks of states in parallel on {@code kernels}
+	 * (see {@link #mvMultRewMinMax(double[], MDPRewards, boolean, double[], java.util.PrimitiveIterator.OfInt, int[])}).
+	 */
+	public void mvMultRewMinMax(double vect[], MDPRewards mdpRewards, boolean min, double result[], int states[], int strat[], ParallelRowKernels kernels)
+	{
+		kernels.forEachBlock(states, (block, from, to) -> {
+			for (int k = from; k < to; k++) {
+				result[block[k]] = mvMultRewMinMaxSingle(block[k], vect, mdpRewards, min, strat);
+			}
+		});
+	}
+
 	@Override
 	public double mvMultMinMaxSingle(int s, double vect[], boolean min, int strat[])
 	{
@@ -0,0 +1,446 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.*;
+
+import parser.State;
+import parser.VarList;
+import parser.type.TypeBool;
+import parser.type.TypeInt;
+
+/**
+ * Indexed set of states (see {@link IndexedSet}) that stores each state as its variable values
+ * bit-packed into a few {@code long} words, using the bounds of the variables from a {@link VarList}.
+ * The packed states are kept in one array (ordered by index) and looked up in an open-addressing hash table,
+ * so adding a state costs a hash lookup rather than O(log n) state comparisons, and no State objects are kept.
+ * State objects are only created again on demand, e.g. by {@link #toPermutedArrayList(int[])}.
+ * <br>
+ * The first variable is stored in the most significant bits of the first word, and so on,
+ * so comparing the words as unsigned numbers orders the states as {@link State#compareTo(State)} does,
+ * and {@link #buildSortingPermutation()} gives the same permutation as a sorted {@link IndexedSet}.
+ * <br>
+ * If a state that cannot be packed is added (e.g. a variable is out of its bounds),
+ * all states are moved into a sorted {@link IndexedSet}, which is then used instead.
+ */
+public class PackedStateSet implements StateStorage<State>
+{
+	/** Variables of the states */
+	protected VarList varList;
+	/** Number of variables */
+	protected int numVars;
+	/** Number of words of each packed state */
+	protected int numWords;
+	/** For each variable, the word it is stored in */
+	protected int varWord[];
+	/** For each variable, the position of its lowest bit within its word */
+	protected int varShift[];
+	/** For each variable, the lowest value (as encoded by {@link VarList#encodeToInt(int, Object)}) */
+	protected long varLow[];
+	/** For each variable, the highest value minus the lowest value */
+	protected long varMax[];
+	/** For each variable, the bit mask of its value (after shifting it to the lowest bits) */
+	protected long varMask[];
+	/** For each variable, true iff it is boolean (otherwise integer) */
+	protected boolean varBool[];
+
+	/** Packed states, ordered by index: state i is stored in words {@code i*numWords}, ..., {@code (i+1)*numWords-1} */
+	protected long packed[];
+	/** Number of states */
+	protected int size;
+	/** Open-addressing hash table of state indices plus one (0 marks an empty slot); its length is a power of two */
+	protected int table[];
+	/** Scratch space for packing the state being looked up */
+	protected long key[];
+	/** Slot of the hash table found by the last {@link #find()} */
+	protected int slot;
+	protected int indexOfLastAdd;
+
+	/** Sorted IndexedSet used instead once a state could not be packed, otherwise null */
+	protected IndexedSet<State> fallback;
+
+	/**
+	 * Returns true iff the states of {@code varList} can be stored in a PackedStateSet,
+	 * i.e. all variables are bounded integers or booleans.
+	 */
+	public static boolean canPack(VarList varList)
+	{
+		if (varList == null) {
+			return false;
+		}
+		for (int v = 0; v < varList.getNumVars(); v++) {
+			if (!(varList.getType(v) instanceof TypeInt || varList.getType(v) instanceof TypeBool)) {
+				return false;
+			}
+			if ((long) varList.getHigh(v) - varList.getLow(v) >= Integer.MAX_VALUE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create an empty set of states with variables {@code varList}.
+	 * Assumes that {@link #canPack(VarList)} holds.
+	 */
+	public PackedStateSet(VarList varList)
+	{
+		this.varList = varList;
+		numVars = varList.getNumVars();
+		varWord = new int[numVars];
+		varShift = new int[numVars];
+		varLow = new long[numVars];
+		varMax = new long[numVars];
+		varMask = new long[numVars];
+		varBool = new boolean[numVars];
+		// Assign the variables to words, first variable in the most significant bits
+		int word = 0;
+		int freeBits = 64;
+		int bits[] = new int[numVars];
+		for (int v = 0; v < numVars; v++) {
+			varBool[v] = varList.getType(v) instanceof TypeBool;
+			varLow[v] = varBool[v] ? 0 : varList.getLow(v);
+			varMax[v] = varBool[v] ? 1 : (long) varList.getHigh(v) - varList.getLow(v);
+			bits[v] = 64 - Long.numberOfLeadingZeros(varMax[v]);
+			varMask[v] = (1L << bits[v]) - 1;
+			if (bits[v] > freeBits) {
+				word++;
+				freeBits = 64;
+			}
+			freeBits -= bits[v];
+			varWord[v] = word;
+			varShift[v] = freeBits;
+		}
+		numWords = word + 1;
+		key = new long[numWords];
+		clear();
+	}
+
+	@Override
+	public void clear()
+	{
+		packed = new long[16 * numWords];
+		size = 0;
+		table = new int[32];
+		indexOfLastAdd = -1;
+		fallback = null;
+	}
+
+	/**
+	 * Packs {@code state} into {@code key}.
+	 * @return false if the state cannot be packed
+	 */
+	protected boolean pack(State state)
+	{
+		if (state.varValues.length != numVars) {
+			return false;
+		}
+		Arrays.fill(key, 0L);
+		for (int v = 0; v < numVars; v++) {
+			Object value = state.varValues[v];
+			long encoded;
+			if (varBool[v] && value instanceof Boolean) {
+				encoded = ((Boolean) value) ? 1 : 0;
+			} else if (!varBool[v] && value instanceof Integer) {
+				encoded = (Integer) value - varLow[v];
+			} else {
+				return false;
+			}
+			if (encoded < 0 || encoded > varMax[v]) {
+				return false;
+			}
+			key[varWord[v]] |= encoded << varShift[v];
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the State of index {@code index}.
+	 */
+	protected State unpack(int index)
+	{
+		State state = new State(numVars);
+		for (int v = 0; v < numVars; v++) {
+			long encoded = (packed[index * numWords + varWord[v]] >>> varShift[v]) & varMask[v];
+			state.setValue(v, varBool[v] ? (Object) (encoded != 0) : (Object) (int) (encoded + varLow[v]));
+		}
+		return state;
+	}
+
+	/**
+	 * Hash of the packed state in {@code words}, starting at {@code offset}.
+	 */
+	private int hash(long words[], int offset)
+	{
+		long h = 0;
+		for (int w = 0; w < numWords; w++) {
+			h = (h ^ words[offset + w]) * 0x9E3779B97F4A7C15L;
+		}
+		// the values are in the most significant bits, so mix them into the lowest bits used for the slot (MurmurHash3 finaliser)
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	/**
+	 * Returns the index of the state packed in {@code key}, or -1 if it is not in the set.
+	 * In the latter case, {@code slot} is the free slot of the hash table where it belongs.
+	 */
+	private int find()
+	{
+		int mask = table.length - 1;
+		for (slot = hash(key, 0) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int index = table[slot] - 1;
+			boolean equal = true;
+			for (int w = 0; w < numWords; w++) {
+				if (packed[index * numWords + w] != key[w]) {
+					equal = false;
+					break;
+				}
+			}
+			if (equal) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Moves all states into a sorted IndexedSet, which is used from now on.
+	 */
+	protected void switchToFallback()
+	{
+		IndexedSet<State> set = new IndexedSet<State>(true);
+		for (int i = 0; i < size; i++) {
+			set.add(unpack(i));
+		}
+		fallback = set;
+		packed = null;
+		table = null;
+	}
+
+	@Override
+	public boolean add(State state)
+	{
+		if (fallback == null && !pack(state)) {
+			switchToFallback();
+		}
+		if (fallback != null) {
+			boolean added = fallback.add(state);
+			indexOfLastAdd = fallback.getIndexOfLastAdd();
+			return added;
+		}
+		int index = find();
+		if (index >= 0) {
+			indexOfLastAdd = index;
+			return false;
+		}
+		// Store the new state
+		if ((size + 1) * numWords > packed.length) {
+			packed = Arrays.copyOf(packed, 2 * packed.length);
+		}
+		System.arraycopy(key, 0, packed, size * numWords, numWords);
+		table[slot] = size + 1;
+		indexOfLastAdd = size;
+		size++;
+		// Keep the hash table at most half full
+		if (2 * size > table.length) {
+			int newTable[] = new int[2 * table.length];
+			int mask = newTable.length - 1;
+			for (int i = 0; i < size; i++) {
+				int s = hash(packed, i * numWords) & mask;
+				while (newTable[s] != 0) {
+					s = (s + 1) & mask;
+				}
+				newTable[s] = i + 1;
+			}
+			table = newTable;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean contains(State state)
+	{
+		return get(state) >= 0;
+	}
+
+	/**
+	 * Get the index of {@code state}, or -1 if it is not in the set.
+	 */
+	@Override
+	public int get(State state)
+	{
+		if (fallback != null) {
+			return fallback.contains(state) ? fallback.get(state) : -1;
+		}
+		return pack(state) ? find() : -1;
+	}
+
+	@Override
+	public int getIndexOfLastAdd()
+	{
+		return indexOfLastAdd;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size() == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return fallback != null ? fallback.size() : size;
+	}
+
+	/**
+	 * Get access to the underlying set of map entries.
+	 * Since the states are stored packed, this creates all the states (ordered by index).
+	 */
+	@Override
+	public Set<Map.Entry<State, Integer>> getEntrySet()
+	{
+		if (fallback != null) {
+			return fallback.getEntrySet();
+		}
+		Map<State, Integer> map = new LinkedHashMap<State, Integer>(2 * size);
+		for (int i = 0; i < size; i++) {
+			map.put(unpack(i), i);
+		}
+		return map.entrySet();
+	}
+
+	@Override
+	public ArrayList<State> toArrayList()
+	{
+		ArrayList<State> list = new ArrayList<State>(size());
+		toArrayList(list);
+		return list;
+	}
+
+	@Override
+	public void toArrayList(ArrayList<State> list)
+	{
+		if (fallback != null) {
+			fallback.toArrayList(list);
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			list.add(unpack(i));
+		}
+	}
+
+	@Override
+	public ArrayList<State> toPermutedArrayList(int permut[])
+	{
+		ArrayList<State> list = new ArrayList<State>(size());
+		toPermutedArrayList(permut, list);
+		return list;
+	}
+
+	@Override
+	public void toPermutedArrayList(int permut[], ArrayList<State> list)
+	{
+		if (fallback != null) {
+			fallback.toPermutedArrayList(permut, list);
+			return;
+		}
+		for (int i = 0; i < size; i++) {
+			list.add(null);
+		}
+		for (int i = 0; i < size; i++) {
+			list.set(permut[i], unpack(i));
+		}
+	}
+
+	/**
+	 * Build sort permutation, i.e. a permutation (integer array) mapping current indices
+	 * to new indices under the ordering of {@link State#compareTo(State)}.
+	 */
+	@Override
+	public int[] buildSortingPermutation()
+	{
+		if (fallback != null) {
+			return fallback.buildSortingPermutation();
+		}
+		// Sort the indices by their packed states (merge sort, which needs no boxing)
+		int sorted[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			sorted[i] = i;
+		}
+		int buffer[] = new int[size];
+		for (int width = 1; width < size; width *= 2) {
+			for (int lo = 0; lo < size; lo += 2 * width) {
+				int mid = Math.min(lo + width, size);
+				int hi = Math.min(lo + 2 * width, size);
+				int i = lo, j = mid, k = lo;
+				while (i < mid && j < hi) {
+					buffer[k++] = (compare(sorted[j], sorted[i]) < 0) ? sorted[j++] : sorted[i++];
+				}
+				while (i < mid) {
+					buffer[k++] = sorted[i++];
+				}
+				while (j < hi) {
+					buffer[k++] = sorted[j++];
+				}
+			}
+			int tmp[] = sorted;
+			sorted = buffer;
+			buffer = tmp;
+		}
+		int perm[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			perm[sorted[i]] = i;
+		}
+		return perm;
+	}
+
+	/**
+	 * Compares the packed states of indices {@code i} and {@code j} (in the style of {@link State#compareTo(State)}).
+	 */
+	private int compare(int i, int j)
+	{
+		for (int w = 0; w < numWords; w++) {
+			int c = Long.compareUnsigned(packed[i * numWords + w], packed[j * numWords + w]);
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return fallback != null ? fallback.toString() : toArrayList().toString();
+	}
+}
@@ -0,0 +1,221 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package explicit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import prism.PrismUtils;
+
+/**
+ * Runs row-wise kernels, e.g. the rows of a matrix-vector multiplication, on a fork-join pool.
+ * The rows (states) are given as an array, which is split into blocks of consecutive entries
+ * that are processed in parallel. As each row is computed independently of the others,
+ * the results do not depend on the number of threads.
+ * <br>
+ * The pools are shared process-wide, one per number of threads (see {@link #getInstance(int)}).
+ */
+public class ParallelRowKernels
+{
+	/** Kernel applied to the rows {@code rows[from]}, ..., {@code rows[to-1]} */
+	@FunctionalInterface
+	public interface RowBlockKernel
+	{
+		public void apply(int rows[], int from, int to);
+	}
+
+	/** Check of the rows {@code rows[from]}, ..., {@code rows[to-1]} */
+	@FunctionalInterface
+	public interface RowBlockCheck
+	{
+		public boolean test(int rows[], int from, int to);
+	}
+
+	/** Minimum number of rows for which the rows are processed in parallel */
+	public static final int MIN_PARALLEL_ROWS = 4096;
+	/** Number of blocks per thread (more blocks balance rows with different numbers of transitions better) */
+	private static final int BLOCKS_PER_THREAD = 4;
+
+	/** Shared instances, by number of threads */
+	private static final Map<Integer, ParallelRowKernels> instances = new HashMap<Integer, ParallelRowKernels>();
+
+	/** Number of threads */
+	private final int numThreads;
+	/** Pool running the blocks (null for a single thread) */
+	private final ForkJoinPool pool;
+
+	private ParallelRowKernels(int numThreads)
+	{
+		this.numThreads = numThreads;
+		this.pool = numThreads > 1 ? new ForkJoinPool(numThreads) : null;
+	}
+
+	/**
+	 * Returns the (shared) kernels running on {@code numThreads} threads.
+	 */
+	public static synchronized ParallelRowKernels getInstance(int numThreads)
+	{
+		numThreads = Math.max(1, numThreads);
+		ParallelRowKernels kernels = instances.get(numThreads);
+		if (kernels == null) {
+			kernels = new ParallelRowKernels(numThreads);
+			instances.put(numThreads, kernels);
+		}
+		return kernels;
+	}
+
+	/**
+	 * Returns the number of threads.
+	 */
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	/**
+	 * Is it worth processing {@code numRows} rows in parallel?
+	 */
+	public boolean isParallel(int numRows)
+	{
+		return pool != null && numRows >= MIN_PARALLEL_ROWS;
+	}
+
+	/**
+	 * Applies {@code kernel} to all of {@code rows}, in blocks processed in parallel.
+	 */
+	public void forEachBlock(int rows[], RowBlockKernel kernel)
+	{
+		if (!isParallel(rows.length)) {
+			kernel.apply(rows, 0, rows.length);
+			return;
+		}
+		pool.invoke(new BlockAction(rows, 0, rows.length, getBlockSize(rows.length), kernel));
+	}
+
+	/**
+	 * Returns true iff {@code check} holds for all blocks of {@code rows}, which are checked in parallel.
+	 */
+	public boolean allBlocks(int rows[], RowBlockCheck check)
+	{
+		if (!isParallel(rows.length)) {
+			return check.test(rows, 0, rows.length);
+		}
+		return pool.invoke(new BlockCheckTask(rows, 0, rows.length, getBlockSize(rows.length), check));
+	}
+
+	/**
+	 * Parallel version of {@link PrismUtils#doublesAreClose(double[], double[], java.util.PrimitiveIterator.OfInt, double, boolean)},
+	 * checking the indices in {@code rows}.
+	 */
+	public boolean doublesAreClose(double d1[], double d2[], int rows[], double epsilon, boolean abs)
+	{
+		return allBlocks(rows, (r, from, to) -> {
+			for (int k = from; k < to; k++) {
+				if (!PrismUtils.doublesAreClose(d1[r[k]], d2[r[k]], epsilon, abs))
+					return false;
+			}
+			return true;
+		});
+	}
+
+	private int getBlockSize(int numRows)
+	{
+		return Math.max(1, (numRows + numThreads * BLOCKS_PER_THREAD - 1) / (numThreads * BLOCKS_PER_THREAD));
+	}
+
+	/**
+	 * Fork-join action applying a kernel to the rows {@code from}, ..., {@code to-1}, split into blocks.
+	 */
+	private static class BlockAction extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private final int rows[];
+		private final int from;
+		private final int to;
+		private final int blockSize;
+		private final RowBlockKernel kernel;
+
+		private BlockAction(int rows[], int from, int to, int blockSize, RowBlockKernel kernel)
+		{
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+			this.blockSize = blockSize;
+			this.kernel = kernel;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (to - from <= blockSize) {
+				kernel.apply(rows, from, to);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new BlockAction(rows, from, mid, blockSize, kernel), new BlockAction(rows, mid, to, blockSize, kernel));
+			}
+		}
+	}
+
+	/**
+	 * Fork-join task checking the rows {@code from}, ..., {@code to-1}, split into blocks.
+	 */
+	private static class BlockCheckTask extends RecursiveTask<Boolean>
+	{
+		private static final long serialVersionUID = 1L;
+		private final int rows[];
+		private final int from;
+		private final int to;
+		private final int blockSize;
+		private final RowBlockCheck check;
+
+		private BlockCheckTask(int rows[], int from, int to, int blockSize, RowBlockCheck check)
+		{
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+			this.blockSize = blockSize;
+			this.check = check;
+		}
+
+		@Override
+		protected Boolean compute()
+		{
+			if (to - from <= blockSize) {
+				return check.test(rows, from, to);
+			}
+			int mid = (from + to) >>> 1;
+			BlockCheckTask left = new BlockCheckTask(rows, from, mid, blockSize, check);
+			BlockCheckTask right = new BlockCheckTask(rows, mid, to, blockSize, check);
+			left.fork();
+			boolean rightResult = right.compute();
+			return left.join() && rightResult;
+		}
+	}
+}
@@ -79,6 +79,12 @@ public class ProbModelChecker extends NonProbModelChecker
 	protected double termCritParam = 1e-8;
 	// Max iterations for numerical solution
 	protected int maxIters = 100000;
+	// Number of threads for the matrix-vector multiplications of iterative numerical methods
+	protected int iterationThreads = 1;
+	// Preconditioner for Krylov subspace methods (GMRES, BiCGStab)
+	protected KrylovSolver.Preconditioner krylovPreconditioner = KrylovSolver.Preconditioner.ILU0;
+	// Dimension of the Krylov subspaces of restarted GMRES
+	protected int gmresRestart = 30;
 	// Use precomputation algorithms in model checking?
 	protected boolean precomp = true;
 	protected boolean prob0 = true;
@@ -107,7 +113,7 @@ public class ProbModelChecker extends NonProbModelChecker
 
 	// Method used for numerical solution
 	public enum LinEqMethod {
-		POWER, JACOBI, GAUSS_SEIDEL, BACKWARDS_GAUSS_SEIDEL, JOR, SOR, BACKWARDS_SOR;
+		POWER, JACOBI, GAUSS_SEIDEL, BACKWARDS_GAUSS_SEIDEL, JOR, SOR, BACKWARDS_SOR, GMRES, BICGSTAB;
 		public String fullName()
 		{
 			switch (this) {
@@ -125,10 +131,19 @@ public class ProbModelChecker extends NonProbModelChecker
 				return "SOR";
 			case BACKWARDS_SOR:
 				return "Backwards SOR";
+			case GMRES:
+				return "GMRES";
+			case BICGSTAB:
+				return "BiCGStab";
 			default:
 				return this.toString();
 			}
 		}
+		/** Is this a Krylov subspace method (see {@link KrylovSolver})? */
+		public boolean isKrylov()
+		{
+			return this == GMRES || this == BICGSTAB;
+		}
 	};
 
 	// Method used for solving MDPs
@@ -194,6 +209,10 @@ public class ProbModelChecker extends NonProbModelChecker
 				setLinEqMethod(LinEqMethod.SOR);
 			} else if (s.equals("Backwards SOR")) {
 				setLinEqMethod(LinEqMethod.BACKWARDS_SOR);
+			} else if (s.equals("GMRES")) {
+				setLinEqMethod(LinEqMethod.GMRES);
+			} else if (s.equals("BiCGStab")) {
+				setLinEqMethod(LinEqMethod.BICGSTAB);
 			} else {
 				throw new PrismNotSupportedException("Explicit engine does not support linear equation solution method \"" + s + "\"");
 			}
@@ -225,6 +244,21 @@ public class ProbModelChecker extends NonProbModelChecker
 			setTermCritParam(settings.getDouble(PrismSettings.PRISM_TERM_CRIT_PARAM));
 			// PRISM_MAX_ITERS
 			setMaxIters(settings.getInteger(PrismSettings.PRISM_MAX_ITERS));
+			// PRISM_ITERATION_THREADS
+			setIterationThreads(settings.getInteger(PrismSettings.PRISM_ITERATION_THREADS));
+			// PRISM_KRYLOV_PRECONDITIONER
+			s = settings.getString(PrismSettings.PRISM_KRYLOV_PRECONDITIONER);
+			if (s.equals("None")) {
+				setKrylovPreconditioner(KrylovSolver.Preconditioner.NONE);
+			} else if (s.equals("Jacobi")) {
+				setKrylovPreconditioner(KrylovSolver.Preconditioner.JACOBI);
+			} else if (s.equals("ILU(0)")) {
+				setKrylovPreconditioner(KrylovSolver.Preconditioner.ILU0);
+			} else {
+				throw new PrismNotSupportedException("Unknown Krylov preconditioner \"" + s + "\"");
+			}
+			// PRISM_GMRES_RESTART
+			setGMRESRestart(settings.getInteger(PrismSettings.PRISM_GMRES_RESTART));
 			// PRISM_PRECOMPUTATION
 			setPrecomp(settings.getBoolean(PrismSettings.PRISM_PRECOMPUTATION));
 			// PRISM_PROB0
@@ -262,6 +296,9 @@ public class ProbModelChecker extends NonProbModelChecker
 		setTermCrit(other.getTermCrit());
 		setTermCritParam(other.getTermCritParam());
 		setMaxIters(other.getMaxIters());
+		setIterationThreads(other.getIterationThreads());
+		setKrylovPreconditioner(other.getKrylovPreconditioner());
+		setGMRESRestart(other.getGMRESRestart());
 		setPrecomp(other.getPrecomp());
 		setProb0(other.getProb0());
 		setProb1(other.getProb1());
@@ -282,6 +319,9 @@ public class ProbModelChecker extends NonProbModelChecker
 		mainLog.print("termCrit = " + termCrit + " ");
 		mainLog.print("termCritParam = " + termCritParam + " ");
 		mainLog.print("maxIters = " + maxIters + " ");
+		mainLog.print("iterationThreads = " + iterationThreads + " ");
+		mainLog.print("krylovPreconditioner = " + krylovPreconditioner + " ");
+		mainLog.print("gmresRestart = " + gmresRestart + " ");
 		mainLog.print("precomp = " + precomp + " ");
 		mainLog.print("prob0 = " + prob0 + " ");
 		mainLog.print("prob1 = " + prob1 + " ");
@@ -352,6 +392,30 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.maxIters = maxIters;
 	}
 
+	/**
+	 * Set number of threads for the matrix-vector multiplications of iterative numerical methods.
+	 */
+	public void setIterationThreads(int iterationThreads)
+	{
+		this.iterationThreads = Math.max(1, iterationThreads);
+	}
+
+	/**
+	 * Set preconditioner for Krylov subspace methods (GMRES, BiCGStab).
+	 */
+	public void setKrylovPreconditioner(KrylovSolver.Preconditioner krylovPreconditioner)
+	{
+		this.krylovPreconditioner = krylovPreconditioner;
+	}
+
+	/**
+	 * Set dimension of the Krylov subspaces of restarted GMRES.
+	 */
+	public void setGMRESRestart(int gmresRestart)
+	{
+		this.gmresRestart = Math.max(1, gmresRestart);
+	}
+
 	/**
 	 * Set whether or not to use precomputation (Prob0, Prob1, etc.).
 	 */
@@ -455,6 +519,30 @@ public class ProbModelChecker extends NonProbModelChecker
 		return maxIters;
 	}
 
+	public int getIterationThreads()
+	{
+		return iterationThreads;
+	}
+
+	public KrylovSolver.Preconditioner getKrylovPreconditioner()
+	{
+		return krylovPreconditioner;
+	}
+
+	public int getGMRESRestart()
+	{
+		return gmresRestart;
+	}
+
+	/**
+	 * Get the kernels for processing the states of iterative numerical methods in parallel,
+	 * or null if they are processed sequentially.
+	 */
+	public ParallelRowKernels getParallelRowKernels()
+	{
+		return iterationThreads > 1 ? ParallelRowKernels.getInstance(iterationThreads) : null;
+	}
+
 	public boolean getPrecomp()
 	{
 		return precomp;
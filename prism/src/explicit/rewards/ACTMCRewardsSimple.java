@@ -117,12 +117,15 @@ public class ACTMCRewardsSimple implements MCRewards
 		
 		// merge all exponential event rewards and weight them by the rates
 		for (int s = 0; s < gsmpModel.getNumStates() ; ++s) {
-			List<GSMPEvent> activeExpEvents = gsmpModel.getActiveEvents(s);
-			activeExpEvents.removeIf(e -> !e.isExponential());
+			int numActiveEvents = gsmpModel.getNumActiveEvents(s);
 			
 			Map<Integer, Double> sumsOfRates = new HashMap<Integer, Double>();
 			Map<Integer, Double> ctmcRews = new HashMap<Integer, Double>();
-			for (GSMPEvent actExpEvent : activeExpEvents) {
+			for (int e = 0; e < numActiveEvents; ++e) {
+				GSMPEvent actExpEvent = gsmpModel.getActiveEvent(s, e);
+				if (!actExpEvent.isExponential()) {
+					continue;
+				}
 				for (Integer t : actExpEvent.getTransitions(s).getSupport()) {
 					double rew = gsmpRew.getTransitionReward(actExpEvent.getIdentifier(), s, t);
 					if (rew == 0.0) {
@@ -307,4 +310,23 @@ public class ACTMCRewardsSimple implements MCRewards
 		}
 	}
 	
+	@Override
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (o == null || !(o instanceof ACTMCRewardsSimple))
+			return false;
+		ACTMCRewardsSimple other = (ACTMCRewardsSimple)o;
+		
+		return (stateRewards.equals(other.stateRewards) &&
+				mergedStateRewards.equals(other.mergedStateRewards) &&
+				eventTransitionRewards.equals(other.eventTransitionRewards) &&
+				ctmcTransitionRewards.equals(other.ctmcTransitionRewards));
+	}
+	
+	@Override
+	public int hashCode() {
+		return stateRewards.hashCode() + 31 * eventTransitionRewards.hashCode();
+	}
+	
 }
@@ -255,8 +255,9 @@ public class ConstructRewards
 					candidateRewardSynchs.add(item.getSynch());
 				}
 			}
-			List<GSMPEvent> actEvents = gsmp.getActiveEvents(j);
-			for (GSMPEvent actEvent : actEvents) {
+			int numActEvents = gsmp.getNumActiveEvents(j);
+			for (int e = 0; e < numActEvents; ++e) {
+				GSMPEvent actEvent = gsmp.getActiveEvent(j, e);
 				for (Integer k : actEvent.getTransitions(j).getSupport()) {
 					Set<String> eventActions = actEvent.getActionLabels(j, k);
 					if (eventActions == null) { 
@@ -0,0 +1,505 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package parser;
+
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionFunc;
+import parser.ast.ExpressionITE;
+import parser.ast.ExpressionLiteral;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
+import parser.type.TypeInt;
+import prism.PrismLangException;
+
+/**
+ * Compiles (type-checked) expressions into evaluators on states, i.e. trees of closures
+ * that are specialised to the types of the subexpressions when compiling,
+ * and that read the variable values from {@link State#varValues} directly.
+ * This avoids the dispatch on operators and types, and the boxing of intermediate results,
+ * that is done every time an expression is interpreted (see {@link Expression#evaluate(State)}).
+ * <br>
+ * The evaluators give the same results (and errors) as the interpretation of the expressions.
+ * Parts of an expression that are not supported (e.g. constants, formulas or properties)
+ * are interpreted, so the expressions should have their constants replaced before compiling.
+ * The evaluators are stateless, so they can be shared between threads.
+ */
+public class ExpressionCompiler
+{
+	/** Compiled expression evaluating to a boolean */
+	@FunctionalInterface
+	public interface BooleanEvaluator
+	{
+		public boolean evaluate(State state) throws PrismLangException;
+	}
+
+	/** Compiled expression evaluating to an integer */
+	@FunctionalInterface
+	public interface IntEvaluator
+	{
+		public int evaluate(State state) throws PrismLangException;
+	}
+
+	/** Compiled expression evaluating to a double */
+	@FunctionalInterface
+	public interface DoubleEvaluator
+	{
+		public double evaluate(State state) throws PrismLangException;
+	}
+
+	/** Compiled expression evaluating to an Object, as {@link Expression#evaluate(State)} */
+	@FunctionalInterface
+	public interface ValueEvaluator
+	{
+		public Object evaluate(State state) throws PrismLangException;
+	}
+
+	// Kinds of the values that an expression is evaluated to (regardless of any coercion)
+	private static final int UNKNOWN = 0;
+	private static final int BOOLEAN = 1;
+	private static final int INT = 2;
+	private static final int DOUBLE = 3;
+
+	/**
+	 * Compile an expression to be evaluated as a boolean (see {@link Expression#evaluateBoolean(State)}).
+	 */
+	public static BooleanEvaluator compileBoolean(Expression expr)
+	{
+		if (isParentheses(expr)) {
+			return compileBoolean(((ExpressionUnaryOp) expr).getOperand());
+		}
+		if (kindOf(expr) == BOOLEAN) {
+			if (expr instanceof ExpressionLiteral) {
+				boolean value = ((Boolean) ((ExpressionLiteral) expr).getValue()).booleanValue();
+				return s -> value;
+			}
+			if (expr instanceof ExpressionUnaryOp) {
+				BooleanEvaluator op = compileBoolean(((ExpressionUnaryOp) expr).getOperand());
+				return s -> !op.evaluate(s);
+			}
+			if (expr instanceof ExpressionBinaryOp) {
+				return compileBooleanBinaryOp((ExpressionBinaryOp) expr);
+			}
+		}
+		if (expr instanceof ExpressionVar && ((ExpressionVar) expr).getIndex() >= 0) {
+			int index = ((ExpressionVar) expr).getIndex();
+			return s -> {
+				Object value = s.varValues[index];
+				return (value instanceof Boolean) ? ((Boolean) value).booleanValue() : expr.evaluateBoolean(s);
+			};
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) expr;
+			BooleanEvaluator cond = compileBoolean(ite.getOperand1());
+			BooleanEvaluator op1 = compileBoolean(ite.getOperand2());
+			BooleanEvaluator op2 = compileBoolean(ite.getOperand3());
+			return s -> cond.evaluate(s) ? op1.evaluate(s) : op2.evaluate(s);
+		}
+		return s -> expr.evaluateBoolean(s);
+	}
+
+	/**
+	 * Compile an expression to be evaluated as an integer (see {@link Expression#evaluateInt(State)}).
+	 */
+	public static IntEvaluator compileInt(Expression expr)
+	{
+		if (isParentheses(expr)) {
+			return compileInt(((ExpressionUnaryOp) expr).getOperand());
+		}
+		switch (kindOf(expr)) {
+		case BOOLEAN:
+			BooleanEvaluator b = compileBoolean(expr);
+			return s -> b.evaluate(s) ? 1 : 0;
+		case INT:
+			if (expr instanceof ExpressionLiteral) {
+				int value = ((Integer) ((ExpressionLiteral) expr).getValue()).intValue();
+				return s -> value;
+			}
+			if (expr instanceof ExpressionUnaryOp) {
+				IntEvaluator op = compileInt(((ExpressionUnaryOp) expr).getOperand());
+				return s -> -op.evaluate(s);
+			}
+			if (expr instanceof ExpressionBinaryOp) {
+				return compileIntBinaryOp((ExpressionBinaryOp) expr);
+			}
+			if (expr instanceof ExpressionFunc) {
+				return compileIntFunc((ExpressionFunc) expr);
+			}
+			break;
+		}
+		if (expr instanceof ExpressionVar && ((ExpressionVar) expr).getIndex() >= 0) {
+			int index = ((ExpressionVar) expr).getIndex();
+			return s -> {
+				Object value = s.varValues[index];
+				return (value instanceof Integer) ? ((Integer) value).intValue() : expr.evaluateInt(s);
+			};
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) expr;
+			BooleanEvaluator cond = compileBoolean(ite.getOperand1());
+			IntEvaluator op1 = compileInt(ite.getOperand2());
+			IntEvaluator op2 = compileInt(ite.getOperand3());
+			return s -> cond.evaluate(s) ? op1.evaluate(s) : op2.evaluate(s);
+		}
+		return s -> expr.evaluateInt(s);
+	}
+
+	/**
+	 * Compile an expression to be evaluated as a double (see {@link Expression#evaluateDouble(State)}).
+	 */
+	public static DoubleEvaluator compileDouble(Expression expr)
+	{
+		if (isParentheses(expr)) {
+			return compileDouble(((ExpressionUnaryOp) expr).getOperand());
+		}
+		switch (kindOf(expr)) {
+		case BOOLEAN:
+			BooleanEvaluator b = compileBoolean(expr);
+			return s -> b.evaluate(s) ? 1.0 : 0.0;
+		case INT:
+			IntEvaluator i = compileInt(expr);
+			return s -> i.evaluate(s);
+		case DOUBLE:
+			if (expr instanceof ExpressionLiteral) {
+				double value = ((Double) ((ExpressionLiteral) expr).getValue()).doubleValue();
+				return s -> value;
+			}
+			if (expr instanceof ExpressionUnaryOp) {
+				DoubleEvaluator op = compileDouble(((ExpressionUnaryOp) expr).getOperand());
+				return s -> -op.evaluate(s);
+			}
+			if (expr instanceof ExpressionBinaryOp) {
+				return compileDoubleBinaryOp((ExpressionBinaryOp) expr);
+			}
+			if (expr instanceof ExpressionFunc) {
+				return compileDoubleFunc((ExpressionFunc) expr);
+			}
+			break;
+		}
+		if (expr instanceof ExpressionVar && ((ExpressionVar) expr).getIndex() >= 0) {
+			int index = ((ExpressionVar) expr).getIndex();
+			return s -> {
+				Object value = s.varValues[index];
+				return (value instanceof Integer) ? ((Integer) value).intValue() : expr.evaluateDouble(s);
+			};
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) expr;
+			BooleanEvaluator cond = compileBoolean(ite.getOperand1());
+			DoubleEvaluator op1 = compileDouble(ite.getOperand2());
+			DoubleEvaluator op2 = compileDouble(ite.getOperand3());
+			return s -> cond.evaluate(s) ? op1.evaluate(s) : op2.evaluate(s);
+		}
+		return s -> expr.evaluateDouble(s);
+	}
+
+	/**
+	 * Compile an expression to be evaluated as an Object (see {@link Expression#evaluate(State)}),
+	 * e.g. the value assigned to a variable by an update.
+	 */
+	public static ValueEvaluator compile(Expression expr)
+	{
+		if (isParentheses(expr)) {
+			return compile(((ExpressionUnaryOp) expr).getOperand());
+		}
+		if (expr instanceof ExpressionLiteral) {
+			Object value = ((ExpressionLiteral) expr).getValue();
+			return s -> value;
+		}
+		switch (kindOf(expr)) {
+		case BOOLEAN:
+			BooleanEvaluator b = compileBoolean(expr);
+			return s -> Boolean.valueOf(b.evaluate(s));
+		case INT:
+			IntEvaluator i = compileInt(expr);
+			return s -> Integer.valueOf(i.evaluate(s));
+		case DOUBLE:
+			DoubleEvaluator d = compileDouble(expr);
+			return s -> Double.valueOf(d.evaluate(s));
+		}
+		if (expr instanceof ExpressionVar && ((ExpressionVar) expr).getIndex() >= 0) {
+			int index = ((ExpressionVar) expr).getIndex();
+			return s -> {
+				Object value = s.varValues[index];
+				return (value != null) ? value : expr.evaluate(s);
+			};
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) expr;
+			BooleanEvaluator cond = compileBoolean(ite.getOperand1());
+			ValueEvaluator op1 = compile(ite.getOperand2());
+			ValueEvaluator op2 = compile(ite.getOperand3());
+			return s -> cond.evaluate(s) ? op1.evaluate(s) : op2.evaluate(s);
+		}
+		return s -> expr.evaluate(s);
+	}
+
+	// Private helpers
+
+	/**
+	 * Is this expression in parentheses (which evaluates to the value of its operand)?
+	 */
+	private static boolean isParentheses(Expression expr)
+	{
+		return expr instanceof ExpressionUnaryOp && ((ExpressionUnaryOp) expr).getOperator() == ExpressionUnaryOp.PARENTH;
+	}
+
+	/**
+	 * Are both operands of this binary operator integers (in which case arithmetic and comparisons are on integers)?
+	 */
+	private static boolean isIntOperation(ExpressionBinaryOp expr)
+	{
+		return expr.getOperand1().getType() == TypeInt.getInstance() && expr.getOperand2().getType() == TypeInt.getInstance();
+	}
+
+	/**
+	 * Get the kind of the value that the interpretation of an expression returns,
+	 * or UNKNOWN if this depends on the state (e.g. for variables) or if the expression is not supported.
+	 */
+	private static int kindOf(Expression expr)
+	{
+		if (expr instanceof ExpressionLiteral) {
+			Object value = ((ExpressionLiteral) expr).getValue();
+			if (value instanceof Boolean)
+				return BOOLEAN;
+			if (value instanceof Integer)
+				return INT;
+			if (value instanceof Double)
+				return DOUBLE;
+		} else if (expr instanceof ExpressionUnaryOp) {
+			switch (((ExpressionUnaryOp) expr).getOperator()) {
+			case ExpressionUnaryOp.NOT:
+				return BOOLEAN;
+			case ExpressionUnaryOp.MINUS:
+				return (expr.getType() instanceof TypeInt) ? INT : DOUBLE;
+			case ExpressionUnaryOp.PARENTH:
+				return kindOf(((ExpressionUnaryOp) expr).getOperand());
+			}
+		} else if (expr instanceof ExpressionBinaryOp) {
+			switch (((ExpressionBinaryOp) expr).getOperator()) {
+			case ExpressionBinaryOp.IMPLIES:
+			case ExpressionBinaryOp.IFF:
+			case ExpressionBinaryOp.OR:
+			case ExpressionBinaryOp.AND:
+			case ExpressionBinaryOp.EQ:
+			case ExpressionBinaryOp.NE:
+			case ExpressionBinaryOp.GT:
+			case ExpressionBinaryOp.GE:
+			case ExpressionBinaryOp.LT:
+			case ExpressionBinaryOp.LE:
+				return BOOLEAN;
+			case ExpressionBinaryOp.PLUS:
+			case ExpressionBinaryOp.MINUS:
+			case ExpressionBinaryOp.TIMES:
+				return isIntOperation((ExpressionBinaryOp) expr) ? INT : DOUBLE;
+			case ExpressionBinaryOp.DIVIDE:
+				return DOUBLE;
+			}
+		} else if (expr instanceof ExpressionFunc) {
+			switch (((ExpressionFunc) expr).getNameCode()) {
+			case ExpressionFunc.MIN:
+			case ExpressionFunc.MAX:
+			case ExpressionFunc.POW:
+				return (expr.getType() instanceof TypeInt) ? INT : DOUBLE;
+			case ExpressionFunc.FLOOR:
+			case ExpressionFunc.CEIL:
+			case ExpressionFunc.MOD:
+				return INT;
+			case ExpressionFunc.LOG:
+				return DOUBLE;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	private static BooleanEvaluator compileBooleanBinaryOp(ExpressionBinaryOp expr)
+	{
+		int op = expr.getOperator();
+		switch (op) {
+		case ExpressionBinaryOp.IMPLIES:
+		case ExpressionBinaryOp.IFF:
+		case ExpressionBinaryOp.OR:
+		case ExpressionBinaryOp.AND:
+			BooleanEvaluator b1 = compileBoolean(expr.getOperand1());
+			BooleanEvaluator b2 = compileBoolean(expr.getOperand2());
+			switch (op) {
+			case ExpressionBinaryOp.IMPLIES:
+				return s -> !b1.evaluate(s) || b2.evaluate(s);
+			case ExpressionBinaryOp.IFF:
+				return s -> b1.evaluate(s) == b2.evaluate(s);
+			case ExpressionBinaryOp.OR:
+				return s -> b1.evaluate(s) || b2.evaluate(s);
+			default:
+				return s -> b1.evaluate(s) && b2.evaluate(s);
+			}
+		}
+		// Relational operators
+		if (isIntOperation(expr)) {
+			IntEvaluator i1 = compileInt(expr.getOperand1());
+			IntEvaluator i2 = compileInt(expr.getOperand2());
+			switch (op) {
+			case ExpressionBinaryOp.EQ:
+				return s -> i1.evaluate(s) == i2.evaluate(s);
+			case ExpressionBinaryOp.NE:
+				return s -> i1.evaluate(s) != i2.evaluate(s);
+			case ExpressionBinaryOp.GT:
+				return s -> i1.evaluate(s) > i2.evaluate(s);
+			case ExpressionBinaryOp.GE:
+				return s -> i1.evaluate(s) >= i2.evaluate(s);
+			case ExpressionBinaryOp.LT:
+				return s -> i1.evaluate(s) < i2.evaluate(s);
+			default:
+				return s -> i1.evaluate(s) <= i2.evaluate(s);
+			}
+		} else {
+			DoubleEvaluator d1 = compileDouble(expr.getOperand1());
+			DoubleEvaluator d2 = compileDouble(expr.getOperand2());
+			switch (op) {
+			case ExpressionBinaryOp.EQ:
+				return s -> d1.evaluate(s) == d2.evaluate(s);
+			case ExpressionBinaryOp.NE:
+				return s -> d1.evaluate(s) != d2.evaluate(s);
+			case ExpressionBinaryOp.GT:
+				return s -> d1.evaluate(s) > d2.evaluate(s);
+			case ExpressionBinaryOp.GE:
+				return s -> d1.evaluate(s) >= d2.evaluate(s);
+			case ExpressionBinaryOp.LT:
+				return s -> d1.evaluate(s) < d2.evaluate(s);
+			default:
+				return s -> d1.evaluate(s) <= d2.evaluate(s);
+			}
+		}
+	}
+
+	private static IntEvaluator compileIntBinaryOp(ExpressionBinaryOp expr)
+	{
+		IntEvaluator i1 = compileInt(expr.getOperand1());
+		IntEvaluator i2 = compileInt(expr.getOperand2());
+		switch (expr.getOperator()) {
+		case ExpressionBinaryOp.PLUS:
+			return s -> i1.evaluate(s) + i2.evaluate(s);
+		case ExpressionBinaryOp.MINUS:
+			return s -> i1.evaluate(s) - i2.evaluate(s);
+		default:
+			return s -> i1.evaluate(s) * i2.evaluate(s);
+		}
+	}
+
+	private static DoubleEvaluator compileDoubleBinaryOp(ExpressionBinaryOp expr)
+	{
+		DoubleEvaluator d1 = compileDouble(expr.getOperand1());
+		DoubleEvaluator d2 = compileDouble(expr.getOperand2());
+		switch (expr.getOperator()) {
+		case ExpressionBinaryOp.PLUS:
+			return s -> d1.evaluate(s) + d2.evaluate(s);
+		case ExpressionBinaryOp.MINUS:
+			return s -> d1.evaluate(s) - d2.evaluate(s);
+		case ExpressionBinaryOp.TIMES:
+			return s -> d1.evaluate(s) * d2.evaluate(s);
+		default:
+			return s -> d1.evaluate(s) / d2.evaluate(s);
+		}
+	}
+
+	private static IntEvaluator compileIntFunc(ExpressionFunc expr)
+	{
+		switch (expr.getNameCode()) {
+		case ExpressionFunc.MIN:
+		case ExpressionFunc.MAX:
+			boolean min = expr.getNameCode() == ExpressionFunc.MIN;
+			IntEvaluator ops[] = new IntEvaluator[expr.getNumOperands()];
+			for (int i = 0; i < ops.length; i++) {
+				ops[i] = compileInt(expr.getOperand(i));
+			}
+			return s -> {
+				int res = ops[0].evaluate(s);
+				for (int i = 1; i < ops.length; i++) {
+					int j = ops[i].evaluate(s);
+					res = min ? ((j < res) ? j : res) : ((j > res) ? j : res);
+				}
+				return res;
+			};
+		case ExpressionFunc.FLOOR:
+		case ExpressionFunc.CEIL:
+			boolean floor = expr.getNameCode() == ExpressionFunc.FLOOR;
+			DoubleEvaluator d = compileDouble(expr.getOperand(0));
+			return s -> {
+				try {
+					return floor ? ExpressionFunc.evaluateFloor(d.evaluate(s)) : ExpressionFunc.evaluateCeil(d.evaluate(s));
+				} catch (PrismLangException e) {
+					e.setASTElement(expr);
+					throw e;
+				}
+			};
+		default:
+			boolean pow = expr.getNameCode() == ExpressionFunc.POW;
+			IntEvaluator i1 = compileInt(expr.getOperand(0));
+			IntEvaluator i2 = compileInt(expr.getOperand(1));
+			return s -> {
+				try {
+					return pow ? ExpressionFunc.evaluatePowInt(i1.evaluate(s), i2.evaluate(s)) : ExpressionFunc.evaluateMod(i1.evaluate(s), i2.evaluate(s));
+				} catch (PrismLangException e) {
+					e.setASTElement(expr);
+					throw e;
+				}
+			};
+		}
+	}
+
+	private static DoubleEvaluator compileDoubleFunc(ExpressionFunc expr)
+	{
+		switch (expr.getNameCode()) {
+		case ExpressionFunc.MIN:
+		case ExpressionFunc.MAX:
+			boolean min = expr.getNameCode() == ExpressionFunc.MIN;
+			DoubleEvaluator ops[] = new DoubleEvaluator[expr.getNumOperands()];
+			for (int i = 0; i < ops.length; i++) {
+				ops[i] = compileDouble(expr.getOperand(i));
+			}
+			return s -> {
+				double res = ops[0].evaluate(s);
+				for (int i = 1; i < ops.length; i++) {
+					double d = ops[i].evaluate(s);
+					res = min ? ((d < res) ? d : res) : ((d > res) ? d : res);
+				}
+				return res;
+			};
+		default:
+			boolean pow = expr.getNameCode() == ExpressionFunc.POW;
+			DoubleEvaluator d1 = compileDouble(expr.getOperand(0));
+			DoubleEvaluator d2 = compileDouble(expr.getOperand(1));
+			return s -> {
+				try {
+					return pow ? ExpressionFunc.evaluatePowDouble(d1.evaluate(s), d2.evaluate(s)) : ExpressionFunc.evaluateLog(d1.evaluate(s), d2.evaluate(s));
+				} catch (PrismLangException e) {
+					e.setASTElement(expr);
+					throw e;
+				}
+			};
+		}
+	}
+}
@@ -1019,7 +1019,7 @@ void DistributionDec(DistributionList distributionList) throws ParseException {E
 
 // Distribution definition
   static final public 
-ExpressionIdent DistributionDef(DistributionList distributionList, ExpressionIdent name) throws ParseException {TypeDistribution type = TypeDistribution.getInstance();
+ExpressionIdent DistributionDef(DistributionList distributionList, ExpressionIdent name) throws ParseException {TypeDistribution type = null;
         Expression firstParameter = null;
         Expression secondParameter = null;
     switch ((jj_ntk==-1)?jj_ntk_f():jj_ntk) {
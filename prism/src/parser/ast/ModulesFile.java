@@ -513,6 +513,60 @@ public class ModulesFile extends ASTElement implements ModelInfo
 		return formulaIdents.contains(ident) || constantIdents.contains(ident) || varIdents.contains(ident) || distributionIdents.contains(ident) || eventIdents.contains(ident);
 	}
 
+	/**
+	 * Check if the constants {@code constNames} (and any constants defined using them) are only used
+	 * within the parameters of non-exponential distributions, which in turn do not refer to any variables.
+	 * If so, changing the values of these constants only changes the parameters of the corresponding
+	 * GSMP events, but neither the state space nor the transitions of the model.
+	 */
+	public boolean areOnlyNonExponentialDistributionParameters(Collection<String> constNames) throws PrismLangException
+	{
+		Set<String> affected = new HashSet<String>(constNames);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < constantList.size(); i++) {
+				Expression constant = constantList.getConstant(i);
+				if (constant != null && !affected.contains(constantList.getConstantName(i)) && !Collections.disjoint(constant.getAllConstants(), affected)) {
+					affected.add(constantList.getConstantName(i));
+					changed = true;
+				}
+			}
+		}
+		List<ASTElement> others = new ArrayList<ASTElement>();
+		others.add(formulaList);
+		others.add(labelList);
+		others.addAll(globals);
+		for (int i = 0; i < getNumModules(); i++) {
+			others.add(getModule(i));
+		}
+		others.addAll(rewardStructs);
+		if (initStates != null) {
+			others.add(initStates);
+		}
+		for (ASTElement other : others) {
+			if (!Collections.disjoint(other.getAllConstants(), affected)) {
+				return false;
+			}
+		}
+		for (int i = 0; i < distributionList.size(); i++) {
+			Expression firstParam = distributionList.getFirstParameter(i);
+			Expression secondParam = distributionList.getSecondParameter(i);
+			boolean usesAffected = (firstParam != null && !Collections.disjoint(firstParam.getAllConstants(), affected))
+					|| (secondParam != null && !Collections.disjoint(secondParam.getAllConstants(), affected));
+			if (!usesAffected) {
+				continue;
+			}
+			if (distributionList.getDistributionType(i) == TypeDistributionExponential.getInstance()) {
+				return false;
+			}
+			if ((firstParam != null && !firstParam.getAllVars().isEmpty()) || (secondParam != null && !secondParam.getAllVars().isEmpty())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	// get individual module name
 	public String getModuleName(int i)
 	{
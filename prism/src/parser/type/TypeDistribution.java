@@ -26,19 +26,18 @@
 
 package parser.type;
 
+import java.util.SplittableRandom;
+
 import parser.Values;
 import parser.ast.Expression;
 import prism.PrismLangException;
 
 /**
  * Class representing a general continuous distribution type.
- * Intended as a superclass to more specialized classes, e.g. TypeDistributionDirac.
- * However, there may be a more proper use for it in the future.
+ * It is a superclass to more specialized classes, e.g. TypeDistributionDirac.
  */
-public class TypeDistribution extends Type {
+public abstract class TypeDistribution extends Type {
 
-	private static TypeDistribution singleton;
-	
 	public enum DistributionEnum {
 		DIRAC,
 		ERLANG,
@@ -48,11 +47,6 @@ public class TypeDistribution extends Type {
 		UNDEFINED
 	}
 	
-	static
-	{
-		singleton = new TypeDistribution();
-	}
-	
 	/**
 	 * e.g. "Erlang distribution"
 	 */
@@ -71,11 +65,6 @@ public class TypeDistribution extends Type {
 		return DistributionEnum.UNDEFINED;
 	}
 	
-	public static TypeDistribution getInstance()
-	{
-		return singleton;
-	}
-	
 	/**
 	 * @param firstType
 	 * @param secondType
@@ -118,5 +107,13 @@ public class TypeDistribution extends Type {
 		// TODO MAJO - extend the implementations for arbitrary precision
 	}
 	
+	/**
+	 * Draws a random value from this distribution type.
+	 * @param firstParameter value of the first distribution parameter
+	 * @param secondParameter value of the second distribution parameter
+	 * @param random source of randomness
+	 * @return randomly picked value (usually the time until the event occurs)
+	 */
+	public abstract double sample(double firstParameter, double secondParameter, SplittableRandom random);
 
 }
\ No newline at end of file
@@ -26,6 +26,8 @@
 
 package parser.type;
 
+import java.util.SplittableRandom;
+
 import parser.Values;
 import parser.ast.Expression;
 import prism.PrismLangException;
@@ -102,5 +104,9 @@ public class TypeDistributionDirac extends TypeDistribution {
 		}
 	}
 	
+	@Override
+	public double sample(double firstParameter, double secondParameter, SplittableRandom random) {
+		return firstParameter;
+	}
 
 }
\ No newline at end of file
@@ -26,6 +26,8 @@
 
 package parser.type;
 
+import java.util.SplittableRandom;
+
 import parser.Values;
 import parser.ast.Expression;
 import prism.PrismLangException;
@@ -98,10 +100,36 @@ public class TypeDistributionErlang extends TypeDistribution {
 	
 	@Override
 	public double cdf(double firstParameter, double secondParameter, double x) {
-		// TODO MAJO - implement
-		// Specialized probability distribution library should be considered.
-		throw new UnsupportedOperationException("Erlang distribution CDF computation is not yet implemented!");
+		// 1 - sum_{n<k} e^(-rate*x) (rate*x)^n / n!, with the terms computed in log space to avoid overflow
+		if (x <= 0) {
+			return 0;
+		}
+		double lambda = firstParameter * x;
+		double logLambda = Math.log(lambda);
+		double logTerm = -lambda;
+		double survival = 0.0;
+		for (int n = 0; n < (int)secondParameter; ++n) {
+			if (n > 0) {
+				logTerm += logLambda - Math.log(n);
+			}
+			survival += Math.exp(logTerm);
+		}
+		return Math.max(0.0, 1.0 - survival);
 	}
 	
+	@Override
+	public double sample(double firstParameter, double secondParameter, SplittableRandom random) {
+		// sum of k exponentially distributed phases, i.e. -ln(U_1 * ... * U_k) / rate
+		double product = 1.0;
+		double sum = 0.0;
+		for (int k = 0; k < (int)secondParameter; ++k) {
+			product *= 1.0 - random.nextDouble();
+			if (product < 1e-300) { // prevent underflow for many phases
+				sum -= Math.log(product);
+				product = 1.0;
+			}
+		}
+		return (sum - Math.log(product)) / firstParameter;
+	}
 
 }
\ No newline at end of file
@@ -26,6 +26,8 @@
 
 package parser.type;
 
+import java.util.SplittableRandom;
+
 import parser.Values;
 import parser.ast.Expression;
 import prism.PrismLangException;
@@ -95,9 +97,16 @@ public class TypeDistributionExponential extends TypeDistribution {
 	
 	@Override
 	public double cdf(double firstParameter, double secondParameter, double x) {
-		// TODO MAJO - implement
-		// Specialized probability distribution library should be considered.
-		throw new UnsupportedOperationException("Exponential distribution CDF computation is not yet implemented!");
+		if (x <= 0) {
+			return 0;
+		}
+		return -Math.expm1(-firstParameter * x);
+	}
+	
+	@Override
+	public double sample(double firstParameter, double secondParameter, SplittableRandom random) {
+		// inverse transform sampling, using 1-U in (0,1] to avoid log(0)
+		return -Math.log(1.0 - random.nextDouble()) / firstParameter;
 	}
 
 }
\ No newline at end of file
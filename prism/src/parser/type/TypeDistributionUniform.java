@@ -26,6 +26,8 @@
 
 package parser.type;
 
+import java.util.SplittableRandom;
+
 import parser.Values;
 import parser.ast.Expression;
 import prism.PrismLangException;
@@ -101,9 +103,18 @@ public class TypeDistributionUniform extends TypeDistribution {
 	
 	@Override
 	public double cdf(double firstParameter, double secondParameter, double x) {
-		// TODO MAJO - implement
-		// Specialized probability distribution library should be considered.
-		throw new UnsupportedOperationException("Uniform distribution CDF computation is not yet implemented!");
+		if (x <= firstParameter) {
+			return 0;
+		} else if (x >= secondParameter) {
+			return 1;
+		} else {
+			return (x - firstParameter) / (secondParameter - firstParameter);
+		}
+	}
+	
+	@Override
+	public double sample(double firstParameter, double secondParameter, SplittableRandom random) {
+		return firstParameter + (secondParameter - firstParameter) * random.nextDouble();
 	}
 
 }
\ No newline at end of file
@@ -26,6 +26,8 @@
 
 package parser.type;
 
+import java.util.SplittableRandom;
+
 import parser.Values;
 import parser.ast.Expression;
 import prism.PrismLangException;
@@ -98,9 +100,17 @@ public class TypeDistributionWeibull extends TypeDistribution {
 	
 	@Override
 	public double cdf(double firstParameter, double secondParameter, double x) {
-		// TODO MAJO - implement
-		// Specialized probability distribution library should be considered.
-		throw new UnsupportedOperationException("Weibull distribution CDF computation is not yet implemented!");
+		// first parameter is the scale and second parameter is the shape
+		if (x <= 0) {
+			return 0;
+		}
+		return -Math.expm1(-Math.pow(x / firstParameter, secondParameter));
+	}
+	
+	@Override
+	public double sample(double firstParameter, double secondParameter, SplittableRandom random) {
+		// inverse transform sampling, first parameter is the scale and second parameter is the shape
+		return firstParameter * Math.pow(-Math.log(1.0 - random.nextDouble()), 1.0 / secondParameter);
 	}
 
 }
\ No newline at end of file
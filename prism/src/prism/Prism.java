@@ -43,7 +43,9 @@ import explicit.ExplicitFiles2Model;
 import explicit.FastAdaptiveUniformisation;
 import explicit.FastAdaptiveUniformisationModelChecker;
 import explicit.GSMP;
+import explicit.GSMPEvent;
 import explicit.GSMPModelChecker;
+import explicit.GSMPSimple;
 import hybrid.PrismHybrid;
 import jdd.JDD;
 import jdd.JDDNode;
@@ -120,6 +122,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	public static final int BSOR = 9;
 	public static final int PSOR = 10;
 	public static final int BPSOR = 11;
+	public static final int GMRES = 12;
+	public static final int BICGSTAB = 13;
 
 	// methods for solving MDPs
 	public static final int MDP_VALITER = 1;
@@ -205,6 +209,9 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	protected boolean restrictStratToReach = true;
 	// Do bisimulation minimisation before model checking?
 	protected boolean doBisim = false;
+	// Simulation method and maximum path length for GSMPs that are not ACTMCs (null/0 means simulator settings)
+	protected SimulationMethod gsmpSimulationMethod = null;
+	protected long gsmpSimulationMaxPathLength = 0;
 
 	// A few miscellaneous options (i.e. defunct/hidden/undocumented/etc.)
 	// See constructor below for default values
@@ -267,6 +274,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	// Built model storage - symbolic or explicit - at most one is non-null
 	private Model currentModel = null;
 	private explicit.Model currentModelExpl = null;
+	// Cache of ACTMC reductions of currentModelExpl shared by experiment sweeps (null if none)
+	private explicit.ACTMCReductionCache currentReductionCache = null;
 	// Are we doing digital clocks translation for PTAs?
 	boolean digital = false;
 
@@ -549,6 +558,17 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		exportDigitalFile = f;
 	}
 
+	/**
+	 * Set the simulation method and maximum path length used by the explicit engine
+	 * to analyse GSMPs that are not ACTMCs, e.g. as given by the -sim... switches.
+	 * If the method is null (or the path length is 0), the defaults of the simulator settings are used.
+	 */
+	public void setGSMPSimulationMethod(SimulationMethod simMethod, long maxPathLength)
+	{
+		gsmpSimulationMethod = simMethod;
+		gsmpSimulationMaxPathLength = maxPathLength;
+	}
+
 	public void setExportTarget(boolean b) throws PrismException
 	{
 		exportTarget = b;
@@ -1785,8 +1805,11 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		if (currentDefinedMFConstants != null && currentDefinedMFConstants.equals(definedMFConstants))
 			return;
 
-		// Clear any existing built model(s)
-		clearBuiltModel();
+		// Clear any existing built model(s), unless only GSMP event parameters change
+		boolean keepGSMP = canKeepGSMPForConstants(definedMFConstants);
+		if (!keepGSMP) {
+			clearBuiltModel();
+		}
 		// Store constants here and in ModulesFile
 		currentDefinedMFConstants = definedMFConstants;
 		if (currentModulesFile != null) {
@@ -1795,6 +1818,14 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		if (currentModelGenerator != null) {
 			currentModelGenerator.setSomeUndefinedConstants(definedMFConstants);
 		}
+		if (keepGSMP) {
+			try {
+				updateGSMPEventParameters();
+			} catch (PrismException e) {
+				clearBuiltModel();
+				throw e;
+			}
+		}
 
 		// If required, export parsed PRISM model, with constants expanded
 		if (exportPrismConst) {
@@ -1810,6 +1841,58 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		}
 	}
 
+	/**
+	 * Check whether the currently built model can be kept when the model constants change to {@code definedMFConstants}.
+	 * This is the case for GSMPs built by the explicit engine when experiment sweeps are enabled
+	 * ({@link PrismSettings#PRISM_ACTMC_SWEEP}) and the constants that change are only used
+	 * in the parameters of non-exponential distributions (see {@link ModulesFile#areOnlyNonExponentialDistributionParameters}).
+	 */
+	private boolean canKeepGSMPForConstants(Values definedMFConstants) throws PrismException
+	{
+		if (!settings.getBoolean(PrismSettings.PRISM_ACTMC_SWEEP) || !(currentModelExpl instanceof GSMP))
+			return false;
+		if (currentModelSource != ModelSource.PRISM_MODEL || !(currentModelGenerator instanceof ModulesFileModelGenerator))
+			return false;
+		if (currentDefinedMFConstants == null || definedMFConstants == null)
+			return false;
+		List<String> changedConstants = new ArrayList<String>();
+		for (int i = 0; i < definedMFConstants.getNumValues(); i++) {
+			String name = definedMFConstants.getName(i);
+			int j = currentDefinedMFConstants.getIndexOf(name);
+			if (j == -1 || !definedMFConstants.getValue(i).equals(currentDefinedMFConstants.getValue(j))) {
+				changedConstants.add(name);
+			}
+		}
+		for (int j = 0; j < currentDefinedMFConstants.getNumValues(); j++) {
+			if (!definedMFConstants.contains(currentDefinedMFConstants.getName(j))) {
+				return false;
+			}
+		}
+		return currentModulesFile.areOnlyNonExponentialDistributionParameters(changedConstants);
+	}
+
+	/**
+	 * Re-evaluate the parameters of the non-exponential events of the currently built GSMP
+	 * for the current model constants, keeping its states and transitions
+	 * (see {@link #canKeepGSMPForConstants(Values)}).
+	 */
+	private void updateGSMPEventParameters() throws PrismException
+	{
+		GSMP gsmp = (GSMP) currentModelExpl;
+		ModulesFileModelGenerator modelGen = (ModulesFileModelGenerator) currentModelGenerator;
+		List<GSMPEvent> events = gsmp.getEventList();
+		for (GSMPEvent event : events) {
+			if (!event.isExponential()) {
+				modelGen.updateGSMPEventParameters(event);
+			}
+		}
+		// the identifiers of the events contain the parameters
+		if (gsmp instanceof GSMPSimple) {
+			((GSMPSimple) gsmp).setEvents(events);
+		}
+		mainLog.println("\nKeeping the built GSMP, only the parameters of its non-exponential events have changed.");
+	}
+
 	/**
 	 * Load a (built) model, with an accompanying (parsed) PRISM model.
 	 * These will be stored and used for subsequent model checking etc.
@@ -3070,6 +3153,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		expr.checkValid(currentModelType);
 
 		// Do simulation
+		getSimulator().setExplicitModel(getModelForSimulation());
 		res = getSimulator().modelCheckSingleProperty(currentModulesFile, propertiesFile, expr, initialState, maxPathLength, simMethod);
 
 		return new Result(res);
@@ -3115,6 +3199,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			expr.checkValid(currentModelType);
 
 		// Do simulation
+		getSimulator().setExplicitModel(getModelForSimulation());
 		res = getSimulator().modelCheckMultipleProperties(currentModulesFile, propertiesFile, exprs, initialState, maxPathLength, simMethod);
 
 		Result[] resArray = new Result[res.length];
@@ -3153,9 +3238,32 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		mainLog.println("Property constants: " + undefinedConstants.getPFDefinedConstantsString());
 
 		// Do simulation
+		getSimulator().setExplicitModel(getModelForSimulation());
 		getSimulator().modelCheckExperiment(currentModulesFile, propertiesFile, undefinedConstants, results, expr, initialState, maxPathLength, simMethod);
 	}
 
+	/**
+	 * Get the model built by the explicit engine on which the simulator should sample,
+	 * i.e. null unless the {@code simulator.explicitModel} setting is enabled.
+	 * The model is built if needed: with the explicit engine, it is stored as the built model;
+	 * otherwise, it is only used for this simulation.
+	 */
+	private explicit.Model getModelForSimulation() throws PrismException
+	{
+		if (!settings.getBoolean(PrismSettings.SIMULATOR_EXPLICIT_MODEL))
+			return null;
+		if (getExplicit()) {
+			buildModelIfRequired();
+			return currentModelExpl;
+		}
+		if (currentModelGenerator == null)
+			throw new PrismException("There is no currently loaded model generator to build");
+		mainLog.println("\nBuilding model (explicit engine) for simulation...");
+		ConstructModel constructModel = new ConstructModel(this);
+		constructModel.setFixDeadlocks(getFixDeadlocks());
+		return constructModel.constructModel(currentModelGenerator);
+	}
+
 	/**
 	 * Perform model checking on the currently loaded model using exact methods
 	 * (currently, this is done via the parametric model checking functionality)
@@ -3433,7 +3541,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			throw new PrismException("Explicit engine CTMC steady-state computation implemented yet.");
 			// TODO MAJO - maybe I could implement this
 		case GSMP:
-			GSMPModelChecker mcGSMP = new GSMPModelChecker(this);
+			GSMPModelChecker mcGSMP = createGSMPModelChecker();
 			probs = mcGSMP.doSteadyState((GSMP) model, mcGSMP.readDistributionFromFile(fileIn, currentModelExpl));
 			break;
 		default:
@@ -3523,7 +3631,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				probsExpl = mcCTMC.doTransient((CTMC) currentModelExpl, time, fileIn);
 				break;
 			case GSMP:
-				GSMPModelChecker mcGSMP = new GSMPModelChecker(this);
+				GSMPModelChecker mcGSMP = createGSMPModelChecker();
 				probsExpl = mcGSMP.doTransient((GSMP) currentModelExpl, time, mcGSMP.readDistributionFromFile(fileIn, currentModelExpl));
 				break;
 			default:
@@ -3595,6 +3703,12 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		if (exportType == EXPORT_ROWS)
 			exportType = EXPORT_PLAIN; // rows format does not apply to states output
 
+		// GSMPs compute all time points in a single pass
+		if (getExplicit() && currentModelType == ModelType.GSMP) {
+			doTransientGSMP(times, exportType, fileOut, fileIn);
+			return;
+		}
+
 		// Step through required time points
 		for (i = 0; i < times.getNumPropertyIterations(); i++) {
 
@@ -3665,7 +3779,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 					probsExpl = mcCTMC.doTransient((CTMC) currentModelExpl, timeDouble - initTimeDouble, initDistExpl);
 					break;
 				case GSMP:
-					GSMPModelChecker mcGSMP = new GSMPModelChecker(this);
+					GSMPModelChecker mcGSMP = createGSMPModelChecker();
 					if (i == 0) {
 						initDistExpl = mcGSMP.readDistributionFromFile(fileIn, currentModelExpl);
 						initTimeDouble = 0;
@@ -3724,6 +3838,50 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			tmpLog.close();
 	}
 
+	/**
+	 * Compute transient probabilities of the current (explicit) GSMP for all time points of {@code times}
+	 * in a single pass, printing/exporting each distribution as soon as it is computed.
+	 * This is necessary since, unlike for CTMCs, the distribution at a later time point
+	 * cannot be computed from the distribution at an earlier one.
+	 */
+	private void doTransientGSMP(UndefinedConstants times, int exportType, File fileOut, File fileIn) throws PrismException
+	{
+		// Collect the time points
+		int numTimes = times.getNumPropertyIterations();
+		double[] timePoints = new double[numTimes];
+		for (int i = 0; i < numTimes; i++) {
+			timePoints[i] = ((Double) times.getPFConstantValues().getValue(0)).doubleValue();
+			if (timePoints[i] < 0)
+				throw new PrismException("Cannot compute transient probabilities for negative time value");
+			times.iterateProperty();
+		}
+
+		mainLog.printSeparator();
+		mainLog.println("\nComputing transient probabilities (" + (numTimes > 1 ? numTimes + " time points" : "time = " + timePoints[0]) + ")...");
+		long l = System.currentTimeMillis();
+		buildModelIfRequired();
+		GSMPModelChecker mcGSMP = createGSMPModelChecker();
+		explicit.StateValues initDistExpl = mcGSMP.readDistributionFromFile(fileIn, currentModelExpl);
+		final long[] timer = new long[] { l };
+		mcGSMP.doTransient((GSMP) currentModelExpl, timePoints, initDistExpl, (time, probsExpl) -> {
+			// If output is to a file and there are multiple points, change filename
+			File fileOutActual = fileOut;
+			if (fileOut != null && numTimes > 1) {
+				fileOutActual = new File(PrismUtils.addSuffixToFilename(fileOut.getPath(), Double.toString(time)));
+			}
+			mainLog.print("\nPrinting transient probabilities at time " + time + " ");
+			mainLog.print(getStringForExportType(exportType) + " ");
+			mainLog.println(getDestinationStringForFile(fileOutActual));
+			PrismLog tmpLog = getPrismLogForFile(fileOutActual);
+			probsExpl.print(tmpLog, fileOut == null, exportType == EXPORT_MATLAB, fileOut == null, true);
+			if (fileOut != null)
+				tmpLog.close();
+			long now = System.currentTimeMillis();
+			mainLog.println("\nTime for transient probability computation: " + (now - timer[0]) / 1000.0 + " seconds.");
+			timer[0] = now;
+		});
+	}
+
 	public void explicitBuildTest() throws PrismException
 	{
 		/* old code...
@@ -3771,6 +3929,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			currentModel = null;
 		}
 		currentModelExpl = null;
+		currentReductionCache = null;
 	}
 
 	/**
@@ -3831,6 +3990,17 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		// Create model checker
 		explicit.StateModelChecker mc = explicit.StateModelChecker.createModelChecker(currentModelType, this);
 		mc.setModulesFileAndPropertiesFile(currentModelInfo, propertiesFile, currentModelGenerator);
+		if (mc instanceof GSMPModelChecker) {
+			setGSMPSimulationOptions((GSMPModelChecker) mc);
+		}
+		// Share ACTMC reductions between the points of experiment sweeps
+		if (mc instanceof GSMPModelChecker && currentModelExpl instanceof GSMP && settings.getBoolean(PrismSettings.PRISM_ACTMC_SWEEP)) {
+			GSMPModelChecker mcGSMP = (GSMPModelChecker) mc;
+			if ((currentReductionCache == null || currentReductionCache.getGSMP() != currentModelExpl) && mcGSMP.isACTMC((GSMP) currentModelExpl)) {
+				currentReductionCache = new explicit.ACTMCReductionCache((GSMP) currentModelExpl);
+			}
+			mcGSMP.setReductionCache(currentReductionCache);
+		}
 		// Pass any additional local settings
 		mc.setExportTarget(exportTarget);
 		mc.setExportTargetFilename(exportTargetFilename);
@@ -3851,6 +4021,26 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		return mc;
 	}
 
+	/**
+	 * Utility method to create a GSMP model checker (explicit engine) for computations
+	 * that are not done via a properties file, e.g. transient/steady-state probabilities.
+	 */
+	private GSMPModelChecker createGSMPModelChecker() throws PrismException
+	{
+		GSMPModelChecker mcGSMP = new GSMPModelChecker(this);
+		setGSMPSimulationOptions(mcGSMP);
+		return mcGSMP;
+	}
+
+	/**
+	 * Pass the simulation options for GSMPs that are not ACTMCs to a GSMP model checker.
+	 */
+	private void setGSMPSimulationOptions(GSMPModelChecker mcGSMP)
+	{
+		mcGSMP.setSimulationMethod(gsmpSimulationMethod);
+		mcGSMP.setSimulationMaxPathLength(gsmpSimulationMaxPathLength);
+	}
+
 	/**
 	 * Either create a new PrismFileLog for {@code file} or,
 	 * if {@code file} is null, return {@code mainLog}.
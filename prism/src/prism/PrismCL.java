@@ -370,6 +370,9 @@ public class PrismCL implements PrismModelListener
 							}
 							// Normal model checking
 							if (!simulate && !param) {
+								// GSMPs that are not ACTMCs are analysed by simulation
+								if (prism.getModelType() == ModelType.GSMP)
+									processGSMPSimulationOptions(propertiesToCheck.get(j).getExpression());
 								res = prism.modelCheck(propertiesFile, propertiesToCheck.get(j));
 							}
 							// Parametric model checking
@@ -879,6 +882,9 @@ public class PrismCL implements PrismModelListener
 					exportSteadyStateFile = null;
 				else
 					exportSteadyStateFile = new File(exportSteadyStateFilename);
+				// GSMPs that are not ACTMCs are analysed by simulation
+				if (prism.getModelType() == ModelType.GSMP)
+					processGSMPSimulationOptions(null);
 				// Compute steady-state probabilities
 				prism.doSteadyState(exportType, exportSteadyStateFile, importinitdist ? new File(importInitDistFilename) : null);
 			} catch (PrismException e) {
@@ -919,6 +925,10 @@ public class PrismCL implements PrismModelListener
 						errorAndExit("\"" + transientTime + "\" is not a valid time for a " + modelType);
 				}
 
+				// GSMPs that are not ACTMCs are analysed by simulation
+				if (modelType == ModelType.GSMP)
+					processGSMPSimulationOptions(null);
+
 				// Compute transient probabilities
 				prism.doTransient(ucTransient, exportType, exportTransientFile, importinitdist ? new File(importInitDistFilename) : null);
 			}
@@ -2119,6 +2129,15 @@ public class PrismCL implements PrismModelListener
 			}
 		}
 
+		// Krylov subspace methods are only implemented in the explicit engine
+		// (if we are in test mode, we ignore here; will lead to appropriate 'not supported' error handling during testing)
+		if (prism.getEngine() != Prism.EXPLICIT && !test) {
+			j = prism.getLinEqMethod();
+			if (j == Prism.GMRES || j == Prism.BICGSTAB) {
+				errorAndExit("GMRES and BiCGStab are currently only supported by the explicit engine");
+			}
+		}
+
 		// process info about parametric constants
 		if (param) {
 			String[] paramDefs = paramSwitch.split(",");
@@ -2286,6 +2305,34 @@ public class PrismCL implements PrismModelListener
 		return aSimMethod;
 	}
 
+	/**
+	 * Process the simulation-related command-line options for GSMPs that are not ACTMCs,
+	 * which are analysed by simulation in the explicit engine, and pass them to PRISM.
+	 * Unlike for the simulator, the default method is CI for bounded properties too,
+	 * since the values are estimated first and compared to the bound afterwards.
+	 * @param expr The property to be checked (null for transient/steady-state probabilities)
+	 * @throws PrismException if there are problems with the specified options
+	 */
+	private void processGSMPSimulationOptions(Expression expr) throws PrismException
+	{
+		String givenMethodName = simMethodName;
+		try {
+			if (simMethodName == null)
+				simMethodName = "ci";
+			SimulationMethod gsmpSimMethod = processSimulationOptions(expr);
+			// SPRT tests the bound of the property (probability distributions are rejected by the GSMP simulator)
+			if (gsmpSimMethod instanceof SPRTMethod && expr != null) {
+				Expression exprConst = (Expression) expr.deepCopy().replaceConstants(propertiesFile.getConstantValues());
+				if (modulesFile != null)
+					exprConst = (Expression) exprConst.replaceConstants(modulesFile.getConstantValues());
+				gsmpSimMethod.setExpression(exprConst);
+			}
+			prism.setGSMPSimulationMethod(gsmpSimMethod, simMaxPath);
+		} finally {
+			simMethodName = givenMethodName;
+		}
+	}
+
 	/**
 	 * Print a -help message, i.e. a list of the command-line switches.
 	 */
@@ -2364,6 +2411,9 @@ public class PrismCL implements PrismModelListener
 		mainLog.println("-simvar <n> .................... Set the minimum number of samples to know the variance is null or not");
 		mainLog.println("-simmaxrwd <x> ................. Set the maximum reward -- useful to display the CI/ACI methods progress");
 		mainLog.println("-simpathlen <n> ................ Set the maximum path length for the simulator");
+		mainLog.println("-simthreads <n> ................ Set the number of threads generating simulation paths concurrently [default: 1]");
+		mainLog.println("-simexplicit ................... Simulate on the model built by the explicit engine (building it if needed)");
+		mainLog.println("-simseed <n> ................... Set the seed of the simulator (0 = pick a new seed) [default: 0]");
 
 		mainLog.println();
 		mainLog.println("You can also use \"prism -help xxx\" for help on some switches -xxx with non-obvious syntax.");
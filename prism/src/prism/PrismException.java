@@ -32,6 +32,11 @@ public class PrismException extends Exception
 	{
 		super(s);
 	}
+
+	public PrismException(String s, Throwable cause)
+	{
+		super(s, cause);
+	}
 	
 	public String toString()
 	{
@@ -81,6 +81,7 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_FIX_DEADLOCKS					= "prism.fixDeadlocks";
 	public static final	String PRISM_DO_PROB_CHECKS					= "prism.doProbChecks";
 	public static final	String PRISM_SUM_ROUND_OFF					= "prism.sumRoundOff";
+	public static final	String PRISM_COMPILE_EXPRESSIONS			= "prism.compileExpressions";
 	public static final	String PRISM_COMPACT						= "prism.compact";
 	public static final	String PRISM_LIN_EQ_METHOD					= "prism.linEqMethod";//"prism.iterativeMethod";
 	public static final	String PRISM_LIN_EQ_METHOD_PARAM			= "prism.linEqMethodParam";//"prism.overRelaxation";
@@ -93,6 +94,9 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_TERM_CRIT						= "prism.termCrit";//"prism.termination";
 	public static final	String PRISM_TERM_CRIT_PARAM				= "prism.termCritParam";//"prism.terminationEpsilon";
 	public static final	String PRISM_MAX_ITERS						= "prism.maxIters";//"prism.maxIterations";
+	public static final String PRISM_ITERATION_THREADS				= "prism.iterationThreads";
+	public static final String PRISM_KRYLOV_PRECONDITIONER			= "prism.krylovPreconditioner";
+	public static final String PRISM_GMRES_RESTART					= "prism.gmresRestart";
 	public static final String PRISM_EXPORT_ITERATIONS				= "prism.exportIterations";
 	
 	public static final	String PRISM_CUDD_MAX_MEM					= "prism.cuddMaxMem";
@@ -102,6 +106,12 @@ public class PrismSettings implements Observer
 	public static final String PRISM_EXP_SYNC_BACKWARD_COMPATIBLE       = "prism.ExpSyncBackwardCompatible";
 	public static final String PRISM_ACTMC_COMPUTE_KAPPA       		= "prism.ACTMCComputeKappa";
 	public static final String PRISM_ACTMC_CONSTANT_KAPPA_DECIMAL_DIGITS     = "prism.ACTMCConstantKappa";
+	public static final String PRISM_ACTMC_POTATO_THREADS     		= "prism.ACTMCPotatoThreads";
+	public static final String PRISM_ACTMC_DOUBLE_FAST_PATH     	= "prism.ACTMCDoubleFastPath";
+	public static final String PRISM_ACTMC_TRANSIENT_MAX_PHASES     = "prism.ACTMCTransientMaxPhases";
+	public static final String PRISM_ACTMC_TRANSIENT_FIT_ERROR     	= "prism.ACTMCTransientFitError";
+	public static final String PRISM_ACTMC_SWEEP     				= "prism.ACTMCSweep";
+	public static final String PRISM_GSMP_PHASE_TYPE_ORDER     		= "prism.GSMPPhaseTypeOrder";
 	public static final	String PRISM_NUM_SB_LEVELS					= "prism.numSBLevels";//"prism.hybridNumLevels";
 	public static final	String PRISM_SB_MAX_MEM						= "prism.SBMaxMem";//"prism.hybridMaxMemory";
 	public static final	String PRISM_NUM_SOR_LEVELS					= "prism.numSORLevels";//"prism.hybridSORLevels";
@@ -114,6 +124,8 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_EXACT_ENABLED					= "prism.exact.enabled";
 	public static final String PRISM_PTA_METHOD					= "prism.ptaMethod";
 	public static final String PRISM_TRANSIENT_METHOD				= "prism.transientMethod";
+	public static final String PRISM_CONSTRUCT_THREADS				= "prism.constructThreads";
+	public static final String PRISM_BUILD_SPARSE					= "prism.buildSparse";
 	public static final String PRISM_AR_OPTIONS					= "prism.arOptions";
 	public static final String PRISM_PATH_VIA_AUTOMATA				= "prism.pathViaAutomata";
 	public static final String PRISM_NO_DA_SIMPLIFY				= "prism.noDaSimplify";
@@ -159,6 +171,9 @@ public class PrismSettings implements Observer
 	public static final	String SIMULATOR_NEW_PATH_ASK_VIEW			= "simulator.newPathAskView";
 	public static final	String SIMULATOR_RENDER_ALL_VALUES			= "simulator.renderAllValues";
 	public static final String SIMULATOR_NETWORK_FILE				= "simulator.networkFile";
+	public static final String SIMULATOR_NUM_THREADS				= "simulator.numThreads";
+	public static final String SIMULATOR_EXPLICIT_MODEL				= "simulator.explicitModel";
+	public static final String SIMULATOR_SEED						= "simulator.seed";
 	
 	//GUI Model
 	public static final	String MODEL_AUTO_PARSE						= "model.autoParse";
@@ -243,8 +258,12 @@ public class PrismSettings implements Observer
 																			"Which method to use for model checking of PTAs." },
 			{ CHOICE_TYPE,		PRISM_TRANSIENT_METHOD,					"Transient probability computation method",	"3.3",		"Uniformisation",															"Uniformisation,Fast adaptive uniformisation",																
 																			"Which method to use for computing transient probabilities in CTMCs." },
+			{ INTEGER_TYPE,		PRISM_CONSTRUCT_THREADS,				"Explicit model construction threads",	"4.4beta",		new Integer(1),																"1,",
+																			"Number of worker threads used to explore the states of a model during explicit-state model construction. The states of each breadth-first level are explored concurrently, and the resulting model does not depend on this number." },
+			{ BOOLEAN_TYPE,		PRISM_BUILD_SPARSE,						"Build sparse explicit models",			"4.4beta",		new Boolean(true),															"",
+																			"Store DTMCs, MDPs and GSMPs built by the explicit engine in a sparse (non-mutable) representation." },
 			// NUMERICAL SOLUTION OPTIONS:
-			{ CHOICE_TYPE,		PRISM_LIN_EQ_METHOD,					"Linear equations method",				"2.1",			"Jacobi",																	"Power,Jacobi,Gauss-Seidel,Backwards Gauss-Seidel,Pseudo-Gauss-Seidel,Backwards Pseudo-Gauss-Seidel,JOR,SOR,Backwards SOR,Pseudo-SOR,Backwards Pseudo-SOR",
+			{ CHOICE_TYPE,		PRISM_LIN_EQ_METHOD,					"Linear equations method",				"2.1",			"Jacobi",																	"Power,Jacobi,Gauss-Seidel,Backwards Gauss-Seidel,Pseudo-Gauss-Seidel,Backwards Pseudo-Gauss-Seidel,JOR,SOR,Backwards SOR,Pseudo-SOR,Backwards Pseudo-SOR,GMRES,BiCGStab",
 																			"Which iterative method to use when solving linear equation systems." },
 			{ DOUBLE_TYPE,		PRISM_LIN_EQ_METHOD_PARAM,				"Over-relaxation parameter",			"2.1",			new Double(0.9),															"",																							
 																			"Over-relaxation parameter for iterative numerical methods such as JOR/SOR." },
@@ -266,6 +285,12 @@ public class PrismSettings implements Observer
 																			"Epsilon value to use for checking termination of iterative numerical methods." },
 			{ INTEGER_TYPE,		PRISM_MAX_ITERS,						"Termination max. iterations",			"2.1",			new Integer(10000),															"0,",																						
 																			"Maximum number of iterations to perform if iterative methods do not converge." },
+			{ INTEGER_TYPE,		PRISM_ITERATION_THREADS,				"Iteration threads",					"4.4beta",		new Integer(1),																"1,",
+																			"Number of threads used for the matrix-vector multiplications and convergence checks of the (explicit engine) power, Jacobi and value iteration methods on sparse models. The rows are computed independently of each other, so the results do not depend on this number." },
+			{ CHOICE_TYPE,		PRISM_KRYLOV_PRECONDITIONER,			"Krylov preconditioner",				"4.4beta",		"ILU(0)",																	"None,Jacobi,ILU(0)",
+																			"Which preconditioner to use for the (explicit engine) Krylov subspace methods GMRES and BiCGStab." },
+			{ INTEGER_TYPE,		PRISM_GMRES_RESTART,					"GMRES restart",						"4.4beta",		new Integer(30),															"1,",
+																			"Dimension of the Krylov subspace after which (explicit engine) GMRES is restarted." },
 			{ BOOLEAN_TYPE,		PRISM_EXPORT_ITERATIONS,				"Export iterations (debug/visualisation)",			"4.3.1",			false,														"",
 																			"Export solution vectors for iteration algorithms to iterations.html"},
 			// MODEL CHECKING OPTIONS:
@@ -285,6 +310,8 @@ public class PrismSettings implements Observer
 																			"Perform sanity checks on model probabilities/rates when constructing probabilistic models." },
 			{ DOUBLE_TYPE,		PRISM_SUM_ROUND_OFF,					"Probability sum threshold",					"2.1",			new Double(1.0E-5),													"0.0,",
 																			"Round-off threshold for places where doubles are summed and compared to integers (e.g. checking that probabilities sum to 1 in an update)." },							
+			{ BOOLEAN_TYPE,		PRISM_COMPILE_EXPRESSIONS,				"Compile model expressions",			"4.4beta",		new Boolean(true),															"",
+																			"Compile the guards, probabilities/rates, updates, rewards and labels of the model into specialised evaluators, rather than interpreting them, when exploring the model (explicit engine model construction and simulation)." },
 			{ BOOLEAN_TYPE,		PRISM_DO_SS_DETECTION,					"Use steady-state detection",			"2.1",			new Boolean(true),															"0,",																						
 																			"Use steady-state detection during CTMC transient probability computation." },
 			{ CHOICE_TYPE,		PRISM_SCC_METHOD,						"SCC decomposition method",				"3.2",			"Lockstep",																	"Xie-Beerel,Lockstep,SCC-Find",																
@@ -388,6 +415,18 @@ public class PrismSettings implements Observer
 			"If this option is true, kappa will be computed. Kappa is the allowed error of reducing ACTMC to DTMC. This option will compute kappa such that the error of model checking on the reduced DTMC is guaranteed to be within termination epsilon. However, this computed kappa will only be actually used if it is more precise than the constant specified by \"ACTMC (GSMP) reduction constant precision (decimal digits)\". Kappa usually takes a relatively long time to compute and it's value tends to be very small for larger models, so only use this if computation time is unimportant and precision is the priority." },
 			{ INTEGER_TYPE,		PRISM_ACTMC_CONSTANT_KAPPA_DECIMAL_DIGITS,		"ACTMC (GSMP) reduction constant precision (decimal digits)",		"4.4beta",			new Integer(330),								"0,",
 			"If \"Compute precision for ACTMC (GSMP) reduction\" is set to false, constant kappa will be used. Kappa is the allowed error of reducing ACTMC to DTMC in GSMP model checking. Specify the number of decimal digits of the precision, i.e. constant kappa = 1.0E-(this number). Consider using less precision to obtain better performance." },
+			{ INTEGER_TYPE,		PRISM_ACTMC_POTATO_THREADS,		"ACTMC (GSMP) reduction potato threads",		"4.4beta",			new Integer(1),								"1,",
+			"Number of worker threads used to compute the potatoes (one per non-exponential event) during ACTMC reduction. The potatoes are independent of each other, so they can be computed concurrently. The same number of threads is used to isolate the roots of polynomials during ACTMC parameter synthesis. The results do not depend on this number." },
+			{ BOOLEAN_TYPE,		PRISM_ACTMC_DOUBLE_FAST_PATH,		"ACTMC (GSMP) reduction double precision fast path",		"4.4beta",			new Boolean(false),								"",
+			"If this option is true, potatoes of Dirac-distributed events are computed in double precision instead of BigDecimal with kappa precision. A rigorous a-posteriori error bound of the double precision computation is derived, and if it exceeds termination epsilon, the computation falls back to BigDecimal. This is usually orders of magnitude faster than the default high precision." },
+			{ INTEGER_TYPE,		PRISM_ACTMC_TRANSIENT_MAX_PHASES,		"ACTMC (GSMP) transient maximum phases",		"4.4beta",			new Integer(1024),								"1,",
+			"Maximum number of phases of the phase-type approximation of a non-exponential event in ACTMC transient analysis. Each state where the event is active is expanded into this many states at most." },
+			{ DOUBLE_TYPE,		PRISM_ACTMC_TRANSIENT_FIT_ERROR,		"ACTMC (GSMP) transient phase-type CDF distance",		"4.4beta",			new Double(0.05),								"0.0,",
+			"CDF distance (L1 distance of the distribution functions relative to the mean of the event) at which ACTMC transient analysis stops adding phases to the phase-type approximation of a non-exponential event, unless \"ACTMC (GSMP) transient maximum phases\" is reached first. The results are approximate with no error bound: the CDF distance describes the fitted delays only, so compare the results for smaller values. Truncation of uniformisation is bounded by termination epsilon." },
+			{ BOOLEAN_TYPE,		PRISM_ACTMC_SWEEP,		"ACTMC (GSMP) experiment sweeps",		"4.4beta",			new Boolean(false),								"",
+			"If this option is true, experiments over constants that are only used in the parameters of non-exponential distributions keep the built GSMP and only update the parameters of its events. The ACTMC reductions are then shared by all points of the experiment, and only the potatoes of the events whose parameters changed are recomputed. Kappa is assigned to the recomputed potatoes again, and if it is computed (\"Compute precision for ACTMC (GSMP) reduction\"), it is deduced again for every point." },
+			{ INTEGER_TYPE,		PRISM_GSMP_PHASE_TYPE_ORDER,		"GSMP phase-type approximation order",		"4.4beta",			new Integer(0),								"0,",
+			"If positive, GSMPs (including ACTMCs) are analysed approximately: each non-exponential event is fitted with an acyclic phase-type distribution with at most this many phases, and the resulting CTMC is solved instead. The results are approximate with no error bound: the reported CDF distance of each fit describes the fitted delays only, so compare the results for increasing orders. If 0, ACTMCs are analysed exactly and other GSMPs are simulated." },
 		},
 		{
 			{ INTEGER_TYPE,		SIMULATOR_DEFAULT_NUM_SAMPLES,			"Default number of samples",			"4.0",		new Integer(1000),			"1,",
@@ -415,7 +454,13 @@ public class PrismSettings implements Observer
 			{ CHOICE_TYPE,		SIMULATOR_RENDER_ALL_VALUES,			"Path render style",					"3.2",		"Render all values",		"Render changes,Render all values",
 																			"Display style for paths in the simulator user interface: only show variable values when they change, or show all values regardless." },
 			{ FILE_TYPE,		SIMULATOR_NETWORK_FILE,					"Network profile",						"2.1",		new File(""),				"",
-																			"File specifying the network profile used by the distributed PRISM simulator." }
+																			"File specifying the network profile used by the distributed PRISM simulator." },
+			{ INTEGER_TYPE,		SIMULATOR_NUM_THREADS,					"Number of simulation threads",			"4.4beta",	new Integer(1),				"1,",
+																			"Number of threads used to generate independent simulation paths concurrently (simulator and GSMP simulation engine)." },
+			{ BOOLEAN_TYPE,		SIMULATOR_EXPLICIT_MODEL,				"Simulate on built model",				"4.4beta",	new Boolean(false),			"",
+																			"Generate simulation paths from the model built by the explicit engine (building it if needed), rather than from the model description." },
+			{ LONG_TYPE,		SIMULATOR_SEED,							"Simulation seed",						"4.4beta",	new Long(0),				"0,",
+																			"Seed of the random numbers of the simulator and the GSMP simulation engine, making their results reproducible (and independent of the number of threads). If 0, a different seed is picked for every run." }
 		},
 		{
 			{ BOOLEAN_TYPE,		MODEL_AUTO_PARSE,						"Auto parse",							"2.1",			new Boolean(true),															"",																							"Parse PRISM models automatically as they are loaded/edited in the text editor." },
@@ -1041,6 +1086,28 @@ public class PrismSettings implements Observer
 				throw new PrismException("No parameter specified for -" + sw + " switch");
 			}
 		}
+		// Explicit model construction threads
+		else if (sw.equals("constructthreads")) {
+			if (i < args.length - 1) {
+				try {
+					int v = Integer.parseInt(args[++i]);
+					if (v < 1)
+						throw new NumberFormatException("");
+					set(PRISM_CONSTRUCT_THREADS, v);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// Sparse explicit models
+		else if (sw.equals("buildsparse")) {
+			set(PRISM_BUILD_SPARSE, true);
+		}
+		else if (sw.equals("nobuildsparse")) {
+			set(PRISM_BUILD_SPARSE, false);
+		}
 
 		// NUMERICAL SOLUTION OPTIONS:
 		
@@ -1069,6 +1136,10 @@ public class PrismSettings implements Observer
 			set(PRISM_LIN_EQ_METHOD, "Pseudo-SOR");
 		} else if (sw.equals("bpsor")) {
 			set(PRISM_LIN_EQ_METHOD, "Backwards Pseudo-SOR");
+		} else if (sw.equals("gmres")) {
+			set(PRISM_LIN_EQ_METHOD, "GMRES");
+		} else if (sw.equals("bicgstab")) {
+			set(PRISM_LIN_EQ_METHOD, "BiCGStab");
 		} else if (sw.equals("valiter")) {
 			set(PRISM_MDP_SOLN_METHOD, "Value iteration");
 			set(PRISM_MDP_MULTI_SOLN_METHOD, "Value iteration");
@@ -1164,6 +1235,53 @@ public class PrismSettings implements Observer
 				throw new PrismException("No value specified for -" + sw + " switch");
 			}
 		}
+		// Iteration threads
+		else if (sw.equals("iterationthreads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 1)
+						throw new NumberFormatException("");
+					set(PRISM_ITERATION_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// Krylov preconditioner
+		else if (sw.equals("krylovprecond")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none")) {
+					set(PRISM_KRYLOV_PRECONDITIONER, "None");
+				} else if (s.equals("jacobi")) {
+					set(PRISM_KRYLOV_PRECONDITIONER, "Jacobi");
+				} else if (s.equals("ilu0")) {
+					set(PRISM_KRYLOV_PRECONDITIONER, "ILU(0)");
+				} else {
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, jacobi, ilu0)");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// GMRES restart
+		else if (sw.equals("gmresrestart")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 1)
+						throw new NumberFormatException("");
+					set(PRISM_GMRES_RESTART, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 		// export iterations
 		else if (sw.equals("exportiterations")) {
 			set(PRISM_EXPORT_ITERATIONS, true);
@@ -1203,6 +1321,13 @@ public class PrismSettings implements Observer
 		else if (sw.equals("noprobchecks")) {
 			set(PRISM_DO_PROB_CHECKS, false);
 		}
+		// Compilation of model expressions
+		else if (sw.equals("compileexprs")) {
+			set(PRISM_COMPILE_EXPRESSIONS, true);
+		}
+		else if (sw.equals("nocompileexprs")) {
+			set(PRISM_COMPILE_EXPRESSIONS, false);
+		}
 		// Sum round-off threshold
 		else if (sw.equals("sumroundoff")) {
 			if (i < args.length - 1) {
@@ -1453,6 +1578,90 @@ public class PrismSettings implements Observer
 			} else {
 				throw new PrismException("No value specified for -" + sw + " switch");
 			}
+		} else if (sw.equals("ACTMCDoubleFastPath")) {
+			set(PRISM_ACTMC_DOUBLE_FAST_PATH, true);
+		} else if (sw.equals("ACTMCSweep")) {
+			set(PRISM_ACTMC_SWEEP, true);
+		} else if (sw.equals("simthreads")) {
+			if (i < args.length - 1) {
+				try {
+					int v = Integer.parseInt(args[++i]);
+					if (v < 1)
+						throw new NumberFormatException("");
+					set(SIMULATOR_NUM_THREADS, v);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		} else if (sw.equals("simexplicit")) {
+			set(SIMULATOR_EXPLICIT_MODEL, true);
+		} else if (sw.equals("simseed")) {
+			if (i < args.length - 1) {
+				try {
+					long v = Long.parseLong(args[++i]);
+					if (v < 0)
+						throw new NumberFormatException("");
+					set(SIMULATOR_SEED, v);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		} else if (sw.equals("ACTMCTransientMaxPhases")) {
+			if (i < args.length - 1) {
+				try {
+					int v = Integer.parseInt(args[++i]);
+					if (v < 1)
+						throw new NumberFormatException("");
+					set(PRISM_ACTMC_TRANSIENT_MAX_PHASES, v);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		} else if (sw.equals("GSMPPhaseTypeOrder")) {
+			if (i < args.length - 1) {
+				try {
+					int v = Integer.parseInt(args[++i]);
+					if (v < 0)
+						throw new NumberFormatException("");
+					set(PRISM_GSMP_PHASE_TYPE_ORDER, v);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		} else if (sw.equals("ACTMCTransientFitError")) {
+			if (i < args.length - 1) {
+				try {
+					d = Double.parseDouble(args[++i]);
+					if (d <= 0)
+						throw new NumberFormatException("");
+					set(PRISM_ACTMC_TRANSIENT_FIT_ERROR, d);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		} else if (sw.equals("ACTMCPotatoThreads")) {
+			if (i < args.length - 1) {
+				try {
+					int v = Integer.parseInt(args[++i]);
+					if (v < 1)
+						throw new NumberFormatException("");
+					set(PRISM_ACTMC_POTATO_THREADS, v);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
 		}
 		
 		// ADVERSARIES/COUNTEREXAMPLES:
@@ -1793,6 +2002,9 @@ public class PrismSettings implements Observer
 		mainLog.println("-exact ......................... Perform exact (arbitrary precision) model checking");
 		mainLog.println("-ptamethod <name> .............. Specify PTA engine (games, digital, backwards) [default: games]");
 		mainLog.println("-transientmethod <name> ........ CTMC transient analysis methof (unif, fau) [default: unif]");
+		mainLog.println("-constructthreads <n> .......... Set number of threads used for explicit model construction [default: 1]");
+		mainLog.println("-buildsparse ................... Build sparse explicit DTMCs, MDPs and GSMPs [default]");
+		mainLog.println("-nobuildsparse ................. Build mutable explicit DTMCs, MDPs and GSMPs");
 		mainLog.println();
 		mainLog.println("SOLUTION METHODS (LINEAR EQUATIONS):");
 		mainLog.println("-power (or -pow, -pwr) ......... Use the Power method for numerical computation");
@@ -1806,7 +2018,11 @@ public class PrismSettings implements Observer
 		mainLog.println("-bsor .......................... Use Backwards SOR for numerical computation");
 		mainLog.println("-psor .......................... Use Pseudo SOR for numerical computation");
 		mainLog.println("-bpsor ......................... Use Backwards Pseudo SOR for numerical computation");
+		mainLog.println("-gmres ......................... Use restarted GMRES for numerical computation (explicit engine)");
+		mainLog.println("-bicgstab ...................... Use BiCGStab for numerical computation (explicit engine)");
 		mainLog.println("-omega <x> ..................... Set over-relaxation parameter (for JOR/SOR/...) [default: 0.9]");
+		mainLog.println("-krylovprecond <name> .......... Preconditioner for GMRES/BiCGStab (none, jacobi, ilu0) [default: ilu0]");
+		mainLog.println("-gmresrestart <n> .............. Set restart dimension of GMRES [default: 30]");
 		mainLog.println();
 		mainLog.println("SOLUTION METHODS (MDPS):");
 		mainLog.println("-valiter ....................... Use value iteration for solving MDPs [default]");
@@ -1821,6 +2037,7 @@ public class PrismSettings implements Observer
 		mainLog.println("-absolute (or -abs) ............ Use absolute error for detecting convergence");
 		mainLog.println("-epsilon <x> (or -e <x>) ....... Set value of epsilon (for convergence check) [default: 1e-6]");
 		mainLog.println("-maxiters <n> .................. Set max number of iterations [default: 10000]");
+		mainLog.println("-iterationthreads <n> .......... Set number of threads for explicit power/Jacobi/value iteration [default: 1]");
 		
 		mainLog.println();
 		mainLog.println("MODEL CHECKING OPTIONS:");
@@ -1834,6 +2051,8 @@ public class PrismSettings implements Observer
 		mainLog.println("-nofixdl ....................... Do not automatically put self-loops in deadlock states");
 		mainLog.println("-noprobchecks .................. Disable checks on model probabilities/rates");
 		mainLog.println("-sumroundoff <x> ............... Set probability sum threshold [default: 1-e5]");
+		mainLog.println("-compileexprs .................. Compile model expressions when exploring the model [default]");
+		mainLog.println("-nocompileexprs ................ Interpret model expressions when exploring the model");
 		mainLog.println("-zerorewardcheck ............... Check for absence of zero-reward loops");
 		mainLog.println("-nossdetect .................... Disable steady-state detection for CTMC transient computations");
 		mainLog.println("-sccmethod <name> .............. Specify (symbolic) SCC computation method (xiebeerel, lockstep, sccfind)");
@@ -1850,6 +2069,12 @@ public class PrismSettings implements Observer
 		mainLog.println("-ExpSyncBackwardCompatible ..... Disable synchronization of exponential events for GSMPs");
 		mainLog.println("-ACTMCComputeKappa ............. Enable computatation of kappa allowed error for ACTMC reduction. Takes quite a long time.");
 		mainLog.println("-ACTMCConstantKappaValue <n> ... Set decimal digit precision of constant kappa allowed error [default: 330]");
+		mainLog.println("-ACTMCPotatoThreads <n> ........ Set number of threads used to compute ACTMC potatoes concurrently [default: 1]");
+		mainLog.println("-ACTMCDoubleFastPath ........... Compute ACTMC potatoes in double precision when the error bound permits it");
+		mainLog.println("-ACTMCTransientMaxPhases <n> ... Set maximum number of phases per event in ACTMC transient analysis [default: 1024]");
+		mainLog.println("-ACTMCTransientFitError <x> .... Set phase-type CDF distance in ACTMC transient analysis (no error bound) [default: 0.05]");
+		mainLog.println("-ACTMCSweep .................... Share ACTMC reductions between experiment points that only change event parameters");
+		mainLog.println("-GSMPPhaseTypeOrder <n> ........ Approximate GSMPs by CTMCs, fitting events with <n> phases (no error bound) [default: 0 (off)]");
 		
 		mainLog.println();
 		mainLog.println("MULTI-OBJECTIVE MODEL CHECKING:");
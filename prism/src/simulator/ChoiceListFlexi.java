@@ -57,6 +57,9 @@ public class ChoiceListFlexi implements Choice
 	// but are just stored as lists of updates (for efficiency)
 	protected List<List<Update>> updates;
 	protected List<Double> probability;
+	// Compiled expressions of the Update objects (read-only, shared with the Updater that created this choice),
+	// or null if the expressions are interpreted
+	public Map<Update, ExpressionCompiler.ValueEvaluator[]> compiledUpdates;
 
 	/**
 	 * Create empty choice.
@@ -79,6 +82,7 @@ public class ChoiceListFlexi implements Choice
 		updates = new ArrayList<List<Update>>(ch.updates.size());
 		eventIdents = ch.getEventIdents();
 		expSyncBackwardCompatible = ch.expSyncBackwardCompatible;
+		compiledUpdates = ch.compiledUpdates;
 		for (List<Update> list : ch.updates) {
 			List<Update> listNew = new ArrayList<Update>(list.size()); 
 			updates.add(listNew);
@@ -249,16 +253,23 @@ public class ChoiceListFlexi implements Choice
 	public State computeTarget(int i, State currentState) throws PrismLangException
 	{
 		State newState = new State(currentState);
-		for (Update up : updates.get(i))
-			up.update(currentState, newState);
+		computeTarget(i, currentState, newState);
 		return newState;
 	}
 
 	@Override
 	public void computeTarget(int i, State currentState, State newState) throws PrismLangException
 	{
-		for (Update up : updates.get(i))
-			up.update(currentState, newState);
+		for (Update up : updates.get(i)) {
+			ExpressionCompiler.ValueEvaluator compiled[] = (compiledUpdates == null) ? null : compiledUpdates.get(up);
+			if (compiled == null) {
+				up.update(currentState, newState);
+				continue;
+			}
+			for (int j = 0; j < compiled.length; j++) {
+				newState.setValue(up.getVarIndex(j), compiled[j].evaluate(currentState));
+			}
+		}
 	}
 
 	@Override
@@ -0,0 +1,779 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import explicit.DTMC;
+import explicit.MDP;
+import explicit.Model;
+import explicit.StateModelChecker;
+import explicit.rewards.ConstructRewards;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import parser.State;
+import parser.ast.Expression;
+import parser.ast.ExpressionProb;
+import parser.ast.ExpressionReward;
+import parser.ast.ExpressionTemporal;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ModulesFile;
+import prism.ModelType;
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Simulator backend for a model that has already been built by the explicit engine (DTMC, CTMC or MDP).
+ * <br>
+ * Instead of evaluating guards and updates of the model description at every step (see {@link Updater}),
+ * paths are generated directly from the transitions of the built model, stored in flat arrays
+ * with an alias table for each distribution, so that a successor is picked in constant time.
+ * The state formulas of the properties are computed once, as BitSets, by the explicit model checker,
+ * and the rewards are stored in arrays.
+ * <br>
+ * The values of the paths follow the semantics of the corresponding {@link simulator.sampler.Sampler}s
+ * and, as in {@link SimulatorEngine}, choices of MDPs are picked uniformly at random.
+ * As with the model description, states that were deadlocks in the model (before they were fixed with self-loops)
+ * are treated as deadlocks, and so are states of continuous-time models whose only transition is a self-loop,
+ * since a path can never leave them.
+ * An instance is immutable once constructed, so paths can be generated concurrently.
+ */
+public class ExplicitModelSimulator extends PrismComponent
+{
+	// Model info
+	private Model model;
+	private boolean continuousTime;
+	private int numStates;
+
+	// Choice indices of each state (choiceStarts[s] to choiceStarts[s+1]-1); Markov chains have one choice per non-deadlock state
+	private int[] choiceStarts;
+	// Transition indices of each choice (transStarts[c] to transStarts[c+1]-1)
+	private int[] transStarts;
+	// Alias tables of the choices: successor, probability of keeping it and alias (as a transition index)
+	private int[] succs;
+	private double[] aliasProbs;
+	private int[] aliases;
+	// Exit rates of the states (continuous-time models only)
+	private double[] exitRates;
+	// States whose only transition is a self-loop, i.e. where a discrete-time path is looping
+	private BitSet deterministicLoops;
+	// States where a path is treated as deadlocked: deadlocks of the model and absorbing continuous-time states
+	private BitSet deadlocks;
+
+	// Reward structures used by the properties (indexed as in the model): state rewards and choice (transition) rewards
+	private List<Integer> rewardStructs = new ArrayList<Integer>();
+	private List<double[]> stateRewards = new ArrayList<double[]>();
+	private List<double[]> choiceRewards = new ArrayList<double[]>();
+
+	// The properties
+	private PathProperty[] properties;
+
+	/**
+	 * Prepare the simulation of a set of (simulator) properties on a built model.
+	 * @param model The built model (DTMC, CTMC or MDP)
+	 * @param modulesFile The model description, constants defined (for reward structures)
+	 * @param properties The properties, as processed by {@link SimulatorEngine#addProperty}
+	 * @param parent PrismComponent, e.g. the simulator, to inherit the log and settings from
+	 * @throws PrismNotSupportedException if the model or one of the properties is not supported
+	 */
+	public ExplicitModelSimulator(Model model, ModulesFile modulesFile, List<Expression> properties, PrismComponent parent) throws PrismException
+	{
+		super(parent);
+		this.model = model;
+		ModelType modelType = model.getModelType();
+		if (modelType != ModelType.DTMC && modelType != ModelType.CTMC && modelType != ModelType.MDP) {
+			throw new PrismNotSupportedException("Simulation of a built " + modelType + " is not supported");
+		}
+		continuousTime = modelType.continuousTime();
+		numStates = model.getNumStates();
+		buildAliasTables();
+
+		StateModelChecker mc = StateModelChecker.createModelChecker(modelType, this);
+		mc.setModulesFileAndPropertiesFile(modulesFile, null, null);
+		this.properties = new PathProperty[properties.size()];
+		for (int j = 0; j < properties.size(); j++) {
+			this.properties[j] = createPathProperty(properties.get(j), modulesFile, mc);
+		}
+	}
+
+	/**
+	 * Get the index of a state of the model.
+	 * @throws PrismException if the state is not in the model
+	 */
+	public int getStateIndex(State state) throws PrismException
+	{
+		int s = model.getStatesList().indexOf(state);
+		if (s < 0) {
+			throw new PrismException("State " + state + " is not a state of the built model");
+		}
+		return s;
+	}
+
+	/**
+	 * Generate a single sample path for the properties, in the same way as {@link SimulatorEngine} does.
+	 * @param initialState Index of the initial state
+	 * @param maxPathLength The maximum path length for sampling
+	 * @param rng Random number generator
+	 * @return the length of the path and, iff all properties could be evaluated, their values
+	 */
+	public SimulatorEngine.SampledPath samplePath(int initialState, long maxPathLength, RandomNumberGenerator rng)
+	{
+		boolean allKnown = false;
+		boolean someUnknownButBounded = false;
+		long i;
+
+		// Start the path
+		PathState path = new PathState(initialState);
+		Object[] values = new Object[properties.length];
+		updateValues(path, values);
+
+		// Generate a path
+		i = 0;
+		while ((!allKnown && i < maxPathLength) || someUnknownButBounded) {
+			// Check status of properties
+			allKnown = true;
+			someUnknownButBounded = false;
+			for (int j = 0; j < properties.length; j++) {
+				if (values[j] == null) {
+					allKnown = false;
+					if (properties[j].needsBoundedNumSteps())
+						someUnknownButBounded = true;
+				}
+			}
+			// Stop when all answers are known or we have reached max path length
+			// (but don't stop yet if there are "bounded" properties with unkown values)
+			if ((allKnown || i >= maxPathLength) && !someUnknownButBounded)
+				break;
+			// Make a random transition (nothing happens in a deadlock)
+			if (step(path, rng))
+				updateValues(path, values);
+			i++;
+		}
+
+		return new SimulatorEngine.SampledPath(i, allKnown ? values : null);
+	}
+
+	/**
+	 * Evaluate the properties whose values are not known yet on the current path.
+	 */
+	private void updateValues(PathState path, Object[] values)
+	{
+		for (int j = 0; j < properties.length; j++) {
+			if (values[j] == null) {
+				values[j] = properties[j].evaluate(path);
+			}
+		}
+	}
+
+	/**
+	 * Select, at random, a transition from the current state of the path and take it.
+	 * Returns false (and does nothing) in a deadlock.
+	 */
+	private boolean step(PathState path, RandomNumberGenerator rng)
+	{
+		int s = path.state;
+		int numChoices = choiceStarts[s + 1] - choiceStarts[s];
+		if (numChoices == 0)
+			return false;
+		int c = (numChoices == 1) ? choiceStarts[s] : choiceStarts[s] + rng.randomUnifInt(numChoices);
+		// Alias method: pick a transition uniformly, then keep it or take its alias
+		int first = transStarts[c];
+		double d = rng.randomUnifDouble() * (transStarts[c + 1] - first);
+		int k = first + Math.min((int) d, transStarts[c + 1] - first - 1);
+		if (d - (k - first) >= aliasProbs[k])
+			k = aliases[k];
+		double time = continuousTime ? rng.randomExpDouble(exitRates[s]) : 1.0;
+		path.addStep(c, succs[k], time);
+		return true;
+	}
+
+	// Model
+
+	/**
+	 * Store the transitions of the model as alias tables (built with Vose's method).
+	 */
+	private void buildAliasTables() throws PrismException
+	{
+		List<Map.Entry<Integer, Double>> distrs = new ArrayList<Map.Entry<Integer, Double>>();
+		choiceStarts = new int[numStates + 1];
+		List<Integer> transStartsList = new ArrayList<Integer>();
+		List<Integer> succsList = new ArrayList<Integer>();
+		List<Double> weightsList = new ArrayList<Double>();
+		exitRates = continuousTime ? new double[numStates] : null;
+		deterministicLoops = new BitSet();
+		deadlocks = new BitSet();
+		int numChoices = 0;
+		for (int s = 0; s < numStates; s++) {
+			choiceStarts[s] = numChoices;
+			int numChoicesS = (model instanceof MDP) ? ((MDP) model).getNumChoices(s) : 1;
+			boolean loops = numChoicesS == 1;
+			for (int i = 0; i < numChoicesS; i++) {
+				Iterator<Map.Entry<Integer, Double>> iter = (model instanceof MDP) ? ((MDP) model).getTransitionsIterator(s, i)
+						: ((DTMC) model).getTransitionsIterator(s);
+				int start = succsList.size();
+				double sum = 0.0;
+				while (iter.hasNext()) {
+					Map.Entry<Integer, Double> e = iter.next();
+					if (e.getValue() > 0.0) {
+						succsList.add(e.getKey());
+						weightsList.add(e.getValue());
+						sum += e.getValue();
+					}
+				}
+				int n = succsList.size() - start;
+				loops &= n == 1 && succsList.get(start) == s;
+				// A Markov chain state without transitions is a deadlock, i.e. has no choice
+				if (n == 0 && !(model instanceof MDP))
+					continue;
+				if (continuousTime)
+					exitRates[s] = sum;
+				transStartsList.add(start);
+				numChoices++;
+			}
+			if (loops && !continuousTime)
+				deterministicLoops.set(s);
+			if ((loops && continuousTime) || numChoices == choiceStarts[s] || model.isDeadlockState(s))
+				deadlocks.set(s);
+		}
+		choiceStarts[numStates] = numChoices;
+		transStarts = new int[numChoices + 1];
+		for (int c = 0; c < numChoices; c++) {
+			transStarts[c] = transStartsList.get(c);
+		}
+		transStarts[numChoices] = succsList.size();
+
+		int numTransitions = succsList.size();
+		succs = new int[numTransitions];
+		aliasProbs = new double[numTransitions];
+		aliases = new int[numTransitions];
+		double[] scaled = new double[numTransitions];
+		int[] small = new int[numTransitions];
+		int[] large = new int[numTransitions];
+		for (int k = 0; k < numTransitions; k++) {
+			succs[k] = succsList.get(k);
+		}
+		for (int c = 0; c < numChoices; c++) {
+			int first = transStarts[c], n = transStarts[c + 1] - first;
+			double sum = 0.0;
+			for (int k = first; k < first + n; k++) {
+				sum += weightsList.get(k);
+			}
+			// Scale the weights to mean 1 and pair each underfull column with an overfull one
+			int numSmall = 0, numLarge = 0;
+			for (int k = first; k < first + n; k++) {
+				scaled[k] = weightsList.get(k) * n / sum;
+				aliases[k] = k;
+				if (scaled[k] < 1.0)
+					small[numSmall++] = k;
+				else
+					large[numLarge++] = k;
+			}
+			while (numSmall > 0 && numLarge > 0) {
+				int l = small[--numSmall], g = large[--numLarge];
+				aliasProbs[l] = scaled[l];
+				aliases[l] = g;
+				scaled[g] = (scaled[g] + scaled[l]) - 1.0;
+				if (scaled[g] < 1.0)
+					small[numSmall++] = g;
+				else
+					large[numLarge++] = g;
+			}
+			// Remaining columns are full (up to round-off)
+			while (numLarge > 0)
+				aliasProbs[large[--numLarge]] = 1.0;
+			while (numSmall > 0)
+				aliasProbs[small[--numSmall]] = 1.0;
+		}
+	}
+
+	/**
+	 * Get the index of a reward structure in {@code rewardStructs}, building its arrays if needed.
+	 */
+	private int getRewardIndex(int rsi, ModulesFile modulesFile) throws PrismException
+	{
+		int r = rewardStructs.indexOf(rsi);
+		if (r >= 0)
+			return r;
+		ConstructRewards constructRewards = new ConstructRewards(mainLog);
+		double[] stateRews = new double[numStates];
+		double[] choiceRews = null;
+		if (model instanceof MDP) {
+			MDPRewards rews = constructRewards.buildMDPRewardStructure((MDP) model, modulesFile.getRewardStruct(rsi), modulesFile.getConstantValues());
+			choiceRews = new double[choiceStarts[numStates]];
+			for (int s = 0; s < numStates; s++) {
+				stateRews[s] = rews.getStateReward(s);
+				for (int c = choiceStarts[s]; c < choiceStarts[s + 1]; c++) {
+					choiceRews[c] = rews.getTransitionReward(s, c - choiceStarts[s]);
+				}
+			}
+		} else {
+			// (transition rewards of Markov chains are not supported by the explicit engine)
+			MCRewards rews = constructRewards.buildMCRewardStructure((DTMC) model, modulesFile.getRewardStruct(rsi), modulesFile.getConstantValues());
+			for (int s = 0; s < numStates; s++) {
+				stateRews[s] = rews.getStateReward(s);
+			}
+		}
+		rewardStructs.add(rsi);
+		stateRewards.add(stateRews);
+		choiceRewards.add(choiceRews);
+		return rewardStructs.size() - 1;
+	}
+
+	// Paths
+
+	/**
+	 * The current state of a path, and the information about it that is needed by the properties.
+	 */
+	private class PathState
+	{
+		// Current/previous state, number of steps, total time and time in the previous state
+		private int state;
+		private int previousState = -1;
+		private long size = 0;
+		private double totalTime = 0.0;
+		private double timeInPreviousState = 0.0;
+		// Is the path looping deterministically (discrete-time only)?
+		private boolean looping = false;
+		// Cumulative rewards, and the state/transition rewards of the previous state/step
+		private double[] totalRewards = new double[rewardStructs.size()];
+		private double[] previousStateRewards = new double[rewardStructs.size()];
+		private double[] previousTransitionRewards = new double[rewardStructs.size()];
+
+		private PathState(int initialState)
+		{
+			state = initialState;
+		}
+
+		private void addStep(int choice, int successor, double time)
+		{
+			for (int r = 0; r < totalRewards.length; r++) {
+				double[] choiceRews = choiceRewards.get(r);
+				previousStateRewards[r] = stateRewards.get(r)[state];
+				previousTransitionRewards[r] = (choiceRews == null) ? 0.0 : choiceRews[choice];
+				totalRewards[r] += previousStateRewards[r] * time + previousTransitionRewards[r];
+			}
+			looping |= deterministicLoops.get(state);
+			previousState = state;
+			state = successor;
+			size++;
+			totalTime += time;
+			timeInPreviousState = time;
+		}
+
+		private boolean isDeadlock()
+		{
+			return deadlocks.get(state);
+		}
+
+		private double getCurrentStateReward(int r)
+		{
+			return stateRewards.get(r)[state];
+		}
+	}
+
+	// Properties
+
+	/**
+	 * A (simulator) property, evaluated on a path. Properties have no state of their own,
+	 * so that they can be shared by concurrently generated paths.
+	 */
+	private abstract static class PathProperty
+	{
+		/**
+		 * Get the value of the property on the path so far (as a Boolean or Double), or null if it is not known yet.
+		 * This is called at every step of the path until the value is known.
+		 */
+		abstract Object evaluate(ExplicitModelSimulator.PathState path);
+
+		/**
+		 * Does this property only require a bounded number of path steps?
+		 */
+		boolean needsBoundedNumSteps()
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Create a path property for a (processed) P=? or R=? property,
+	 * following {@link simulator.sampler.Sampler#createSampler}.
+	 */
+	private PathProperty createPathProperty(Expression expr, ModulesFile modulesFile, StateModelChecker mc) throws PrismException
+	{
+		// P=?
+		if (expr instanceof ExpressionProb && ((ExpressionProb) expr).getExpression().isSimplePathFormula()) {
+			return createPathPropertyForProb(((ExpressionProb) expr).getExpression(), false, mc);
+		}
+		// R=?
+		if (expr instanceof ExpressionReward && ((ExpressionReward) expr).getExpression() instanceof ExpressionTemporal) {
+			return createPathPropertyForReward((ExpressionReward) expr, modulesFile, mc);
+		}
+		throw new PrismNotSupportedException("Can't simulate property \"" + expr + "\" on the built model");
+	}
+
+	private PathProperty createPathPropertyForProb(Expression expr, boolean negated, StateModelChecker mc) throws PrismException
+	{
+		// Negation/parentheses
+		if (expr instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp exprUnary = (ExpressionUnaryOp) expr;
+			if (exprUnary.getOperator() == ExpressionUnaryOp.PARENTH) {
+				return createPathPropertyForProb(exprUnary.getOperand(), negated, mc);
+			} else if (exprUnary.getOperator() == ExpressionUnaryOp.NOT) {
+				return createPathPropertyForProb(exprUnary.getOperand(), !negated, mc);
+			}
+		}
+		// Temporal operators
+		else if (expr instanceof ExpressionTemporal) {
+			ExpressionTemporal exprTemp = (ExpressionTemporal) expr;
+			// Next
+			if (exprTemp.getOperator() == ExpressionTemporal.P_X) {
+				return new Next(checkStates(exprTemp.getOperand2(), mc), negated);
+			}
+			// Until
+			else if (exprTemp.getOperator() == ExpressionTemporal.P_U) {
+				BitSet left = checkStates(exprTemp.getOperand1(), mc);
+				BitSet right = checkStates(exprTemp.getOperand2(), mc);
+				if (!exprTemp.hasBounds()) {
+					return new Until(left, right, negated);
+				} else if (continuousTime) {
+					return new BoundedUntilCont(exprTemp, left, right, negated);
+				} else {
+					return new BoundedUntilDisc(exprTemp, left, right, negated);
+				}
+			}
+			// Anything else - convert to until and recurse
+			else {
+				return createPathPropertyForProb(exprTemp.convertToUntilForm(), negated, mc);
+			}
+		}
+		throw new PrismNotSupportedException("Can't simulate property \"" + expr + "\" on the built model");
+	}
+
+	private PathProperty createPathPropertyForReward(ExpressionReward expr, ModulesFile modulesFile, StateModelChecker mc) throws PrismException
+	{
+		// Extract reward structure index (as in Sampler)
+		Object rs = expr.getRewardStructIndex();
+		int rsi = -1;
+		if (modulesFile.getNumRewardStructs() == 0)
+			throw new PrismException("Model has no rewards specified");
+		if (rs == null) {
+			rsi = 0;
+		} else if (rs instanceof Expression) {
+			rsi = ((Expression) rs).evaluateInt();
+			rs = new Integer(rsi); // for better error reporting below
+			rsi = (rsi < 1 || rsi > modulesFile.getNumRewardStructs()) ? -1 : rsi - 1;
+		} else if (rs instanceof String) {
+			rsi = modulesFile.getRewardStructIndex((String) rs);
+		}
+		if (rsi == -1)
+			throw new PrismException("Invalid reward structure index \"" + rs + "\"");
+
+		ExpressionTemporal exprTemp = (ExpressionTemporal) expr.getExpression();
+		switch (exprTemp.getOperator()) {
+		case ExpressionTemporal.R_C:
+			return new RewardCumul(exprTemp.getUpperBound().evaluateDouble(), getRewardIndex(rsi, modulesFile));
+		case ExpressionTemporal.R_I:
+			return new RewardInst(exprTemp.getUpperBound().evaluateDouble(), getRewardIndex(rsi, modulesFile));
+		case ExpressionTemporal.P_F:
+			if (exprTemp.isSimplePathFormula()) {
+				return new RewardReach(checkStates(exprTemp.getOperand2(), mc), getRewardIndex(rsi, modulesFile));
+			}
+		}
+		throw new PrismNotSupportedException("Can't simulate property \"" + expr + "\" on the built model");
+	}
+
+	/**
+	 * Compute the states of the model satisfying a state formula.
+	 */
+	private BitSet checkStates(Expression expr, StateModelChecker mc) throws PrismException
+	{
+		return mc.checkExpression(model, expr, null).getBitSet();
+	}
+
+	/**
+	 * X target (see {@link simulator.sampler.SamplerNext}).
+	 */
+	private static class Next extends PathProperty
+	{
+		private final BitSet target;
+		private final boolean negated;
+
+		private Next(BitSet target, boolean negated)
+		{
+			this.target = target;
+			this.negated = negated;
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			if (path.size == 1)
+				return target.get(path.state) != negated;
+			return null;
+		}
+
+		@Override
+		boolean needsBoundedNumSteps()
+		{
+			return true;
+		}
+	}
+
+	/**
+	 * left U right (see {@link simulator.sampler.SamplerUntil}).
+	 */
+	private static class Until extends PathProperty
+	{
+		private final BitSet left;
+		private final BitSet right;
+		private final boolean negated;
+
+		private Until(BitSet left, BitSet right, boolean negated)
+		{
+			this.left = left;
+			this.right = right;
+			this.negated = negated;
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			if (right.get(path.state))
+				return !negated;
+			if (!left.get(path.state) || path.isDeadlock() || path.looping)
+				return negated;
+			return null;
+		}
+	}
+
+	/**
+	 * left U[lb,ub] right, discrete time (see {@link simulator.sampler.SamplerBoundedUntilDisc}).
+	 */
+	private static class BoundedUntilDisc extends PathProperty
+	{
+		private final BitSet left;
+		private final BitSet right;
+		private final boolean negated;
+		private int lb;
+		private int ub;
+
+		private BoundedUntilDisc(ExpressionTemporal expr, BitSet left, BitSet right, boolean negated) throws PrismException
+		{
+			this.left = left;
+			this.right = right;
+			this.negated = negated;
+			// Bounds, converted to non-strict ones
+			lb = (expr.getLowerBound() == null) ? 0 : expr.getLowerBound().evaluateInt() + (expr.lowerBoundIsStrict() ? 1 : 0);
+			if (lb < 0)
+				throw new PrismException("Invalid lower bound in " + expr);
+			ub = (expr.getUpperBound() == null) ? Integer.MAX_VALUE : expr.getUpperBound().evaluateInt() - (expr.upperBoundIsStrict() ? 1 : 0);
+			if (ub < 0)
+				throw new PrismException("Invalid upper bound in " + expr);
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			// Upper bound exceeded
+			if (path.size > ub)
+				return negated;
+			// Lower bound not yet exceeded but LHS of until violated
+			if (path.size < lb)
+				return left.get(path.state) ? null : negated;
+			// Current time is between lower/upper bounds
+			if (right.get(path.state))
+				return !negated;
+			if (!left.get(path.state) || path.isDeadlock())
+				return negated;
+			return null;
+		}
+
+		@Override
+		boolean needsBoundedNumSteps()
+		{
+			return true;
+		}
+	}
+
+	/**
+	 * left U[lb,ub] right, continuous time (see {@link simulator.sampler.SamplerBoundedUntilCont}).
+	 */
+	private static class BoundedUntilCont extends PathProperty
+	{
+		private final BitSet left;
+		private final BitSet right;
+		private final boolean negated;
+		private double lb;
+		private double ub;
+
+		private BoundedUntilCont(ExpressionTemporal expr, BitSet left, BitSet right, boolean negated) throws PrismException
+		{
+			this.left = left;
+			this.right = right;
+			this.negated = negated;
+			lb = (expr.getLowerBound() == null) ? 0.0 : expr.getLowerBound().evaluateDouble();
+			ub = (expr.getUpperBound() == null) ? Double.POSITIVE_INFINITY : expr.getUpperBound().evaluateDouble();
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			// First path state
+			if (path.size == 0) {
+				if (lb == 0.0)
+					return right.get(path.state) ? !negated : null;
+				return left.get(path.state) ? null : negated;
+			}
+			// Upper time bound was exceeded (for first time) in previous state
+			if (path.totalTime > ub)
+				return right.get(path.previousState) != negated;
+			// Lower bound not yet exceeded but LHS of until violated
+			if (path.totalTime <= lb)
+				return left.get(path.state) ? null : negated;
+			// Current time is between lower/upper bounds
+			if (right.get(path.state))
+				return !negated;
+			if (!left.get(path.state))
+				return negated;
+			// Lower bound exceeded for the first time in the previous state, which satisfies the RHS
+			if (path.totalTime - path.timeInPreviousState <= lb)
+				return right.get(path.previousState) ? !negated : null;
+			if (path.isDeadlock())
+				return negated;
+			return null;
+		}
+
+		@Override
+		boolean needsBoundedNumSteps()
+		{
+			return true;
+		}
+	}
+
+	/**
+	 * C<=t (see {@link simulator.sampler.SamplerRewardCumulDisc}/{@link simulator.sampler.SamplerRewardCumulCont}).
+	 */
+	private class RewardCumul extends PathProperty
+	{
+		private final double timeBound;
+		private final int r;
+
+		private RewardCumul(double timeBound, int r)
+		{
+			this.timeBound = timeBound;
+			this.r = r;
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			if (!continuousTime)
+				return (path.size == (int) timeBound) ? (Object) path.totalRewards[r] : null;
+			if (path.totalTime >= timeBound) {
+				double value = path.totalRewards[r];
+				// Subtract reward accumulated after the time bound was reached
+				double excessTime = path.totalTime - timeBound;
+				if (excessTime > 0) {
+					value -= path.previousStateRewards[r] * excessTime;
+					value -= path.previousTransitionRewards[r];
+				}
+				return value;
+			}
+			if (path.isDeadlock())
+				return path.totalRewards[r] + path.getCurrentStateReward(r) * (timeBound - path.totalTime);
+			return null;
+		}
+
+		@Override
+		boolean needsBoundedNumSteps()
+		{
+			return true;
+		}
+	}
+
+	/**
+	 * I=t (see {@link simulator.sampler.SamplerRewardInstDisc}/{@link simulator.sampler.SamplerRewardInstCont}).
+	 */
+	private class RewardInst extends PathProperty
+	{
+		private final double time;
+		private final int r;
+
+		private RewardInst(double time, int r)
+		{
+			this.time = time;
+			this.r = r;
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			if (!continuousTime) {
+				if (path.size == (int) time || path.isDeadlock())
+					return path.getCurrentStateReward(r);
+				return null;
+			}
+			if (path.totalTime > time)
+				return path.previousStateRewards[r];
+			if (path.totalTime == time || path.isDeadlock())
+				return path.getCurrentStateReward(r);
+			return null;
+		}
+
+		@Override
+		boolean needsBoundedNumSteps()
+		{
+			return true;
+		}
+	}
+
+	/**
+	 * F target (see {@link simulator.sampler.SamplerRewardReach}).
+	 */
+	private static class RewardReach extends PathProperty
+	{
+		private final BitSet target;
+		private final int r;
+
+		private RewardReach(BitSet target, int r)
+		{
+			this.target = target;
+			this.r = r;
+		}
+
+		@Override
+		Object evaluate(PathState path)
+		{
+			return target.get(path.state) ? (Object) path.totalRewards[r] : null;
+		}
+	}
+}
@@ -28,9 +28,13 @@
 package simulator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import explicit.GSMPEvent;
+import parser.ExpressionCompiler;
+import parser.ExpressionCompiler.BooleanEvaluator;
 import parser.State;
 import parser.Values;
 import parser.VarList;
@@ -53,6 +57,7 @@ import prism.ModelType;
 import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismLangException;
+import prism.PrismSettings;
 
 public class ModulesFileModelGenerator implements ModelGenerator
 {
@@ -69,6 +74,8 @@ public class ModulesFileModelGenerator implements ModelGenerator
 	private VarList varList;
 	private LabelList labelList;
 	private List<String> labelNames;
+	/** Compiled label expressions (null if not compiled) */
+	private BooleanEvaluator compiledLabels[];
 	
 	// Model exploration info
 	
@@ -81,6 +88,61 @@ public class ModulesFileModelGenerator implements ModelGenerator
 	// Has the transition list been built? 
 	protected boolean transitionListBuilt;
 	
+	// GSMP events interned during model construction (see {@link #internGSMPEvent(String)})
+	
+	/** Resolved distribution of each event, by event name */
+	private Map<String, EventDistribution> eventDistributions = new HashMap<String, EventDistribution>();
+	/** Interned events whose parameters depend on the state, keyed by event name and evaluated parameters */
+	private Map<EventKey, GSMPEvent> internedEvents = new HashMap<EventKey, GSMPEvent>();
+	
+	/**
+	 * Distribution of an event, resolved from the modules file and checked once.
+	 */
+	private static class EventDistribution
+	{
+		private TypeDistribution distributionType;
+		private Expression firstParameter;
+		private Expression secondParameter;
+		/** The interned event if its parameters do not depend on the state, null otherwise */
+		private GSMPEvent stateIndependentEvent;
+	}
+	
+	/**
+	 * Key of an interned event, i.e. the event name and the evaluated parameters.
+	 */
+	private static class EventKey
+	{
+		private final String eventName;
+		private final double firstParameter;
+		private final double secondParameter;
+		
+		private EventKey(String eventName, double firstParameter, double secondParameter)
+		{
+			this.eventName = eventName;
+			this.firstParameter = firstParameter;
+			this.secondParameter = secondParameter;
+		}
+		
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof EventKey))
+				return false;
+			EventKey other = (EventKey) o;
+			return eventName.equals(other.eventName) && Double.compare(firstParameter, other.firstParameter) == 0
+					&& Double.compare(secondParameter, other.secondParameter) == 0;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			int hash = eventName.hashCode();
+			hash = 31 * hash + Double.hashCode(firstParameter);
+			hash = 31 * hash + Double.hashCode(secondParameter);
+			return hash;
+		}
+	}
+	
 	/**
 	 * Build a ModulesFileModelGenerator for a particular PRISM model, represented by a ModuleFile instance.
 	 * @param modulesFile The PRISM model
@@ -120,6 +182,41 @@ public class ModulesFileModelGenerator implements ModelGenerator
 		}
 	}
 	
+	/**
+	 * Build a ModulesFileModelGenerator exploring the same (already initialised) model as {@code other}.
+	 * The modules file is shared, but the objects used to explore states are not (see {@link #createExplorationCopy()}).
+	 */
+	private ModulesFileModelGenerator(ModulesFileModelGenerator other)
+	{
+		parent = other.parent;
+		originalModulesFile = other.originalModulesFile;
+		modulesFile = other.modulesFile;
+		modelType = other.modelType;
+		mfConstants = other.mfConstants;
+		varList = other.varList;
+		labelList = other.labelList;
+		labelNames = other.labelNames;
+		compiledLabels = other.compiledLabels;
+		updater = new Updater(modulesFile, varList, parent);
+		transitionList = new TransitionList();
+		transitionListBuilt = false;
+	}
+
+	/**
+	 * Creates a generator for the same model that can explore states independently of this one,
+	 * e.g. in another thread during parallel model construction. The modules file is shared (and must
+	 * not be modified while the copy is in use); the updater, transition list and interned GSMP events are not.
+	 * Any constants must have been defined, and for GSMPs, {@link #translateCTMCCommandsIntoGSMPCommands()}
+	 * must have been called on this generator first.
+	 */
+	public ModulesFileModelGenerator createExplorationCopy() throws PrismException
+	{
+		if (updater == null) {
+			throw new PrismException("Cannot copy a model generator whose constants are undefined");
+		}
+		return new ModulesFileModelGenerator(this);
+	}
+
 	/**
 	 * (Re-)Initialise the class ready for model exploration
 	 * (can only be done once any constants needed have been provided)
@@ -133,11 +230,19 @@ public class ModulesFileModelGenerator implements ModelGenerator
 		varList = modulesFile.createVarList();
 		labelList = modulesFile.getLabelList();
 		labelNames = labelList.getLabelNames();
+		compiledLabels = null;
+		if (parent.getSettings().getBoolean(PrismSettings.PRISM_COMPILE_EXPRESSIONS)) {
+			compiledLabels = new BooleanEvaluator[labelList.size()];
+			for (int i = 0; i < labelList.size(); i++) {
+				compiledLabels[i] = ExpressionCompiler.compileBoolean(labelList.getLabel(i));
+			}
+		}
 		
 		// Create data structures for exploring model
 		updater = new Updater(modulesFile, varList, parent);
 		transitionList = new TransitionList();
 		transitionListBuilt = false;
+		clearInternedGSMPEvents();
 	}
 	
 	// Methods for ModelInfo interface
@@ -366,6 +471,9 @@ public class ModulesFileModelGenerator implements ModelGenerator
 	@Override
 	public boolean isLabelTrue(int i) throws PrismException
 	{
+		if (compiledLabels != null) {
+			return compiledLabels[i].evaluate(exploreState);
+		}
 		Expression expr = labelList.getLabel(i);
 		return expr.evaluateBoolean(exploreState);
 	}
@@ -469,6 +577,8 @@ public class ModulesFileModelGenerator implements ModelGenerator
 	 * This method is intended to be called at the beginning of building a GSMP - before anything else is done.
 	 */
 	public void translateCTMCCommandsIntoGSMPCommands() {
+		// new events are added to the modules file
+		clearInternedGSMPEvents();
 		//traverse all modules and get all commands
 		for (int i = 0; i < modulesFile.getNumModules() ; ++i) {
 			for (int j = 0; j < modulesFile.getModule(i).getNumCommands() ; ++j) {
@@ -525,6 +635,10 @@ public class ModulesFileModelGenerator implements ModelGenerator
 				}
 			}
 		}
+		// the updater compiled the old rates of the commands, so it is created again
+		if (updater != null) {
+			updater = new Updater(modulesFile, varList, parent);
+		}
 	}
 	
 	/**
@@ -534,34 +648,131 @@ public class ModulesFileModelGenerator implements ModelGenerator
 	 * @throws PrismLangException The distribution parameters are invalid.
 	 */
 	public GSMPEvent generateGSMPEvent(String eventName) throws PrismLangException {
+		EventDistribution distribution = resolveEventDistribution(eventName);
+		return createGSMPEvent(eventName, distribution, evaluateFirstParameter(distribution), evaluateSecondParameter(distribution));
+	}
+	
+	/**
+	 * Returns the GSMP event {@link #generateGSMPEvent(String)} would create in the current state,
+	 * but reuses the events created before. The distribution of each event is resolved and checked only once,
+	 * and if the parameters of the event do not depend on the state, they are evaluated only once as well.
+	 * Otherwise, the events are interned by their evaluated parameters.
+	 * This makes the per-transition cost of GSMP model construction a hash lookup.
+	 * <br>
+	 * The returned event is shared, so it must not be modified (e.g. it can be passed to {@link explicit.GSMP#addEvent(GSMPEvent)}, which copies it).
+	 * @param eventName name of the event
+	 * @return GSMPEvent
+	 * @throws PrismLangException The distribution parameters are invalid.
+	 */
+	public GSMPEvent internGSMPEvent(String eventName) throws PrismLangException {
+		EventDistribution distribution = eventDistributions.get(eventName);
+		if (distribution == null) {
+			distribution = resolveEventDistribution(eventName);
+			if ((distribution.firstParameter == null || distribution.firstParameter.isConstant())
+					&& (distribution.secondParameter == null || distribution.secondParameter.isConstant())) {
+				distribution.stateIndependentEvent = createGSMPEvent(eventName, distribution, evaluateFirstParameter(distribution), evaluateSecondParameter(distribution));
+			}
+			eventDistributions.put(eventName, distribution);
+		}
+		if (distribution.stateIndependentEvent != null) {
+			return distribution.stateIndependentEvent;
+		}
+		double firstParameter = evaluateFirstParameter(distribution);
+		double secondParameter = evaluateSecondParameter(distribution);
+		EventKey key = new EventKey(eventName, firstParameter, secondParameter);
+		GSMPEvent event = internedEvents.get(key);
+		if (event == null) {
+			event = createGSMPEvent(eventName, distribution, firstParameter, secondParameter);
+			internedEvents.put(key, event);
+		}
+		return event;
+	}
+	
+	/**
+	 * Forgets all events interned by {@link #internGSMPEvent(String)}.
+	 */
+	private void clearInternedGSMPEvents() {
+		eventDistributions.clear();
+		internedEvents.clear();
+	}
+	
+	/**
+	 * Finds the distribution assigned to the astEvent of name {@code eventName} and checks its parameters.
+	 * @throws PrismLangException The distribution parameters are invalid.
+	 */
+	private EventDistribution resolveEventDistribution(String eventName) throws PrismLangException {
 		//find the distribution assigned to the astEvent;
 		Event astEvent = modulesFile.getEvent(eventName);
 		DistributionList distributions = astEvent.getParent().getParent().getDistributionList();
 		int distrIndex = distributions.getDistributionIndex(astEvent.getDistributionName());
 		
-		//obtain the distribution parameters
-		TypeDistribution distributionType = distributions.getDistributionType(distrIndex);
-		String eventNameWithSuffix = eventName + "\"=" + distributionType.getTypeString();
-		double firstParameter = 0.0;
-		if (distributionType.getNumParams() >= 1) {
-			firstParameter = distributions.getFirstParameter(distrIndex).evaluateDouble(mfConstants, new Values(exploreState, modulesFile));
-			eventNameWithSuffix += "(" + firstParameter;
+		EventDistribution distribution = new EventDistribution();
+		distribution.distributionType = distributions.getDistributionType(distrIndex);
+		if (distribution.distributionType.getNumParams() >= 1) {
+			distribution.firstParameter = distributions.getFirstParameter(distrIndex);
 		}
-		double secondParameter = 0.0;
-		if (distributionType.getNumParams() >= 2) {
-			secondParameter = distributions.getSecondParameter(distrIndex).evaluateDouble(mfConstants, new Values(exploreState, modulesFile));
-			eventNameWithSuffix += "," + secondParameter;
+		if (distribution.distributionType.getNumParams() >= 2) {
+			distribution.secondParameter = distributions.getSecondParameter(distrIndex);
 		}
-		eventNameWithSuffix += ")";
 		
 		//check whether the event distribution parameters are valid
 		try {
-			distributionType.parameterValueCheck(distributions.getFirstParameter(distrIndex), distributions.getSecondParameter(distrIndex), mfConstants);
+			distribution.distributionType.parameterValueCheck(distributions.getFirstParameter(distrIndex), distributions.getSecondParameter(distrIndex), mfConstants);
 		} catch (PrismLangException e) { //rethrow the exception with better positioning info!
 			throw new PrismLangException(e.getMessage(), distributions.getDistributionNameIdent(distrIndex));
 		}
-		
+		return distribution;
+	}
+	
+	/**
+	 * Evaluates the first parameter of {@code distribution} in the current state (0.0 if it has none).
+	 */
+	private double evaluateFirstParameter(EventDistribution distribution) throws PrismLangException {
+		if (distribution.firstParameter == null) {
+			return 0.0;
+		}
+		return distribution.firstParameter.evaluateDouble(mfConstants, new Values(exploreState, modulesFile));
+	}
+	
+	/**
+	 * Evaluates the second parameter of {@code distribution} in the current state (0.0 if it has none).
+	 */
+	private double evaluateSecondParameter(EventDistribution distribution) throws PrismLangException {
+		if (distribution.secondParameter == null) {
+			return 0.0;
+		}
+		return distribution.secondParameter.evaluateDouble(mfConstants, new Values(exploreState, modulesFile));
+	}
+	
+	/**
+	 * Creates a new GSMP event of name {@code eventName} with the given distribution and evaluated parameters.
+	 */
+	private GSMPEvent createGSMPEvent(String eventName, EventDistribution distribution, double firstParameter, double secondParameter) {
+		TypeDistribution distributionType = distribution.distributionType;
+		String eventNameWithSuffix = eventName + "\"=" + distributionType.getTypeString();
+		if (distributionType.getNumParams() >= 1) {
+			eventNameWithSuffix += "(" + firstParameter;
+		}
+		if (distributionType.getNumParams() >= 2) {
+			eventNameWithSuffix += "," + secondParameter;
+		}
+		eventNameWithSuffix += ")";
 		return (new GSMPEvent(distributionType, firstParameter, secondParameter, eventNameWithSuffix, eventName));
 	}
 	
+	/**
+	 * Re-evaluates the distribution parameters of an already constructed GSMP event
+	 * for the current values of the constants, and updates the parameters and the identifier of the event
+	 * to those {@link #generateGSMPEvent(String)} would produce.
+	 * The transitions of the event are kept, so the distribution parameters must not depend on the state.
+	 * @param event event previously created by {@link #generateGSMPEvent(String)}
+	 * @throws PrismLangException The distribution parameters are invalid.
+	 */
+	public void updateGSMPEventParameters(GSMPEvent event) throws PrismLangException {
+		GSMPEvent updated = generateGSMPEvent(event.getOriginalIdentifier());
+		event.setFirstParameter(updated.getFirstParameter());
+		event.setSecondParameter(updated.getSecondParameter());
+		event.setIdentifier(updated.getIdentifier());
+	}
+	
 }
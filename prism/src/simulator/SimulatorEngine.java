@@ -27,9 +27,17 @@
 package simulator;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
-
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import explicit.Model;
 import parser.State;
 import parser.Values;
 import parser.VarList;
@@ -48,6 +56,8 @@ import prism.PrismException;
 import prism.PrismFileLog;
 import prism.PrismLangException;
 import prism.PrismLog;
+import prism.PrismNotSupportedException;
+import prism.PrismSettings;
 import prism.PrismUtils;
 import prism.ResultsCollection;
 import prism.UndefinedConstants;
@@ -93,6 +103,8 @@ import userinterface.graph.Graph;
  * <LI> {@link #modelCheckMultipleProperties}
  * <LI> {@link #modelCheckExperiment}
  * </UL>
+ * If {@code simulator.numThreads} is greater than 1, sample paths are generated concurrently
+ * (see {@link #doSampling}).
  */
 public class SimulatorEngine extends PrismComponent
 {
@@ -138,6 +150,17 @@ public class SimulatorEngine extends PrismComponent
 	protected Updater updater;
 	// Random number generator
 	private RandomNumberGenerator rng;
+	// Generator of the seeds of the random number streams for parallel sampling
+	private SplittableRandom seedGenerator;
+
+	// Number of sample paths generated by one task of a worker thread during parallel sampling
+	private static final int PATHS_PER_TASK = 32;
+
+	// Model built by the explicit engine, on which to sample (if non-null)
+	private Model explicitModel;
+	// Backend generating paths on the built model during sampling, and the index of the initial state
+	private ExplicitModelSimulator explicitSimulator;
+	private int explicitInitialState;
 
 	// ------------------------------------------------------------------------------
 	// Basic setup
@@ -167,6 +190,28 @@ public class SimulatorEngine extends PrismComponent
 		tmpTransitionRewards = null;
 		updater = null;
 		rng = new RandomNumberGenerator();
+		seedGenerator = new SplittableRandom();
+	}
+
+	/**
+	 * Set a model, built by the explicit engine from the model that will be passed to the model checking methods,
+	 * on which sampling is done instead (see {@link ExplicitModelSimulator}). Use null to sample on the model description.
+	 * If some property cannot be simulated on the built model, the model description is used after all.
+	 */
+	public void setExplicitModel(Model explicitModel)
+	{
+		this.explicitModel = explicitModel;
+	}
+
+	/**
+	 * Set the seed of the random number generator(s), making the sampling reproducible.
+	 * The sample paths, and thus the results, are then also independent of the number of threads
+	 * (see {@link #doSampling}). This is done for every sampling if the {@code simulator.seed} setting is non-zero.
+	 */
+	public void setSeed(long seed)
+	{
+		seedGenerator = new SplittableRandom(seed);
+		rng = new RandomNumberGenerator(seedGenerator.nextInt());
 	}
 
 	// ------------------------------------------------------------------------------
@@ -1680,6 +1725,17 @@ public class SimulatorEngine extends PrismComponent
 	 * Sample paths are from the specified initial state and maximum length.
 	 * Termination of the sampling process occurs when the SimulationMethod object
 	 * for all properties indicate that it is finished.
+	 * <br>
+	 * If a built model has been set (see {@link #setExplicitModel}), the paths are generated on it.
+	 * If {@code simulator.numThreads} is greater than 1, the paths are generated by worker threads,
+	 * each with its own on-the-fly path, updater and samplers (see {@link SamplingWorkers}).
+	 * The values of the paths are still passed to the samplers of this engine one by one,
+	 * in the order of the paths, and the stopping criteria are checked after each of them,
+	 * exactly as in sequential sampling. So, sequential methods (e.g. SPRT) remain sound:
+	 * paths generated after all properties are done are just discarded.
+	 * Sequential sampling uses the same random number streams as the workers
+	 * (a new one, drawn from {@code seedGenerator}, for every {@code PATHS_PER_TASK} paths),
+	 * so the paths do not depend on the number of threads.
 	 * @param initialState Initial state (if null, is selected randomly)
 	 * @param maxPathLength The maximum path length for sampling
 	 */
@@ -1692,7 +1748,6 @@ public class SimulatorEngine extends PrismComponent
 		boolean deadlocksFound = false;
 		boolean allDone = false;
 		boolean allKnown = false;
-		boolean someUnknownButBounded = false;
 		boolean shouldStopSampling = false;
 		// Path stats
 		double avgPathLength = 0;
@@ -1704,81 +1759,108 @@ public class SimulatorEngine extends PrismComponent
 		long start, stop;
 		double time_taken;
 
-		// Start
-		start = System.currentTimeMillis();
-		mainLog.print("\nSampling progress: [");
-		mainLog.flush();
+		// Sample on the built model, if there is one and all properties can be simulated on it
+		explicitSimulator = null;
+		if (explicitModel != null) {
+			try {
+				explicitSimulator = new ExplicitModelSimulator(explicitModel, modulesFile, properties, this);
+				if (initialState != null) {
+					explicitInitialState = explicitSimulator.getStateIndex(initialState);
+				} else if (modulesFile.getInitialStates() == null) {
+					explicitInitialState = explicitSimulator.getStateIndex(modulesFile.getDefaultInitialState());
+				} else {
+					throw new PrismException("Random choice of multiple initial states not yet supported");
+				}
+				mainLog.println("\nSampling on the built model (" + explicitModel.getNumStates() + " states)");
+			} catch (PrismNotSupportedException e) {
+				explicitSimulator = null;
+				mainLog.printWarning(e.getMessage() + ", so sampling on the model description instead.");
+			}
+		}
 
-		// Main sampling loop
-		iters = 0;
-		while (!shouldStopSampling) {
+		// Seed the random number generators, if required
+		PrismSettings settings = getSettings();
+		if (settings != null && settings.getLong(PrismSettings.SIMULATOR_SEED) != 0) {
+			setSeed(settings.getLong(PrismSettings.SIMULATOR_SEED));
+		}
 
-			// See if all properties are done; if so, stop sampling
-			allDone = true;
-			for (Sampler sampler : propertySamplers) {
-				if (!sampler.getSimulationMethod().shouldStopNow(iters, sampler))
-					allDone = false;
-			}
-			if (allDone)
-				break;
+		// Set up worker threads, if required
+		int numThreads = (settings != null) ? Math.max(1, settings.getInteger(PrismSettings.SIMULATOR_NUM_THREADS)) : 1;
+		SamplingWorkers workers = null;
+		if (numThreads > 1) {
+			workers = new SamplingWorkers(numThreads, initialState, maxPathLength);
+			mainLog.println("\nSampling with " + numThreads + " threads");
+		}
 
-			// Display progress (of slowest property)
-			percentageDone = 100;
-			for (Sampler sampler : propertySamplers) {
-				percentageDone = Math.min(percentageDone, sampler.getSimulationMethod().getProgress(iters, sampler));
-			}
-			if (percentageDone > lastPercentageDone) {
-				lastPercentageDone = percentageDone;
-				mainLog.print(" " + lastPercentageDone + "%");
-				mainLog.flush();
-			}
+		try {
+			// Start
+			start = System.currentTimeMillis();
+			mainLog.print("\nSampling progress: [");
+			mainLog.flush();
 
-			iters++;
+			// Main sampling loop
+			iters = 0;
+			while (!shouldStopSampling) {
 
-			// Start the new path for this iteration (sample)
-			initialisePath(initialState);
+				// See if all properties are done; if so, stop sampling
+				allDone = true;
+				for (Sampler sampler : propertySamplers) {
+					if (!sampler.getSimulationMethod().shouldStopNow(iters, sampler))
+						allDone = false;
+				}
+				if (allDone)
+					break;
 
-			// Generate a path
-			allKnown = false;
-			someUnknownButBounded = false;
-			i = 0;
-			while ((!allKnown && i < maxPathLength) || someUnknownButBounded) {
-				// Check status of samplers
-				allKnown = true;
-				someUnknownButBounded = false;
+				// Display progress (of slowest property)
+				percentageDone = 100;
 				for (Sampler sampler : propertySamplers) {
-					if (!sampler.isCurrentValueKnown()) {
-						allKnown = false;
-						if (sampler.needsBoundedNumSteps())
-							someUnknownButBounded = true;
+					percentageDone = Math.min(percentageDone, sampler.getSimulationMethod().getProgress(iters, sampler));
+				}
+				if (percentageDone > lastPercentageDone) {
+					lastPercentageDone = percentageDone;
+					mainLog.print(" " + lastPercentageDone + "%");
+					mainLog.flush();
+				}
+
+				iters++;
+
+				// Generate a path (sample), or get the next one generated by the workers
+				// (sequentially, a new random number stream is used for every PATHS_PER_TASK paths, as by the workers)
+				SampledPath sample;
+				if (workers == null) {
+					if ((iters - 1) % PATHS_PER_TASK == 0) {
+						rng = new RandomNumberGenerator(seedGenerator.nextInt());
 					}
+					sample = samplePath(initialState, maxPathLength);
+				} else {
+					sample = workers.next();
 				}
-				// Stop when all answers are known or we have reached max path length
-				// (but don't stop yet if there are "bounded" samplers with unkown values)
-				if ((allKnown || i >= maxPathLength) && !someUnknownButBounded)
-					break;
-				// Make a random transition
-				automaticTransition();
-				i++;
-			}
+				i = sample.length;
+				allKnown = sample.values != null;
 
-			// TODO: Detect deadlocks so we can report a warning
+				// TODO: Detect deadlocks so we can report a warning
 
-			// Update path length statistics
-			avgPathLength = (avgPathLength * (iters - 1) + (i)) / iters;
-			minPathFound = (iters == 1) ? i : Math.min(minPathFound, i);
-			maxPathFound = (iters == 1) ? i : Math.max(maxPathFound, i);
+				// Update path length statistics
+				avgPathLength = (avgPathLength * (iters - 1) + (i)) / iters;
+				minPathFound = (iters == 1) ? i : Math.min(minPathFound, i);
+				maxPathFound = (iters == 1) ? i : Math.max(maxPathFound, i);
 
-			// If not all samplers could produce values, this an error
-			if (!allKnown) {
-				stoppedEarly = true;
-				break;
-			}
+				// If not all samplers could produce values, this an error
+				if (!allKnown) {
+					stoppedEarly = true;
+					break;
+				}
 
-			// Update state of samplers based on last path
-			for (Sampler sampler : propertySamplers) {
-				sampler.updateStats();
+				// Update state of samplers based on last path
+				for (int j = 0; j < propertySamplers.size(); j++) {
+					propertySamplers.get(j).updateStats(sample.values[j]);
+				}
+			}
+		} finally {
+			if (workers != null) {
+				workers.shutdown();
 			}
+			explicitSimulator = null;
 		}
 
 		// Print details
@@ -1813,6 +1895,164 @@ public class SimulatorEngine extends PrismComponent
 		}
 	}
 
+	/**
+	 * Generate a single sample path for the currently loaded properties,
+	 * from the specified initial state and of at most the specified length
+	 * (unless there are "bounded" samplers with unknown values).
+	 * If sampling on a built model, the path is generated by {@code explicitSimulator}.
+	 * @param initialState Initial state (if null, is selected randomly)
+	 * @param maxPathLength The maximum path length for sampling
+	 * @return the length of the path and, iff all samplers know their value, the values
+	 */
+	private SampledPath samplePath(State initialState, long maxPathLength) throws PrismException
+	{
+		boolean allKnown = false;
+		boolean someUnknownButBounded = false;
+		long i;
+
+		if (explicitSimulator != null) {
+			return explicitSimulator.samplePath(explicitInitialState, maxPathLength, rng);
+		}
+
+		// Start the new path for this iteration (sample)
+		initialisePath(initialState);
+
+		// Generate a path
+		i = 0;
+		while ((!allKnown && i < maxPathLength) || someUnknownButBounded) {
+			// Check status of samplers
+			allKnown = true;
+			someUnknownButBounded = false;
+			for (Sampler sampler : propertySamplers) {
+				if (!sampler.isCurrentValueKnown()) {
+					allKnown = false;
+					if (sampler.needsBoundedNumSteps())
+						someUnknownButBounded = true;
+				}
+			}
+			// Stop when all answers are known or we have reached max path length
+			// (but don't stop yet if there are "bounded" samplers with unkown values)
+			if ((allKnown || i >= maxPathLength) && !someUnknownButBounded)
+				break;
+			// Make a random transition
+			automaticTransition();
+			i++;
+		}
+
+		if (!allKnown) {
+			return new SampledPath(i, null);
+		}
+		Object[] values = new Object[propertySamplers.size()];
+		for (int j = 0; j < values.length; j++) {
+			values[j] = propertySamplers.get(j).getCurrentValue();
+		}
+		return new SampledPath(i, values);
+	}
+
+	/**
+	 * Length and values (one per loaded property) of a sample path.
+	 * The values are null if not all samplers could produce a value.
+	 */
+	static class SampledPath
+	{
+		private final long length;
+		private final Object[] values;
+
+		SampledPath(long length, Object[] values)
+		{
+			this.length = length;
+			this.values = values;
+		}
+	}
+
+	/**
+	 * Worker threads for parallel sampling.
+	 * Each worker is a copy of this engine with its own on-the-fly path, updater and samplers.
+	 * Paths are generated in rounds of one task per worker, each of {@code PATHS_PER_TASK} paths.
+	 * Every task has its own random number stream, seeded from {@code seedGenerator} in the order of the tasks,
+	 * and the paths are returned in the same order, so that (for a fixed seed) the sequence of paths,
+	 * and thus the results, are independent of the number of threads and of their scheduling.
+	 */
+	private class SamplingWorkers
+	{
+		private final SimulatorEngine[] engines;
+		private final ExecutorService executor;
+		private final State initialState;
+		private final long maxPathLength;
+		// Paths generated (in the current round) but not yet returned
+		private final ArrayDeque<SampledPath> generated = new ArrayDeque<SampledPath>();
+
+		private SamplingWorkers(int numThreads, State initialState, long maxPathLength) throws PrismException
+		{
+			this.initialState = initialState;
+			this.maxPathLength = maxPathLength;
+			engines = new SimulatorEngine[numThreads];
+			for (int t = 0; t < numThreads; t++) {
+				SimulatorEngine engine = new SimulatorEngine(SimulatorEngine.this);
+				engine.createNewOnTheFlyPath(modulesFile);
+				// Copies of the (already processed) properties, with new samplers
+				for (Expression prop : properties) {
+					Expression propCopy = prop.deepCopy();
+					engine.properties.add(propCopy);
+					engine.propertySamplers.add(Sampler.createSampler(propCopy, modulesFile));
+				}
+				// Share the (immutable) backend for the built model, if any
+				engine.explicitSimulator = explicitSimulator;
+				engine.explicitInitialState = explicitInitialState;
+				engines[t] = engine;
+			}
+			executor = Executors.newFixedThreadPool(numThreads);
+		}
+
+		/**
+		 * Get the next sample path, generating a new round of paths if needed.
+		 */
+		private SampledPath next() throws PrismException
+		{
+			if (generated.isEmpty()) {
+				generateRound();
+			}
+			return generated.poll();
+		}
+
+		/**
+		 * Generate a round of paths, one task per worker.
+		 */
+		private void generateRound() throws PrismException
+		{
+			List<Callable<List<SampledPath>>> tasks = new ArrayList<Callable<List<SampledPath>>>(engines.length);
+			for (SimulatorEngine engine : engines) {
+				int seed = seedGenerator.nextInt();
+				tasks.add(() -> {
+					engine.rng = new RandomNumberGenerator(seed);
+					List<SampledPath> paths = new ArrayList<SampledPath>(PATHS_PER_TASK);
+					for (int k = 0; k < PATHS_PER_TASK; k++) {
+						paths.add(engine.samplePath(initialState, maxPathLength));
+					}
+					return paths;
+				});
+			}
+			try {
+				for (Future<List<SampledPath>> future : executor.invokeAll(tasks)) {
+					generated.addAll(future.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PrismException("Sampling was interrupted");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof PrismException) {
+					throw (PrismException) e.getCause();
+				}
+				throw new PrismException("Sampling failed: " + e.getCause());
+			}
+		}
+
+		private void shutdown()
+		{
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Halt the sampling algorithm in its tracks (not implemented).
 	 */
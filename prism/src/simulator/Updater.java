@@ -29,12 +29,19 @@ package simulator;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
+import parser.ExpressionCompiler;
+import parser.ExpressionCompiler.BooleanEvaluator;
+import parser.ExpressionCompiler.DoubleEvaluator;
+import parser.ExpressionCompiler.ValueEvaluator;
 import parser.State;
 import parser.VarList;
 import parser.ast.Command;
+import parser.ast.Expression;
 import parser.ast.Module;
 import parser.ast.ModulesFile;
 import parser.ast.RewardStruct;
@@ -55,6 +62,8 @@ public class Updater extends PrismComponent
 	protected double sumRoundOff = 1e-5;
 	// True = exponential GSMP events are allowed to be synchronized
 	protected boolean expSyncBackwardCompatible = true;
+	// Do we compile the expressions of the model (rather than interpret them)?
+	protected boolean doCompileExpressions = true;
 	
 	// Info on model being explored
 	protected ModulesFile modulesFile;
@@ -67,6 +76,16 @@ public class Updater extends PrismComponent
 	protected int synchModuleCounts[];
 	// Model info/stats
 	protected int numRewardStructs;
+	// Compiled expressions (null if not compiled):
+	// Element i,j of compiledGuards is the guard of the jth command of module i
+	protected BooleanEvaluator compiledGuards[][];
+	// Elements i,j of compiledRewardGuards/compiledRewards are the guard/reward of the jth item of reward struct i
+	protected BooleanEvaluator compiledRewardGuards[][];
+	protected DoubleEvaluator compiledRewards[][];
+	// Compiled probabilities/rates of each Updates object and compiled expressions of each Update object of the commands
+	// (kept here rather than in the model, so that whether expressions are compiled only depends on the setting of this Updater)
+	protected Map<Updates, DoubleEvaluator[]> compiledProbs;
+	protected Map<Update, ValueEvaluator[]> compiledUpdates;
 
 	// Temporary storage:
 
@@ -91,6 +110,7 @@ public class Updater extends PrismComponent
 		doProbChecks = parent.getSettings().getBoolean(PrismSettings.PRISM_DO_PROB_CHECKS);
 		sumRoundOff = parent.getSettings().getDouble(PrismSettings.PRISM_SUM_ROUND_OFF);
 		expSyncBackwardCompatible = parent.getSettings().getBoolean(PrismSettings.PRISM_EXP_SYNC_BACKWARD_COMPATIBLE);
+		doCompileExpressions = parent.getSettings().getBoolean(PrismSettings.PRISM_COMPILE_EXPRESSIONS);
 		
 		// Get info from model
 		this.modulesFile = modulesFile;
@@ -131,6 +151,10 @@ public class Updater extends PrismComponent
 		for (int j = 0; j < numSynchs + 1; j++) {
 			enabledModules[j] = new BitSet(numModules);
 		}
+
+		if (doCompileExpressions) {
+			compileExpressions();
+		}
 	}
 
 	/**
@@ -284,8 +308,7 @@ public class Updater extends PrismComponent
 			d = 0.0;
 			for (j = 0; j < n; j++) {
 				if (!rw.getRewardStructItem(j).isTransitionReward())
-					if (rw.getStates(j).evaluateBoolean(state))
-						d += rw.getReward(j).evaluateDouble(state);
+					d += evaluateRewardItem(i, j, state);
 			}
 			store[i] = d;
 		}
@@ -309,8 +332,7 @@ public class Updater extends PrismComponent
 			for (j = 0; j < n; j++) {
 				if (rw.getRewardStructItem(j).isTransitionReward())
 					if (rw.getRewardStructItem(j).getSynchIndex() == Math.max(0, ch.getModuleOrActionIndex()))
-						if (rw.getStates(j).evaluateBoolean(state))
-							d += rw.getReward(j).evaluateDouble(state);
+						d += evaluateRewardItem(i, j, state);
 			}
 			store[i] = d;
 		}
@@ -318,6 +340,60 @@ public class Updater extends PrismComponent
 	
 	// Private helpers
 	
+	/**
+	 * Compile the guards, probabilities/rates and updates of the commands and the items of the reward structures.
+	 */
+	protected void compileExpressions()
+	{
+		compiledGuards = new BooleanEvaluator[numModules][];
+		compiledProbs = new IdentityHashMap<Updates, DoubleEvaluator[]>();
+		compiledUpdates = new IdentityHashMap<Update, ValueEvaluator[]>();
+		for (int m = 0; m < numModules; m++) {
+			Module module = modulesFile.getModule(m);
+			compiledGuards[m] = new BooleanEvaluator[module.getNumCommands()];
+			for (int i = 0; i < module.getNumCommands(); i++) {
+				compiledGuards[m][i] = ExpressionCompiler.compileBoolean(module.getCommand(i).getGuard());
+				Updates ups = module.getCommand(i).getUpdates();
+				DoubleEvaluator probs[] = new DoubleEvaluator[ups.getNumUpdates()];
+				for (int j = 0; j < ups.getNumUpdates(); j++) {
+					Expression p = ups.getProbability(j);
+					probs[j] = (p == null) ? (st -> 1.0) : ExpressionCompiler.compileDouble(p);
+					Update up = ups.getUpdate(j);
+					ValueEvaluator exprs[] = new ValueEvaluator[up.getNumElements()];
+					for (int k = 0; k < up.getNumElements(); k++) {
+						exprs[k] = ExpressionCompiler.compile(up.getExpression(k));
+					}
+					compiledUpdates.put(up, exprs);
+				}
+				compiledProbs.put(ups, probs);
+			}
+		}
+		compiledRewardGuards = new BooleanEvaluator[numRewardStructs][];
+		compiledRewards = new DoubleEvaluator[numRewardStructs][];
+		for (int r = 0; r < numRewardStructs; r++) {
+			RewardStruct rw = modulesFile.getRewardStruct(r);
+			compiledRewardGuards[r] = new BooleanEvaluator[rw.getNumItems()];
+			compiledRewards[r] = new DoubleEvaluator[rw.getNumItems()];
+			for (int j = 0; j < rw.getNumItems(); j++) {
+				compiledRewardGuards[r][j] = ExpressionCompiler.compileBoolean(rw.getStates(j));
+				compiledRewards[r][j] = ExpressionCompiler.compileDouble(rw.getReward(j));
+			}
+		}
+	}
+
+	/**
+	 * Evaluate the 'j'th item of the 'r'th reward structure in state 'state',
+	 * i.e. its reward if its guard is satisfied, and 0 otherwise.
+	 */
+	private double evaluateRewardItem(int r, int j, State state) throws PrismLangException
+	{
+		if (compiledRewards != null) {
+			return compiledRewardGuards[r][j].evaluate(state) ? compiledRewards[r][j].evaluate(state) : 0.0;
+		}
+		RewardStruct rw = modulesFile.getRewardStruct(r);
+		return rw.getStates(j).evaluateBoolean(state) ? rw.getReward(j).evaluateDouble(state) : 0.0;
+	}
+
 	/**
 	 * Determine the enabled updates for the 'm'th module from (global) state 'state'.
 	 * Update information in updateLists, enabledSynchs and enabledModules.
@@ -334,7 +410,7 @@ public class Updater extends PrismComponent
 		n = module.getNumCommands();
 		for (i = 0; i < n; i++) {
 			command = module.getCommand(i);
-			if (command.getGuard().evaluateBoolean(state)) {
+			if (compiledGuards != null ? compiledGuards[m][i].evaluate(state) : command.getGuard().evaluateBoolean(state)) {
 				j = command.getSynchIndex();
 				updateLists.get(m).get(j).add(command.getUpdates());
 				enabledSynchs.set(j);
@@ -358,15 +434,17 @@ public class Updater extends PrismComponent
 		int i, n;
 		double p, sum;
 
+		DoubleEvaluator compiled[] = (compiledProbs == null) ? null : compiledProbs.get(ups);
 		// Create choice and add all info
 		ch = new ChoiceListFlexi();
 		ch.expSyncBackwardCompatible = expSyncBackwardCompatible;
+		ch.compiledUpdates = compiledUpdates;
 		ch.setModuleOrActionIndex(moduleOrActionIndex);
 		n = ups.getNumUpdates();
 		sum = 0;
 		for (i = 0; i < n; i++) {
 			// Compute probability/rate
-			p = ups.getProbabilityInState(i, state);
+			p = (compiled == null) ? ups.getProbabilityInState(i, state) : compiled[i].evaluate(state);
 			// Check for negative/NaN probabilities/rates
 			if (Double.isNaN(p) || p < 0) {
 				String s = modelType.choicesSumToOne() ? "Probability" : "Rate";
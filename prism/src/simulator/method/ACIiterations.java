@@ -28,7 +28,7 @@
 package simulator.method;
 
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 import cern.jet.stat.Probability;
 
 /**
@@ -125,7 +125,7 @@ public final class ACIiterations extends CIMethod
 	}
 
 	@Override
-	public boolean shouldStopNow(int iters, Sampler sampler)
+	public boolean shouldStopNow(int iters, SampleStatistics sampler)
 	{
 		double quantile = 0.0;
 
@@ -157,7 +157,7 @@ public final class ACIiterations extends CIMethod
 	}
 
 	@Override
-	public int getProgress(int iters, Sampler sampler)
+	public int getProgress(int iters, SampleStatistics sampler)
 	{
 		// 2 iterations needed to compute variance of the sampler
 		if (sampler.getVariance() <= 0.0 || iters < 2)
@@ -32,7 +32,7 @@ import parser.ast.ExpressionProb;
 import parser.ast.ExpressionReward;
 import parser.ast.RelOp;
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 
 /**
  * SimulationMethod class(es) for the APMC ("approximate probabilistic model checking")
@@ -130,20 +130,20 @@ public abstract class APMCMethod extends SimulationMethod
 	public abstract String getParametersString();
 	
 	@Override
-	public boolean shouldStopNow(int iters, Sampler sampler)
+	public boolean shouldStopNow(int iters, SampleStatistics sampler)
 	{
 		return iters >= numSamples;
 	}
 
 	@Override
-	public int getProgress(int iters, Sampler sampler)
+	public int getProgress(int iters, SampleStatistics sampler)
 	{
 		// Easy: percentage of iters done so far
 		return ((10 * iters) / numSamples) * 10;
 	}
 
 	@Override
-	public Object getResult(Sampler sampler) throws PrismException
+	public Object getResult(SampleStatistics sampler) throws PrismException
 	{
 		double estimate = sampler.getMeanValue();
 		switch (prOp) {
@@ -169,7 +169,7 @@ public abstract class APMCMethod extends SimulationMethod
 	}
 	
 	@Override
-	public String getResultExplanation(Sampler sampler){
+	public String getResultExplanation(SampleStatistics sampler){
 		return "Pr(|ans - " + sampler.getMeanValue() + "| < " + approximation + ") > " + (1.0 - confidence);
 	}
 }
@@ -28,7 +28,7 @@
 package simulator.method;
 
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 
 /**
  * SimulationMethod class for the APMC ("approximate probabilistic model checking")
@@ -68,7 +68,7 @@ public class APMCapproximation extends APMCMethod
 	}
 
 	@Override
-	public Object getResult(Sampler sampler) throws PrismException
+	public Object getResult(SampleStatistics sampler) throws PrismException
 	{
 		// We may use 'approximation' to compute the result, so compute if necessary
 		// (this should never happen)
@@ -32,7 +32,7 @@ import parser.ast.ExpressionProb;
 import parser.ast.ExpressionReward;
 import parser.ast.RelOp;
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 
 /**
  * SimulationMethod class(es) for the CI ("confidence interval") approach.
@@ -125,12 +125,12 @@ public abstract class CIMethod extends SimulationMethod
 
 	public abstract String getParametersString();
 
-	public abstract boolean shouldStopNow(int iters, Sampler sampler);
+	public abstract boolean shouldStopNow(int iters, SampleStatistics sampler);
 
-	public abstract int getProgress(int iters, Sampler sampler);
+	public abstract int getProgress(int iters, SampleStatistics sampler);
 
 	@Override
-	public Object getResult(Sampler sampler) throws PrismException
+	public Object getResult(SampleStatistics sampler) throws PrismException
 	{
 		double mean = sampler.getMeanValue();
 		//double variance = sampler.getVariance();
@@ -160,7 +160,7 @@ public abstract class CIMethod extends SimulationMethod
 	}
 
 	@Override
-	public String getResultExplanation(Sampler sampler) throws PrismException
+	public String getResultExplanation(SampleStatistics sampler) throws PrismException
 	{
 		return "confidence interval is " + sampler.getMeanValue() + " +/- " + width + ", based on " + (100.0 * (1.0 - confidence)) + "% confidence level";
 	}
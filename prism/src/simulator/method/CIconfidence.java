@@ -28,7 +28,7 @@
 package simulator.method;
 
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 import cern.jet.stat.Probability;
 
 /**
@@ -89,7 +89,7 @@ public final class CIconfidence extends CIMethod
 	}
 
 	@Override
-	public boolean shouldStopNow(int iters, Sampler sampler)
+	public boolean shouldStopNow(int iters, SampleStatistics sampler)
 	{
 		if (iters >= numSamples) {
 			// Store final variance for confidence computation later
@@ -100,7 +100,7 @@ public final class CIconfidence extends CIMethod
 	}
 
 	@Override
-	public int getProgress(int iters, Sampler sampler)
+	public int getProgress(int iters, SampleStatistics sampler)
 	{
 		// Easy: percentage of iters done so far
 		return ((10 * iters) / numSamples) * 10;
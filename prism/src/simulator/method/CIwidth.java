@@ -28,7 +28,7 @@
 package simulator.method;
 
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 import cern.jet.stat.Probability;
 
 /**
@@ -85,7 +85,7 @@ public final class CIwidth extends CIMethod
 	}
 
 	@Override
-	public boolean shouldStopNow(int iters, Sampler sampler)
+	public boolean shouldStopNow(int iters, SampleStatistics sampler)
 	{
 		if (iters >= numSamples) {
 			// Store final variance for confidence computation later
@@ -96,14 +96,14 @@ public final class CIwidth extends CIMethod
 	}
 
 	@Override
-	public int getProgress(int iters, Sampler sampler)
+	public int getProgress(int iters, SampleStatistics sampler)
 	{
 		// Easy: percentage of iters done so far
 		return ((10 * iters) / numSamples) * 10;
 	}
 
 	@Override
-	public Object getResult(Sampler sampler) throws PrismException
+	public Object getResult(SampleStatistics sampler) throws PrismException
 	{
 		// We may use 'width' to compute the result, so compute if necessary
 		// (this should never happen)
@@ -113,7 +113,7 @@ public final class CIwidth extends CIMethod
 	}
 
 	@Override
-	public String getResultExplanation(Sampler sampler) throws PrismException
+	public String getResultExplanation(SampleStatistics sampler) throws PrismException
 	{
 		// We may use 'width' to compute the result, so compute if necessary
 		// (this should never happen)
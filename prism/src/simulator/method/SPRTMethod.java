@@ -32,8 +32,8 @@ import parser.ast.ExpressionProb;
 import parser.ast.ExpressionReward;
 import parser.ast.RelOp;
 import prism.PrismException;
-import simulator.sampler.Sampler;
-import simulator.sampler.SamplerDouble;
+import simulator.sampler.SampleStatistics;
+import simulator.sampler.SamplerBoolean;
 
 /**
  * SimulationMethod class for the SPRT (Sequential probability ratio test) approach,
@@ -182,7 +182,7 @@ public final class SPRTMethod extends SimulationMethod
 	}
 
 	@Override
-	public boolean shouldStopNow(int iters, Sampler sampler)
+	public boolean shouldStopNow(int iters, SampleStatistics sampler)
 	{
 		// Too soon
 		if (iters < 2)
@@ -194,7 +194,7 @@ public final class SPRTMethod extends SimulationMethod
 		} catch (PrismException e) {
 			return false;
 		}
-		if (sampler instanceof SamplerDouble && (likelihoodRatio <= 0.0 || Double.isInfinite(likelihoodRatio)))
+		if (!(sampler instanceof SamplerBoolean) && (likelihoodRatio <= 0.0 || Double.isInfinite(likelihoodRatio)))
 			return false;
 
 		// Accept H0
@@ -216,21 +216,21 @@ public final class SPRTMethod extends SimulationMethod
 	}
 
 	@Override
-	public int getProgress(int iters, Sampler sampler)
+	public int getProgress(int iters, SampleStatistics sampler)
 	{
 		// No good measure of progress unfortunately
 		return 0;
 	}
 
 	@Override
-	public Object getResult(Sampler sampler) throws PrismException
+	public Object getResult(SampleStatistics sampler) throws PrismException
 	{
 		// Is hypothesis H0 true?
 		return new Boolean(h0true);
 	}
 
 	@Override
-	public String getResultExplanation(Sampler sampler){
+	public String getResultExplanation(SampleStatistics sampler){
 		return computedIterations + " samples needed to decide property " + h0true;
 	}
 	
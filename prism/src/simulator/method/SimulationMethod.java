@@ -29,7 +29,7 @@ package simulator.method;
 
 import parser.ast.Expression;
 import prism.PrismException;
-import simulator.sampler.Sampler;
+import simulator.sampler.SampleStatistics;
 
 /**
  * Classes to control simulation-based (approximate/statistical) model checking.
@@ -96,14 +96,14 @@ public abstract class SimulationMethod implements Cloneable
 	/**
 	 * Determine whether or not simulation should stop now, based on the stopping
 	 * criteria of this method, and the current state of simulation (the number of
-	 * iterations so far and the corresponding Sampler object).
+	 * iterations so far and the corresponding statistics, e.g. Sampler object).
 	 * Note: This method may continue being called after 'true' is returned,
 	 * e.g. if multiple properties are being simulated simultaneously.
 	 * @param iters The number of iterations (samples) done so far
-	 * @param sampler The Sampler object for this simulation
+	 * @param sampler The statistics (e.g. a Sampler object) for this simulation
 	 * @return true if the simulation should stop, false otherwise
 	 */
-	public abstract boolean shouldStopNow(int iters, Sampler sampler);
+	public abstract boolean shouldStopNow(int iters, SampleStatistics sampler);
 
 	/**
 	 * Get an indication of progress so far for simulation, i.e. an approximate value
@@ -114,24 +114,24 @@ public abstract class SimulationMethod implements Cloneable
 	 * e.g. if multiple properties are being simulated simultaneously.
 	 * TODO: check methods for this
 	 * @param iters The number of iterations (samples) done so far
-	 * @param sampler The Sampler object for this simulation
+	 * @param sampler The statistics (e.g. a Sampler object) for this simulation
 	 */
-	public abstract int getProgress(int iters, Sampler sampler);
+	public abstract int getProgress(int iters, SampleStatistics sampler);
 
 	/**
 	 * Get the (approximate) result for the property that simulation is being used to approximate.
 	 * This should be a Boolean/Double for bounded/quantitative properties, respectively.
-	 * @param sampler The Sampler object for this simulation
+	 * @param sampler The statistics (e.g. a Sampler object) for this simulation
 	 * @throws PrismException if we can't get a result for some reason.
 	 */
-	public abstract Object getResult(Sampler sampler) throws PrismException;
+	public abstract Object getResult(SampleStatistics sampler) throws PrismException;
 	
 	/**
 	 * Get an explanation for the result of the simulation as a string.
-	 * @param sampler The Sampler object for this simulation (e.g. to get mean)
+	 * @param sampler The statistics for this simulation (e.g. to get mean)
 	 * @throws PrismException if we can't get a result for some reason.
 	 */
-	public abstract String getResultExplanation(Sampler sampler) throws PrismException;
+	public abstract String getResultExplanation(SampleStatistics sampler) throws PrismException;
 	
 	@Override
 	public abstract SimulationMethod clone();
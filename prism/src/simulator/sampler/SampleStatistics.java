@@ -0,0 +1,88 @@
+//==============================================================================
+//
+//	Copyright (c) 2018-
+//	Authors:
+//	* Mario Uhrik <433501@mail.muni.cz> (Masaryk University)
+//
+//------------------------------------------------------------------------------
+//
+//	This file is part of PRISM.
+//
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//
+//==============================================================================
+
+package simulator.sampler;
+
+import simulator.method.SimulationMethod;
+import prism.PrismException;
+
+/**
+ * Statistics (mean/variance) of a value over a number of samples, as used by a {@link SimulationMethod}
+ * to determine how many samples are required and how the final value is used.
+ * How the samples are obtained is left to subclasses, e.g. a {@link Sampler} derives them from simulation paths.
+ */
+public abstract class SampleStatistics
+{
+	protected SimulationMethod simulationMethod;
+
+	/**
+	 * Reset all statistics.
+	 */
+	public abstract void resetStats();
+
+	/**
+	 * Get the (estimated) mean value, over all samples seen.
+	 */
+	public abstract double getMeanValue();
+
+	/**
+	 * Get the (estimated) variance, over all samples seen.
+	 */
+	public abstract double getVariance();
+
+	/**
+	 * Get the ratio of the likelihoods for the distribution followed by the samples
+	 * with the given parameters for hypotheses H1 and H0).
+	 * @param p1 Probability (or expectation) for hypothesis H1
+	 * @param p0 Probability (or expectation) for hypothesis H0
+	 */
+	public abstract double getLikelihoodRatio(double p1, double p0) throws PrismException;
+
+	/**
+	 * Set the attached SimulationMethod object.
+	 */
+	public void setSimulationMethod(SimulationMethod simulationMethod)
+	{
+		this.simulationMethod = simulationMethod;
+	}
+
+	/**
+	 * Get the attached SimulationMethod object.
+	 */
+	public SimulationMethod getSimulationMethod()
+	{
+		return simulationMethod;
+	}
+
+	/**
+	 * Get an explanation of the result for the attached SimulationMethod object.
+	 * @throws PrismException if we can't get a result for some reason.
+	 */
+	public String getSimulationMethodResultExplanation() throws PrismException
+	{
+		return simulationMethod.getResultExplanation(this);
+	}
+}
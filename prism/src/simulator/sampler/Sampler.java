@@ -28,7 +28,6 @@
 package simulator.sampler;
 
 import simulator.*;
-import simulator.method.SimulationMethod;
 import parser.ast.*;
 import prism.PrismException;
 import prism.PrismLangException;
@@ -39,10 +38,9 @@ import prism.PrismLangException;
  * of this value over multiple traces. A Sampler can also be connected to a SimulationMethod object,
  * which is responsible for determining how many paths are required and how the final value is used.
  */
-public abstract class Sampler
+public abstract class Sampler extends SampleStatistics
 {
 	protected boolean valueKnown;
-	protected SimulationMethod simulationMethod;
 
 	/**
 	 * Is the current value of the sampler known, based on the path seen so far?
@@ -68,11 +66,6 @@ public abstract class Sampler
 	 */
 	public abstract void reset();
 
-	/**
-	 * Reset all statistics for the sampler.
-	 */
-	public abstract void resetStats();
-
 	/**
 	 * Update the current value of the sampler based on the current simulation path.
 	 * It is assumed that this is called at every step of the path.
@@ -88,53 +81,17 @@ public abstract class Sampler
 	public abstract void updateStats();
 
 	/**
-	 * Get the current value of the sampler.
+	 * Update the statistics for the sampler with the value of a path that was sampled elsewhere,
+	 * e.g. by a copy of this sampler in another thread (as returned by its {@link #getCurrentValue()}).
+	 * The current value of this sampler is overwritten.
 	 */
-	public abstract Object getCurrentValue();
+	public abstract void updateStats(Object pathValue);
 
 	/**
-	 * Get the (estimated) mean value from the sampler, over all paths seen.
-	 */
-	public abstract double getMeanValue();
-
-	/**
-	 * Get the (estimated) variance from the sampler, over all paths seen.
-	 */
-	public abstract double getVariance();
-
-	/**
-	 * Get the ratio of the likelihoods for the distribution followed by the samples of this sampler
-	 * with the given parameters for hypotheses H1 and H0).
-	 * @param p1 Probability (or expectation) for hypothesis H1
-	 * @param p0 Probability (or expectation) for hypothesis H0
+	 * Get the current value of the sampler.
 	 */
-	public abstract double getLikelihoodRatio(double p1, double p0) throws PrismException;
+	public abstract Object getCurrentValue();
 
-	/**
-	 * Set the attached SimulationMethod object.
-	 */
-	public void setSimulationMethod(SimulationMethod simulationMethod)
-	{
-		this.simulationMethod = simulationMethod;
-	}
-	
-	/**
-	 * Get the attached SimulationMethod object.
-	 */
-	public SimulationMethod getSimulationMethod()
-	{
-		return simulationMethod;
-	}
-	
-	/**
-	 * Get an explanation of the result for the attached SimulationMethod object.
-	 * @throws PrismException if we can't get a result for some reason.
-	 */
-	public String getSimulationMethodResultExplanation() throws PrismException
-	{
-		return simulationMethod.getResultExplanation(this);
-	}
-	
 	// Static methods for sampler creation
 
 	/**
@@ -69,6 +69,14 @@ public abstract class SamplerBoolean extends Sampler
 			numTrue++;
 	}
 
+	@Override
+	public void updateStats(Object pathValue)
+	{
+		// Undo the negation applied by getCurrentValue() 
+		value = ((Boolean) pathValue).booleanValue() != negated;
+		updateStats();
+	}
+
 	@Override
 	public Object getCurrentValue()
 	{
@@ -90,6 +90,13 @@ public abstract class SamplerDouble extends Sampler
 		numSamples++;
 	}
 
+	@Override
+	public void updateStats(Object pathValue)
+	{
+		value = ((Double) pathValue).doubleValue();
+		updateStats();
+	}
+
 	@Override
 	public Object getCurrentValue()
 	{